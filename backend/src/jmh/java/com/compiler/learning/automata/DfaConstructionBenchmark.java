@@ -0,0 +1,55 @@
+package com.compiler.learning.automata;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regex to DFA on a generated token specification: Thompson plus subset construction
+ * against the direct followpos construction, and minimization of the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DfaConstructionBenchmark {
+
+    @Param({"100", "1000"})
+    public int keywords;
+
+    private RegexTree tree;
+    private Dfa dfa;
+
+    @Setup
+    public void setUp() {
+        // Keywords plus identifier, number and whitespace rules, like a lexer specification
+        Random random = new Random(3);
+        StringBuilder spec = new StringBuilder();
+        for (int i = 0; i < keywords; i++) {
+            if (i > 0) spec.append('|');
+            int length = 3 + random.nextInt(8);
+            for (int k = 0; k < length; k++) spec.append((char) ('a' + random.nextInt(26)));
+        }
+        spec.append("|[a-z_][a-z0-9_]*|[0-9]+(\\.[0-9]+)?|\\s+");
+        tree = RegexParser.parse(spec.toString());
+        dfa = SubsetConstruction.build(ThompsonConstruction.build(tree), Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Dfa thompsonAndSubset() {
+        return SubsetConstruction.build(ThompsonConstruction.build(tree), Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Dfa followpos() {
+        return new FollowposConstruction(tree, Integer.MAX_VALUE).build();
+    }
+
+    @Benchmark
+    public DfaMinimizer.Result hopcroft() {
+        return DfaMinimizer.hopcroft(dfa, false);
+    }
+}
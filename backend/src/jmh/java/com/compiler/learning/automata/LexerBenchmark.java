@@ -0,0 +1,72 @@
+package com.compiler.learning.automata;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maximal-munch scanning of 1 MiB of C-like source, from a String and from a memory-mapped
+ * file. One operation is one full pass, so the throughput score in ops/s is the scan rate
+ * in MiB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+
+    private static final String SAMPLE = """
+        int main() {
+            float total = 0.5e3; // running sum
+            while (count <= 100) { total = total + count * 2; count = count + 1; }
+            /* done */ if (total != 0) return total; else return -1;
+        }
+        """;
+
+    private Lexer lexer;
+    private String source;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        lexer = new LexerGenerator()
+            .rule("IF", "if").rule("ELSE", "else").rule("WHILE", "while").rule("RETURN", "return")
+            .rule("INT", "int").rule("FLOAT", "float")
+            .rule("ID", "[a-zA-Z_][a-zA-Z0-9_]*")
+            .rule("NUM", "[0-9]+(\\.[0-9]+)?([eE][+\\-]?[0-9]+)?")
+            .rule("RELOP", "<|<=|>|>=|==|!=").rule("ASSIGN", "=").rule("OP", "[+\\-*/%]")
+            .rule("PUNCT", "[(){};,]")
+            .skip("WS", "\\s+").skip("COMMENT", "//[^\\n]*|/\\*([^*]|\\*+[^*/])*\\*+/")
+            .build();
+        StringBuilder text = new StringBuilder(1 << 20);
+        while (text.length() < 1 << 20) text.append(SAMPLE);
+        source = text.substring(0, 1 << 20);
+        file = Files.createTempFile("lexer-benchmark", ".c");
+        Files.writeString(file, source, StandardCharsets.ISO_8859_1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int scan() {
+        int[] count = {0};
+        lexer.scan(source, (type, start, end) -> count[0]++);
+        return count[0];
+    }
+
+    @Benchmark
+    public long scanMappedFile() throws IOException {
+        long[] count = {0};
+        lexer.scan(file, (type, offset, length) -> count[0]++);
+        return count[0];
+    }
+}
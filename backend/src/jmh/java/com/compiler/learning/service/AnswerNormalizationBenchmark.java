@@ -0,0 +1,33 @@
+package com.compiler.learning.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerNormalizationBenchmark {
+
+    @Param({"2", "16", "128"})
+    public int productions;
+
+    private String expected;
+    private String submitted;
+
+    @Setup
+    public void setUp() {
+        expected = BenchmarkGrammars.answer(productions, false);
+        submitted = BenchmarkGrammars.answer(productions, true);
+    }
+
+    /** Both sides are normalized on every verification, as in CompilerService.verifyAnswer. */
+    @Benchmark
+    public void normalizeAndCompare(Blackhole bh) {
+        bh.consume(CompilerService.normalizeAnswer(submitted).equals(CompilerService.normalizeAnswer(expected)));
+    }
+}
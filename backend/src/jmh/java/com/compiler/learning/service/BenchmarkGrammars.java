@@ -0,0 +1,98 @@
+package com.compiler.learning.service;
+
+/**
+ * Grammar and sentence shapes used by the benchmarks, scaled by a size parameter.
+ */
+final class BenchmarkGrammars {
+
+    private BenchmarkGrammars() {
+    }
+
+    /** Operator of precedence level {@code i}: a..z, then a1..z1 and so on. */
+    static String operator(int i) {
+        char letter = (char) ('a' + i % 26);
+        return i < 26 ? String.valueOf(letter) : letter + String.valueOf(i / 26);
+    }
+
+    /**
+     * LL(1) expression grammar with {@code levels} precedence levels, already free of left
+     * recursion: E0 -> E1 E0', E0' -> a E1 E0' | ε, ..., En -> ( E0 ) | id.
+     */
+    static String expressionGrammar(int levels) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < levels; i++) {
+            String e = "E" + i;
+            String next = "E" + (i + 1);
+            sb.append(e).append(" -> ").append(next).append(' ').append(e).append("'\n");
+            sb.append(e).append("' -> ").append(operator(i)).append(' ').append(next).append(' ')
+              .append(e).append("' | ε\n");
+        }
+        sb.append('E').append(levels).append(" -> ( E0 ) | id\n");
+        return sb.toString();
+    }
+
+    /**
+     * {@link #expressionGrammar} written for CHARACTER mode, where symbols are back to back:
+     * E0 -> E1E0', E0' -> aE1E0' | ε, ..., En -> (E0) | 1. Each operator is one character
+     * (a..z, then À onward) and 1 stands for an operand, so no terminal splits into pieces.
+     */
+    static String characterExpressionGrammar(int levels) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < levels; i++) {
+            String e = "E" + i;
+            String next = "E" + (i + 1);
+            char operator = (char) (i < 26 ? 'a' + i : 'À' + i - 26);
+            sb.append(e).append(" -> ").append(next).append(e).append("'\n");
+            sb.append(e).append("' -> ").append(operator).append(next).append(e).append("' | ε\n");
+        }
+        sb.append('E').append(levels).append(" -> (E0) | 1\n");
+        return sb.toString();
+    }
+
+    /** A sentence of {@code expressionGrammar(levels)} with about {@code tokens} tokens. */
+    static String expressionSentence(int levels, int tokens) {
+        StringBuilder sb = new StringBuilder("id");
+        int count = 1;
+        for (int i = 0; count + 2 <= tokens; i++) {
+            sb.append(' ').append(operator(i % levels)).append(" id");
+            count += 2;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Left-recursive grammar with {@code size} non-terminals, each directly left recursive and
+     * reaching the previous one: A0 -> A0 a | b, Ai -> Ai a | A(i-1) c | b.
+     */
+    static String leftRecursiveGrammar(int size) {
+        StringBuilder sb = new StringBuilder("A0 -> A0a | b\n");
+        for (int i = 1; i < size; i++) {
+            sb.append('A').append(i).append(" -> A").append(i).append("a | A").append(i - 1).append("c | b\n");
+        }
+        return sb.toString();
+    }
+
+    /** Grammar with {@code size} non-terminals whose alternatives share nested common prefixes. */
+    static String commonPrefixGrammar(int size) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append('S').append(i).append(" -> abcd | abce | abf | ag | h\n");
+        }
+        return sb.toString();
+    }
+
+    /** A student answer for {@code leftRecursiveGrammar(size)}, alternatives written in reverse order. */
+    static String answer(int size, boolean reversed) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (reversed) {
+                sb.append("A").append(i).append("' -> # | aA").append(i).append("'\n");
+                sb.append("A").append(i).append(" -> bA").append(i).append("'\n");
+            } else {
+                sb.append("A").append(i).append(" -> bA").append(i).append("'\n");
+                sb.append("A").append(i).append("' -> aA").append(i).append("' | ε\n");
+            }
+        }
+        return sb.toString();
+    }
+}
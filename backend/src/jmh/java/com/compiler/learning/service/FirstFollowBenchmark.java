@@ -0,0 +1,32 @@
+package com.compiler.learning.service;
+
+import com.compiler.learning.dto.FirstFollowResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirstFollowBenchmark {
+
+    @Param({"4", "32", "128"})
+    public int levels;
+
+    private final FirstFollowService firstFollowService = new FirstFollowService();
+    private String grammar;
+
+    @Setup
+    public void setUp() {
+        // FirstFollowService reads grammars in CHARACTER mode
+        grammar = BenchmarkGrammars.characterExpressionGrammar(levels);
+    }
+
+    @Benchmark
+    public FirstFollowResponse computeFirstFollow() {
+        return firstFollowService.computeFirstFollow(grammar);
+    }
+}
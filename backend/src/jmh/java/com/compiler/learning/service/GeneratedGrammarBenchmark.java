@@ -0,0 +1,76 @@
+package com.compiler.learning.service;
+
+import com.compiler.learning.dto.BatchParseResponse;
+import com.compiler.learning.dto.ParseTableResponse;
+import com.compiler.learning.grammar.CompiledGrammar;
+import com.compiler.learning.grammar.GrammarCompiler;
+import com.compiler.learning.grammar.GrammarGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LL(1) engine on random LL(1) grammars far larger than the stored textbook problems.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GeneratedGrammarBenchmark {
+
+    private static final int ALTERNATIVES = 4;
+
+    @Param({"1000", "10000", "100000"})
+    public int productions;
+
+    @Param({"1000", "1000000"})
+    public int inputTokens;
+
+    private LL1SolverService solverService;
+    private String grammar;
+    private List<String> input;
+
+    @Setup
+    public void setUp() {
+        solverService = new LL1SolverService(16, 1L << 30);
+        grammar = GrammarGenerator.grammar(new GrammarGenerator.Options()
+            .nonTerminals(productions / ALTERNATIVES)
+            .alternatives(ALTERNATIVES)
+            .terminals(64)
+            .epsilonDensity(0.2));
+        CompiledGrammar compiled = GrammarCompiler.compile(grammar, GrammarCompiler.SymbolMode.WHITESPACE);
+        input = List.of(GrammarGenerator.sentenceText(compiled, inputTokens, new Random(7)));
+        solverService.generateParseTable(grammar);
+    }
+
+    /** Compile, FIRST/FOLLOW and table construction; the cache is cleared before each call. */
+    @Benchmark
+    public ParseTableResponse generateParseTableCold(ColdCache cold) {
+        return solverService.generateParseTable(grammar);
+    }
+
+    /** Tokenize and recognize one long sentence with the cached table. */
+    @Benchmark
+    public BatchParseResponse recognize() {
+        return solverService.recognizeAll(grammar, input);
+    }
+
+    /** Streaming parse with no trace output: the per-step cost of the listener path. */
+    @Benchmark
+    public void streamParserNoTrace(Blackhole bh) {
+        solverService.streamParser(grammar, input.get(0), LL1SolverService.TraceMode.NONE, 1, bh::consume);
+    }
+
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void clear(GeneratedGrammarBenchmark benchmark) {
+            benchmark.solverService.clearCache();
+        }
+    }
+}
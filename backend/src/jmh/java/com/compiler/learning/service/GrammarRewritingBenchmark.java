@@ -0,0 +1,38 @@
+package com.compiler.learning.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrammarRewritingBenchmark {
+
+    @Param({"2", "8", "32"})
+    public int nonTerminals;
+
+    private final GrammarConversionService grammarConversionService = new GrammarConversionService();
+    private final LeftFactoringService leftFactoringService = new LeftFactoringService();
+    private String leftRecursive;
+    private String commonPrefix;
+
+    @Setup
+    public void setUp() {
+        leftRecursive = BenchmarkGrammars.leftRecursiveGrammar(nonTerminals);
+        commonPrefix = BenchmarkGrammars.commonPrefixGrammar(nonTerminals);
+    }
+
+    @Benchmark
+    public GrammarConversionService.ConversionResult convertLRGtoRRG() {
+        return grammarConversionService.convertLRGtoRRG(leftRecursive);
+    }
+
+    @Benchmark
+    public LeftFactoringService.FactoringResult performLeftFactoring() {
+        return leftFactoringService.performLeftFactoring(commonPrefix);
+    }
+}
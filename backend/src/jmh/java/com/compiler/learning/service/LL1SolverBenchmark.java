@@ -0,0 +1,86 @@
+package com.compiler.learning.service;
+
+import com.compiler.learning.dto.ParseSimulationResponse;
+import com.compiler.learning.dto.ParseTableResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LL1SolverBenchmark {
+
+    @Param({"4", "32", "128"})
+    public int levels;
+
+    private LL1SolverService solverService;
+    private String grammar;
+
+    @Setup
+    public void setUp() {
+        solverService = new LL1SolverService(256, 64L << 20);
+        grammar = BenchmarkGrammars.expressionGrammar(levels);
+        solverService.generateParseTable(grammar); // warm the grammar cache for the cached runs
+    }
+
+    /** Table lookup when the grammar is already in the cache. */
+    @Benchmark
+    public ParseTableResponse generateParseTableCached() {
+        return solverService.generateParseTable(grammar);
+    }
+
+    /** Full compile, FIRST/FOLLOW and table construction; the cache is cleared before each call. */
+    @Benchmark
+    public ParseTableResponse generateParseTableCold(ColdCache cold) {
+        return solverService.generateParseTable(grammar);
+    }
+
+    /** Rendered derivation text; it grows quadratically, so this only runs on short inputs. */
+    @Benchmark
+    public ParseSimulationResponse runParser(RenderedInput input) {
+        return solverService.runParser(grammar, input.sentence, false);
+    }
+
+    @Benchmark
+    public ParseSimulationResponse runParserCompactDerivation(CompactInput input) {
+        return solverService.runParser(grammar, input.sentence, true);
+    }
+
+    @State(Scope.Benchmark)
+    public static class RenderedInput {
+        @Param({"100", "1000"})
+        public int renderedTokens;
+
+        String sentence;
+
+        @Setup
+        public void setUp(LL1SolverBenchmark benchmark) {
+            sentence = BenchmarkGrammars.expressionSentence(benchmark.levels, renderedTokens);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CompactInput {
+        @Param({"100", "10000"})
+        public int inputTokens;
+
+        String sentence;
+
+        @Setup
+        public void setUp(LL1SolverBenchmark benchmark) {
+            sentence = BenchmarkGrammars.expressionSentence(benchmark.levels, inputTokens);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void clear(LL1SolverBenchmark benchmark) {
+            benchmark.solverService.clearCache();
+        }
+    }
+}
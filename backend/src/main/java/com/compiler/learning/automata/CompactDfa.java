@@ -0,0 +1,181 @@
+package com.compiler.learning.automata;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DFA transition table compressed by character equivalence classes.
+ *
+ * Two characters are equivalent when every state sends them to the same target, i.e. their
+ * columns in the table are equal. Columns are grouped by content, so a lexer that reads
+ * [a-zA-Z_] the same way everywhere needs one column for those 53 characters. Class 0 is
+ * the column of characters no transition reads (all dead).
+ *
+ * Characters map to classes through a two-level table: the high byte selects a page of
+ * 256 class IDs and identical pages are stored once, so the map for all 65,536 characters
+ * usually takes two or three pages. The table itself is a state × class matrix of shorts,
+ * or of ints when there are more states than a short can number.
+ */
+public final class CompactDfa {
+
+    private static final int PAGE = 256;
+
+    private final int stateCount;
+    private final int classCount;
+    private final int symbolCount;
+    private final int[] pageOffset;   // high byte -> offset of its page in classMap
+    private final int[] classMap;
+    private final short[] shortTable; // state * classCount + class, or null
+    private final int[] intTable;     // used when shortTable is null
+    private final int[] tokens;       // state -> token, -1 if not accepting
+
+    private CompactDfa(int stateCount, int classCount, int symbolCount, int[] pageOffset, int[] classMap,
+                       short[] shortTable, int[] intTable, int[] tokens) {
+        this.stateCount = stateCount;
+        this.classCount = classCount;
+        this.symbolCount = symbolCount;
+        this.pageOffset = pageOffset;
+        this.classMap = classMap;
+        this.shortTable = shortTable;
+        this.intTable = intTable;
+        this.tokens = tokens;
+    }
+
+    public static CompactDfa of(Dfa dfa) {
+        int states = dfa.stateCount();
+        int symbols = dfa.symbolCount();
+
+        // Class of each input symbol by column content; class 0 is the all-dead column
+        Map<Column, Integer> classes = new HashMap<>();
+        int[] dead = new int[states];
+        Arrays.fill(dead, Dfa.DEAD);
+        classes.put(new Column(dead), 0);
+        int[] symbolClass = new int[symbols];
+        int[][] columns = new int[symbols + 1][];
+        columns[0] = dead;
+        for (int a = 0; a < symbols; a++) {
+            int[] column = new int[states];
+            for (int s = 0; s < states; s++) column[s] = dfa.next(s, a);
+            Integer known = classes.putIfAbsent(new Column(column), classes.size());
+            symbolClass[a] = known != null ? known : classes.size() - 1;
+            if (known == null) columns[symbolClass[a]] = column;
+        }
+        int classCount = classes.size();
+
+        // Character -> class pages, identical pages shared
+        InputAlphabet alphabet = dfa.getAlphabet();
+        int[] pageOffset = new int[PAGE];
+        Map<Column, Integer> pages = new HashMap<>();
+        int[] classMap = new int[0];
+        for (int page = 0; page < PAGE; page++) {
+            int[] ids = new int[PAGE];
+            for (int low = 0; low < PAGE; low++) {
+                int symbol = alphabet.symbolOf((char) (page << 8 | low));
+                ids[low] = symbol < 0 ? 0 : symbolClass[symbol];
+            }
+            Integer offset = pages.get(new Column(ids));
+            if (offset == null) {
+                offset = classMap.length;
+                classMap = Arrays.copyOf(classMap, offset + PAGE);
+                System.arraycopy(ids, 0, classMap, offset, PAGE);
+                pages.put(new Column(ids), offset);
+            }
+            pageOffset[page] = offset;
+        }
+
+        short[] shortTable = null;
+        int[] intTable = null;
+        if (states <= Short.MAX_VALUE) {
+            shortTable = new short[states * classCount];
+            for (int c = 0; c < classCount; c++) {
+                for (int s = 0; s < states; s++) shortTable[s * classCount + c] = (short) columns[c][s];
+            }
+        } else {
+            intTable = new int[states * classCount];
+            for (int c = 0; c < classCount; c++) {
+                for (int s = 0; s < states; s++) intTable[s * classCount + c] = columns[c][s];
+            }
+        }
+        int[] tokens = new int[states];
+        for (int s = 0; s < states; s++) tokens[s] = dfa.token(s);
+        return new CompactDfa(states, classCount, symbols, pageOffset, classMap, shortTable, intTable, tokens);
+    }
+
+    public int stateCount() {
+        return stateCount;
+    }
+
+    /** Columns of the source DFA, i.e. symbols of its interval alphabet. */
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    /** Number of character classes, including class 0 for characters no transition reads. */
+    public int classCount() {
+        return classCount;
+    }
+
+    public int classOf(char c) {
+        return classMap[pageOffset[c >>> 8] + (c & 0xFF)];
+    }
+
+    /** Transition on a character class; {@link Dfa#DEAD} if none. */
+    public int next(int state, int charClass) {
+        return shortTable != null ? shortTable[state * classCount + charClass] : intTable[state * classCount + charClass];
+    }
+
+    public boolean isAccepting(int state) {
+        return tokens[state] >= 0;
+    }
+
+    /** Token (rule index) accepted in the state, -1 if it is not accepting. */
+    public int token(int state) {
+        return tokens[state];
+    }
+
+    public boolean accepts(CharSequence input) {
+        int state = 0;
+        for (int i = 0; i < input.length() && state != Dfa.DEAD; i++) {
+            state = next(state, classOf(input.charAt(i)));
+        }
+        return state != Dfa.DEAD && tokens[state] >= 0;
+    }
+
+    /** Size of a plain table with one int column per character. */
+    public long rawTableBytes() {
+        return (long) stateCount * 65_536 * Integer.BYTES;
+    }
+
+    /** Size of the int table over the interval alphabet the DFA was built on. */
+    public long intervalTableBytes() {
+        return (long) stateCount * symbolCount * Integer.BYTES;
+    }
+
+    /** Size of the compressed table plus the character-to-class map. */
+    public long tableBytes() {
+        long table = shortTable != null ? (long) shortTable.length * Short.BYTES : (long) intTable.length * Integer.BYTES;
+        return table + (long) (classMap.length + pageOffset.length) * Integer.BYTES;
+    }
+
+    /** int[] with content equality, for grouping columns and pages. */
+    private static final class Column {
+        private final int[] values;
+        private final int hash;
+
+        Column(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Column column && Arrays.equals(values, column.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.compiler.learning.automata;
+
+import java.util.BitSet;
+
+/**
+ * Deterministic automaton over an {@link InputAlphabet}: a dense row-major transition table
+ * with {@link #DEAD} for missing transitions. State 0 is the start state.
+ *
+ * A DFA built from several token rules also records which rule each accepting state
+ * accepts; a single-regex DFA accepts token 0.
+ */
+public final class Dfa {
+
+    public static final int DEAD = -1;
+
+    private final InputAlphabet alphabet;
+    private final int stateCount;
+    private final int[] table;
+    private final BitSet accepting;
+    private final int[] tokens;   // null when every accepting state accepts token 0
+
+    Dfa(InputAlphabet alphabet, int stateCount, int[] table, BitSet accepting) {
+        this(alphabet, stateCount, table, accepting, null);
+    }
+
+    Dfa(InputAlphabet alphabet, int stateCount, int[] table, BitSet accepting, int[] tokens) {
+        this.alphabet = alphabet;
+        this.stateCount = stateCount;
+        this.table = table;
+        this.accepting = accepting;
+        this.tokens = tokens;
+    }
+
+    public InputAlphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public int stateCount() {
+        return stateCount;
+    }
+
+    public int start() {
+        return 0;
+    }
+
+    public int symbolCount() {
+        return alphabet.size();
+    }
+
+    public int next(int state, int symbol) {
+        return table[state * alphabet.size() + symbol];
+    }
+
+    public boolean isAccepting(int state) {
+        return accepting.get(state);
+    }
+
+    /** Token (rule index) accepted in the state, -1 if it is not accepting. */
+    public int token(int state) {
+        if (!accepting.get(state)) return -1;
+        return tokens == null ? 0 : tokens[state];
+    }
+
+    public boolean accepts(CharSequence input) {
+        int state = 0;
+        for (int i = 0; i < input.length() && state != DEAD; i++) {
+            int symbol = alphabet.symbolOf(input.charAt(i));
+            state = symbol < 0 ? DEAD : table[state * alphabet.size() + symbol];
+        }
+        return state != DEAD && accepting.get(state);
+    }
+}
@@ -0,0 +1,404 @@
+package com.compiler.learning.automata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * DFA minimization by Hopcroft's partition refinement, with the textbook table-filling
+ * algorithm as a reference mode.
+ *
+ * The initial partition separates non-accepting states and, for lexer DFAs, accepting
+ * states by the token they accept. Missing transitions go to an implicit dead state, so both
+ * algorithms work on a complete automaton; the block that contains the dead state is
+ * dropped again from the result and unreachable states are ignored. The minimized DFA
+ * numbers its states in breadth-first order from the start state, so equal languages give
+ * identical tables.
+ *
+ * Hopcroft runs in O(n k log n) for n states and k symbols: blocks live in one array
+ * (each block a contiguous slice), splitting a block only touches the states that were
+ * marked, and only the smaller half of a split goes back on the worklist. Table filling is
+ * O(n² k) per pass and is limited to {@link #TABLE_FILLING_MAX_STATES} states.
+ */
+public final class DfaMinimizer {
+
+    public static final int TABLE_FILLING_MAX_STATES = 2_000;
+
+    /** One refinement step: the partition after it, over the original state numbers. */
+    public static final class Step {
+        private final int symbol;
+        private final int[][] blocks;
+
+        Step(int symbol, int[][] blocks) {
+            this.symbol = symbol;
+            this.blocks = blocks;
+        }
+
+        /** Symbol of the splitter (Hopcroft), -1 for the initial partition and table-filling passes. */
+        public int getSymbol() {
+            return symbol;
+        }
+
+        public int[][] getBlocks() {
+            return blocks;
+        }
+    }
+
+    public static final class Result {
+        private final Dfa dfa;
+        private final int[] stateMap;
+        private final List<Step> steps;
+
+        Result(Dfa dfa, int[] stateMap, List<Step> steps) {
+            this.dfa = dfa;
+            this.stateMap = stateMap;
+            this.steps = steps;
+        }
+
+        public Dfa getDfa() {
+            return dfa;
+        }
+
+        /** Minimized state of each original state, {@link Dfa#DEAD} if it was dead or unreachable. */
+        public int[] getStateMap() {
+            return stateMap;
+        }
+
+        /** Refinement steps, empty unless recording was requested. */
+        public List<Step> getSteps() {
+            return steps;
+        }
+    }
+
+    private final Dfa dfa;
+    private final int symbols;
+    private final int n;          // reachable states plus the dead state, which is n - 1
+    private final int[] original; // compact state -> original state
+    private final int[] delta;    // complete transition table over compact states
+    private final boolean recordSteps;
+    private final List<Step> steps = new ArrayList<>();
+
+    private DfaMinimizer(Dfa dfa, boolean recordSteps) {
+        this.dfa = dfa;
+        this.symbols = dfa.symbolCount();
+        this.recordSteps = recordSteps;
+
+        // Breadth-first numbering of the reachable states
+        int[] compact = new int[dfa.stateCount()];
+        Arrays.fill(compact, -1);
+        int[] order = new int[dfa.stateCount()];
+        int count = 0;
+        compact[0] = 0;
+        order[count++] = 0;
+        for (int head = 0; head < count; head++) {
+            for (int a = 0; a < symbols; a++) {
+                int t = dfa.next(order[head], a);
+                if (t != Dfa.DEAD && compact[t] < 0) {
+                    compact[t] = count;
+                    order[count++] = t;
+                }
+            }
+        }
+        this.n = count + 1;
+        this.original = Arrays.copyOf(order, count);
+        this.delta = new int[n * symbols];
+        for (int s = 0; s < count; s++) {
+            for (int a = 0; a < symbols; a++) {
+                int t = dfa.next(order[s], a);
+                delta[s * symbols + a] = t == Dfa.DEAD ? n - 1 : compact[t];
+            }
+        }
+        Arrays.fill(delta, (n - 1) * symbols, n * symbols, n - 1);
+    }
+
+    public static Result hopcroft(Dfa dfa, boolean recordSteps) {
+        return new DfaMinimizer(dfa, recordSteps).runHopcroft();
+    }
+
+    public static Result tableFilling(Dfa dfa, boolean recordSteps) {
+        if (dfa.stateCount() > TABLE_FILLING_MAX_STATES) {
+            throw new StateLimitExceededException(TABLE_FILLING_MAX_STATES);
+        }
+        return new DfaMinimizer(dfa, recordSteps).runTableFilling();
+    }
+
+    /** Token accepted by a compact state, -1 for non-accepting states and the dead state. */
+    private int token(int s) {
+        return s < n - 1 ? dfa.token(original[s]) : -1;
+    }
+
+    private Result runHopcroft() {
+        // Refinable partition: block b is elements[first[b] .. end[b]), marked states are
+        // moved to the front of their block and mid[b] is the end of the marked prefix.
+        int[] elements = new int[n];
+        int[] location = new int[n];
+        int[] blockOf = new int[n];
+        int[] first = new int[n];
+        int[] end = new int[n];
+        int[] mid = new int[n];
+        int blocks = 0;
+
+        // Initial blocks: accepting states grouped by token, then the non-accepting states
+        int tokenCount = 0;
+        for (int s = 0; s < n; s++) tokenCount = Math.max(tokenCount, token(s) + 1);
+        int[] sizes = new int[tokenCount + 1];
+        for (int s = 0; s < n; s++) sizes[classOf(s, tokenCount)]++;
+        int[] next = new int[tokenCount + 1];
+        for (int c = 0, at = 0; c <= tokenCount; c++) {
+            next[c] = at;
+            if (sizes[c] > 0) {
+                first[blocks] = at;
+                end[blocks] = at + sizes[c];
+                blocks++;
+            }
+            at += sizes[c];
+        }
+        for (int s = 0; s < n; s++) {
+            int at = next[classOf(s, tokenCount)]++;
+            elements[at] = s;
+            location[s] = at;
+        }
+        for (int b = 0; b < blocks; b++) {
+            mid[b] = first[b];
+            for (int i = first[b]; i < end[b]; i++) blockOf[elements[i]] = b;
+        }
+        if (recordSteps) steps.add(new Step(-1, snapshot(elements, first, end, blocks)));
+
+        // Predecessors by (target, symbol) in compressed rows
+        int[] predStart = new int[n * symbols + 1];
+        for (int s = 0; s < n; s++) {
+            for (int a = 0; a < symbols; a++) predStart[delta[s * symbols + a] * symbols + a + 1]++;
+        }
+        for (int i = 0; i < n * symbols; i++) predStart[i + 1] += predStart[i];
+        int[] preds = new int[n * symbols];
+        int[] fill = Arrays.copyOf(predStart, n * symbols);
+        for (int s = 0; s < n; s++) {
+            for (int a = 0; a < symbols; a++) preds[fill[delta[s * symbols + a] * symbols + a]++] = s;
+        }
+
+        // Worklist of (block, symbol) splitters; all initial blocks but the largest suffice
+        BitSet pending = new BitSet();
+        int[] work = new int[Math.max(16, blocks * symbols)];
+        int workSize = 0;
+        int largest = 0;
+        for (int b = 1; b < blocks; b++) {
+            if (end[b] - first[b] > end[largest] - first[largest]) largest = b;
+        }
+        for (int b = 0; b < blocks; b++) {
+            if (b == largest) continue;
+            for (int a = 0; a < symbols; a++) {
+                work[workSize++] = b * symbols + a;
+                pending.set(b * symbols + a);
+            }
+        }
+
+        int[] splitter = new int[n];
+        int[] touched = new int[n];
+        while (workSize > 0) {
+            int item = work[--workSize];
+            pending.clear(item);
+            int splitBlock = item / symbols;
+            int a = item % symbols;
+
+            // Copy the splitter first: its own block may be split while marking
+            int size = 0;
+            for (int i = first[splitBlock]; i < end[splitBlock]; i++) splitter[size++] = elements[i];
+
+            int touchedCount = 0;
+            for (int i = 0; i < size; i++) {
+                int target = splitter[i];
+                for (int p = predStart[target * symbols + a]; p < predStart[target * symbols + a + 1]; p++) {
+                    int s = preds[p];
+                    int b = blockOf[s];
+                    int at = location[s];
+                    if (at < mid[b]) continue; // already marked
+                    if (mid[b] == first[b]) touched[touchedCount++] = b;
+                    int other = elements[mid[b]];
+                    elements[at] = other;
+                    location[other] = at;
+                    elements[mid[b]] = s;
+                    location[s] = mid[b];
+                    mid[b]++;
+                }
+            }
+
+            boolean split = false;
+            for (int t = 0; t < touchedCount; t++) {
+                int b = touched[t];
+                if (mid[b] == end[b]) {
+                    mid[b] = first[b];
+                    continue;
+                }
+                // The marked prefix becomes a new block
+                int z = blocks++;
+                first[z] = first[b];
+                end[z] = mid[b];
+                mid[z] = first[z];
+                first[b] = mid[b];
+                for (int i = first[z]; i < end[z]; i++) blockOf[elements[i]] = z;
+                split = true;
+
+                int need = workSize + symbols;
+                if (need > work.length) work = Arrays.copyOf(work, Math.max(need, work.length * 2));
+                int smaller = end[z] - first[z] <= end[b] - first[b] ? z : b;
+                for (int c = 0; c < symbols; c++) {
+                    int add = pending.get(b * symbols + c) ? z : smaller;
+                    if (!pending.get(add * symbols + c)) {
+                        pending.set(add * symbols + c);
+                        work[workSize++] = add * symbols + c;
+                    }
+                }
+            }
+            if (split && recordSteps) record(a, snapshot(elements, first, end, blocks));
+        }
+        return result(blockOf);
+    }
+
+    /** Initial block index of a state: its token, with non-accepting states last. */
+    private int classOf(int s, int tokenCount) {
+        int token = token(s);
+        return token < 0 ? tokenCount : token;
+    }
+
+    private Result runTableFilling() {
+        // distinct[i * n + j] for i < j: the pair is known to be distinguishable
+        BitSet distinct = new BitSet();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (token(i) != token(j)) distinct.set(i * n + j);
+            }
+        }
+        if (recordSteps) steps.add(new Step(-1, snapshot(classes(distinct))));
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            BitSet marked = new BitSet();
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (distinct.get(i * n + j)) continue;
+                    for (int a = 0; a < symbols; a++) {
+                        int p = delta[i * symbols + a];
+                        int q = delta[j * symbols + a];
+                        if (p != q && distinct.get(Math.min(p, q) * n + Math.max(p, q))) {
+                            marked.set(i * n + j);
+                            break;
+                        }
+                    }
+                }
+            }
+            // Marks take effect after the pass, so each pass is one round of the table
+            if (!marked.isEmpty()) {
+                distinct.or(marked);
+                changed = true;
+                if (recordSteps) record(-1, snapshot(classes(distinct)));
+            }
+        }
+        return result(classes(distinct));
+    }
+
+    /** Block of each state under the equivalence "not distinguishable". */
+    private int[] classes(BitSet distinct) {
+        int[] blockOf = new int[n];
+        Arrays.fill(blockOf, -1);
+        int blocks = 0;
+        for (int i = 0; i < n; i++) {
+            if (blockOf[i] >= 0) continue;
+            blockOf[i] = blocks;
+            for (int j = i + 1; j < n; j++) {
+                if (blockOf[j] < 0 && !distinct.get(i * n + j)) blockOf[j] = blocks;
+            }
+            blocks++;
+        }
+        return blockOf;
+    }
+
+    private Result result(int[] blockOf) {
+        int dead = blockOf[n - 1];
+        int blockCount = 0;
+        for (int b : blockOf) blockCount = Math.max(blockCount, b + 1);
+
+        // Renumber blocks breadth-first from the start block, skipping the dead block
+        int[] number = new int[blockCount];
+        Arrays.fill(number, -1);
+        int[] representative = new int[blockCount];
+        for (int s = n - 1; s >= 0; s--) representative[blockOf[s]] = s;
+        int[] queue = new int[blockCount];
+        int count = 0;
+        if (blockOf[0] != dead) {
+            number[blockOf[0]] = count;
+            queue[count++] = blockOf[0];
+        }
+        for (int head = 0; head < count; head++) {
+            int s = representative[queue[head]];
+            for (int a = 0; a < symbols; a++) {
+                int b = blockOf[delta[s * symbols + a]];
+                if (b != dead && number[b] < 0) {
+                    number[b] = count;
+                    queue[count++] = b;
+                }
+            }
+        }
+
+        int[] table = new int[Math.max(1, count) * symbols];
+        BitSet accepting = new BitSet();
+        int[] tokens = new int[Math.max(1, count)];
+        Arrays.fill(tokens, -1);
+        if (count == 0) {
+            // Empty language: a single non-accepting start state
+            Arrays.fill(table, Dfa.DEAD);
+        }
+        for (int i = 0; i < count; i++) {
+            int s = representative[queue[i]];
+            tokens[i] = token(s);
+            if (tokens[i] >= 0) accepting.set(i);
+            for (int a = 0; a < symbols; a++) {
+                int b = blockOf[delta[s * symbols + a]];
+                table[i * symbols + a] = b == dead ? Dfa.DEAD : number[b];
+            }
+        }
+
+        int[] stateMap = new int[dfa.stateCount()];
+        Arrays.fill(stateMap, Dfa.DEAD);
+        for (int s = 0; s < n - 1; s++) {
+            int b = blockOf[s];
+            stateMap[original[s]] = b == dead ? Dfa.DEAD : number[b];
+        }
+        Dfa minimized = new Dfa(dfa.getAlphabet(), Math.max(1, count), table, accepting, tokens);
+        return new Result(minimized, stateMap, steps);
+    }
+
+    /** Adds a step unless it only separated the dead state, which snapshots leave out. */
+    private void record(int symbol, int[][] blocks) {
+        if (blocks.length > steps.get(steps.size() - 1).getBlocks().length) steps.add(new Step(symbol, blocks));
+    }
+
+    private int[][] snapshot(int[] elements, int[] first, int[] end, int blocks) {
+        int[] blockOf = new int[n];
+        for (int b = 0; b < blocks; b++) {
+            for (int i = first[b]; i < end[b]; i++) blockOf[elements[i]] = b;
+        }
+        return snapshot(blockOf);
+    }
+
+    /** Blocks as sorted lists of original states, the dead state left out, ordered by first state. */
+    private int[][] snapshot(int[] blockOf) {
+        int blockCount = 0;
+        for (int b : blockOf) blockCount = Math.max(blockCount, b + 1);
+        int[] sizes = new int[blockCount];
+        for (int s = 0; s < n - 1; s++) sizes[blockOf[s]]++;
+        int[][] byBlock = new int[blockCount][];
+        for (int b = 0; b < blockCount; b++) byBlock[b] = new int[sizes[b]];
+        Arrays.fill(sizes, 0);
+        for (int s = 0; s < n - 1; s++) byBlock[blockOf[s]][sizes[blockOf[s]]++] = original[s];
+        List<int[]> blocks = new ArrayList<>();
+        for (int[] block : byBlock) {
+            if (block.length == 0) continue;
+            Arrays.sort(block);
+            blocks.add(block);
+        }
+        blocks.sort((x, y) -> Integer.compare(x[0], y[0]));
+        return blocks.toArray(new int[0][]);
+    }
+}
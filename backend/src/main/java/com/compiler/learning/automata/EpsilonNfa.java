@@ -0,0 +1,78 @@
+package com.compiler.learning.automata;
+
+/**
+ * ε-NFA in Thompson normal form, stored as parallel arrays indexed by state ID.
+ *
+ * Every state has either one transition on a character range [lo, hi], up to two
+ * ε-transitions, or no transitions at all (the accept state). So each state needs just
+ * four ints: the label (lo = {@link #EPSILON} for ε) and two targets ({@link #NONE} when
+ * unused). There is one start state and one accept state.
+ */
+public final class EpsilonNfa {
+
+    public static final int EPSILON = -1;
+    public static final int NONE = -1;
+
+    private final int stateCount;
+    private final int start;
+    private final int accept;
+    private final int[] lo;
+    private final int[] hi;
+    private final int[] out1;
+    private final int[] out2;
+
+    EpsilonNfa(int stateCount, int start, int accept, int[] lo, int[] hi, int[] out1, int[] out2) {
+        this.stateCount = stateCount;
+        this.start = start;
+        this.accept = accept;
+        this.lo = lo;
+        this.hi = hi;
+        this.out1 = out1;
+        this.out2 = out2;
+    }
+
+    public int stateCount() {
+        return stateCount;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int accept() {
+        return accept;
+    }
+
+    /** True if the state's transitions are ε-moves (or it has none). */
+    public boolean isEpsilonState(int state) {
+        return lo[state] == EPSILON;
+    }
+
+    /** Lower bound of the state's character range, or EPSILON. */
+    public int lo(int state) {
+        return lo[state];
+    }
+
+    public int hi(int state) {
+        return hi[state];
+    }
+
+    /** First target: the character transition, or the first ε-move. NONE if absent. */
+    public int out1(int state) {
+        return out1[state];
+    }
+
+    /** Second ε-move, NONE if absent. */
+    public int out2(int state) {
+        return out2[state];
+    }
+
+    public int transitionCount() {
+        int count = 0;
+        for (int s = 0; s < stateCount; s++) {
+            if (out1[s] != NONE) count++;
+            if (out2[s] != NONE) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,230 @@
+package com.compiler.learning.automata;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Direct regex to DFA construction from the syntax tree (Aho, Sethi and Ullman), with no
+ * ε-NFA in between.
+ *
+ * Every symbol leaf is a position, numbered in postfix order, and the regex is augmented
+ * with an end marker # as the last position. One forward pass over the tree computes
+ * nullable, firstpos and lastpos bottom-up and fills the followpos table from the concat
+ * and star rules. A DFA state is then a set of positions: the start state is
+ * firstpos(r#), the successor on a symbol is the union of followpos(p) over the positions
+ * p in the state that match it, and a state is accepting when it contains #.
+ *
+ * Several rules r₁ … rₙ can be compiled together as (r₁#₁)|…|(rₙ#ₙ), one end marker per
+ * rule; an accepting state then accepts the rule with the smallest index among its markers,
+ * which is how a lexer gives earlier rules priority on equally long matches.
+ *
+ * All position sets are BitSets. A node's firstpos and lastpos are only read by its parent,
+ * so the parent takes over its children's sets instead of copying them. States are
+ * hash-consed like in {@link SubsetConstruction} and produce the same {@link Dfa} format.
+ */
+public final class FollowposConstruction {
+
+    private static final int SPARSE_FOLLOWPOS = 16;
+
+    private final RegexTree[] rules;
+    private final InputAlphabet alphabet;
+    private final int maxStates;
+    private final int positions;     // symbol leaves, then one end marker per rule
+    private final int markerBase;    // position of the end marker of rule 0
+    private final BitSet[] followpos;
+    private final int[] firstSymbol; // position -> symbol range of its leaf
+    private final int[] lastSymbol;
+    private BitSet start;
+    private boolean rootNullable;
+    private BitSet rootFirst;
+    private BitSet rootLast;
+
+    private StateSetTable sets;
+
+    public FollowposConstruction(RegexTree tree, int maxStates) {
+        this(new RegexTree[] {tree}, maxStates);
+    }
+
+    /** Combined construction for token rules in priority order. */
+    public FollowposConstruction(RegexTree[] rules, int maxStates) {
+        this.rules = rules;
+        this.alphabet = InputAlphabet.of(rules);
+        this.maxStates = Math.max(1, maxStates);
+        int symbols = 0;
+        for (RegexTree rule : rules) symbols += rule.symbolCount();
+        this.markerBase = symbols;
+        this.positions = symbols + rules.length;
+        this.followpos = new BitSet[positions];
+        this.firstSymbol = new int[positions];
+        this.lastSymbol = new int[positions];
+        computeFollowpos();
+    }
+
+    public static Dfa build(String regex, int maxStates) {
+        return new FollowposConstruction(RegexParser.parse(regex), maxStates).build();
+    }
+
+    public InputAlphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /** Number of positions including the end markers. */
+    public int positionCount() {
+        return positions;
+    }
+
+    /** Position of the end marker # of a rule. */
+    public int markerPosition(int rule) {
+        return markerBase + rule;
+    }
+
+    /** Positions that can follow position p (do not modify). */
+    public BitSet followpos(int p) {
+        return followpos[p];
+    }
+
+    /** Positions making up a DFA state after {@link #build} (do not modify). */
+    public BitSet positions(int state) {
+        return sets.get(state);
+    }
+
+    private void computeFollowpos() {
+        for (int p = 0; p < positions; p++) followpos[p] = new BitSet();
+        start = new BitSet();
+        int position = 0;
+        for (int r = 0; r < rules.length; r++) {
+            position = computeFollowpos(rules[r], position);
+            // Augmentation r#: the end marker follows lastpos(r) and is in firstpos(r#) if r is nullable
+            int marker = markerBase + r;
+            for (int i = rootLast.nextSetBit(0); i >= 0; i = rootLast.nextSetBit(i + 1)) followpos[i].set(marker);
+            start.or(rootFirst);
+            if (rootNullable) start.set(marker);
+        }
+    }
+
+    /**
+     * One postfix pass over a tree whose positions start at {@code position}: fills followpos,
+     * stores nullable, firstpos and lastpos of the root and returns the next free position.
+     */
+    private int computeFollowpos(RegexTree tree, int position) {
+        boolean[] nullable = new boolean[16];
+        BitSet[] first = new BitSet[16];
+        BitSet[] last = new BitSet[16];
+        int depth = 0;
+        for (int node = 0; node < tree.size(); node++) {
+            boolean n;
+            BitSet f;
+            BitSet l;
+            switch (tree.type(node)) {
+                case RegexTree.SYMBOL -> {
+                    int p = position++;
+                    firstSymbol[p] = alphabet.firstSymbolFrom(tree.lo(node));
+                    lastSymbol[p] = alphabet.firstSymbolFrom(tree.hi(node) + 1) - 1;
+                    n = false;
+                    f = new BitSet();
+                    f.set(p);
+                    l = new BitSet();
+                    l.set(p);
+                }
+                case RegexTree.EPSILON -> {
+                    n = true;
+                    f = new BitSet();
+                    l = new BitSet();
+                }
+                case RegexTree.CONCAT -> {
+                    depth--;
+                    boolean n2 = nullable[depth];
+                    BitSet f2 = first[depth];
+                    BitSet l2 = last[depth];
+                    depth--;
+                    boolean n1 = nullable[depth];
+                    BitSet f1 = first[depth];
+                    BitSet l1 = last[depth];
+                    for (int i = l1.nextSetBit(0); i >= 0; i = l1.nextSetBit(i + 1)) followpos[i].or(f2);
+                    n = n1 && n2;
+                    f = f1;
+                    if (n1) f.or(f2);
+                    l = l2;
+                    if (n2) l.or(l1);
+                }
+                case RegexTree.UNION -> {
+                    depth--;
+                    boolean n2 = nullable[depth];
+                    BitSet f2 = first[depth];
+                    BitSet l2 = last[depth];
+                    depth--;
+                    n = nullable[depth] || n2;
+                    f = first[depth];
+                    f.or(f2);
+                    l = last[depth];
+                    l.or(l2);
+                }
+                default -> { // STAR, PLUS, OPTIONAL
+                    depth--;
+                    n = nullable[depth] || tree.type(node) != RegexTree.PLUS;
+                    f = first[depth];
+                    l = last[depth];
+                    if (tree.type(node) != RegexTree.OPTIONAL) {
+                        for (int i = l.nextSetBit(0); i >= 0; i = l.nextSetBit(i + 1)) followpos[i].or(f);
+                    }
+                }
+            }
+            if (depth == nullable.length) {
+                nullable = Arrays.copyOf(nullable, depth * 2);
+                first = Arrays.copyOf(first, depth * 2);
+                last = Arrays.copyOf(last, depth * 2);
+            }
+            nullable[depth] = n;
+            first[depth] = f;
+            last[depth] = l;
+            depth++;
+        }
+        rootNullable = nullable[0];
+        rootFirst = first[0];
+        rootLast = last[0];
+        return position;
+    }
+
+    public Dfa build() {
+        int symbols = alphabet.size();
+        sets = new StateSetTable();
+        sets.intern(start, maxStates);
+        int[] table = new int[Math.max(1, 16 * symbols)];
+        BitSet accepting = new BitSet();
+        int[] tokens = new int[16];
+        BitSet[] moves = new BitSet[symbols];
+
+        // OR-ing a set costs a word per 64 positions up to its highest bit, so sparse
+        // followpos sets (a keyword's next letter) are applied bit by bit instead
+        int[][] followList = new int[positions][];
+        for (int p = 0; p < markerBase; p++) {
+            if (followpos[p].cardinality() <= SPARSE_FOLLOWPOS) followList[p] = followpos[p].stream().toArray();
+        }
+
+        for (int state = 0; state < sets.size(); state++) {
+            BitSet set = sets.get(state);
+            if (state == tokens.length) tokens = Arrays.copyOf(tokens, state * 2);
+            tokens[state] = set.nextSetBit(markerBase) - markerBase;
+            if (tokens[state] >= 0) accepting.set(state);
+            for (int p = set.nextSetBit(0); p >= 0 && p < markerBase; p = set.nextSetBit(p + 1)) {
+                int[] list = followList[p];
+                for (int a = firstSymbol[p]; a <= lastSymbol[p]; a++) {
+                    if (moves[a] == null) moves[a] = new BitSet();
+                    if (list == null) {
+                        moves[a].or(followpos[p]);
+                    } else {
+                        for (int q : list) moves[a].set(q);
+                    }
+                }
+            }
+            if ((state + 1) * symbols > table.length) table = Arrays.copyOf(table, table.length * 2);
+            for (int a = 0; a < symbols; a++) {
+                BitSet move = moves[a];
+                moves[a] = null;
+                table[state * symbols + a] = move == null ? Dfa.DEAD : sets.intern(move, maxStates);
+            }
+        }
+        return new Dfa(alphabet, sets.size(), Arrays.copyOf(table, sets.size() * symbols), accepting,
+            Arrays.copyOf(tokens, sets.size()));
+    }
+}
@@ -0,0 +1,125 @@
+package com.compiler.learning.automata;
+
+import java.util.Arrays;
+
+/**
+ * Input symbols of an automaton whose transitions are labelled with character ranges.
+ *
+ * The label boundaries cut the character space into disjoint intervals; every interval
+ * that some label covers becomes one symbol, so "[a-z]" and "x" yield the symbols a-w, x
+ * and y-z. Any transition label is then exactly a contiguous run of symbols, and a
+ * character maps to its symbol with one binary search.
+ */
+public final class InputAlphabet {
+
+    private final char[] lo;
+    private final char[] hi;
+
+    InputAlphabet(char[] lo, char[] hi) {
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    /** Alphabet induced by the labelled states of an ε-NFA. */
+    public static InputAlphabet of(EpsilonNfa nfa) {
+        int[] ranges = new int[2 * nfa.stateCount()];
+        int count = 0;
+        for (int s = 0; s < nfa.stateCount(); s++) {
+            if (nfa.isEpsilonState(s)) continue;
+            ranges[count++] = nfa.lo(s);
+            ranges[count++] = nfa.hi(s);
+        }
+        return fromRanges(ranges, count / 2);
+    }
+
+    /** Alphabet induced by the symbol leaves of regex syntax trees. */
+    public static InputAlphabet of(RegexTree... trees) {
+        int nodes = 0;
+        for (RegexTree tree : trees) nodes += tree.size();
+        int[] ranges = new int[2 * nodes];
+        int count = 0;
+        for (RegexTree tree : trees) {
+            for (int node = 0; node < tree.size(); node++) {
+                if (tree.type(node) != RegexTree.SYMBOL) continue;
+                ranges[count++] = tree.lo(node);
+                ranges[count++] = tree.hi(node);
+            }
+        }
+        return fromRanges(ranges, count / 2);
+    }
+
+    /** ranges holds (lo, hi) pairs. */
+    private static InputAlphabet fromRanges(int[] ranges, int rangeCount) {
+        int[] points = new int[2 * rangeCount];
+        int count = 0;
+        for (int r = 0; r < rangeCount; r++) {
+            points[count++] = ranges[2 * r];
+            points[count++] = ranges[2 * r + 1] + 1;
+        }
+        Arrays.sort(points, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || points[i] != points[unique - 1]) points[unique++] = points[i];
+        }
+
+        // Coverage of each elementary interval [points[i], points[i + 1])
+        int[] coverage = new int[Math.max(1, unique)];
+        for (int r = 0; r < rangeCount; r++) {
+            coverage[Arrays.binarySearch(points, 0, unique, ranges[2 * r])]++;
+            coverage[Arrays.binarySearch(points, 0, unique, ranges[2 * r + 1] + 1)]--;
+        }
+        char[] lo = new char[unique];
+        char[] hi = new char[unique];
+        int symbols = 0;
+        int covered = 0;
+        for (int i = 0; i + 1 < unique; i++) {
+            covered += coverage[i];
+            if (covered > 0) {
+                lo[symbols] = (char) points[i];
+                hi[symbols++] = (char) (points[i + 1] - 1);
+            }
+        }
+        return new InputAlphabet(Arrays.copyOf(lo, symbols), Arrays.copyOf(hi, symbols));
+    }
+
+    public int size() {
+        return lo.length;
+    }
+
+    public char lo(int symbol) {
+        return lo[symbol];
+    }
+
+    public char hi(int symbol) {
+        return hi[symbol];
+    }
+
+    /** Symbol containing character c, or -1 if no transition reads c. */
+    public int symbolOf(char c) {
+        int low = 0;
+        int high = lo.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (c < lo[mid]) {
+                high = mid - 1;
+            } else if (c > hi[mid]) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /** Index of the first symbol starting at or after c; a label [lo, hi] starts exactly there. */
+    int firstSymbolFrom(int from) {
+        int low = 0;
+        int high = lo.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lo[mid] < from) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
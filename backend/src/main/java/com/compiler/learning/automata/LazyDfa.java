@@ -0,0 +1,235 @@
+package com.compiler.learning.automata;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * On-the-fly DFA matcher in the style of RE2, for patterns whose full DFA is too large.
+ *
+ * DFA states (ε-closed sets of NFA states) are created one transition at a time as the
+ * input needs them and kept in a cache of at most {@code cacheLimit} states. When the cache
+ * is full it is flushed and rebuilt from the current state, so memory stays bounded. If
+ * flushes come too quickly, i.e. fewer than {@link #MIN_CHARS_PER_STATE} characters were
+ * read per cached state since the last flush, the cache is thrashing and the rest of the
+ * input is matched by simulating the NFA directly over bit vectors. Either way a match is
+ * linear in the input length.
+ *
+ * Instances keep the cache between calls and are not thread-safe.
+ */
+public final class LazyDfa {
+
+    public static final int DEFAULT_CACHE_LIMIT = 1_000;
+    public static final int MIN_CHARS_PER_STATE = 10;
+
+    private static final int UNKNOWN = -2;
+    // Largest closure table (longs) the NFA simulation may keep: 8 MB
+    private static final long MAX_CLOSURE_WORDS = 1L << 20;
+
+    private final EpsilonNfa nfa;
+    private final InputAlphabet alphabet;
+    private final int symbols;
+    private final int cacheLimit;
+    private final int[] firstSymbol;  // NFA state -> symbol range of its label, -1 for ε-states
+    private final int[] lastSymbol;
+    private final int words;
+
+    private final BitSet start;
+    private StateSetTable sets;       // state 0 is always the start state
+    private int[] table;
+    private int[] stack;
+    private long[][] symbolMasks;     // bit-parallel simulation: NFA states reading each symbol
+    private long[][] closures;        // ε-closure of each NFA state as a bit vector, filled on demand
+
+    private int flushes;
+    private boolean fellBack;
+
+    public LazyDfa(EpsilonNfa nfa) {
+        this(nfa, DEFAULT_CACHE_LIMIT);
+    }
+
+    public LazyDfa(EpsilonNfa nfa, int cacheLimit) {
+        this.nfa = nfa;
+        this.alphabet = InputAlphabet.of(nfa);
+        this.symbols = alphabet.size();
+        this.cacheLimit = Math.max(3, cacheLimit); // start, current and one new state
+        this.firstSymbol = new int[nfa.stateCount()];
+        this.lastSymbol = new int[nfa.stateCount()];
+        for (int s = 0; s < nfa.stateCount(); s++) {
+            firstSymbol[s] = nfa.isEpsilonState(s) ? -1 : alphabet.firstSymbolFrom(nfa.lo(s));
+            lastSymbol[s] = nfa.isEpsilonState(s) ? -2 : alphabet.firstSymbolFrom(nfa.hi(s) + 1) - 1;
+        }
+        this.words = (nfa.stateCount() + 63) >>> 6;
+        this.stack = new int[16];
+        BitSet initial = new BitSet();
+        initial.set(nfa.start());
+        this.start = close(initial);
+        flush(start);
+    }
+
+    public boolean accepts(CharSequence input) {
+        fellBack = false;
+        int state = 0;
+        int sinceFlush = 0;
+        boolean flushed = false;
+        for (int i = 0; i < input.length(); i++) {
+            int symbol = alphabet.symbolOf(input.charAt(i));
+            if (symbol < 0) return false;
+            int next = table[state * symbols + symbol];
+            if (next == UNKNOWN) {
+                if (sets.size() == cacheLimit) {
+                    if (flushed && sinceFlush < MIN_CHARS_PER_STATE * cacheLimit) {
+                        fellBack = true;
+                        return simulate(input, i, sets.get(state));
+                    }
+                    flushes++;
+                    flushed = true;
+                    sinceFlush = 0;
+                    state = flush(sets.get(state));
+                }
+                next = transition(state, symbol);
+            }
+            if (next == Dfa.DEAD) return false;
+            state = next;
+            sinceFlush++;
+        }
+        return sets.get(state).get(nfa.accept());
+    }
+
+    /** DFA states currently cached. */
+    public int cachedStates() {
+        return sets.size();
+    }
+
+    /** Cache flushes since this matcher was created. */
+    public int flushCount() {
+        return flushes;
+    }
+
+    /** Whether the last {@link #accepts} call finished on the NFA simulation. */
+    public boolean usedNfaFallback() {
+        return fellBack;
+    }
+
+    /** Empties the cache, keeping only the start state and the current one; returns the current one's ID. */
+    private int flush(BitSet current) {
+        sets = new StateSetTable();
+        sets.intern(start, cacheLimit);
+        if (table == null) table = new int[cacheLimit * symbols];
+        Arrays.fill(table, UNKNOWN);
+        return sets.intern(current, cacheLimit);
+    }
+
+    private int transition(int state, int symbol) {
+        BitSet set = sets.get(state);
+        BitSet move = new BitSet();
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+            if (firstSymbol[s] <= symbol && symbol <= lastSymbol[s]) move.set(nfa.out1(s));
+        }
+        int target = move.isEmpty() ? Dfa.DEAD : sets.intern(close(move), cacheLimit);
+        table[state * symbols + symbol] = target;
+        return target;
+    }
+
+    private BitSet close(BitSet set) {
+        int depth = 0;
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+            if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = s;
+        }
+        while (depth > 0) {
+            int s = stack[--depth];
+            if (!nfa.isEpsilonState(s)) continue;
+            if (depth + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+            int t1 = nfa.out1(s);
+            int t2 = nfa.out2(s);
+            if (t1 != EpsilonNfa.NONE && !set.get(t1)) {
+                set.set(t1);
+                stack[depth++] = t1;
+            }
+            if (t2 != EpsilonNfa.NONE && !set.get(t2)) {
+                set.set(t2);
+                stack[depth++] = t2;
+            }
+        }
+        return set;
+    }
+
+    /**
+     * NFA simulation from position {@code from} with the current states as a long[] bit
+     * vector: the states that read a symbol are found a word at a time by AND-ing with that
+     * symbol's mask, and the ε-closure of each successor is OR-ed in from a table when the
+     * NFA is small enough to keep one.
+     */
+    private boolean simulate(CharSequence input, int from, BitSet states) {
+        if (symbolMasks == null) {
+            symbolMasks = new long[symbols][words];
+            if ((long) nfa.stateCount() * words <= MAX_CLOSURE_WORDS) closures = new long[nfa.stateCount()][];
+            for (int s = 0; s < nfa.stateCount(); s++) {
+                for (int a = firstSymbol[s]; a >= 0 && a <= lastSymbol[s]; a++) {
+                    symbolMasks[a][s >>> 6] |= 1L << s;
+                }
+            }
+        }
+        long[] current = Arrays.copyOf(states.toLongArray(), words);
+        long[] next = new long[words];
+        for (int i = from; i < input.length(); i++) {
+            int symbol = alphabet.symbolOf(input.charAt(i));
+            if (symbol < 0) return false;
+            long[] mask = symbolMasks[symbol];
+            Arrays.fill(next, 0L);
+            boolean any = false;
+            for (int w = 0; w < words; w++) {
+                long bits = current[w] & mask[w];
+                while (bits != 0) {
+                    int s = (w << 6) | Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    addClosure(next, nfa.out1(s));
+                    any = true;
+                }
+            }
+            if (!any) return false;
+            long[] swap = current;
+            current = next;
+            next = swap;
+        }
+        int accept = nfa.accept();
+        return (current[accept >>> 6] & (1L << accept)) != 0;
+    }
+
+    private void addClosure(long[] set, int state) {
+        if (closures == null) {
+            addClosed(set, state);
+            return;
+        }
+        long[] closure = closures[state];
+        if (closure == null) {
+            closure = new long[words];
+            addClosed(closure, state);
+            closures[state] = closure;
+        }
+        for (int w = 0; w < words; w++) set[w] |= closure[w];
+    }
+
+    /** Adds a state and its ε-closure to a bit vector. */
+    private void addClosed(long[] set, int state) {
+        if ((set[state >>> 6] & (1L << state)) != 0) return;
+        set[state >>> 6] |= 1L << state;
+        int depth = 0;
+        stack[depth++] = state;
+        while (depth > 0) {
+            int s = stack[--depth];
+            if (!nfa.isEpsilonState(s)) continue;
+            if (depth + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+            int t1 = nfa.out1(s);
+            int t2 = nfa.out2(s);
+            if (t1 != EpsilonNfa.NONE && (set[t1 >>> 6] & (1L << t1)) == 0) {
+                set[t1 >>> 6] |= 1L << t1;
+                stack[depth++] = t1;
+            }
+            if (t2 != EpsilonNfa.NONE && (set[t2 >>> 6] & (1L << t2)) == 0) {
+                set[t2 >>> 6] |= 1L << t2;
+                stack[depth++] = t2;
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.compiler.learning.automata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Table-driven scanner produced by {@link LexerGenerator}.
+ *
+ * Scanning is maximal munch: from each token start the DFA runs until it dies, and the
+ * token is the longest prefix that ended in an accepting state, typed by the rule that
+ * state accepts (the earliest rule on ties). Characters where no token starts are grouped
+ * into one {@link #ERROR} token, and scanning resumes at the next position. Tokens are
+ * reported as (type, start, end) offsets, so nothing is allocated per token.
+ *
+ * Files are scanned without decoding them into Strings: the file is memory-mapped in
+ * windows of {@link #FILE_WINDOW} bytes and the DFA runs directly over the bytes, each byte
+ * read as the character of the same value (ISO-8859-1). ASCII rules therefore work on
+ * UTF-8 sources, and multi-byte sequences only match byte-wise classes such as [^"].
+ * A token that reaches the end of a window is rescanned from its start in the next one,
+ * so memory stays constant whatever the file size.
+ *
+ * Transitions are read from a {@link CompactDfa}, whose columns are character classes
+ * rather than characters, so the table stays small for Unicode ranges.
+ *
+ * Instances are immutable and thread-safe.
+ */
+public final class Lexer {
+
+    public static final int ERROR = -1;
+
+    /** Receives each token as a rule index ({@link #ERROR} for unmatched input) and its [start, end) range. */
+    @FunctionalInterface
+    public interface TokenSink {
+        void accept(int type, int start, int end);
+    }
+
+    /** Receives file tokens as (type, offset, length); offsets are byte positions in the file. */
+    @FunctionalInterface
+    public interface FileTokenSink {
+        void accept(int type, long offset, int length);
+    }
+
+    /** Bytes mapped at a time; no token may be longer. */
+    public static final int FILE_WINDOW = 64 << 20;
+
+    private final String[] names;
+    private final boolean[] skipped;
+    private final Dfa dfa;
+    private final CompactDfa table;
+    private final int[] byteClass;    // Latin-1 character or byte value -> character class
+
+    Lexer(String[] names, boolean[] skipped, Dfa dfa) {
+        this.names = names;
+        this.skipped = skipped;
+        this.dfa = dfa;
+        this.table = CompactDfa.of(dfa);
+        this.byteClass = new int[256];
+        for (char c = 0; c < 256; c++) byteClass[c] = table.classOf(c);
+    }
+
+    public int ruleCount() {
+        return names.length;
+    }
+
+    public String ruleName(int type) {
+        return type == ERROR ? "ERROR" : names[type];
+    }
+
+    /** Whether tokens of the rule are dropped from the output (whitespace, comments). */
+    public boolean isSkipped(int type) {
+        return type != ERROR && skipped[type];
+    }
+
+    public Dfa getDfa() {
+        return dfa;
+    }
+
+    /** The class-compressed transition table the scanner runs on. */
+    public CompactDfa getTable() {
+        return table;
+    }
+
+    public void scan(CharSequence input, TokenSink sink) {
+        scan(input, 0, Integer.MAX_VALUE, sink);
+    }
+
+    /**
+     * Scans from a position until at least maxTokens tokens have reached the sink or the
+     * input ends, and returns the position to resume from (the input length at the end).
+     * Lets a parser pull tokens in chunks instead of tokenizing everything up front.
+     */
+    public int scan(CharSequence input, int from, int maxTokens, TokenSink sink) {
+        int length = input.length();
+        int errorStart = -1;
+        int pos = from;
+        int emitted = 0;
+        while (pos < length && emitted < maxTokens) {
+            int state = 0;
+            int token = -1;
+            int tokenEnd = pos;
+            for (int i = pos; i < length; i++) {
+                char c = input.charAt(i);
+                state = table.next(state, c < 256 ? byteClass[c] : table.classOf(c));
+                if (state < 0) break;
+                if (table.token(state) >= 0) {
+                    token = table.token(state);
+                    tokenEnd = i + 1;
+                }
+            }
+            if (token < 0) {
+                if (errorStart < 0) errorStart = pos;
+                pos++;
+                continue;
+            }
+            if (errorStart >= 0) {
+                sink.accept(ERROR, errorStart, pos);
+                errorStart = -1;
+                emitted++;
+            }
+            if (!skipped[token]) {
+                sink.accept(token, pos, tokenEnd);
+                emitted++;
+            }
+            pos = tokenEnd;
+        }
+        if (errorStart >= 0) sink.accept(ERROR, errorStart, length);
+        return pos;
+    }
+
+    public Tokens tokenize(CharSequence input) {
+        Tokens result = new Tokens(input);
+        if (input != null) scan(input, result::add);
+        return result;
+    }
+
+    public void scan(Path file, FileTokenSink sink) throws IOException {
+        scan(file, FILE_WINDOW, sink);
+    }
+
+    void scan(Path file, int window, FileTokenSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long base = 0;
+            long[] errorStart = {-1};
+            while (base < size) {
+                int length = (int) Math.min(window, size - base);
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+                boolean last = base + length == size;
+                int consumed = scan(bytes, length, base, last, errorStart, sink);
+                if (consumed == 0) {
+                    throw new IOException("Token longer than " + window + " bytes at offset " + base);
+                }
+                base += consumed;
+            }
+            if (errorStart[0] >= 0) sink.accept(ERROR, errorStart[0], (int) (size - errorStart[0]));
+        }
+    }
+
+    /**
+     * Scans one window starting at file offset {@code base}. Unless it is the last window, a
+     * token that may continue past the end stops the scan; returns the bytes consumed.
+     * errorStart carries an unfinished run of unmatched bytes across windows.
+     */
+    private int scan(ByteBuffer bytes, int length, long base, boolean last, long[] errorStart, FileTokenSink sink) {
+        int pos = 0;
+        while (pos < length) {
+            int state = 0;
+            int token = -1;
+            int tokenEnd = pos;
+            int i = pos;
+            for (; i < length; i++) {
+                state = table.next(state, byteClass[bytes.get(i) & 0xFF]);
+                if (state < 0) break;
+                if (table.token(state) >= 0) {
+                    token = table.token(state);
+                    tokenEnd = i + 1;
+                }
+            }
+            if (i == length && !last) return pos;
+            if (token < 0) {
+                if (errorStart[0] < 0) errorStart[0] = base + pos;
+                pos++;
+                continue;
+            }
+            if (errorStart[0] >= 0) {
+                sink.accept(ERROR, errorStart[0], (int) (base + pos - errorStart[0]));
+                errorStart[0] = -1;
+            }
+            if (!skipped[token]) sink.accept(token, base + pos, tokenEnd - pos);
+            pos = tokenEnd;
+        }
+        return pos;
+    }
+
+    public FileTokens tokenize(Path file) throws IOException {
+        FileTokens result = new FileTokens();
+        scan(file, result::add);
+        return result;
+    }
+
+    /** Token stream as parallel int arrays over the scanned input. */
+    public static final class Tokens {
+        private final CharSequence input;
+        private int size;
+        private int[] types = new int[16];
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+
+        Tokens(CharSequence input) {
+            this.input = input;
+        }
+
+        private void add(int type, int start, int end) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            types[size] = type;
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int type(int i) {
+            return types[i];
+        }
+
+        public int start(int i) {
+            return starts[i];
+        }
+
+        public int end(int i) {
+            return ends[i];
+        }
+
+        /** Lexeme of token i; allocates, so only for display. */
+        public String text(int i) {
+            return input.subSequence(starts[i], ends[i]).toString();
+        }
+    }
+
+    /** File token stream as parallel primitive arrays: type, byte offset and length. */
+    public static final class FileTokens {
+        private int size;
+        private int[] types = new int[16];
+        private long[] offsets = new long[16];
+        private int[] lengths = new int[16];
+
+        private void add(int type, long offset, int length) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            types[size] = type;
+            offsets[size] = offset;
+            lengths[size] = length;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int type(int i) {
+            return types[i];
+        }
+
+        public long offset(int i) {
+            return offsets[i];
+        }
+
+        public int length(int i) {
+            return lengths[i];
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.compiler.learning.automata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles an ordered list of (token name, regex) rules into a {@link Lexer}.
+ *
+ * All rules go through one followpos construction with an end marker per rule, so the DFA
+ * knows which rule each accepting state belongs to and earlier rules win ties; keywords are
+ * therefore listed before the identifier rule. The DFA is then minimized with Hopcroft's
+ * algorithm, starting from a partition that keeps states of different tokens apart.
+ * Rules marked as skipped (whitespace, comments) are matched but not reported.
+ */
+public final class LexerGenerator {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<String> regexes = new ArrayList<>();
+    private final List<Boolean> skipped = new ArrayList<>();
+    private int maxStates = SubsetConstruction.DEFAULT_MAX_STATES;
+
+    public LexerGenerator rule(String name, String regex) {
+        return rule(name, regex, false);
+    }
+
+    public LexerGenerator skip(String name, String regex) {
+        return rule(name, regex, true);
+    }
+
+    public LexerGenerator rule(String name, String regex, boolean skip) {
+        names.add(name);
+        regexes.add(regex);
+        skipped.add(skip);
+        return this;
+    }
+
+    /** Cap on DFA states before minimization. */
+    public LexerGenerator maxStates(int maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there are no rules, a regex is invalid or a rule
+     *         matches the empty string
+     * @throws StateLimitExceededException if the DFA grows past the state cap
+     */
+    public Lexer build() {
+        if (names.isEmpty()) throw new IllegalArgumentException("No token rules");
+        RegexTree[] trees = new RegexTree[names.size()];
+        for (int r = 0; r < trees.length; r++) {
+            try {
+                trees[r] = RegexParser.parse(regexes.get(r));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule " + names.get(r) + ": " + e.getMessage());
+            }
+        }
+        Dfa dfa = new FollowposConstruction(trees, maxStates).build();
+        if (dfa.isAccepting(0)) {
+            throw new IllegalArgumentException("Rule " + names.get(dfa.token(0)) + " matches the empty string");
+        }
+        Dfa minimized = DfaMinimizer.hopcroft(dfa, false).getDfa();
+
+        boolean[] skip = new boolean[names.size()];
+        for (int r = 0; r < skip.length; r++) skip[r] = skipped.get(r);
+        return new Lexer(names.toArray(new String[0]), skip, minimized);
+    }
+}
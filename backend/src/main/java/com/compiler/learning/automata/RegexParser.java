@@ -0,0 +1,418 @@
+package com.compiler.learning.automata;
+
+import java.util.Arrays;
+
+/**
+ * Parses the regular expressions used in the lexical section into a {@link RegexTree}.
+ *
+ * <pre>
+ * r|s   union            rs    concatenation (implicit)
+ * r*    zero or more     r+    one or more        r?   optional
+ * r{n}  exactly n        r{n,} at least n         r{n,m} between n and m
+ * (r)   grouping         ε     empty string       .    any character except newline
+ * [a-z_] [^"]  classes   \d \w \s  digit, word and space classes
+ * \x    literal x (\n, \t, \r for control characters)
+ * </pre>
+ *
+ * Unescaped whitespace is ignored so "(a | b)*" reads like the textbook notation; write "\ "
+ * or "[ ]" for a literal space. An empty alternative, as in "a|" or "()", denotes ε.
+ *
+ * Parsing is a single shunting-yard pass with explicit operand and operator stacks, and
+ * nodes are emitted as soon as their operands are complete, which is exactly the postfix
+ * order the tree stores. There is no recursion, so nesting depth is limited only by memory.
+ * Counted repetition copies the operand's subtree, which in postfix order is one contiguous
+ * block of nodes; the expanded tree is capped at {@link #MAX_NODES} nodes.
+ */
+public final class RegexParser {
+
+    private static final char MAX_CHAR = Character.MAX_VALUE;
+    public static final int MAX_NODES = 1 << 22;
+
+    // Operator stack entries
+    private static final int OPEN = 0;
+    private static final int OP_UNION = 1;
+    private static final int OP_CONCAT = 2;
+
+    private final String source;
+    private int pos;
+
+    private int size;
+    private byte[] type;
+    private int[] left;
+    private int[] right;
+    private char[] lo;
+    private char[] hi;
+
+    private int[] operands = new int[16];
+    private int operandCount;
+    private int[] operators = new int[16];
+    private int[] operatorPositions = new int[16];
+    private int operatorCount;
+
+    private RegexParser(String source) {
+        this.source = source;
+        int capacity = Math.max(16, source.length() * 2);
+        type = new byte[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        lo = new char[capacity];
+        hi = new char[capacity];
+    }
+
+    /** @throws IllegalArgumentException with the offending position if the expression is malformed */
+    public static RegexTree parse(String regex) {
+        RegexParser parser = new RegexParser(regex == null ? "" : regex);
+        parser.run();
+        return parser.build();
+    }
+
+    private void run() {
+        boolean afterOperand = false;
+        while (pos < source.length()) {
+            char c = source.charAt(pos);
+            switch (c) {
+                case ' ', '\t', '\r', '\n' -> pos++;
+                case '(' -> {
+                    if (afterOperand) pushOperator(OP_CONCAT, pos);
+                    pushOperatorEntry(OPEN, pos);
+                    pos++;
+                    afterOperand = false;
+                }
+                case ')' -> {
+                    if (!afterOperand) pushOperand(leaf(RegexTree.EPSILON, '\0', '\0'));
+                    while (operatorCount > 0 && operators[operatorCount - 1] != OPEN) {
+                        apply(operators[--operatorCount]);
+                    }
+                    if (operatorCount == 0) throw error("Unmatched ')'", pos);
+                    operatorCount--;
+                    pos++;
+                    afterOperand = true;
+                }
+                case '|' -> {
+                    if (!afterOperand) pushOperand(leaf(RegexTree.EPSILON, '\0', '\0'));
+                    pushOperator(OP_UNION, pos);
+                    pos++;
+                    afterOperand = false;
+                }
+                case '*', '+', '?' -> {
+                    if (!afterOperand) throw error("Nothing to repeat before '" + c + "'", pos);
+                    int kind = c == '*' ? RegexTree.STAR : c == '+' ? RegexTree.PLUS : RegexTree.OPTIONAL;
+                    pushOperand(node(kind, popOperand(), -1));
+                    pos++;
+                }
+                case '{' -> {
+                    if (!afterOperand) throw error("Nothing to repeat before '{'", pos);
+                    pushOperand(counted(popOperand()));
+                }
+                default -> {
+                    if (afterOperand) pushOperator(OP_CONCAT, pos);
+                    pushOperand(atom());
+                    afterOperand = true;
+                }
+            }
+        }
+        if (!afterOperand) pushOperand(leaf(RegexTree.EPSILON, '\0', '\0'));
+        while (operatorCount > 0) {
+            int op = operators[--operatorCount];
+            if (op == OPEN) throw error("Unmatched '('", operatorPositions[operatorCount]);
+            apply(op);
+        }
+    }
+
+    private RegexTree build() {
+        return new RegexTree(source, size, Arrays.copyOf(type, size), Arrays.copyOf(left, size),
+                Arrays.copyOf(right, size), Arrays.copyOf(lo, size), Arrays.copyOf(hi, size));
+    }
+
+    // ---- counted repetition ----
+
+    /** Parses {n}, {n,} or {n,m} at pos and expands it: r{2,4} = r r r? r?, r{2,} = r r r*. */
+    private int counted(int operand) {
+        int start = pos++;
+        int min = number(start);
+        int max = min;
+        if (pos < source.length() && source.charAt(pos) == ',') {
+            pos++;
+            max = pos < source.length() && source.charAt(pos) == '}' ? -1 : number(start);
+        }
+        if (pos >= source.length() || source.charAt(pos) != '}') throw error("Malformed repetition", start);
+        pos++;
+        if (max >= 0 && max < min) throw error("Repetition {" + min + "," + max + "} has max < min", start);
+
+        int copies = max < 0 ? min + 1 : max;
+        long blockSize = operand - subtreeStart(operand) + 1;
+        if ((long) size + blockSize * copies + copies > MAX_NODES) throw error("Repetition expands too far", start);
+
+        if (copies == 0) {
+            size = subtreeStart(operand); // r{0}: drop r, it is the last block emitted
+            return leaf(RegexTree.EPSILON, '\0', '\0');
+        }
+        int result = -1;
+        for (int i = 0; i < copies; i++) {
+            int copy = i == 0 ? operand : copySubtree(operand);
+            if (i >= min) copy = node(max < 0 ? RegexTree.STAR : RegexTree.OPTIONAL, copy, -1);
+            result = result < 0 ? copy : node(RegexTree.CONCAT, result, copy);
+        }
+        return result;
+    }
+
+    private int number(int start) {
+        int from = pos;
+        long value = 0;
+        while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+            value = value * 10 + (source.charAt(pos++) - '0');
+            if (value > MAX_NODES) throw error("Repetition count too large", start);
+        }
+        if (pos == from) throw error("Malformed repetition", start);
+        return (int) value;
+    }
+
+    /** First node of a subtree: in postfix order it is reached by following left children. */
+    private int subtreeStart(int node) {
+        int first = node;
+        while (left[first] >= 0) first = left[first];
+        return first;
+    }
+
+    private int copySubtree(int root) {
+        int first = subtreeStart(root);
+        int offset = size - first;
+        for (int n = first; n <= root; n++) {
+            int id = allocate();
+            type[id] = type[n];
+            left[id] = left[n] >= 0 ? left[n] + offset : -1;
+            right[id] = right[n] >= 0 ? right[n] + offset : -1;
+            lo[id] = lo[n];
+            hi[id] = hi[n];
+        }
+        return root + offset;
+    }
+
+    // ---- atoms ----
+
+    private int atom() {
+        char c = source.charAt(pos);
+        if (c == 'ε') {
+            pos++;
+            return leaf(RegexTree.EPSILON, '\0', '\0');
+        }
+        if (c == '.') {
+            pos++;
+            return ranges(new char[]{0, '\n' - 1, '\n' + 1, MAX_CHAR}, 4);
+        }
+        if (c == '[') {
+            return characterClass();
+        }
+        if (c == '\\') {
+            int start = pos;
+            pos++;
+            if (pos >= source.length()) throw error("Trailing '\\'", start);
+            char e = source.charAt(pos++);
+            char[] shorthand = shorthandClass(e);
+            if (shorthand != null) return ranges(shorthand, shorthand.length);
+            char literal = escapedLiteral(e);
+            return leaf(RegexTree.SYMBOL, literal, literal);
+        }
+        pos++;
+        return leaf(RegexTree.SYMBOL, c, c);
+    }
+
+    private int characterClass() {
+        int start = pos++;
+        boolean negate = pos < source.length() && source.charAt(pos) == '^';
+        if (negate) pos++;
+
+        char[] bounds = new char[16];
+        int count = 0;
+        boolean first = true;
+        while (true) {
+            if (pos >= source.length()) throw error("Unterminated character class", start);
+            char c = source.charAt(pos);
+            if (c == ']' && !first) {
+                pos++;
+                break;
+            }
+            first = false;
+            char low;
+            if (c == '\\') {
+                if (++pos >= source.length()) throw error("Unterminated character class", start);
+                char e = source.charAt(pos++);
+                char[] shorthand = shorthandClass(e);
+                if (shorthand != null) {
+                    for (char b : shorthand) {
+                        if (count == bounds.length) bounds = Arrays.copyOf(bounds, count * 2);
+                        bounds[count++] = b;
+                    }
+                    continue;
+                }
+                low = escapedLiteral(e);
+            } else {
+                low = c;
+                pos++;
+            }
+            char high = low;
+            if (pos + 1 < source.length() && source.charAt(pos) == '-' && source.charAt(pos + 1) != ']') {
+                pos++;
+                char h = source.charAt(pos++);
+                if (h == '\\') {
+                    if (pos >= source.length()) throw error("Unterminated character class", start);
+                    h = escapedLiteral(source.charAt(pos++));
+                }
+                if (h < low) throw error("Invalid range " + low + "-" + h, start);
+                high = h;
+            }
+            if (count + 2 > bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            bounds[count++] = low;
+            bounds[count++] = high;
+        }
+
+        int merged = normalizeRanges(bounds, count);
+        if (negate) {
+            bounds = complement(bounds, merged);
+            merged = bounds.length;
+        }
+        if (merged == 0) throw error("Character class matches nothing", start);
+        return ranges(bounds, merged);
+    }
+
+    /** Sorts [lo, hi] pairs and merges overlapping or adjacent ones in place; returns the new length. */
+    private static int normalizeRanges(char[] bounds, int count) {
+        int pairs = count / 2;
+        long[] packed = new long[pairs];
+        for (int i = 0; i < pairs; i++) {
+            packed[i] = ((long) bounds[2 * i] << 16) | bounds[2 * i + 1];
+        }
+        Arrays.sort(packed);
+        int out = 0;
+        for (long p : packed) {
+            char l = (char) (p >>> 16);
+            char h = (char) (p & 0xFFFF);
+            if (out > 0 && l <= bounds[out - 1] + 1) {
+                if (h > bounds[out - 1]) bounds[out - 1] = h;
+            } else {
+                bounds[out++] = l;
+                bounds[out++] = h;
+            }
+        }
+        return out;
+    }
+
+    private static char[] complement(char[] bounds, int count) {
+        char[] result = new char[count + 2];
+        int out = 0;
+        int next = 0;
+        for (int i = 0; i < count; i += 2) {
+            if (bounds[i] > next) {
+                result[out++] = (char) next;
+                result[out++] = (char) (bounds[i] - 1);
+            }
+            next = bounds[i + 1] + 1;
+        }
+        if (next <= MAX_CHAR) {
+            result[out++] = (char) next;
+            result[out++] = MAX_CHAR;
+        }
+        return Arrays.copyOf(result, out);
+    }
+
+    private static char[] shorthandClass(char e) {
+        return switch (e) {
+            case 'd' -> new char[]{'0', '9'};
+            case 'w' -> new char[]{'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+            case 's' -> new char[]{'\t', '\n', '\f', '\r', ' ', ' '};
+            default -> null;
+        };
+    }
+
+    private static char escapedLiteral(char e) {
+        return switch (e) {
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'r' -> '\r';
+            case 'f' -> '\f';
+            default -> e;
+        };
+    }
+
+    /** Union of symbol leaves for sorted, disjoint [lo, hi] pairs. */
+    private int ranges(char[] bounds, int count) {
+        int result = leaf(RegexTree.SYMBOL, bounds[0], bounds[1]);
+        for (int i = 2; i < count; i += 2) {
+            int next = leaf(RegexTree.SYMBOL, bounds[i], bounds[i + 1]);
+            result = node(RegexTree.UNION, result, next);
+        }
+        return result;
+    }
+
+    // ---- stacks ----
+
+    private void pushOperator(int op, int at) {
+        while (operatorCount > 0) {
+            int top = operators[operatorCount - 1];
+            if (top == OPEN || top < op) break;
+            apply(top);
+            operatorCount--;
+        }
+        pushOperatorEntry(op, at);
+    }
+
+    private void pushOperatorEntry(int op, int at) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+            operatorPositions = Arrays.copyOf(operatorPositions, operatorCount * 2);
+        }
+        operators[operatorCount] = op;
+        operatorPositions[operatorCount++] = at;
+    }
+
+    private void apply(int op) {
+        int b = popOperand();
+        int a = popOperand();
+        pushOperand(node(op == OP_UNION ? RegexTree.UNION : RegexTree.CONCAT, a, b));
+    }
+
+    private void pushOperand(int node) {
+        if (operandCount == operands.length) operands = Arrays.copyOf(operands, operandCount * 2);
+        operands[operandCount++] = node;
+    }
+
+    private int popOperand() {
+        return operands[--operandCount];
+    }
+
+    // ---- node storage ----
+
+    private int leaf(int kind, char low, char high) {
+        int id = allocate();
+        type[id] = (byte) kind;
+        left[id] = -1;
+        right[id] = -1;
+        lo[id] = low;
+        hi[id] = high;
+        return id;
+    }
+
+    private int node(int kind, int a, int b) {
+        int id = allocate();
+        type[id] = (byte) kind;
+        left[id] = a;
+        right[id] = b;
+        return id;
+    }
+
+    private int allocate() {
+        if (size == type.length) {
+            int capacity = size * 2;
+            type = Arrays.copyOf(type, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            lo = Arrays.copyOf(lo, capacity);
+            hi = Arrays.copyOf(hi, capacity);
+        }
+        return size++;
+    }
+
+    private IllegalArgumentException error(String message, int at) {
+        return new IllegalArgumentException(message + " at position " + at);
+    }
+}
@@ -0,0 +1,82 @@
+package com.compiler.learning.automata;
+
+/**
+ * Syntax tree of a regular expression stored as parallel arrays.
+ *
+ * Nodes are numbered in postfix order: both children of a node have smaller IDs than the
+ * node itself and the root is the last node. Every construction over the tree (Thompson,
+ * followpos, ...) is therefore a single forward loop with an explicit stack, so deeply
+ * nested expressions never touch the Java call stack.
+ *
+ * A symbol node matches one character in the inclusive range [lo, hi]; character classes
+ * and '.' are unions of such ranges.
+ */
+public final class RegexTree {
+
+    public static final int SYMBOL = 0;
+    public static final int EPSILON = 1;
+    public static final int CONCAT = 2;
+    public static final int UNION = 3;
+    public static final int STAR = 4;
+    public static final int PLUS = 5;
+    public static final int OPTIONAL = 6;
+
+    private final String source;
+    private final int size;
+    private final byte[] type;
+    private final int[] left;    // only child for STAR/PLUS/OPTIONAL, -1 for leaves
+    private final int[] right;   // -1 unless CONCAT/UNION
+    private final char[] lo;
+    private final char[] hi;
+
+    RegexTree(String source, int size, byte[] type, int[] left, int[] right, char[] lo, char[] hi) {
+        this.source = source;
+        this.size = size;
+        this.type = type;
+        this.left = left;
+        this.right = right;
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int root() {
+        return size - 1;
+    }
+
+    public int type(int node) {
+        return type[node];
+    }
+
+    public int left(int node) {
+        return left[node];
+    }
+
+    public int right(int node) {
+        return right[node];
+    }
+
+    public char lo(int node) {
+        return lo[node];
+    }
+
+    public char hi(int node) {
+        return hi[node];
+    }
+
+    /** Number of symbol leaves, i.e. positions in the followpos construction. */
+    public int symbolCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (type[i] == SYMBOL) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,18 @@
+package com.compiler.learning.automata;
+
+/** Thrown when a construction would create more automaton states than its configured cap. */
+public class StateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int limit;
+
+    public StateLimitExceededException(int limit) {
+        super("Automaton exceeds the limit of " + limit + " states");
+        this.limit = limit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,73 @@
+package com.compiler.learning.automata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Hash-consing of state sets to dense IDs for the DFA constructions.
+ *
+ * BitSet.hashCode XORs its words multiplied by their index, so sets with one or two bits
+ * (typical for keyword lexers) collide in large groups and a HashMap degrades into tree
+ * bins. This table mixes every word with a multiplicative hash instead and uses open
+ * addressing over the IDs.
+ */
+final class StateSetTable {
+
+    private final List<BitSet> sets = new ArrayList<>();
+    private long[] hashes = new long[16];
+    private int[] slots = new int[32]; // ID + 1, 0 = empty
+    private int mask = 31;
+
+    int size() {
+        return sets.size();
+    }
+
+    BitSet get(int id) {
+        return sets.get(id);
+    }
+
+    /** ID of the set, adding it (and taking ownership) if new; more than maxSets throws. */
+    int intern(BitSet set, int maxSets) {
+        long hash = hash(set);
+        int i = (int) (hash ^ (hash >>> 32)) & mask;
+        for (int slot = slots[i]; slot != 0; slot = slots[i]) {
+            if (hashes[slot - 1] == hash && sets.get(slot - 1).equals(set)) return slot - 1;
+            i = (i + 1) & mask;
+        }
+        if (sets.size() == maxSets) throw new StateLimitExceededException(maxSets);
+        int id = sets.size();
+        sets.add(set);
+        if (id == hashes.length) hashes = Arrays.copyOf(hashes, id * 2);
+        hashes[id] = hash;
+        slots[i] = id + 1;
+        if (2 * sets.size() > slots.length) rehash();
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int id = 0; id < sets.size(); id++) {
+            int i = (int) (hashes[id] ^ (hashes[id] >>> 32)) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = id + 1;
+        }
+    }
+
+    private static long hash(BitSet set) {
+        long h = 0;
+        long[] words = set.toLongArray();
+        for (long word : words) {
+            h = (h ^ word) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+        }
+        // Final avalanche (MurmurHash3 fmix64) so the low bits used as slot index depend on all bits
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
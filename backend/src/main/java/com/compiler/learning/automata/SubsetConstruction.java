@@ -0,0 +1,205 @@
+package com.compiler.learning.automata;
+
+import java.util.*;
+
+/**
+ * Subset construction from an {@link EpsilonNfa}, either complete ({@link #build}) or lazily
+ * one DFA state at a time ({@link #next}, {@link #accepts}).
+ *
+ * A DFA state is the ε-closure of a set of NFA states, held as a BitSet. Sets are
+ * hash-consed through a {@link StateSetTable}, so every distinct set gets exactly one DFA ID
+ * and equality checks are a hash lookup instead of a scan over all states. The transitions of a DFA state
+ * are computed all at once, on first use: one pass over its NFA states buckets the targets
+ * by input symbol, and each bucket is closed and interned. Creating more than the configured
+ * number of states throws {@link StateLimitExceededException}, so a pathological pattern
+ * such as (a|b)*a(a|b){20} fails fast instead of exhausting memory.
+ *
+ * Instances are not thread-safe.
+ */
+public final class SubsetConstruction {
+
+    public static final int DEFAULT_MAX_STATES = 10_000;
+
+    private static final int UNKNOWN = -2;
+
+    private final EpsilonNfa nfa;
+    private final InputAlphabet alphabet;
+    private final int maxStates;
+    private final int symbols;
+    private final int[] firstSymbol;  // NFA state -> first symbol of its label, -1 for ε-states
+    private final int[] lastSymbol;   // NFA state -> last symbol of its label
+
+    private final StateSetTable sets = new StateSetTable();
+    private final BitSet accepting = new BitSet();
+    private int[] table;
+
+    private final BitSet[] moves;      // per-symbol scratch for one row
+    private final int[] row;           // targets of the row being computed
+    private int[] stack;               // scratch for ε-closures
+
+    public SubsetConstruction(EpsilonNfa nfa) {
+        this(nfa, DEFAULT_MAX_STATES);
+    }
+
+    public SubsetConstruction(EpsilonNfa nfa, int maxStates) {
+        this.nfa = nfa;
+        this.alphabet = InputAlphabet.of(nfa);
+        this.maxStates = Math.max(1, maxStates);
+        this.symbols = alphabet.size();
+        this.firstSymbol = new int[nfa.stateCount()];
+        this.lastSymbol = new int[nfa.stateCount()];
+        for (int s = 0; s < nfa.stateCount(); s++) {
+            if (nfa.isEpsilonState(s)) {
+                firstSymbol[s] = -1;
+                continue;
+            }
+            int first = alphabet.firstSymbolFrom(nfa.lo(s));
+            int last = first;
+            while (last + 1 < symbols && alphabet.hi(last + 1) <= nfa.hi(s)) last++;
+            firstSymbol[s] = first;
+            lastSymbol[s] = last;
+        }
+        this.table = new int[Math.max(1, 16 * symbols)];
+        Arrays.fill(table, UNKNOWN);
+        this.moves = new BitSet[symbols];
+        this.row = new int[symbols];
+        this.stack = new int[16];
+
+        BitSet start = new BitSet();
+        start.set(nfa.start());
+        intern(close(start));
+    }
+
+    public InputAlphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public EpsilonNfa getNfa() {
+        return nfa;
+    }
+
+    /** DFA states discovered so far. */
+    public int stateCount() {
+        return sets.size();
+    }
+
+    /** NFA states making up a DFA state (do not modify). */
+    public BitSet nfaStates(int state) {
+        return sets.get(state);
+    }
+
+    /** Whether the state's transitions have been computed yet. */
+    public boolean isExpanded(int state) {
+        return symbols == 0 || table[state * symbols] != UNKNOWN;
+    }
+
+    public boolean isAccepting(int state) {
+        return accepting.get(state);
+    }
+
+    /** Transition on an input symbol, computing the state's row if needed; Dfa.DEAD if none. */
+    public int next(int state, int symbol) {
+        int cell = state * symbols + symbol;
+        if (table[cell] == UNKNOWN) computeRow(state);
+        return table[cell];
+    }
+
+    /** Runs the input through the DFA, building only the states it visits. */
+    public boolean accepts(CharSequence input) {
+        int state = 0;
+        for (int i = 0; i < input.length(); i++) {
+            int symbol = alphabet.symbolOf(input.charAt(i));
+            if (symbol < 0) return false;
+            state = next(state, symbol);
+            if (state == Dfa.DEAD) return false;
+        }
+        return accepting.get(state);
+    }
+
+    /** Completes the construction (breadth-first from the start state) and returns the DFA. */
+    public Dfa build() {
+        for (int state = 0; state < sets.size(); state++) {
+            if (!isExpanded(state)) computeRow(state);
+        }
+        return discovered();
+    }
+
+    /** The states discovered so far as a DFA; states not yet expanded have no transitions. */
+    public Dfa discovered() {
+        int[] dense = Arrays.copyOf(table, sets.size() * symbols);
+        for (int i = 0; i < dense.length; i++) {
+            if (dense[i] == UNKNOWN) dense[i] = Dfa.DEAD;
+        }
+        return new Dfa(alphabet, sets.size(), dense, (BitSet) accepting.clone());
+    }
+
+    public static Dfa build(EpsilonNfa nfa, int maxStates) {
+        return new SubsetConstruction(nfa, maxStates).build();
+    }
+
+    private void computeRow(int state) {
+        BitSet set = sets.get(state);
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+            if (firstSymbol[s] < 0) continue;
+            for (int a = firstSymbol[s]; a <= lastSymbol[s]; a++) {
+                if (moves[a] == null) moves[a] = new BitSet();
+                moves[a].set(nfa.out1(s));
+            }
+        }
+        // The row is filled in scratch and stored whole, so hitting the state cap leaves the
+        // state unexpanded and the buckets empty rather than half done
+        try {
+            for (int a = 0; a < symbols; a++) {
+                BitSet move = moves[a];
+                if (move == null || move.isEmpty()) {
+                    row[a] = Dfa.DEAD;
+                    continue;
+                }
+                moves[a] = null; // the set is consumed by close() and possibly kept as a state
+                row[a] = intern(close(move));
+            }
+        } catch (StateLimitExceededException e) {
+            Arrays.fill(moves, null);
+            throw e;
+        }
+        System.arraycopy(row, 0, table, state * symbols, symbols); // intern() may have grown the table
+    }
+
+    /** Extends the set with everything reachable through ε-moves, in place. */
+    private BitSet close(BitSet set) {
+        int depth = 0;
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+            if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = s;
+        }
+        while (depth > 0) {
+            int s = stack[--depth];
+            if (!nfa.isEpsilonState(s)) continue;
+            int t1 = nfa.out1(s);
+            int t2 = nfa.out2(s);
+            if (depth + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+            if (t1 != EpsilonNfa.NONE && !set.get(t1)) {
+                set.set(t1);
+                stack[depth++] = t1;
+            }
+            if (t2 != EpsilonNfa.NONE && !set.get(t2)) {
+                set.set(t2);
+                stack[depth++] = t2;
+            }
+        }
+        return set;
+    }
+
+    private int intern(BitSet set) {
+        int known = sets.size();
+        int id = sets.intern(set, maxStates);
+        if (id < known) return id;
+        if (set.get(nfa.accept())) accepting.set(id);
+        if ((id + 1) * symbols > table.length) {
+            int old = table.length;
+            table = Arrays.copyOf(table, Math.max(old * 2, (id + 1) * symbols));
+            Arrays.fill(table, old, table.length, UNKNOWN);
+        }
+        return id;
+    }
+}
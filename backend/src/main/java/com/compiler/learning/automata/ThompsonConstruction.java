@@ -0,0 +1,124 @@
+package com.compiler.learning.automata;
+
+import java.util.Arrays;
+
+/**
+ * Thompson's construction over a {@link RegexTree}.
+ *
+ * The tree is walked in its postfix node order with a stack of (start, accept) fragments,
+ * applying the textbook rules: a symbol or ε is two states joined by one transition, r₁r₂
+ * links the accept state of r₁ to the start of r₂ with ε, and union, star, plus and
+ * optional each add a new start and accept state. States are numbered in creation order,
+ * so (a|b)*c numbers its states exactly as the worked example in the lexical section.
+ */
+public final class ThompsonConstruction {
+
+    private int count;
+    private int[] lo;
+    private int[] hi;
+    private int[] out1;
+    private int[] out2;
+
+    private ThompsonConstruction(int capacity) {
+        lo = new int[capacity];
+        hi = new int[capacity];
+        out1 = new int[capacity];
+        out2 = new int[capacity];
+    }
+
+    public static EpsilonNfa build(String regex) {
+        return build(RegexParser.parse(regex));
+    }
+
+    public static EpsilonNfa build(RegexTree tree) {
+        ThompsonConstruction builder = new ThompsonConstruction(2 * tree.size() + 2);
+        int[] starts = new int[16];
+        int[] accepts = new int[16];
+        int depth = 0;
+
+        for (int node = 0; node < tree.size(); node++) {
+            int s;
+            int f;
+            switch (tree.type(node)) {
+                case RegexTree.SYMBOL -> {
+                    s = builder.state();
+                    f = builder.state();
+                    builder.symbol(s, tree.lo(node), tree.hi(node), f);
+                }
+                case RegexTree.EPSILON -> {
+                    s = builder.state();
+                    f = builder.state();
+                    builder.epsilon(s, f, EpsilonNfa.NONE);
+                }
+                case RegexTree.CONCAT -> {
+                    depth--;
+                    int bs = starts[depth];
+                    int bf = accepts[depth];
+                    depth--;
+                    builder.epsilon(accepts[depth], bs, EpsilonNfa.NONE);
+                    s = starts[depth];
+                    f = bf;
+                }
+                case RegexTree.UNION -> {
+                    depth--;
+                    int bs = starts[depth];
+                    int bf = accepts[depth];
+                    depth--;
+                    int as = starts[depth];
+                    int af = accepts[depth];
+                    s = builder.state();
+                    f = builder.state();
+                    builder.epsilon(s, as, bs);
+                    builder.epsilon(af, f, EpsilonNfa.NONE);
+                    builder.epsilon(bf, f, EpsilonNfa.NONE);
+                }
+                default -> { // STAR, PLUS, OPTIONAL
+                    depth--;
+                    int as = starts[depth];
+                    int af = accepts[depth];
+                    s = builder.state();
+                    f = builder.state();
+                    int kind = tree.type(node);
+                    builder.epsilon(s, as, kind == RegexTree.PLUS ? EpsilonNfa.NONE : f);
+                    builder.epsilon(af, kind == RegexTree.OPTIONAL ? f : as, kind == RegexTree.OPTIONAL ? EpsilonNfa.NONE : f);
+                }
+            }
+            if (depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+                accepts = Arrays.copyOf(accepts, depth * 2);
+            }
+            starts[depth] = s;
+            accepts[depth++] = f;
+        }
+
+        int n = builder.count;
+        return new EpsilonNfa(n, starts[0], accepts[0], Arrays.copyOf(builder.lo, n), Arrays.copyOf(builder.hi, n),
+                Arrays.copyOf(builder.out1, n), Arrays.copyOf(builder.out2, n));
+    }
+
+    private int state() {
+        if (count == lo.length) {
+            int capacity = count * 2;
+            lo = Arrays.copyOf(lo, capacity);
+            hi = Arrays.copyOf(hi, capacity);
+            out1 = Arrays.copyOf(out1, capacity);
+            out2 = Arrays.copyOf(out2, capacity);
+        }
+        lo[count] = EpsilonNfa.EPSILON;
+        hi[count] = EpsilonNfa.EPSILON;
+        out1[count] = EpsilonNfa.NONE;
+        out2[count] = EpsilonNfa.NONE;
+        return count++;
+    }
+
+    private void symbol(int from, char low, char high, int to) {
+        lo[from] = low;
+        hi[from] = high;
+        out1[from] = to;
+    }
+
+    private void epsilon(int from, int first, int second) {
+        out1[from] = first;
+        out2[from] = second;
+    }
+}
@@ -5,6 +5,7 @@ import com.compiler.learning.dto.*;
 import com.compiler.learning.entity.LL1ParserProblem;
 import com.compiler.learning.service.CompilerService;
 import com.compiler.learning.service.LL1ParserService;
+import com.compiler.learning.service.LexicalAutomataService;
 import com.compiler.learning.service.LexicalSubsectionService;
 import com.compiler.learning.service.HelperService;
 import com.compiler.learning.service.LeftFactoringHelperService;
@@ -21,6 +22,7 @@ public class CompilerController {
 
     private final CompilerService compilerService;
     private final LexicalSubsectionService lexicalSubsectionService;
+    private final LexicalAutomataService lexicalAutomataService;
     private final HelperService helperService;
     private final LeftFactoringHelperService leftFactoringHelperService;
     private final com.compiler.learning.service.FirstFollowHelperService firstFollowHelperService;
@@ -51,6 +53,32 @@ public class CompilerController {
         return ResponseEntity.ok(lexicalSubsectionService.getSubsection(id));
     }
 
+    @PostMapping("/lexical/regex-to-nfa")
+    public ResponseEntity<AutomatonResponse> regexToNfa(@RequestBody RegexRequest request) {
+        return ResponseEntity.ok(lexicalAutomataService.regexToNfa(request.getRegex()));
+    }
+
+    @PostMapping("/lexical/nfa-to-dfa")
+    public ResponseEntity<AutomatonResponse> nfaToDfa(@RequestBody DfaRequest request) {
+        if ("followpos".equalsIgnoreCase(request.getMethod())) {
+            return ResponseEntity.ok(lexicalAutomataService.regexToDfaDirect(
+                request.getRegex(), request.getMaxStates(), request.getInput()));
+        }
+        return ResponseEntity.ok(lexicalAutomataService.regexToDfa(
+            request.getRegex(), request.getMaxStates(), request.isLazy(), request.getInput()));
+    }
+
+    @PostMapping("/lexical/minimize-dfa")
+    public ResponseEntity<AutomatonResponse> minimizeDfa(@RequestBody MinimizeDfaRequest request) {
+        return ResponseEntity.ok(lexicalAutomataService.minimizeDfa(
+            request.getRegex(), request.getMethod(), request.getMaxStates()));
+    }
+
+    @PostMapping("/lexical/lexer")
+    public ResponseEntity<LexerResponse> generateLexer(@RequestBody LexerRequest request) {
+        return ResponseEntity.ok(lexicalAutomataService.generateLexer(request.getRules(), request.getInput()));
+    }
+
     @PostMapping("/helper")
     public ResponseEntity<HelpResponse> getHelp(@RequestBody HelpRequest request) {
         return ResponseEntity.ok(helperService.getHelp(request));
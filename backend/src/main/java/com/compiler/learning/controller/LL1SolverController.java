@@ -1,13 +1,23 @@
 package com.compiler.learning.controller;
 
+import com.compiler.learning.dto.BatchParseRequest;
+import com.compiler.learning.dto.BatchParseResponse;
+import com.compiler.learning.dto.GrammarCacheStatsResponse;
 import com.compiler.learning.dto.GrammarInputRequest;
 import com.compiler.learning.dto.ParseSimulationRequest;
 import com.compiler.learning.dto.ParseSimulationResponse;
 import com.compiler.learning.dto.ParseTableResponse;
+import com.compiler.learning.dto.StreamingParseRequest;
 import com.compiler.learning.service.LL1SolverService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/ll1-solver")
@@ -15,7 +25,11 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class LL1SolverController {
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int FLUSH_EVERY = 64;
+    
     private final LL1SolverService solverService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping("/generate-table")
     public ResponseEntity<ParseTableResponse> generateParseTable(@RequestBody GrammarInputRequest request) {
@@ -27,14 +41,61 @@ public class LL1SolverController {
     public ResponseEntity<ParseSimulationResponse> runParser(@RequestBody ParseSimulationRequest request) {
         ParseSimulationResponse response = solverService.runParser(
             request.getGrammar(),
-            request.getInputString()
+            request.getInputString(),
+            "compact".equalsIgnoreCase(request.getDerivationFormat())
         );
         return ResponseEntity.ok(response);
     }
     
+    // Same parse as /run-parser, written as newline-delimited JSON events while the parser runs
+    @PostMapping(value = "/run-parser/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamParser(@RequestBody StreamingParseRequest request) {
+        LL1SolverService.TraceMode mode;
+        try {
+            mode = LL1SolverService.TraceMode.parse(request.getTraceMode());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int sampleEvery = request.getSampleEvery() != null ? request.getSampleEvery() : 1;
+        
+        StreamingResponseBody body = out -> {
+            int[] pending = {0};
+            try {
+                solverService.streamParser(request.getGrammar(), request.getInputString(), mode, sampleEvery, event -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(event));
+                        out.write('\n');
+                        // Flush the first event right away so the client can start rendering
+                        if (++pending[0] == 1 || pending[0] % FLUSH_EVERY == 0) {
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+    
+    // Accept/reject many inputs against one grammar; no trace or parse tree is built
+    @PostMapping("/run-parser/batch")
+    public ResponseEntity<BatchParseResponse> recognizeBatch(@RequestBody BatchParseRequest request) {
+        BatchParseResponse response = solverService.recognizeAll(request.getGrammar(), request.getInputs());
+        return ResponseEntity.ok(response);
+    }
+    
     @PostMapping("/validate-grammar")
     public ResponseEntity<ParseTableResponse> validateGrammar(@RequestBody GrammarInputRequest request) {
         ParseTableResponse response = solverService.generateParseTable(request.getGrammar());
         return ResponseEntity.ok(response);
     }
+    
+    @GetMapping("/cache-stats")
+    public ResponseEntity<GrammarCacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(solverService.getCacheStats());
+    }
 }
@@ -19,6 +19,7 @@ public class AttributesSolverResponse {
     public static class AttributesData {
         private String dependencyGraph;
         private List<EvaluationStep> evaluationOrder;
+        private EvaluationStats stats;
     }
 
     @Data
@@ -29,4 +30,18 @@ public class AttributesSolverResponse {
         private String computation;
         private String type; // synthesized or inherited
     }
-}
\ No newline at end of file
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EvaluationStats {
+        private int instances;
+        private int dependencies;
+        private int levels;
+        private int widestLevel;
+        private boolean parallel;
+        private double parseMillis;
+        private double scheduleMillis;
+        private double evaluateMillis;
+    }
+}
@@ -0,0 +1,50 @@
+package com.compiler.learning.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutomatonResponse {
+    private boolean success;
+    private String message;
+    private String type;                 // "ε-NFA", "DFA", ...
+    private int stateCount;
+    private int startState;
+    private List<Integer> acceptStates;
+    private List<String> alphabet;       // transition labels other than ε, in order of first use
+    private List<Transition> transitions;
+    // DFA construction: NFA states (subset) or regex positions (followpos) behind each DFA state
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Integer, List<Integer>> stateSets;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean inputAccepted;
+    // Minimized DFA: original DFA states merged into each state, and the refinement steps
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Integer, List<Integer>> mergedStates;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> steps;
+    // Complete DFAs: transition table size before and after character-class compression
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TransitionTableSize tableSize;
+    
+    public AutomatonResponse(boolean success, String message, String type, int stateCount, int startState,
+                             List<Integer> acceptStates, List<String> alphabet, List<Transition> transitions) {
+        this(success, message, type, stateCount, startState, acceptStates, alphabet, transitions, null, null, null, null, null);
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Transition {
+        private int from;
+        private String symbol;
+        private int to;
+    }
+}
@@ -0,0 +1,15 @@
+package com.compiler.learning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchParseRequest {
+    private String grammar;
+    private List<String> inputs;
+}
@@ -0,0 +1,32 @@
+package com.compiler.learning.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchParseResponse {
+    private boolean success;
+    private String message;
+    private List<InputResult> results;
+    private int total;
+    private int accepted;
+    private long elapsedMillis;
+    private double inputsPerSecond;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class InputResult {
+        private boolean accepted;
+        private Integer errorPosition;   // token index where the parse stopped, null on accept
+        private String errorToken;       // token found there ($ at end of input)
+        private List<String> expected;   // terminals that would have been accepted there
+    }
+}
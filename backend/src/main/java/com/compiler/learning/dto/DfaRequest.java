@@ -0,0 +1,16 @@
+package com.compiler.learning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DfaRequest {
+    private String regex;
+    private String method;       // "subset" (Thompson + subset construction, default) or "followpos"
+    private Integer maxStates;   // defaults to SubsetConstruction.DEFAULT_MAX_STATES
+    private boolean lazy;        // only build the states visited while reading input
+    private String input;        // optional string to run through the DFA
+}
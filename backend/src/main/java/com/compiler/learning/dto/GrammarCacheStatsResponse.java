@@ -0,0 +1,19 @@
+package com.compiler.learning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrammarCacheStatsResponse {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+    private int entries;
+    private int maxEntries;
+    private long estimatedBytes;
+    private long maxBytes;
+}
@@ -0,0 +1,24 @@
+package com.compiler.learning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LexerRequest {
+    private List<TokenRule> rules;   // in priority order: earlier rules win equally long matches
+    private String input;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TokenRule {
+        private String name;
+        private String regex;
+        private boolean skip;        // match but do not report (whitespace, comments)
+    }
+}
@@ -0,0 +1,34 @@
+package com.compiler.learning.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LexerResponse {
+    private boolean success;
+    private String message;
+    private int dfaStates;           // states of the minimized lexer DFA
+    private List<Token> tokens;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TransitionTableSize tableSize;
+    
+    public LexerResponse(boolean success, String message, int dfaStates, List<Token> tokens) {
+        this(success, message, dfaStates, tokens, null);
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Token {
+        private String type;         // rule name, "ERROR" for unmatched input
+        private int start;
+        private int end;
+        private String lexeme;
+    }
+}
@@ -0,0 +1,14 @@
+package com.compiler.learning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MinimizeDfaRequest {
+    private String regex;
+    private String method;       // "hopcroft" (default) or "table-filling"
+    private Integer maxStates;   // cap for the subset construction
+}
@@ -10,4 +10,5 @@ import lombok.NoArgsConstructor;
 public class ParseSimulationRequest {
     private String grammar;
     private String inputString;
+    private String derivationFormat; // "text" (default) or "compact"
 }
@@ -1,5 +1,6 @@
 package com.compiler.learning.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,6 +16,16 @@ public class ParseSimulationResponse {
     private String message;
     private String derivation;
     private ParseTreeNode parseTree;
+    // Compact derivation: [input position, production index] per expansion, indexes into productions
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<int[]> derivationSteps;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> productions;
+    
+    public ParseSimulationResponse(List<ParseStep> steps, boolean accepted, String message,
+                                   String derivation, ParseTreeNode parseTree) {
+        this(steps, accepted, message, derivation, parseTree, null, null);
+    }
     
     @Data
     @NoArgsConstructor
@@ -0,0 +1,30 @@
+package com.compiler.learning.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the streamed parse trace: a "step" event per emitted parser action,
+ * then a single "result" event.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ParseStreamEvent {
+    private String type;
+    private ParseSimulationResponse.ParseStep step;
+    private Boolean accepted;
+    private String message;
+    private Integer totalSteps;
+
+    public static ParseStreamEvent step(ParseSimulationResponse.ParseStep step) {
+        return new ParseStreamEvent("step", step, null, null, null);
+    }
+
+    public static ParseStreamEvent result(boolean accepted, String message, int totalSteps) {
+        return new ParseStreamEvent("result", null, accepted, message, totalSteps);
+    }
+}
@@ -19,6 +19,9 @@ public class SemanticActionsSolverResponse {
     public static class ActionsData {
         private List<ActionStep> steps;
         private String generatedCode;
+        private String optimizedCode;
+        private int instructionsBefore;
+        private int instructionsAfter;
     }
 
     @Data
@@ -19,6 +19,8 @@ public class SemanticAnalysisResponse {
     private List<SemanticError> errors;
     private List<SemanticWarning> warnings;
     private String details;
+    private List<PhaseStats> phases;
+    private double totalMillis;
 
     @Data
     @NoArgsConstructor
@@ -54,4 +56,14 @@ public class SemanticAnalysisResponse {
         private int line;
         private String message;
     }
-}
\ No newline at end of file
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PhaseStats {
+        private String phase;
+        private double millis;
+        private long allocatedBytes;   // -1 when the JVM does not report allocation
+        private Map<String, Long> counts;
+    }
+}
@@ -0,0 +1,15 @@
+package com.compiler.learning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamingParseRequest {
+    private String grammar;
+    private String inputString;
+    private String traceMode;     // "full" (default), "sampled", "actions-only" or "none"
+    private Integer sampleEvery;  // k for "sampled": emit every k-th step
+}
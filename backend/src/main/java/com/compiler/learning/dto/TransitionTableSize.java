@@ -0,0 +1,17 @@
+package com.compiler.learning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransitionTableSize {
+    private int states;
+    private int symbols;             // interval alphabet the DFA was built on
+    private int charClasses;         // character equivalence classes after compression
+    private long rawBytes;           // int table with one column per UTF-16 char
+    private long intervalBytes;      // int table over the interval alphabet
+    private long compressedBytes;    // class table plus char -> class map
+}
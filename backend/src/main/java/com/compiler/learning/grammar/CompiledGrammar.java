@@ -0,0 +1,198 @@
+package com.compiler.learning.grammar;
+
+import java.util.*;
+
+/**
+ * Immutable, interned form of a context-free grammar shared by every grammar service.
+ *
+ * Symbols are interned to dense integer IDs: non-terminals occupy [0, nonTerminalCount)
+ * in order of first definition, terminals follow in order of first appearance, and the
+ * end marker $ is always the last ID. Productions of one non-terminal are stored
+ * contiguously, and all right-hand sides live in a single flat int[] so a grammar costs a
+ * handful of arrays instead of nested lists of strings. An ε-production has an empty RHS.
+ *
+ * Instances are built by {@link GrammarCompiler}.
+ */
+public final class CompiledGrammar {
+
+    public static final String EPSILON = "ε";
+    public static final String END_MARKER = "$";
+
+    private final String source;
+    private final String[] names;            // symbol ID -> name
+    private final Map<String, Integer> ids;  // name -> symbol ID
+    private final int nonTerminalCount;
+    private final int[] productionLhs;       // production -> LHS non-terminal ID
+    private final int[] rhsStart;            // production -> offset into rhsSymbols (length = productions + 1)
+    private final int[] rhsSymbols;          // all right-hand sides back to back
+    private final String[] rhsText;          // production -> alternative as written (ε-normalized)
+    private final int[] ntProductionStart;   // non-terminal -> first production (length = nonTerminals + 1)
+
+    CompiledGrammar(String source, String[] names, Map<String, Integer> ids, int nonTerminalCount,
+                    int[] productionLhs, int[] rhsStart, int[] rhsSymbols, String[] rhsText,
+                    int[] ntProductionStart) {
+        this.source = source;
+        this.names = names;
+        this.ids = ids;
+        this.nonTerminalCount = nonTerminalCount;
+        this.productionLhs = productionLhs;
+        this.rhsStart = rhsStart;
+        this.rhsSymbols = rhsSymbols;
+        this.rhsText = rhsText;
+        this.ntProductionStart = ntProductionStart;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isEmpty() {
+        return nonTerminalCount == 0;
+    }
+
+    // ---- symbols ----
+
+    public int symbolCount() {
+        return names.length;
+    }
+
+    public int nonTerminalCount() {
+        return nonTerminalCount;
+    }
+
+    /** Number of terminals including the end marker. */
+    public int terminalCount() {
+        return names.length - nonTerminalCount;
+    }
+
+    public int startSymbol() {
+        return nonTerminalCount == 0 ? -1 : 0;
+    }
+
+    public int endMarker() {
+        return names.length - 1;
+    }
+
+    public boolean isNonTerminal(int symbol) {
+        return symbol >= 0 && symbol < nonTerminalCount;
+    }
+
+    public boolean isTerminal(int symbol) {
+        return symbol >= nonTerminalCount && symbol < names.length;
+    }
+
+    /** Column index of a terminal in [0, terminalCount), with $ last. */
+    public int terminalIndex(int symbol) {
+        return symbol - nonTerminalCount;
+    }
+
+    public int terminalAt(int index) {
+        return index + nonTerminalCount;
+    }
+
+    public String name(int symbol) {
+        return names[symbol];
+    }
+
+    /** Returns the ID of a symbol, or -1 if the grammar does not mention it. */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public List<String> nonTerminalNames() {
+        return Arrays.asList(names).subList(0, nonTerminalCount);
+    }
+
+    /** Terminal names in ID order, $ included and last. */
+    public List<String> terminalNames() {
+        return Arrays.asList(names).subList(nonTerminalCount, names.length);
+    }
+
+    // ---- productions ----
+
+    public int productionCount() {
+        return productionLhs.length;
+    }
+
+    public int lhs(int production) {
+        return productionLhs[production];
+    }
+
+    public int rhsLength(int production) {
+        return rhsStart[production + 1] - rhsStart[production];
+    }
+
+    public int rhsSymbol(int production, int index) {
+        return rhsSymbols[rhsStart[production] + index];
+    }
+
+    /** Offset of the production's first RHS symbol in the flat RHS array. */
+    int rhsOffset(int production) {
+        return rhsStart[production];
+    }
+
+    /** Total number of RHS symbols across all productions. */
+    public int rhsSize() {
+        return rhsSymbols.length;
+    }
+
+    int rhsSymbolAt(int offset) {
+        return rhsSymbols[offset];
+    }
+
+    public boolean isEpsilon(int production) {
+        return rhsStart[production + 1] == rhsStart[production];
+    }
+
+    /** The alternative as the user wrote it, trimmed, with every ε spelling turned into ε. */
+    public String rhsText(int production) {
+        return rhsText[production];
+    }
+
+    public int firstProduction(int nonTerminal) {
+        return ntProductionStart[nonTerminal];
+    }
+
+    /** Exclusive end of the production range of a non-terminal. */
+    public int endProduction(int nonTerminal) {
+        return ntProductionStart[nonTerminal + 1];
+    }
+
+    /** Formats a production as "A → x y z" (or "A → ε"), the form used in parse tables. */
+    public String productionString(int production) {
+        StringBuilder sb = new StringBuilder(names[productionLhs[production]]).append(" → ");
+        if (isEpsilon(production)) {
+            return sb.append(EPSILON).toString();
+        }
+        for (int k = rhsStart[production]; k < rhsStart[production + 1]; k++) {
+            if (k > rhsStart[production]) sb.append(' ');
+            sb.append(names[rhsSymbols[k]]);
+        }
+        return sb.toString();
+    }
+
+    // ---- legacy view ----
+
+    /**
+     * Text view for the services that still rewrite grammars as strings: non-terminal ->
+     * alternatives as written. The returned map is a fresh mutable copy.
+     *
+     * This is a transitional adapter. The LL(1) and FIRST/FOLLOW paths work on the IR
+     * directly; GrammarConversionService and HelperService (left recursion) and
+     * LeftFactoringService and LeftFactoringHelperService (left factoring) compile here and
+     * then match prefixes on the alternative text, and should move to the symbol arrays
+     * when those rewrites are ported.
+     */
+    public Map<String, List<String>> toAlternativeMap() {
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        for (int nt = 0; nt < nonTerminalCount; nt++) {
+            List<String> alternatives = new ArrayList<>(endProduction(nt) - firstProduction(nt));
+            for (int p = firstProduction(nt); p < endProduction(nt); p++) {
+                alternatives.add(rhsText[p]);
+            }
+            map.put(names[nt], alternatives);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,284 @@
+package com.compiler.learning.grammar;
+
+import java.util.*;
+
+/**
+ * Nullable, FIRST and FOLLOW sets of a {@link CompiledGrammar}.
+ *
+ * Sets are BitSets over terminal indices (see {@link CompiledGrammar#terminalIndex}), and
+ * ε-membership is kept separately as the nullable flag. Each phase is driven by a worklist
+ * over a precomputed dependency graph, so a non-terminal is only revisited when a set it
+ * depends on actually grew instead of sweeping every production until nothing changes.
+ * FIRST of every RHS suffix is tabulated once and reused by FOLLOW and the parse table.
+ */
+public final class FirstFollowAnalysis {
+
+    private final CompiledGrammar grammar;
+    private final boolean[] nullable;       // non-terminal -> derives ε
+    private final BitSet[] first;           // non-terminal -> FIRST without ε
+    private final BitSet[] follow;          // non-terminal -> FOLLOW
+    private final BitSet[] suffixFirst;     // RHS offset -> FIRST of the suffix starting there
+    private final BitSet suffixNullable;    // RHS offset -> suffix starting there derives ε
+
+    public FirstFollowAnalysis(CompiledGrammar grammar) {
+        this.grammar = grammar;
+        int nonTerminals = grammar.nonTerminalCount();
+        this.nullable = new boolean[nonTerminals];
+        this.first = new BitSet[nonTerminals];
+        this.follow = new BitSet[nonTerminals];
+        for (int nt = 0; nt < nonTerminals; nt++) {
+            first[nt] = new BitSet();
+            follow[nt] = new BitSet();
+        }
+        this.suffixFirst = new BitSet[grammar.rhsSize()];
+        this.suffixNullable = new BitSet(grammar.rhsSize());
+
+        computeNullable();
+        computeFirst();
+        computeSuffixFirst();
+        computeFollow();
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    public boolean isNullable(int nonTerminal) {
+        return nullable[nonTerminal];
+    }
+
+    /** FIRST(A) without ε, as terminal indices. */
+    public BitSet first(int nonTerminal) {
+        return (BitSet) first[nonTerminal].clone();
+    }
+
+    /** FOLLOW(A) as terminal indices. */
+    public BitSet follow(int nonTerminal) {
+        return (BitSet) follow[nonTerminal].clone();
+    }
+
+    /** FIRST of a production's right-hand side without ε. */
+    public BitSet firstOfProduction(int production) {
+        if (grammar.isEpsilon(production)) {
+            return new BitSet();
+        }
+        return (BitSet) suffixFirst[grammar.rhsOffset(production)].clone();
+    }
+
+    public boolean isProductionNullable(int production) {
+        return grammar.isEpsilon(production) || suffixNullable.get(grammar.rhsOffset(production));
+    }
+
+    /** FIRST sets by non-terminal name in definition order, with ε added for nullable ones. */
+    public Map<String, Set<String>> firstSetMap() {
+        Map<String, Set<String>> map = new LinkedHashMap<>();
+        for (int nt = 0; nt < first.length; nt++) {
+            Set<String> set = toNames(first[nt]);
+            if (nullable[nt]) set.add(CompiledGrammar.EPSILON);
+            map.put(grammar.name(nt), set);
+        }
+        return map;
+    }
+
+    /** FOLLOW sets by non-terminal name in definition order. */
+    public Map<String, Set<String>> followSetMap() {
+        Map<String, Set<String>> map = new LinkedHashMap<>();
+        for (int nt = 0; nt < follow.length; nt++) {
+            map.put(grammar.name(nt), toNames(follow[nt]));
+        }
+        return map;
+    }
+
+    private Set<String> toNames(BitSet terminals) {
+        Set<String> names = new LinkedHashSet<>();
+        for (int t = terminals.nextSetBit(0); t >= 0; t = terminals.nextSetBit(t + 1)) {
+            names.add(grammar.name(grammar.terminalAt(t)));
+        }
+        return names;
+    }
+
+    // Counting algorithm: a production becomes nullable once all of its RHS non-terminals are
+    private void computeNullable() {
+        int productions = grammar.productionCount();
+        int[] pending = new int[productions];
+        int[] occurrenceStart = new int[nullable.length + 1];
+        for (int p = 0; p < productions; p++) {
+            for (int i = 0; i < grammar.rhsLength(p); i++) {
+                int symbol = grammar.rhsSymbol(p, i);
+                if (grammar.isTerminal(symbol)) {
+                    pending[p] = Integer.MAX_VALUE; // can never derive ε
+                    break;
+                }
+                pending[p]++;
+            }
+            if (pending[p] != Integer.MAX_VALUE) {
+                for (int i = 0; i < grammar.rhsLength(p); i++) {
+                    occurrenceStart[grammar.rhsSymbol(p, i) + 1]++;
+                }
+            }
+        }
+        for (int nt = 0; nt < nullable.length; nt++) {
+            occurrenceStart[nt + 1] += occurrenceStart[nt];
+        }
+        int[] occurrences = new int[occurrenceStart[nullable.length]];
+        int[] fill = Arrays.copyOf(occurrenceStart, nullable.length);
+        for (int p = 0; p < productions; p++) {
+            if (pending[p] == Integer.MAX_VALUE) continue;
+            for (int i = 0; i < grammar.rhsLength(p); i++) {
+                occurrences[fill[grammar.rhsSymbol(p, i)]++] = p;
+            }
+        }
+
+        int[] queue = new int[nullable.length];
+        int head = 0;
+        int tail = 0;
+        for (int p = 0; p < productions; p++) {
+            int lhs = grammar.lhs(p);
+            if (pending[p] == 0 && !nullable[lhs]) {
+                nullable[lhs] = true;
+                queue[tail++] = lhs;
+            }
+        }
+        while (head < tail) {
+            int nt = queue[head++];
+            for (int k = occurrenceStart[nt]; k < occurrenceStart[nt + 1]; k++) {
+                int p = occurrences[k];
+                int lhs = grammar.lhs(p);
+                if (--pending[p] == 0 && !nullable[lhs]) {
+                    nullable[lhs] = true;
+                    queue[tail++] = lhs;
+                }
+            }
+        }
+    }
+
+    private void computeFirst() {
+        // Edge B -> A whenever FIRST(A) must include FIRST(B)
+        EdgeList edges = new EdgeList(first.length);
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            int lhs = grammar.lhs(p);
+            for (int i = 0; i < grammar.rhsLength(p); i++) {
+                int symbol = grammar.rhsSymbol(p, i);
+                if (grammar.isTerminal(symbol)) {
+                    first[lhs].set(grammar.terminalIndex(symbol));
+                    break;
+                }
+                if (symbol != lhs) edges.add(symbol, lhs);
+                if (!nullable[symbol]) break;
+            }
+        }
+        propagate(first, edges);
+    }
+
+    private void computeSuffixFirst() {
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            int start = grammar.rhsOffset(p);
+            int end = start + grammar.rhsLength(p);
+            for (int k = end - 1; k >= start; k--) {
+                int symbol = grammar.rhsSymbolAt(k);
+                BitSet set = new BitSet();
+                if (grammar.isTerminal(symbol)) {
+                    set.set(grammar.terminalIndex(symbol));
+                } else {
+                    set.or(first[symbol]);
+                    boolean restNullable = k + 1 == end || suffixNullable.get(k + 1);
+                    if (nullable[symbol]) {
+                        if (k + 1 < end) set.or(suffixFirst[k + 1]);
+                        if (restNullable) suffixNullable.set(k);
+                    }
+                }
+                suffixFirst[k] = set;
+            }
+        }
+    }
+
+    private void computeFollow() {
+        if (grammar.isEmpty()) return;
+        follow[grammar.startSymbol()].set(grammar.terminalIndex(grammar.endMarker()));
+
+        // Edge A -> B whenever FOLLOW(B) must include FOLLOW(A)
+        EdgeList edges = new EdgeList(follow.length);
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            int lhs = grammar.lhs(p);
+            int start = grammar.rhsOffset(p);
+            int end = start + grammar.rhsLength(p);
+            for (int k = start; k < end; k++) {
+                int symbol = grammar.rhsSymbolAt(k);
+                if (!grammar.isNonTerminal(symbol)) continue;
+                if (k + 1 < end) follow[symbol].or(suffixFirst[k + 1]);
+                if ((k + 1 == end || suffixNullable.get(k + 1)) && symbol != lhs) {
+                    edges.add(lhs, symbol);
+                }
+            }
+        }
+        propagate(follow, edges);
+    }
+
+    private static void propagate(BitSet[] sets, EdgeList edges) {
+        int n = sets.length;
+        int[] targetStart = edges.compress();
+        int[] targets = edges.targets;
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int head = 0;
+        int size = n;
+        for (int i = 0; i < n; i++) {
+            queue[i] = i;
+            queued[i] = true;
+        }
+        BitSet added = new BitSet();
+        while (size > 0) {
+            int from = queue[head];
+            head = (head + 1) % n;
+            size--;
+            queued[from] = false;
+            for (int k = targetStart[from]; k < targetStart[from + 1]; k++) {
+                int to = targets[k];
+                added.clear();
+                added.or(sets[from]);
+                added.andNot(sets[to]);
+                if (added.isEmpty()) continue;
+                sets[to].or(added);
+                if (!queued[to]) {
+                    queued[to] = true;
+                    queue[(head + size) % n] = to;
+                    size++;
+                }
+            }
+        }
+    }
+
+    /** Growable edge list turned into compressed adjacency (CSR) once all edges are known. */
+    private static final class EdgeList {
+        private final int nodes;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int size;
+
+        EdgeList(int nodes) {
+            this.nodes = nodes;
+        }
+
+        void add(int from, int to) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            sources[size] = from;
+            targets[size] = to;
+            size++;
+        }
+
+        /** Sorts targets by source and returns the per-source start offsets. */
+        int[] compress() {
+            int[] start = new int[nodes + 1];
+            for (int i = 0; i < size; i++) start[sources[i] + 1]++;
+            for (int i = 0; i < nodes; i++) start[i + 1] += start[i];
+            int[] fill = Arrays.copyOf(start, nodes);
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) sorted[fill[sources[i]]++] = targets[i];
+            targets = sorted;
+            return start;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.compiler.learning.grammar;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded LRU cache of artifacts derived from grammar text.
+ *
+ * Keys are the grammar text after {@link #normalize}, so the same grammar typed with
+ * different spacing, line endings or arrow style shares one entry. The cache is bounded
+ * both by entry count and by the total estimated size reported by the weigher; the least
+ * recently used entries are evicted until both limits hold. Concurrent misses on the same
+ * key wait for a single load instead of each computing the artifacts.
+ */
+public final class GrammarCache<V> {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final Function<String, V> loader;
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private long totalWeight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param loader builds the artifact from normalized grammar text
+     * @param weigher estimated retained size of an artifact in bytes
+     */
+    public GrammarCache(int maxEntries, long maxWeight, Function<String, V> loader, ToLongFunction<V> weigher) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWeight = Math.max(1, maxWeight);
+        this.loader = loader;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Canonical form of grammar text: lines trimmed, blank lines dropped, runs of
+     * whitespace collapsed to one space and → written as ->.
+     */
+    public static String normalize(String grammarText) {
+        if (grammarText == null) return "";
+        StringBuilder sb = new StringBuilder(grammarText.length());
+        boolean lineHasContent = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < grammarText.length(); i++) {
+            char c = grammarText.charAt(i);
+            if (c == '\n' || c == '\r') {
+                if (lineHasContent) sb.append('\n');
+                lineHasContent = false;
+                pendingSpace = false;
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = lineHasContent;
+            } else {
+                if (pendingSpace) sb.append(' ');
+                pendingSpace = false;
+                lineHasContent = true;
+                if (c == '→') {
+                    sb.append("->");
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == '\n') sb.setLength(end - 1);
+        return sb.toString();
+    }
+
+    public V get(String grammarText) {
+        String key = normalize(grammarText);
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            hits.incrementAndGet();
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        try {
+            // A load that finished between the lookup above and putIfAbsent has already stored its value
+            synchronized (this) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null) {
+                    hits.incrementAndGet();
+                    future.complete(entry.value);
+                    return entry.value;
+                }
+            }
+            misses.incrementAndGet();
+            V value = loader.apply(key);
+            put(key, value, weigher.applyAsLong(value));
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    private synchronized void put(String key, V value, long weight) {
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight));
+        if (previous != null) totalWeight -= previous.weight;
+        totalWeight += weight;
+
+        Iterator<Map.Entry<String, Entry<V>>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && eldest.hasNext()) {
+            Map.Entry<String, Entry<V>> victim = eldest.next();
+            if (victim.getKey().equals(key) && entries.size() == 1) break; // keep an oversized newest entry
+            totalWeight -= victim.getValue().weight;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.compiler.learning.grammar;
+
+import java.util.*;
+
+/**
+ * Single parser for the textual grammar format accepted across the app:
+ *
+ * <pre>
+ * E  -> T E'
+ * E' → + T E' | ε
+ * </pre>
+ *
+ * Both arrow spellings are accepted, alternatives are separated by '|', repeated
+ * definitions of the same non-terminal are merged, and ε, epsilon, # and ∈ (or an empty
+ * alternative) all denote the empty string. The text is scanned once with no regex work.
+ */
+public final class GrammarCompiler {
+
+    /** How the right-hand side of an alternative is split into symbols. */
+    public enum SymbolMode {
+        /** Symbols are separated by whitespace: "T E'" -> [T, E']. Used by the LL(1) tools. */
+        WHITESPACE,
+        /**
+         * Symbols are written back to back: "TE'" -> [T, E']. Defined non-terminals are matched
+         * longest-first, then each letter or special character is one symbol and digit runs are
+         * one symbol. Used by FIRST/FOLLOW and the grammar rewriting tools.
+         */
+        CHARACTER
+    }
+
+    private GrammarCompiler() {
+    }
+
+    public static CompiledGrammar compile(String grammarText, SymbolMode mode) {
+        String text = grammarText == null ? "" : grammarText;
+
+        // Pass 1: split lines into LHS and raw alternatives, in definition order
+        Map<String, List<String>> alternatives = new LinkedHashMap<>();
+        int lineStart = 0;
+        while (lineStart <= text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = text.length();
+            addLine(text, lineStart, lineEnd, alternatives);
+            lineStart = lineEnd + 1;
+        }
+
+        // Pass 2: intern non-terminals, then terminals in order of appearance
+        int nonTerminalCount = alternatives.size();
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>(alternatives.keySet());
+        for (int i = 0; i < names.size(); i++) {
+            ids.put(names.get(i), i);
+        }
+        SymbolTrie nonTerminalTrie = mode == SymbolMode.CHARACTER ? new SymbolTrie(names.toArray(new String[0])) : null;
+
+        int productionCount = 0;
+        for (List<String> alts : alternatives.values()) {
+            productionCount += alts.size();
+        }
+
+        int[] productionLhs = new int[productionCount];
+        int[] rhsStart = new int[productionCount + 1];
+        String[] rhsText = new String[productionCount];
+        int[] ntProductionStart = new int[nonTerminalCount + 1];
+        int[] rhsSymbols = new int[16];
+        int rhsSize = 0;
+        boolean usesEndMarker = false;
+
+        List<String> symbols = new ArrayList<>();
+        int p = 0;
+        int nt = 0;
+        for (List<String> alts : alternatives.values()) {
+            ntProductionStart[nt] = p;
+            for (String alt : alts) {
+                productionLhs[p] = nt;
+                rhsStart[p] = rhsSize;
+                if (isEpsilon(alt)) {
+                    rhsText[p] = CompiledGrammar.EPSILON;
+                } else {
+                    rhsText[p] = alt;
+                    symbols.clear();
+                    if (mode == SymbolMode.WHITESPACE) {
+                        splitWhitespace(alt, symbols);
+                    } else {
+                        splitCharacters(alt, nonTerminalTrie, names, symbols);
+                    }
+                    for (String symbol : symbols) {
+                        if (isEpsilon(symbol)) continue;
+                        int id;
+                        if (symbol.equals(CompiledGrammar.END_MARKER)) {
+                            usesEndMarker = true;
+                            id = -1; // patched once the end marker ID is known
+                        } else {
+                            Integer known = ids.get(symbol);
+                            if (known == null) {
+                                known = names.size();
+                                names.add(symbol);
+                                ids.put(symbol, known);
+                            }
+                            id = known;
+                        }
+                        if (rhsSize == rhsSymbols.length) {
+                            rhsSymbols = Arrays.copyOf(rhsSymbols, rhsSize * 2);
+                        }
+                        rhsSymbols[rhsSize++] = id;
+                    }
+                }
+                p++;
+            }
+            nt++;
+        }
+        rhsStart[productionCount] = rhsSize;
+        ntProductionStart[nonTerminalCount] = productionCount;
+
+        int endMarker = names.size();
+        names.add(CompiledGrammar.END_MARKER);
+        ids.put(CompiledGrammar.END_MARKER, endMarker);
+        if (usesEndMarker) {
+            for (int k = 0; k < rhsSize; k++) {
+                if (rhsSymbols[k] < 0) rhsSymbols[k] = endMarker;
+            }
+        }
+
+        return new CompiledGrammar(text, names.toArray(new String[0]), ids, nonTerminalCount,
+                productionLhs, rhsStart, Arrays.copyOf(rhsSymbols, rhsSize), rhsText, ntProductionStart);
+    }
+
+    public static boolean isEpsilon(String symbol) {
+        return symbol.isEmpty() || symbol.equals("ε") || symbol.equals("epsilon")
+                || symbol.equals("#") || symbol.equals("∈");
+    }
+
+    private static void addLine(String text, int start, int end, Map<String, List<String>> alternatives) {
+        // Searches stay inside the line so large grammars are scanned in linear time
+        int ascii = -1;
+        int unicode = -1;
+        for (int i = start; i < end && ascii < 0 && unicode < 0; i++) {
+            char c = text.charAt(i);
+            if (c == '→') unicode = i;
+            else if (c == '-' && i + 1 < end && text.charAt(i + 1) == '>') ascii = i;
+        }
+        int arrow;
+        int arrowLength;
+        if (ascii >= 0 && (unicode < 0 || ascii < unicode)) {
+            arrow = ascii;
+            arrowLength = 2;
+        } else if (unicode >= 0) {
+            arrow = unicode;
+            arrowLength = 1;
+        } else {
+            return;
+        }
+
+        String lhs = text.substring(start, arrow).trim();
+        if (lhs.isEmpty()) return;
+
+        List<String> alts = alternatives.computeIfAbsent(lhs, k -> new ArrayList<>());
+        int altStart = arrow + arrowLength;
+        while (true) {
+            int bar = altStart;
+            while (bar < end && text.charAt(bar) != '|') bar++;
+            if (bar == end) {
+                alts.add(text.substring(altStart, end).trim());
+                return;
+            }
+            alts.add(text.substring(altStart, bar).trim());
+            altStart = bar + 1;
+        }
+    }
+
+    private static void splitWhitespace(String alt, List<String> out) {
+        int i = 0;
+        int n = alt.length();
+        while (i < n) {
+            while (i < n && Character.isWhitespace(alt.charAt(i))) i++;
+            int start = i;
+            while (i < n && !Character.isWhitespace(alt.charAt(i))) i++;
+            if (i > start) out.add(alt.substring(start, i));
+        }
+    }
+
+    /** Splits a back-to-back alternative; the trie holds the defined non-terminals, names their IDs. */
+    private static void splitCharacters(String alt, SymbolTrie nonTerminals, List<String> names, List<String> out) {
+        int[] match = new int[1];
+        int i = 0;
+        int n = alt.length();
+        while (i < n) {
+            char c = alt.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int end = nonTerminals.longestMatch(alt, i, n, match);
+            if (end > 0) {
+                out.add(names.get(match[0]));
+                i = end;
+                continue;
+            }
+            if (Character.isDigit(c)) {
+                int start = i;
+                while (i < n && Character.isDigit(alt.charAt(i))) i++;
+                out.add(alt.substring(start, i));
+            } else {
+                out.add(String.valueOf(c));
+                i++;
+            }
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.compiler.learning.grammar;
+
+import java.util.*;
+
+/**
+ * Synthetic grammars and sentences for benchmarks, load tests and fuzzing.
+ *
+ * {@link #grammar} writes a random grammar in the whitespace-separated text format. In LL(1)
+ * mode the result is LL(1) by construction:
+ * <ul>
+ *   <li>every alternative starts with a terminal, distinct among the alternatives of its rule
+ *       (no FIRST/FIRST conflicts);</li>
+ *   <li>only ε-alternatives are nullable, and every occurrence of a nullable non-terminal is
+ *       directly followed by a marker terminal that never starts an alternative (no
+ *       FIRST/FOLLOW conflicts).</li>
+ * </ul>
+ * Otherwise alternatives start with any symbol, so conflicts are likely, and non-terminals
+ * can be grouped into left-recursive cycles of a given depth.
+ *
+ * In both modes alternative 0 of every rule contains terminals only, so every non-terminal
+ * derives a short string, and non-terminal i is referenced from non-terminal (i - 1) / 2,
+ * so every non-terminal is reachable from the start symbol N0.
+ *
+ * {@link #sentence} derives a string of about a requested length from any compiled grammar.
+ */
+public final class GrammarGenerator {
+
+    /** Shape of a generated grammar. Production count is about nonTerminals * alternatives. */
+    public static final class Options {
+        private int nonTerminals = 16;
+        private int alternatives = 3;
+        private int rhsLength = 4;
+        private int terminals = 16;
+        private double epsilonDensity = 0.2;
+        private int leftRecursionDepth = 0;
+        private boolean ll1 = true;
+        private long seed = 42;
+
+        public Options nonTerminals(int nonTerminals) {
+            this.nonTerminals = Math.max(1, nonTerminals);
+            return this;
+        }
+
+        /** Non-ε alternatives per rule; capped at the terminal count in LL(1) mode. */
+        public Options alternatives(int alternatives) {
+            this.alternatives = Math.max(1, alternatives);
+            return this;
+        }
+
+        /** Maximum symbols per alternative; lengths are drawn from [1, rhsLength]. */
+        public Options rhsLength(int rhsLength) {
+            this.rhsLength = Math.max(1, rhsLength);
+            return this;
+        }
+
+        /** Size of the ordinary terminal pool; LL(1) mode adds a quarter as many markers. */
+        public Options terminals(int terminals) {
+            this.terminals = Math.max(1, terminals);
+            return this;
+        }
+
+        /** Probability that a rule also gets an ε-alternative. */
+        public Options epsilonDensity(double epsilonDensity) {
+            this.epsilonDensity = Math.min(1, Math.max(0, epsilonDensity));
+            return this;
+        }
+
+        /**
+         * Length of the left-recursive cycles non-terminals are grouped into: 1 gives A -> A α,
+         * 2 gives A -> B α, B -> A β, and so on. 0 disables left recursion. Ignored in LL(1) mode.
+         */
+        public Options leftRecursionDepth(int leftRecursionDepth) {
+            this.leftRecursionDepth = Math.max(0, leftRecursionDepth);
+            return this;
+        }
+
+        public Options ll1(boolean ll1) {
+            this.ll1 = ll1;
+            return this;
+        }
+
+        public Options seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+    }
+
+    private static final double NON_TERMINAL_DENSITY = 0.35;
+
+    private GrammarGenerator() {
+    }
+
+    public static String grammar(Options options) {
+        Random random = new Random(options.seed);
+        int n = options.nonTerminals;
+        int terminalPool = options.terminals;
+        int markerPool = Math.max(1, terminalPool / 4);
+        int alternatives = options.ll1 ? Math.min(options.alternatives, terminalPool) : options.alternatives;
+        int cycle = options.ll1 ? 0 : options.leftRecursionDepth;
+
+        // Decide nullability first: LL(1) mode places a marker after every nullable non-terminal
+        boolean[] nullable = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            nullable[i] = random.nextDouble() < options.epsilonDensity;
+        }
+
+        int[] leads = new int[terminalPool];
+        for (int t = 0; t < terminalPool; t++) leads[t] = t;
+
+        StringBuilder sb = new StringBuilder(n * alternatives * (options.rhsLength + 2) * 4);
+        List<Integer> children = new ArrayList<>(2);
+        for (int i = 0; i < n; i++) {
+            children.clear();
+            if (2 * i + 1 < n) children.add(2 * i + 1);
+            if (2 * i + 2 < n) children.add(2 * i + 2);
+            int linkAlternative = alternatives > 1 ? 1 : 0;
+
+            if (options.ll1) {
+                // Distinct leading terminals for the alternatives of this rule
+                for (int a = 0; a < alternatives; a++) {
+                    int j = a + random.nextInt(terminalPool - a);
+                    int swap = leads[a];
+                    leads[a] = leads[j];
+                    leads[j] = swap;
+                }
+            }
+
+            sb.append('N').append(i).append(" ->");
+            for (int a = 0; a < alternatives; a++) {
+                if (a > 0) sb.append(" |");
+                int length = 1 + random.nextInt(options.rhsLength);
+                int written = 0;
+
+                if (options.ll1) {
+                    terminal(sb, leads[a]);
+                    written++;
+                } else if (cycle > 0 && a == alternatives - 1 && alternatives > 1) {
+                    // Left-recursive alternative: start with the next member of this cycle
+                    int groupStart = i - i % cycle;
+                    int next = groupStart + cycle <= n ? groupStart + (i - groupStart + 1) % cycle : -1;
+                    if (next >= 0) {
+                        sb.append(" N").append(next);
+                        terminal(sb, random.nextInt(terminalPool));
+                        written += 2;
+                    }
+                }
+
+                int pendingChildren = a == linkAlternative ? children.size() : 0;
+                while (written < length || pendingChildren > 0) {
+                    int nt = -1;
+                    if (pendingChildren > 0 && (written >= length - pendingChildren || random.nextBoolean())) {
+                        nt = children.get(children.size() - pendingChildren--);
+                    } else if (a != 0 && random.nextDouble() < NON_TERMINAL_DENSITY) {
+                        nt = random.nextInt(n);
+                    }
+                    if (nt < 0) {
+                        terminal(sb, random.nextInt(terminalPool));
+                        written++;
+                    } else {
+                        sb.append(" N").append(nt);
+                        written++;
+                        if (options.ll1 && nullable[nt]) {
+                            sb.append(" m").append(random.nextInt(markerPool));
+                            written++;
+                        }
+                    }
+                }
+            }
+            if (nullable[i]) sb.append(" | ε");
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void terminal(StringBuilder sb, int index) {
+        sb.append(" t").append(index);
+    }
+
+    public static CompiledGrammar compiled(Options options) {
+        return GrammarCompiler.compile(grammar(options), GrammarCompiler.SymbolMode.WHITESPACE);
+    }
+
+    /**
+     * Derives a sentence of about {@code targetLength} terminals from the start symbol, as
+     * terminal IDs in input order. It never exceeds the target unless the grammar's shortest
+     * sentence is already longer.
+     *
+     * Minimum yields are computed once with Knuth's generalization of Dijkstra's algorithm,
+     * which also gives every non-terminal a production that terminates strictly. The
+     * derivation expands the leftmost non-terminal with a random production that fits the
+     * remaining budget, preferring productions that reach a recursive non-terminal (so the
+     * sentence can keep growing), then ones that are longer than the minimum, and uses the
+     * terminating productions once the budget is spent. It runs on an explicit stack, so
+     * million-token sentences are fine.
+     *
+     * @throws IllegalArgumentException if the start symbol derives no terminal string
+     */
+    public static int[] sentence(CompiledGrammar grammar, int targetLength, Random random) {
+        if (grammar.isEmpty()) return new int[0];
+        YieldTable yield = new YieldTable(grammar);
+        int start = grammar.startSymbol();
+        if (yield.length[start] == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Start symbol " + grammar.name(start) + " derives no terminal string");
+        }
+
+        int[] out = new int[Math.max(16, targetLength)];
+        int emitted = 0;
+        int[] stack = new int[64];
+        int depth = 0;
+        stack[depth++] = start;
+        long pendingMin = yield.length[start];
+        long stepLimit = 8L * targetLength + 1024; // guards against wandering in unit/ε cycles
+        long steps = 0;
+
+        while (depth > 0) {
+            int symbol = stack[--depth];
+            if (grammar.isTerminal(symbol)) {
+                if (emitted == out.length) out = Arrays.copyOf(out, emitted * 2);
+                out[emitted++] = symbol;
+                pendingMin--;
+                continue;
+            }
+
+            long budget = targetLength - emitted - pendingMin;
+            int production = yield.best[symbol];
+            if (budget > 0 && steps++ < stepLimit) {
+                // Uniform choice among the fitting productions of the best tier (reservoir sampling)
+                int bestTier = -1;
+                int count = 0;
+                for (int p = grammar.firstProduction(symbol); p < grammar.endProduction(symbol); p++) {
+                    long extra = yield.production[p] - yield.length[symbol];
+                    if (yield.production[p] == Long.MAX_VALUE || extra > budget) continue;
+                    int tier = yield.recursive[p] ? 2 : extra > 0 ? 1 : 0;
+                    if (tier < bestTier) continue;
+                    if (tier > bestTier) {
+                        bestTier = tier;
+                        count = 0;
+                    }
+                    if (random.nextInt(++count) == 0) production = p;
+                }
+            }
+
+            pendingMin += yield.production[production] - yield.length[symbol];
+            int length = grammar.rhsLength(production);
+            if (depth + length > stack.length) stack = Arrays.copyOf(stack, Math.max(stack.length * 2, depth + length));
+            for (int k = length - 1; k >= 0; k--) {
+                stack[depth++] = grammar.rhsSymbol(production, k);
+            }
+        }
+        return Arrays.copyOf(out, emitted);
+    }
+
+    /** {@link #sentence} as space-separated terminal names. */
+    public static String sentenceText(CompiledGrammar grammar, int targetLength, Random random) {
+        int[] tokens = sentence(grammar, targetLength, random);
+        StringBuilder sb = new StringBuilder(tokens.length * 4);
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(grammar.name(tokens[i]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Per-grammar data for sentence generation: shortest terminal yield of every non-terminal
+     * and production with a strictly terminating choice, and which productions reach a
+     * non-terminal that can derive arbitrarily long strings.
+     */
+    private static final class YieldTable {
+        final long[] length;        // non-terminal -> minimum yield, MAX_VALUE if unproductive
+        final long[] production;    // production -> minimum yield, MAX_VALUE if unproductive
+        final int[] best;           // non-terminal -> production that first reached its minimum
+        final boolean[] recursive;  // production -> mentions a non-terminal that lies on or reaches a cycle
+
+        YieldTable(CompiledGrammar grammar) {
+            int nts = grammar.nonTerminalCount();
+            int productions = grammar.productionCount();
+            length = new long[nts];
+            production = new long[productions];
+            best = new int[nts];
+            recursive = new boolean[productions];
+            Arrays.fill(length, Long.MAX_VALUE);
+            Arrays.fill(best, -1);
+
+            // Occurrences of each non-terminal on right-hand sides (CSR layout)
+            int[] occurrenceStart = new int[nts + 1];
+            int[] unresolved = new int[productions];
+            for (int p = 0; p < productions; p++) {
+                for (int k = 0; k < grammar.rhsLength(p); k++) {
+                    int symbol = grammar.rhsSymbol(p, k);
+                    if (grammar.isNonTerminal(symbol)) {
+                        occurrenceStart[symbol + 1]++;
+                        unresolved[p]++;
+                    } else {
+                        production[p]++;
+                    }
+                }
+            }
+            for (int a = 0; a < nts; a++) occurrenceStart[a + 1] += occurrenceStart[a];
+            int[] occurrences = new int[occurrenceStart[nts]];
+            int[] fill = Arrays.copyOf(occurrenceStart, nts);
+            for (int p = 0; p < productions; p++) {
+                for (int k = 0; k < grammar.rhsLength(p); k++) {
+                    int symbol = grammar.rhsSymbol(p, k);
+                    if (grammar.isNonTerminal(symbol)) occurrences[fill[symbol]++] = p;
+                }
+            }
+
+            // Knuth: settle non-terminals in order of minimum yield
+            PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(e -> e[0]));
+            for (int p = 0; p < productions; p++) {
+                if (unresolved[p] == 0) queue.add(new long[]{production[p], p});
+            }
+            boolean[] done = new boolean[nts];
+            while (!queue.isEmpty()) {
+                long[] entry = queue.poll();
+                int p = (int) entry[1];
+                int nt = grammar.lhs(p);
+                if (done[nt]) continue;
+                done[nt] = true;
+                length[nt] = entry[0];
+                best[nt] = p;
+                for (int o = occurrenceStart[nt]; o < occurrenceStart[nt + 1]; o++) {
+                    int q = occurrences[o];
+                    production[q] += entry[0];
+                    if (--unresolved[q] == 0 && !done[grammar.lhs(q)]) {
+                        queue.add(new long[]{production[q], q});
+                    }
+                }
+            }
+            for (int p = 0; p < productions; p++) {
+                if (unresolved[p] > 0) production[p] = Long.MAX_VALUE;
+            }
+
+            // Bounded non-terminals are peeled off bottom-up; whatever remains reaches a cycle
+            int[] pending = new int[nts];
+            for (int p = 0; p < productions; p++) {
+                if (production[p] == Long.MAX_VALUE) continue;
+                for (int k = 0; k < grammar.rhsLength(p); k++) {
+                    if (grammar.isNonTerminal(grammar.rhsSymbol(p, k))) pending[grammar.lhs(p)]++;
+                }
+            }
+            boolean[] bounded = new boolean[nts];
+            int[] work = new int[nts];
+            int size = 0;
+            for (int a = 0; a < nts; a++) {
+                if (done[a] && pending[a] == 0) {
+                    bounded[a] = true;
+                    work[size++] = a;
+                }
+            }
+            while (size > 0) {
+                int nt = work[--size];
+                for (int o = occurrenceStart[nt]; o < occurrenceStart[nt + 1]; o++) {
+                    int q = occurrences[o];
+                    int lhs = grammar.lhs(q);
+                    if (production[q] != Long.MAX_VALUE && --pending[lhs] == 0 && !bounded[lhs]) {
+                        bounded[lhs] = true;
+                        work[size++] = lhs;
+                    }
+                }
+            }
+            for (int p = 0; p < productions; p++) {
+                if (production[p] == Long.MAX_VALUE) continue;
+                for (int k = 0; k < grammar.rhsLength(p) && !recursive[p]; k++) {
+                    int symbol = grammar.rhsSymbol(p, k);
+                    recursive[p] = grammar.isNonTerminal(symbol) && !bounded[symbol];
+                }
+            }
+        }
+    }
+}
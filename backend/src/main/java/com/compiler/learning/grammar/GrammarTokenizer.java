@@ -0,0 +1,91 @@
+package com.compiler.learning.grammar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maximal-munch tokenizer for parser input and stack strings, built once per grammar.
+ *
+ * Every symbol name of the grammar (non-terminals, terminals and $) is stored in a
+ * character trie. Scanning walks the trie from each token start and keeps the longest
+ * symbol seen, so "idid" becomes [id, id] and "E'" wins over "E" whether or not the input
+ * has spaces. Whitespace always separates tokens. Characters that start no symbol are
+ * grouped up to the next whitespace or known symbol and reported as one unknown token,
+ * which the parser then rejects.
+ *
+ * The trie is a {@link SymbolTrie}, so scanning allocates nothing besides the emitted
+ * tokens; known symbols are returned as the grammar's own name strings. Instances are
+ * immutable and thread-safe.
+ */
+public final class GrammarTokenizer {
+
+    /** Receives each token as a symbol ID (-1 if unknown) and its [start, end) range. */
+    @FunctionalInterface
+    public interface TokenSink {
+        void accept(int symbol, int start, int end);
+    }
+
+    private final CompiledGrammar grammar;
+    private final SymbolTrie trie;
+
+    public GrammarTokenizer(CompiledGrammar grammar) {
+        this.grammar = grammar;
+        String[] names = new String[grammar.symbolCount()];
+        for (int s = 0; s < names.length; s++) {
+            names[s] = grammar.name(s);
+        }
+        this.trie = new SymbolTrie(names);
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    public void scan(CharSequence input, TokenSink sink) {
+        int length = input.length();
+        int[] symbol = new int[1];
+        int i = 0;
+        while (i < length) {
+            if (Character.isWhitespace(input.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = trie.longestMatch(input, i, length, symbol);
+            if (end > 0) {
+                sink.accept(symbol[0], i, end);
+                i = end;
+                continue;
+            }
+            // Unknown run: up to whitespace or the next position where a symbol starts
+            int start = i++;
+            while (i < length && !Character.isWhitespace(input.charAt(i))
+                   && trie.longestMatch(input, i, length, symbol) < 0) {
+                i++;
+            }
+            sink.accept(-1, start, i);
+        }
+    }
+
+    /** Token texts; known symbols are the grammar's own name strings. The list is mutable. */
+    public List<String> tokenize(CharSequence input) {
+        List<String> tokens = new ArrayList<>();
+        if (input == null) return tokens;
+        scan(input, (symbol, start, end) ->
+            tokens.add(symbol >= 0 ? grammar.name(symbol) : input.subSequence(start, end).toString()));
+        return tokens;
+    }
+
+    /** Parser input: terminal IDs, with -1 for unknown tokens and for non-terminal names. */
+    public int[] terminalIds(CharSequence input) {
+        int[][] ids = {new int[16]};
+        int[] count = {0};
+        if (input != null) {
+            scan(input, (symbol, start, end) -> {
+                if (count[0] == ids[0].length) ids[0] = Arrays.copyOf(ids[0], count[0] * 2);
+                ids[0][count[0]++] = grammar.isTerminal(symbol) ? symbol : -1;
+            });
+        }
+        return Arrays.copyOf(ids[0], count[0]);
+    }
+}
@@ -0,0 +1,150 @@
+package com.compiler.learning.grammar;
+
+import java.util.Arrays;
+
+/**
+ * Table-driven LL(1) parser over symbol IDs.
+ *
+ * Input is an array of terminal IDs (anything that is not a terminal of the grammar should
+ * be passed as -1); the end marker is implied after the last token. The parse stack is an
+ * int array and each expansion copies a prebuilt RHS, so a step is a table load plus a few
+ * array writes. Tracing, tree building and derivations are left to an optional
+ * {@link Listener}; a parse without one allocates nothing but the stack.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class LL1Parser {
+
+    /** Callbacks fired before each parser action; the stack has its bottom at index 0. */
+    public interface Listener {
+        default void onExpand(int[] stack, int depth, int position, int production) {
+        }
+
+        default void onMatch(int[] stack, int depth, int position) {
+        }
+
+        default void onAccept(int[] stack, int depth, int position) {
+        }
+
+        default void onError(int[] stack, int depth, int position) {
+        }
+    }
+
+    /** Outcome of one parse. */
+    public static final class Result {
+        private final boolean accepted;
+        private final int position;
+        private final int topSymbol;
+        private final int steps;
+
+        Result(boolean accepted, int position, int topSymbol, int steps) {
+            this.accepted = accepted;
+            this.position = position;
+            this.topSymbol = topSymbol;
+            this.steps = steps;
+        }
+
+        public boolean isAccepted() {
+            return accepted;
+        }
+
+        /** Index of the token being looked at when the parse stopped (length of the input on accept). */
+        public int getPosition() {
+            return position;
+        }
+
+        /** Stack top when the parse failed, -1 on accept. */
+        public int getTopSymbol() {
+            return topSymbol;
+        }
+
+        /** Number of actions performed, including the final accept or error. */
+        public int getSteps() {
+            return steps;
+        }
+    }
+
+    private final LL1Table table;
+    private final CompiledGrammar grammar;
+    private final int[][] reversedRhs; // production -> RHS in push order (last symbol first)
+
+    public LL1Parser(LL1Table table) {
+        this.table = table;
+        this.grammar = table.getGrammar();
+        this.reversedRhs = new int[grammar.productionCount()][];
+        for (int p = 0; p < reversedRhs.length; p++) {
+            int length = grammar.rhsLength(p);
+            int[] rhs = new int[length];
+            for (int i = 0; i < length; i++) {
+                rhs[length - 1 - i] = grammar.rhsSymbol(p, i);
+            }
+            reversedRhs[p] = rhs;
+        }
+    }
+
+    public LL1Table getTable() {
+        return table;
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    /** Maps a token to the terminal ID the parser expects, or -1 if the grammar has no such terminal. */
+    public int terminalId(String token) {
+        int id = grammar.idOf(token);
+        return grammar.isTerminal(id) ? id : -1;
+    }
+
+    public Result parse(int[] tokens, int length) {
+        return parse(tokens, length, null);
+    }
+
+    public Result parse(int[] tokens, int length, Listener listener) {
+        int endMarker = grammar.endMarker();
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = endMarker;
+        stack[depth++] = grammar.startSymbol();
+
+        int position = 0;
+        int steps = 0;
+        while (depth > 0) {
+            int top = stack[depth - 1];
+            int lookahead = position < length ? tokens[position] : endMarker;
+            steps++;
+
+            if (top == endMarker && lookahead == endMarker) {
+                if (listener != null) listener.onAccept(stack, depth, position);
+                return new Result(true, position, -1, steps);
+            }
+
+            if (grammar.isTerminal(top)) {
+                if (top != lookahead) {
+                    if (listener != null) listener.onError(stack, depth, position);
+                    return new Result(false, position, top, steps);
+                }
+                if (listener != null) listener.onMatch(stack, depth, position);
+                depth--;
+                position++;
+                continue;
+            }
+
+            int production = lookahead < 0 ? LL1Table.NO_PRODUCTION : table.production(top, lookahead);
+            if (production == LL1Table.NO_PRODUCTION) {
+                if (listener != null) listener.onError(stack, depth, position);
+                return new Result(false, position, top, steps);
+            }
+            if (listener != null) listener.onExpand(stack, depth, position, production);
+
+            int[] rhs = reversedRhs[production];
+            depth--;
+            if (depth + rhs.length > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, depth + rhs.length));
+            }
+            System.arraycopy(rhs, 0, stack, depth, rhs.length);
+            depth += rhs.length;
+        }
+        return new Result(false, position, -1, steps);
+    }
+}
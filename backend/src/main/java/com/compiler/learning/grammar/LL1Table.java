@@ -0,0 +1,125 @@
+package com.compiler.learning.grammar;
+
+import java.util.*;
+
+/**
+ * Dense LL(1) predict table: one int per (non-terminal, terminal) pair holding the
+ * production ID to expand, or {@link #NO_PRODUCTION}. Rows are non-terminal IDs and columns
+ * are terminal indices, so a lookup is a single array load. When two productions compete
+ * for a cell the first one keeps it and the clash is recorded as a {@link Conflict}.
+ */
+public final class LL1Table {
+
+    public static final int NO_PRODUCTION = -1;
+
+    private final CompiledGrammar grammar;
+    private final int columns;
+    private final int[] cells;
+    private final List<Conflict> conflicts;
+
+    public LL1Table(FirstFollowAnalysis analysis) {
+        this.grammar = analysis.getGrammar();
+        this.columns = grammar.terminalCount();
+        this.cells = new int[grammar.nonTerminalCount() * columns];
+        Arrays.fill(cells, NO_PRODUCTION);
+
+        List<Conflict> found = new ArrayList<>();
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            int nt = grammar.lhs(p);
+            BitSet first = analysis.firstOfProduction(p);
+            for (int t = first.nextSetBit(0); t >= 0; t = first.nextSetBit(t + 1)) {
+                place(nt, t, p, Conflict.FIRST_FIRST, found);
+            }
+            if (analysis.isProductionNullable(p)) {
+                BitSet follow = analysis.follow(nt);
+                for (int t = follow.nextSetBit(0); t >= 0; t = follow.nextSetBit(t + 1)) {
+                    place(nt, t, p, Conflict.FIRST_FOLLOW, found);
+                }
+            }
+        }
+        this.conflicts = Collections.unmodifiableList(found);
+    }
+
+    private void place(int nt, int terminalIndex, int production, String type, List<Conflict> found) {
+        int cell = nt * columns + terminalIndex;
+        if (cells[cell] == NO_PRODUCTION) {
+            cells[cell] = production;
+        } else {
+            found.add(new Conflict(nt, grammar.terminalAt(terminalIndex), cells[cell], production, type));
+        }
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    /** Production for non-terminal {@code nt} under terminal symbol ID {@code terminal}, or NO_PRODUCTION. */
+    public int production(int nt, int terminal) {
+        return cells[nt * columns + grammar.terminalIndex(terminal)];
+    }
+
+    public boolean isLL1() {
+        return conflicts.isEmpty();
+    }
+
+    public List<Conflict> getConflicts() {
+        return conflicts;
+    }
+
+    /** Terminals (as terminal indices) that can legally follow when {@code symbol} is on top of the stack. */
+    public BitSet expectedTerminals(int symbol) {
+        BitSet expected = new BitSet(columns);
+        if (grammar.isTerminal(symbol)) {
+            expected.set(grammar.terminalIndex(symbol));
+            return expected;
+        }
+        int row = symbol * columns;
+        for (int t = 0; t < columns; t++) {
+            if (cells[row + t] != NO_PRODUCTION) expected.set(t);
+        }
+        return expected;
+    }
+
+    public int cellCount() {
+        return cells.length;
+    }
+
+    public static final class Conflict {
+        public static final String FIRST_FIRST = "FIRST/FIRST";
+        public static final String FIRST_FOLLOW = "FIRST/FOLLOW";
+
+        private final int nonTerminal;
+        private final int terminal;
+        private final int existingProduction;
+        private final int production;
+        private final String type;
+
+        Conflict(int nonTerminal, int terminal, int existingProduction, int production, String type) {
+            this.nonTerminal = nonTerminal;
+            this.terminal = terminal;
+            this.existingProduction = existingProduction;
+            this.production = production;
+            this.type = type;
+        }
+
+        public int getNonTerminal() {
+            return nonTerminal;
+        }
+
+        public int getTerminal() {
+            return terminal;
+        }
+
+        public int getExistingProduction() {
+            return existingProduction;
+        }
+
+        public int getProduction() {
+            return production;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.compiler.learning.grammar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Leftmost derivation recorded by an {@link LL1Parser} run.
+ *
+ * In a top-down parse the sentential form before an expansion is always the input matched so
+ * far followed by the parse stack read from the top, so a derivation step is fully described
+ * by (input position, production ID). Recording is two int writes per expansion; the
+ * "S ⇒ … ⇒ …" text is only produced when {@link #render} is called, by replaying the pairs.
+ */
+public final class LeftmostDerivation implements LL1Parser.Listener {
+
+    private static final String SEPARATOR = " ⇒ ";
+
+    private final CompiledGrammar grammar;
+    private int[] positions = new int[16];
+    private int[] productions = new int[16];
+    private int size;
+
+    public LeftmostDerivation(CompiledGrammar grammar) {
+        this.grammar = grammar;
+    }
+
+    @Override
+    public void onExpand(int[] stack, int depth, int position, int production) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            productions = Arrays.copyOf(productions, size * 2);
+        }
+        positions[size] = position;
+        productions[size] = production;
+        size++;
+    }
+
+    /** Number of expansions, i.e. sentential forms after the start symbol. */
+    public int size() {
+        return size;
+    }
+
+    /** Input position at which the i-th expansion happened. */
+    public int position(int i) {
+        return positions[i];
+    }
+
+    /** Production applied by the i-th expansion. */
+    public int production(int i) {
+        return productions[i];
+    }
+
+    /** Compact form: one [position, production ID] pair per expansion. */
+    public List<int[]> toPairs() {
+        List<int[]> pairs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            pairs.add(new int[]{positions[i], productions[i]});
+        }
+        return pairs;
+    }
+
+    /** Every sentential form, starting with the start symbol. ε-productions simply remove their symbol. */
+    public List<String> renderForms() {
+        return renderForms(Long.MAX_VALUE);
+    }
+
+    /**
+     * The leading sentential forms whose " ⇒ "-joined text fits in {@code maxChars}; the start
+     * symbol is always included. Forms grow with the input, so a long derivation renders to
+     * O(n²) characters and callers showing it should pass a budget.
+     */
+    public List<String> renderForms(long maxChars) {
+        List<String> forms = new ArrayList<>();
+        if (grammar.isEmpty()) return forms;
+
+        // pending holds the unmatched part of the form with its leftmost symbol at the end
+        int[] pending = new int[16];
+        int pendingSize = 0;
+        pending[pendingSize++] = grammar.startSymbol();
+        StringBuilder matched = new StringBuilder();
+        int matchedCount = 0;
+        String start = grammar.name(grammar.startSymbol());
+        forms.add(start);
+        long chars = start.length();
+
+        for (int i = 0; i < size; i++) {
+            // Terminals consumed since the previous expansion move into the matched prefix
+            while (matchedCount < positions[i]) {
+                if (matched.length() > 0) matched.append(' ');
+                matched.append(grammar.name(pending[--pendingSize]));
+                matchedCount++;
+            }
+
+            int p = productions[i];
+            pendingSize--; // the expanded non-terminal
+            int length = grammar.rhsLength(p);
+            if (pendingSize + length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingSize + length));
+            }
+            for (int k = length - 1; k >= 0; k--) {
+                pending[pendingSize++] = grammar.rhsSymbol(p, k);
+            }
+
+            StringBuilder form = new StringBuilder(matched);
+            for (int k = pendingSize - 1; k >= 0 && chars + SEPARATOR.length() + form.length() <= maxChars; k--) {
+                if (form.length() > 0) form.append(' ');
+                form.append(grammar.name(pending[k]));
+            }
+            if (form.length() == 0) form.append(CompiledGrammar.EPSILON);
+            chars += SEPARATOR.length() + form.length();
+            if (chars > maxChars) break;
+            forms.add(form.toString());
+        }
+        return forms;
+    }
+
+    /** The derivation as "S ⇒ α₁ ⇒ α₂ ⇒ …". */
+    public String render() {
+        return String.join(SEPARATOR, renderForms());
+    }
+
+    /**
+     * As {@link #render()}, but stops before the text would pass {@code maxChars} and ends
+     * with "⇒ … N more steps" for the forms left out.
+     */
+    public String render(long maxChars) {
+        List<String> forms = renderForms(maxChars);
+        String text = String.join(SEPARATOR, forms);
+        int omitted = size + 1 - forms.size();
+        return omitted > 0 && !forms.isEmpty() ? text + SEPARATOR + "… " + omitted + " more steps" : text;
+    }
+
+    /** Whether {@link #render()} fits in {@code maxChars}, without building the text. */
+    public boolean fitsIn(long maxChars) {
+        return renderForms(maxChars).size() == size + 1 || grammar.isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.compiler.learning.grammar;
+
+import java.util.Arrays;
+
+/**
+ * Table-driven shift-reduce parser over an {@link SLRTable}.
+ *
+ * Input is an array of terminal IDs (-1 for anything the grammar does not know); the end
+ * marker is implied after the last token. The stack holds states only, so a parse with no
+ * {@link Listener} allocates nothing but the stack. Reductions are reported in the order a
+ * bottom-up evaluator needs them, which is all an S-attributed translation requires.
+ */
+public final class SLRParser {
+
+    /** Callbacks fired as the parser acts. */
+    public interface Listener {
+        default void onShift(int position) {
+        }
+
+        /** Reduction by a production; its RHS occupied the top rhsLength stack entries. */
+        default void onReduce(int production, int position) {
+        }
+
+        default void onAccept(int position) {
+        }
+
+        default void onError(int state, int position) {
+        }
+    }
+
+    /** Outcome of one parse. */
+    public static final class Result {
+        private final boolean accepted;
+        private final int position;
+        private final int state;
+
+        Result(boolean accepted, int position, int state) {
+            this.accepted = accepted;
+            this.position = position;
+            this.state = state;
+        }
+
+        public boolean isAccepted() {
+            return accepted;
+        }
+
+        /** Index of the token being looked at when the parse stopped (length of the input on accept). */
+        public int getPosition() {
+            return position;
+        }
+
+        /** State on top of the stack when the parse stopped. */
+        public int getState() {
+            return state;
+        }
+    }
+
+    private final SLRTable table;
+    private final CompiledGrammar grammar;
+
+    public SLRParser(SLRTable table) {
+        this.table = table;
+        this.grammar = table.getGrammar();
+    }
+
+    public SLRTable getTable() {
+        return table;
+    }
+
+    public Result parse(int[] tokens, int length, Listener listener) {
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = 0;
+        int position = 0;
+        while (true) {
+            int state = stack[depth - 1];
+            int terminal = position < length ? tokens[position] : grammar.endMarker();
+            int action = terminal < 0 ? SLRTable.ERROR : table.action(state, grammar.terminalIndex(terminal));
+            if (SLRTable.isShift(action)) {
+                if (listener != null) listener.onShift(position);
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = SLRTable.shiftTarget(action);
+                position++;
+            } else if (SLRTable.isReduce(action)) {
+                int production = SLRTable.reduceProduction(action);
+                if (listener != null) listener.onReduce(production, position);
+                depth -= grammar.rhsLength(production);
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth] = table.goTo(stack[depth - 1], grammar.lhs(production));
+                depth++;
+            } else if (action == SLRTable.ACCEPT) {
+                if (listener != null) listener.onAccept(position);
+                return new Result(true, position, state);
+            } else {
+                if (listener != null) listener.onError(state, position);
+                return new Result(false, position, state);
+            }
+        }
+    }
+}
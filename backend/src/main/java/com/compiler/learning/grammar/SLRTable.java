@@ -0,0 +1,243 @@
+package com.compiler.learning.grammar;
+
+import java.util.*;
+
+/**
+ * SLR(1) parse table built from the LR(0) automaton of a grammar.
+ *
+ * The grammar is augmented with S' → S, where S' is not a symbol of the compiled grammar but
+ * an extra production with ID {@link CompiledGrammar#productionCount()}. An LR(0) item
+ * (production, dot) is numbered densely, so item sets are BitSets; the closure of a kernel
+ * is the kernel plus the precomputed closure of each non-terminal right after a dot, and
+ * kernels are hash-consed to state IDs. A completed item A → α· reduces on FOLLOW(A).
+ *
+ * Actions are one int per (state, terminal index): {@link #ERROR}, {@link #ACCEPT}, a shift
+ * to state s encoded as s + 1, or a reduction by production p encoded as -(p + 1). When two
+ * actions compete for a cell the first one keeps it and the clash is recorded as a
+ * {@link Conflict}.
+ */
+public final class SLRTable {
+
+    public static final int ERROR = 0;
+    public static final int ACCEPT = Integer.MIN_VALUE;
+
+    private final CompiledGrammar grammar;
+    private final int columns;
+    private final int stateCount;
+    private final int[] actions;
+    private final int[] gotos;        // state * nonTerminals + nt -> state, -1 if none
+    private final List<Conflict> conflicts;
+
+    public SLRTable(FirstFollowAnalysis analysis) {
+        this.grammar = analysis.getGrammar();
+        this.columns = grammar.terminalCount();
+        int productions = grammar.productionCount();
+        int nonTerminals = grammar.nonTerminalCount();
+
+        // Item IDs: production p owns [itemStart[p], itemStart[p] + rhsLength(p)]; the
+        // augmented production comes last with items S' → ·S and S' → S·
+        int[] itemStart = new int[productions + 2];
+        for (int p = 0; p < productions; p++) itemStart[p + 1] = itemStart[p] + grammar.rhsLength(p) + 1;
+        itemStart[productions + 1] = itemStart[productions] + 2;
+        int items = itemStart[productions + 1];
+        int[] itemProduction = new int[items];
+        for (int p = 0; p <= productions; p++) {
+            Arrays.fill(itemProduction, itemStart[p], itemStart[p + 1], p);
+        }
+
+        // Closure of each non-terminal: the initial items of every non-terminal derivable
+        // from it in leftmost position, itself included
+        BitSet[] ntClosure = new BitSet[nonTerminals];
+        for (int nt = 0; nt < nonTerminals; nt++) {
+            ntClosure[nt] = new BitSet(items);
+            BitSet seen = new BitSet(nonTerminals);
+            Deque<Integer> work = new ArrayDeque<>();
+            work.push(nt);
+            seen.set(nt);
+            while (!work.isEmpty()) {
+                int a = work.pop();
+                for (int p = grammar.firstProduction(a); p < grammar.endProduction(a); p++) {
+                    ntClosure[nt].set(itemStart[p]);
+                    if (!grammar.isEpsilon(p)) {
+                        int b = grammar.rhsSymbol(p, 0);
+                        if (grammar.isNonTerminal(b) && !seen.get(b)) {
+                            seen.set(b);
+                            work.push(b);
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<BitSet, Integer> ids = new HashMap<>();
+        List<BitSet> kernels = new ArrayList<>();
+        BitSet initial = new BitSet(items);
+        initial.set(itemStart[productions]);
+        ids.put(initial, 0);
+        kernels.add(initial);
+
+        int[] actionCells = new int[16 * columns];
+        int[] gotoCells = new int[16 * Math.max(1, nonTerminals)];
+        Arrays.fill(gotoCells, -1);
+        List<Conflict> found = new ArrayList<>();
+        BitSet[] moves = new BitSet[grammar.symbolCount()];
+        for (int state = 0; state < kernels.size(); state++) {
+            if ((state + 1) * columns > actionCells.length) {
+                actionCells = Arrays.copyOf(actionCells, actionCells.length * 2);
+                int old = gotoCells.length;
+                gotoCells = Arrays.copyOf(gotoCells, old * 2);
+                Arrays.fill(gotoCells, old, gotoCells.length, -1);
+            }
+            BitSet closure = (BitSet) kernels.get(state).clone();
+            for (int item = kernels.get(state).nextSetBit(0); item >= 0; item = kernels.get(state).nextSetBit(item + 1)) {
+                int next = symbolAfterDot(item, itemProduction[item], itemStart);
+                if (next >= 0 && grammar.isNonTerminal(next)) closure.or(ntClosure[next]);
+            }
+
+            for (int item = closure.nextSetBit(0); item >= 0; item = closure.nextSetBit(item + 1)) {
+                int p = itemProduction[item];
+                int next = symbolAfterDot(item, p, itemStart);
+                if (next >= 0) {
+                    if (moves[next] == null) moves[next] = new BitSet(items);
+                    moves[next].set(item + 1);
+                } else if (p == productions) {
+                    place(actionCells, state, grammar.terminalIndex(grammar.endMarker()), ACCEPT, found);
+                } else {
+                    BitSet follow = analysis.follow(grammar.lhs(p));
+                    for (int t = follow.nextSetBit(0); t >= 0; t = follow.nextSetBit(t + 1)) {
+                        place(actionCells, state, t, -(p + 1), found);
+                    }
+                }
+            }
+
+            for (int symbol = 0; symbol < moves.length; symbol++) {
+                BitSet kernel = moves[symbol];
+                if (kernel == null) continue;
+                moves[symbol] = null;
+                Integer target = ids.get(kernel);
+                if (target == null) {
+                    target = kernels.size();
+                    ids.put(kernel, target);
+                    kernels.add(kernel);
+                }
+                if (grammar.isNonTerminal(symbol)) {
+                    gotoCells[state * nonTerminals + symbol] = target;
+                } else {
+                    place(actionCells, state, grammar.terminalIndex(symbol), target + 1, found);
+                }
+            }
+        }
+        this.stateCount = kernels.size();
+        this.actions = Arrays.copyOf(actionCells, stateCount * columns);
+        this.gotos = Arrays.copyOf(gotoCells, stateCount * nonTerminals);
+        this.conflicts = Collections.unmodifiableList(found);
+    }
+
+    /** Symbol right after the dot of an item, or -1 if the item is complete. */
+    private int symbolAfterDot(int item, int production, int[] itemStart) {
+        int dot = item - itemStart[production];
+        if (production == grammar.productionCount()) return dot == 0 ? grammar.startSymbol() : -1;
+        return dot < grammar.rhsLength(production) ? grammar.rhsSymbol(production, dot) : -1;
+    }
+
+    private void place(int[] cells, int state, int terminalIndex, int action, List<Conflict> found) {
+        int cell = state * columns + terminalIndex;
+        if (cells[cell] == ERROR) {
+            cells[cell] = action;
+        } else if (cells[cell] != action) {
+            String type = cells[cell] > 0 || action > 0 ? Conflict.SHIFT_REDUCE : Conflict.REDUCE_REDUCE;
+            found.add(new Conflict(state, grammar.terminalAt(terminalIndex), cells[cell], action, type));
+        }
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    public int stateCount() {
+        return stateCount;
+    }
+
+    /** Action in a state on a terminal index. */
+    public int action(int state, int terminalIndex) {
+        return actions[state * columns + terminalIndex];
+    }
+
+    /** Successor of a state on a non-terminal, -1 if none. */
+    public int goTo(int state, int nonTerminal) {
+        return gotos[state * grammar.nonTerminalCount() + nonTerminal];
+    }
+
+    public static boolean isShift(int action) {
+        return action > 0;
+    }
+
+    public static boolean isReduce(int action) {
+        return action < 0 && action != ACCEPT;
+    }
+
+    public static int shiftTarget(int action) {
+        return action - 1;
+    }
+
+    public static int reduceProduction(int action) {
+        return -action - 1;
+    }
+
+    public boolean isSLR() {
+        return conflicts.isEmpty();
+    }
+
+    public List<Conflict> getConflicts() {
+        return conflicts;
+    }
+
+    /** Terminal indices with an action in the state. */
+    public BitSet expectedTerminals(int state) {
+        BitSet expected = new BitSet(columns);
+        for (int t = 0; t < columns; t++) {
+            if (actions[state * columns + t] != ERROR) expected.set(t);
+        }
+        return expected;
+    }
+
+    /** Two actions for one (state, terminal) cell; the existing one stays in the table. */
+    public static final class Conflict {
+        public static final String SHIFT_REDUCE = "shift/reduce";
+        public static final String REDUCE_REDUCE = "reduce/reduce";
+
+        private final int state;
+        private final int terminal;
+        private final int existingAction;
+        private final int action;
+        private final String type;
+
+        Conflict(int state, int terminal, int existingAction, int action, String type) {
+            this.state = state;
+            this.terminal = terminal;
+            this.existingAction = existingAction;
+            this.action = action;
+            this.type = type;
+        }
+
+        public int getState() {
+            return state;
+        }
+
+        public int getTerminal() {
+            return terminal;
+        }
+
+        public int getExistingAction() {
+            return existingAction;
+        }
+
+        public int getAction() {
+            return action;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.compiler.learning.grammar;
+
+import java.util.Arrays;
+
+/**
+ * Character trie over a fixed list of symbol names, answering "which name is the longest one
+ * starting here" in time proportional to the match rather than to the number of names.
+ *
+ * Edges live in one open-addressed hash table keyed by (node, char), so a step is a hash
+ * probe and matching allocates nothing. When a name occurs twice the first index wins.
+ * Instances are immutable and thread-safe.
+ */
+final class SymbolTrie {
+
+    private final int[] accepting;   // node -> index of the name ending there, or -1
+    private final long[] edgeKeys;   // (node << 16 | char) + 1, 0 = empty slot
+    private final int[] edgeTargets;
+    private final int mask;
+
+    SymbolTrie(String[] names) {
+        int totalChars = 0;
+        for (String name : names) {
+            totalChars += name.length();
+        }
+        int capacity = Integer.highestOneBit(Math.max(4, totalChars * 2) - 1) << 1;
+        this.edgeKeys = new long[capacity];
+        this.edgeTargets = new int[capacity];
+        this.mask = capacity - 1;
+
+        int[] accept = new int[totalChars + 1];
+        Arrays.fill(accept, -1);
+        int nodes = 1; // node 0 is the root
+        for (int s = 0; s < names.length; s++) {
+            String name = names[s];
+            if (name.isEmpty()) continue;
+            int node = 0;
+            for (int i = 0; i < name.length(); i++) {
+                int next = child(node, name.charAt(i));
+                if (next < 0) {
+                    next = nodes++;
+                    addEdge(node, name.charAt(i), next);
+                }
+                node = next;
+            }
+            if (accept[node] < 0) accept[node] = s;
+        }
+        this.accepting = Arrays.copyOf(accept, nodes);
+    }
+
+    private static long key(int node, char c) {
+        return (((long) node << 16) | c) + 1;
+    }
+
+    private static int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void addEdge(int node, char c, int target) {
+        long k = key(node, c);
+        int i = slot(k) & mask;
+        while (edgeKeys[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        edgeKeys[i] = k;
+        edgeTargets[i] = target;
+    }
+
+    private int child(int node, char c) {
+        long k = key(node, c);
+        for (int i = slot(k) & mask; edgeKeys[i] != 0; i = (i + 1) & mask) {
+            if (edgeKeys[i] == k) return edgeTargets[i];
+        }
+        return -1;
+    }
+
+    /**
+     * Longest name starting at {@code start}: returns its end offset and stores the name's
+     * index in {@code match[0]}, or returns -1 if no name starts there.
+     */
+    int longestMatch(CharSequence input, int start, int length, int[] match) {
+        int node = 0;
+        int bestEnd = -1;
+        for (int i = start; i < length; i++) {
+            node = child(node, input.charAt(i));
+            if (node < 0) break;
+            if (accepting[node] >= 0) {
+                bestEnd = i + 1;
+                match[0] = accepting[node];
+            }
+        }
+        return bestEnd;
+    }
+}
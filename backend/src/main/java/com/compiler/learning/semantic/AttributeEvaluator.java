@@ -0,0 +1,1016 @@
+package com.compiler.learning.semantic;
+
+import com.compiler.learning.grammar.CompiledGrammar;
+import com.compiler.learning.grammar.GrammarCompiler;
+import com.compiler.learning.grammar.SLRParser;
+import com.compiler.learning.grammar.SLRTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluator for attribute grammars with synthesized and inherited attributes.
+ *
+ * <pre>
+ * D -> T L       { L.in = T.type }
+ * T -> int       { T.type = integer }
+ * L -> L , id    { L1.in = L.in ; addtype(id.lexval, L.in) }
+ * L -> id        { addtype(id.lexval, L.in) }
+ * </pre>
+ *
+ * Each production carries rules separated by ';'. A rule assigning X.a of the left-hand side
+ * makes a synthesized attribute; assigning one of the right-hand side makes an inherited one.
+ * Names follow {@link SdtEvaluator}: the LHS symbol's own name means the LHS and Xk the k-th X
+ * on the right. A rule without '=' is an action such as addtype(...). Rules combine
+ * attributes, numbers, bare words (constants such as integer) and calls; arithmetic on
+ * non-numbers and calls of unknown functions produce their text. Any attribute of a terminal
+ * is its lexeme. Every production must define all synthesized attributes of its LHS and all
+ * inherited attributes of its RHS non-terminals, so each instance in a tree has one rule.
+ *
+ * The input is parsed with an SLR(1) parser into a parse tree. Every attribute instance is a
+ * vertex of the dependency graph, levelled with Kahn's algorithm: a cycle leaves vertices
+ * unscheduled, and a level holds instances whose inputs are all in earlier levels. Levels
+ * are evaluated in order; on large trees a wide level is split across a ForkJoinPool.
+ */
+public final class AttributeEvaluator {
+
+    /** The declaration grammar from the textbook, used when no grammar is given. */
+    public static final String DEFAULT_GRAMMAR = """
+        D -> T L       { L.in = T.type }
+        T -> int       { T.type = integer }
+        T -> float     { T.type = real }
+        L -> L , id    { L1.in = L.in ; addtype(id.lexval, L.in) }
+        L -> id        { addtype(id.lexval, L.in) }
+        """;
+
+    // Attribute kinds
+    public static final String SYNTHESIZED = "synthesized";
+    public static final String INHERITED = "inherited";
+    public static final String INTRINSIC = "intrinsic";
+    public static final String ACTION = "action";
+
+    // Rule program opcodes; REF, CONST and CALL take arguments
+    private static final int REF = 0;
+    private static final int CONST = 1;
+    private static final int ADD = 2;
+    private static final int SUB = 3;
+    private static final int MUL = 4;
+    private static final int DIV = 5;
+    private static final int NEG = 6;
+    private static final int CALL = 7;
+    private static final String[] OPERATORS = {null, null, "+", "-", "*", "/"};
+    private static final int MAX_RULE_STACK = 64;
+
+    // Trees with at least this many instances evaluate wide levels in parallel
+    private static final int PARALLEL_THRESHOLD = 50_000;
+    // Instances one task evaluates before splitting further
+    private static final int LEVEL_CHUNK = 4_096;
+    private static final int MAX_GRAPH_LINES = 200;
+
+    private final CompiledGrammar grammar;
+    private final SLRParser parser;
+    private final String[][] attributes;    // symbol -> attribute names
+    private final String[][] kinds;         // symbol -> attribute kinds
+    private final Rule[][] rules;           // production -> rules
+    private final int[] actionCounts;       // production -> rules without a target
+    private final int numberTerminal;
+    private final int identifierTerminal;
+
+    private AttributeEvaluator(CompiledGrammar grammar, SLRTable table, String[][] attributes, String[][] kinds,
+                               Rule[][] rules) {
+        this.grammar = grammar;
+        this.parser = new SLRParser(table);
+        this.attributes = attributes;
+        this.kinds = kinds;
+        this.rules = rules;
+        this.actionCounts = new int[rules.length];
+        for (int p = 0; p < rules.length; p++) {
+            for (Rule rule : rules[p]) {
+                if (rule.targetAttribute < 0) actionCounts[p]++;
+            }
+        }
+        this.numberTerminal = firstTerminal("num", "number", "digit", "id");
+        this.identifierTerminal = firstTerminal("id");
+    }
+
+    private int firstTerminal(String... names) {
+        for (String name : names) {
+            int id = grammar.idOf(name);
+            if (grammar.isTerminal(id)) return id;
+        }
+        return -1;
+    }
+
+    /**
+     * Compiles an attribute grammar.
+     *
+     * @throws IllegalArgumentException if the grammar is empty or not SLR(1), a rule is
+     *         malformed, or an attribute is missing a rule or is both synthesized and inherited
+     */
+    public static AttributeEvaluator compile(String text) {
+        Map<String, String> ruleText = new HashMap<>();
+        String grammarText = SdtEvaluator.splitRules(text == null || text.isBlank() ? DEFAULT_GRAMMAR : text, ruleText);
+        CompiledGrammar grammar = GrammarCompiler.compile(grammarText, GrammarCompiler.SymbolMode.WHITESPACE);
+        if (grammar.isEmpty()) throw new IllegalArgumentException("The grammar has no productions");
+        SLRTable table = SdtEvaluator.slrTable(grammar);
+
+        Registry registry = new Registry(grammar.symbolCount());
+        Rule[][] rules = new Rule[grammar.productionCount()][];
+        for (int p = 0; p < rules.length; p++) {
+            String rule = ruleText.get(SdtEvaluator.ruleKey(grammar.name(grammar.lhs(p)), SdtEvaluator.rhsKey(grammar, p)));
+            List<Rule> compiled = new ArrayList<>();
+            try {
+                for (String part : splitTopLevel(rule == null ? "" : rule)) {
+                    compiled.add(new RuleCompiler(grammar, registry, p, part).compile());
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(grammar.productionString(p) + ": " + e.getMessage());
+            }
+            rules[p] = compiled.toArray(new Rule[0]);
+        }
+
+        // Kinds come from where attributes are assigned; terminals only have their lexeme
+        for (int p = 0; p < rules.length; p++) {
+            for (Rule rule : rules[p]) {
+                if (rule.targetAttribute < 0) continue;
+                int symbol = rule.target < 0 ? grammar.lhs(p) : grammar.rhsSymbol(p, rule.target);
+                String kind = rule.target < 0 ? SYNTHESIZED : INHERITED;
+                String previous = registry.kinds.get(symbol).get(rule.targetAttribute);
+                if (previous != null && !previous.equals(kind)) {
+                    throw new IllegalArgumentException(grammar.name(symbol) + "." + registry.name(symbol, rule.targetAttribute)
+                        + " is assigned both as a synthesized and as an inherited attribute");
+                }
+                registry.kinds.get(symbol).set(rule.targetAttribute, kind);
+            }
+        }
+        for (int symbol = 0; symbol < grammar.symbolCount(); symbol++) {
+            List<String> symbolKinds = registry.kinds.get(symbol);
+            for (int a = 0; a < symbolKinds.size(); a++) {
+                if (grammar.isTerminal(symbol)) {
+                    symbolKinds.set(a, INTRINSIC);
+                } else if (symbolKinds.get(a) == null) {
+                    throw new IllegalArgumentException(grammar.name(symbol) + "." + registry.name(symbol, a)
+                        + " is used but no rule assigns it");
+                } else if (symbol == grammar.startSymbol() && symbolKinds.get(a).equals(INHERITED)) {
+                    throw new IllegalArgumentException("The start symbol " + grammar.name(symbol)
+                        + " cannot have the inherited attribute " + registry.name(symbol, a));
+                }
+            }
+        }
+
+        // Every instance in any tree must have exactly one rule
+        for (int p = 0; p < rules.length; p++) {
+            for (int occurrence = -1; occurrence < grammar.rhsLength(p); occurrence++) {
+                int symbol = occurrence < 0 ? grammar.lhs(p) : grammar.rhsSymbol(p, occurrence);
+                if (grammar.isTerminal(symbol)) continue;
+                String wanted = occurrence < 0 ? SYNTHESIZED : INHERITED;
+                for (int a = 0; a < registry.kinds.get(symbol).size(); a++) {
+                    if (!registry.kinds.get(symbol).get(a).equals(wanted)) continue;
+                    int defined = 0;
+                    for (Rule rule : rules[p]) {
+                        if (rule.target == occurrence && rule.targetAttribute == a) defined++;
+                    }
+                    String attribute = (occurrence < 0 ? grammar.name(symbol) : occurrenceName(grammar, p, occurrence))
+                        + "." + registry.name(symbol, a);
+                    if (defined == 0) {
+                        throw new IllegalArgumentException(grammar.productionString(p) + ": no rule assigns " + attribute);
+                    }
+                    if (defined > 1) {
+                        throw new IllegalArgumentException(grammar.productionString(p) + ": " + attribute + " is assigned twice");
+                    }
+                }
+            }
+        }
+
+        String[][] names = new String[grammar.symbolCount()][];
+        String[][] kinds = new String[grammar.symbolCount()][];
+        for (int symbol = 0; symbol < names.length; symbol++) {
+            names[symbol] = registry.names.get(symbol).toArray(new String[0]);
+            kinds[symbol] = registry.kinds.get(symbol).toArray(new String[0]);
+        }
+        return new AttributeEvaluator(grammar, table, names, kinds, rules);
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    /** Name of an RHS occurrence as rules spell it: X, or Xk when X repeats or is the LHS. */
+    private static String occurrenceName(CompiledGrammar grammar, int production, int occurrence) {
+        int symbol = grammar.rhsSymbol(production, occurrence);
+        int k = 0;
+        int total = 0;
+        for (int i = 0; i < grammar.rhsLength(production); i++) {
+            if (grammar.rhsSymbol(production, i) != symbol) continue;
+            total++;
+            if (i <= occurrence) k++;
+        }
+        String name = grammar.name(symbol);
+        return total > 1 || symbol == grammar.lhs(production) ? name + k : name;
+    }
+
+    /** Splits "a ; b" at semicolons outside parentheses and quotes. */
+    private static List<String> splitTopLevel(String text) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ';';
+            if (c == '"') quoted = !quoted;
+            if (quoted) continue;
+            if (c == '(') depth++;
+            if (c == ')') depth--;
+            if (c != ';' || depth > 0) continue;
+            String part = text.substring(start, i).trim();
+            if (!part.isEmpty()) parts.add(part);
+            start = i + 1;
+        }
+        return parts;
+    }
+
+    /**
+     * Parses an input, builds and schedules its dependency graph and evaluates every
+     * attribute instance. At most maxSteps instances are listed, in evaluation order.
+     */
+    public Evaluation evaluate(String input, int maxSteps) {
+        long started = System.nanoTime();
+        SourceScanner.TokenStream tokens = SourceScanner.scan(input);
+        int[] terminals = new int[tokens.size()];
+        for (int i = 0; i < terminals.length; i++) terminals[i] = terminalOf(tokens, i);
+        Tree tree = new Tree(tokens, terminals);
+        SLRParser.Result result = parser.parse(terminals, terminals.length, tree);
+        if (!result.isAccepted()) {
+            return Evaluation.failed(SdtEvaluator.syntaxError(parser.getTable(), tokens, result));
+        }
+        long parsed = System.nanoTime();
+
+        Graph graph = new Graph(tree);
+        String cycle = graph.schedule();
+        long scheduled = System.nanoTime();
+        if (cycle != null) return Evaluation.failed("Circular attribute dependency: " + cycle);
+
+        boolean parallel;
+        try {
+            parallel = graph.evaluate(graph.count >= PARALLEL_THRESHOLD);
+        } catch (IllegalArgumentException e) {
+            return Evaluation.failed(e.getMessage());
+        }
+        long evaluated = System.nanoTime();
+
+        List<Step> steps = new ArrayList<>();
+        for (int i = 0; i < Math.min(maxSteps, graph.count); i++) steps.add(graph.step(graph.order[i]));
+        return new Evaluation(true, null, graph.render(), steps, graph.count, graph.edges, graph.levels,
+            graph.widestLevel, parallel, millis(started, parsed), millis(parsed, scheduled), millis(scheduled, evaluated));
+    }
+
+    private static double millis(long from, long to) {
+        return Math.round((to - from) / 10_000.0) / 100.0;
+    }
+
+    private int terminalOf(SourceScanner.TokenStream tokens, int i) {
+        int kind = tokens.kind(i);
+        int exact = grammar.idOf(tokens.text(i));
+        if (grammar.isTerminal(exact)) return exact;
+        if (kind == SourceScanner.INT_LIT || kind == SourceScanner.FLOAT_LIT) return numberTerminal;
+        if (kind == SourceScanner.ID) return identifierTerminal;
+        return -1;
+    }
+
+    /** Attribute names and kinds per symbol, filled while rules are compiled. */
+    private static final class Registry {
+        final List<Map<String, Integer>> indices = new ArrayList<>();
+        final List<List<String>> names = new ArrayList<>();
+        final List<List<String>> kinds = new ArrayList<>();
+
+        Registry(int symbols) {
+            for (int i = 0; i < symbols; i++) {
+                indices.add(new HashMap<>());
+                names.add(new ArrayList<>());
+                kinds.add(new ArrayList<>());
+            }
+        }
+
+        int attribute(int symbol, String name) {
+            Integer index = indices.get(symbol).get(name);
+            if (index != null) return index;
+            indices.get(symbol).put(name, names.get(symbol).size());
+            names.get(symbol).add(name);
+            kinds.get(symbol).add(null);
+            return names.get(symbol).size() - 1;
+        }
+
+        String name(int symbol, int attribute) {
+            return names.get(symbol).get(attribute);
+        }
+    }
+
+    /** A compiled rule: a postfix program over attribute references and constants. */
+    private static final class Rule {
+        final String text;
+        final int target;           // -1 for the LHS, else the RHS position
+        final int targetAttribute;  // -1 for an action
+        final int[] code;
+        final Object[] constants;   // Double, String, or a called function's name
+        final int[] refOccurrence;
+        final int[] refAttribute;
+        final int maxStack;
+
+        Rule(String text, int target, int targetAttribute, int[] code, Object[] constants, int[] refOccurrence,
+             int[] refAttribute, int maxStack) {
+            this.text = text;
+            this.target = target;
+            this.targetAttribute = targetAttribute;
+            this.code = code;
+            this.constants = constants;
+            this.refOccurrence = refOccurrence;
+            this.refAttribute = refAttribute;
+            this.maxStack = maxStack;
+        }
+    }
+
+    /** Recursive-descent compiler for one rule: [X.a =] expression. */
+    private static final class RuleCompiler {
+        private final CompiledGrammar grammar;
+        private final Registry registry;
+        private final int production;
+        private final String text;
+        private int pos;
+        private int[] code = new int[16];
+        private int size;
+        private int depth;
+        private int maxDepth;
+        private final List<Object> constants = new ArrayList<>();
+        private final List<Integer> refOccurrence = new ArrayList<>();
+        private final List<Integer> refAttribute = new ArrayList<>();
+
+        RuleCompiler(CompiledGrammar grammar, Registry registry, int production, String text) {
+            this.grammar = grammar;
+            this.registry = registry;
+            this.production = production;
+            this.text = text;
+        }
+
+        Rule compile() {
+            int target = -1;
+            int targetAttribute = -1;
+            int assign = assignment();
+            if (assign >= 0) {
+                String name = name();
+                target = occurrenceOf(name);
+                pos++;
+                String attribute = name();
+                int symbol = target < 0 ? grammar.lhs(production) : grammar.rhsSymbol(production, target);
+                if (grammar.isTerminal(symbol)) {
+                    throw new IllegalArgumentException("Cannot assign " + name + "." + attribute
+                        + ": attributes of terminals come from the scanner");
+                }
+                targetAttribute = registry.attribute(symbol, attribute);
+                pos = assign + 1;
+            }
+            sum();
+            skipSpaces();
+            if (pos < text.length()) {
+                throw new IllegalArgumentException("Unexpected '" + text.substring(pos) + "' in '" + text + "'");
+            }
+            if (maxDepth > MAX_RULE_STACK) throw new IllegalArgumentException("Rule is nested too deeply: '" + text + "'");
+            return new Rule(text, target, targetAttribute, Arrays.copyOf(code, size), constants.toArray(),
+                refOccurrence.stream().mapToInt(Integer::intValue).toArray(),
+                refAttribute.stream().mapToInt(Integer::intValue).toArray(), Math.max(1, maxDepth));
+        }
+
+        /** Position of the '=' after a leading X.a, or -1 if the rule is an action. */
+        private int assignment() {
+            skipSpaces();
+            int start = pos;
+            int assign = -1;
+            if (!name().isEmpty() && peek('.')) {
+                pos++;
+                if (!name().isEmpty()) {
+                    skipSpaces();
+                    if (peek('=') && !(pos + 1 < text.length() && text.charAt(pos + 1) == '=')) assign = pos;
+                }
+            }
+            pos = start;
+            return assign;
+        }
+
+        private void sum() {
+            product();
+            while (true) {
+                skipSpaces();
+                if (!peek('+') && !peek('-')) return;
+                int op = text.charAt(pos++) == '+' ? ADD : SUB;
+                product();
+                emit(op, 0, 2);
+            }
+        }
+
+        private void product() {
+            unary();
+            while (true) {
+                skipSpaces();
+                if (!peek('*') && !peek('/')) return;
+                int op = text.charAt(pos++) == '*' ? MUL : DIV;
+                unary();
+                emit(op, 0, 2);
+            }
+        }
+
+        private void unary() {
+            skipSpaces();
+            if (peek('-')) {
+                pos++;
+                unary();
+                emit(NEG, 0, 1);
+            } else if (peek('(')) {
+                pos++;
+                sum();
+                expect(')');
+            } else if (peek('"')) {
+                int close = text.indexOf('"', pos + 1);
+                if (close < 0) throw new IllegalArgumentException("Unclosed string in '" + text + "'");
+                constant(text.substring(pos + 1, close));
+                pos = close + 1;
+            } else if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                int start = pos;
+                while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) pos++;
+                constant(Double.parseDouble(text.substring(start, pos)));
+            } else {
+                int start = pos;
+                String name = name();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Expected an attribute, constant or call at '" + text.substring(start) + "'");
+                }
+                skipSpaces();
+                if (peek('(')) {
+                    pos++;
+                    int arguments = 0;
+                    skipSpaces();
+                    if (!peek(')')) {
+                        do {
+                            if (arguments > 0) pos++;
+                            sum();
+                            arguments++;
+                            skipSpaces();
+                        } while (peek(','));
+                    }
+                    expect(')');
+                    constants.add(name);
+                    emit(CALL, constants.size() - 1, arguments);
+                    emitCode(arguments);
+                } else if (peek('.')) {
+                    pos++;
+                    String attribute = name();
+                    if (attribute.isEmpty()) throw new IllegalArgumentException("Expected " + name + ".attr in '" + text + "'");
+                    int occurrence = occurrenceOf(name);
+                    int symbol = occurrence < 0 ? grammar.lhs(production) : grammar.rhsSymbol(production, occurrence);
+                    refOccurrence.add(occurrence);
+                    refAttribute.add(registry.attribute(symbol, attribute));
+                    emit(REF, refOccurrence.size() - 1, 0);
+                } else {
+                    constant(name);
+                }
+            }
+        }
+
+        private void constant(Object value) {
+            constants.add(value);
+            emit(CONST, constants.size() - 1, 0);
+        }
+
+        /** -1 for the LHS, else the RHS position of an exact name or of name + k. */
+        private int occurrenceOf(String name) {
+            if (grammar.name(grammar.lhs(production)).equals(name)) return -1;
+            int length = grammar.rhsLength(production);
+            for (int i = 0; i < length; i++) {
+                if (grammar.name(grammar.rhsSymbol(production, i)).equals(name)) return i;
+            }
+            int digits = name.length();
+            while (digits > 0 && Character.isDigit(name.charAt(digits - 1))) digits--;
+            if (digits < name.length() && digits > 0) {
+                String base = name.substring(0, digits);
+                int k = Integer.parseInt(name.substring(digits));
+                for (int i = 0; i < length; i++) {
+                    if (grammar.name(grammar.rhsSymbol(production, i)).equals(base) && --k == 0) return i;
+                }
+            }
+            throw new IllegalArgumentException("'" + name + "' is not a symbol of " + grammar.productionString(production));
+        }
+
+        private String name() {
+            int start = pos;
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (!Character.isLetterOrDigit(c) && c != '_' && c != '\'') break;
+                pos++;
+            }
+            return text.substring(start, pos);
+        }
+
+        private void expect(char c) {
+            skipSpaces();
+            if (!peek(c)) throw new IllegalArgumentException("Expected '" + c + "' in '" + text + "'");
+            pos++;
+        }
+
+        private boolean peek(char c) {
+            return pos < text.length() && text.charAt(pos) == c;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        /** Emits an opcode and its argument; pops values off the evaluation stack and pushes one. */
+        private void emit(int op, int argument, int pops) {
+            emitCode(op);
+            if (op == REF || op == CONST || op == CALL) emitCode(argument);
+            depth += 1 - pops;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        private void emitCode(int value) {
+            if (size == code.length) code = Arrays.copyOf(code, size * 2);
+            code[size++] = value;
+        }
+    }
+
+    /** Parse tree built from the parser's shifts and reductions; children are stored contiguously. */
+    private final class Tree implements SLRParser.Listener {
+        final SourceScanner.TokenStream tokens;
+        final int[] terminals;
+        int nodes;
+        int[] symbol = new int[64];
+        int[] production = new int[64];   // -1 for leaves
+        int[] token = new int[64];        // leaf -> token index
+        int[] childStart = new int[64];
+        int[] children = new int[64];
+        int childCount;
+        int[] stack = new int[64];
+        int depth;
+
+        Tree(SourceScanner.TokenStream tokens, int[] terminals) {
+            this.tokens = tokens;
+            this.terminals = terminals;
+        }
+
+        int root() {
+            return stack[depth - 1];
+        }
+
+        int child(int node, int occurrence) {
+            return children[childStart[node] + occurrence];
+        }
+
+        @Override
+        public void onShift(int position) {
+            push(node(terminals[position], -1, position));
+        }
+
+        @Override
+        public void onReduce(int p, int position) {
+            int length = grammar.rhsLength(p);
+            if (childCount + length > children.length) children = Arrays.copyOf(children, (childCount + length) * 2);
+            System.arraycopy(stack, depth - length, children, childCount, length);
+            depth -= length;
+            int node = node(grammar.lhs(p), p, -1);
+            childStart[node] = childCount;
+            childCount += length;
+            push(node);
+        }
+
+        private int node(int nodeSymbol, int nodeProduction, int nodeToken) {
+            if (nodes == symbol.length) {
+                symbol = Arrays.copyOf(symbol, nodes * 2);
+                production = Arrays.copyOf(production, nodes * 2);
+                token = Arrays.copyOf(token, nodes * 2);
+                childStart = Arrays.copyOf(childStart, nodes * 2);
+            }
+            symbol[nodes] = nodeSymbol;
+            production[nodes] = nodeProduction;
+            token[nodes] = nodeToken;
+            return nodes++;
+        }
+
+        private void push(int node) {
+            if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = node;
+        }
+    }
+
+    /**
+     * Attribute instances of one tree and their dependencies. Instance IDs are dense: node n
+     * owns its symbol's attributes from base[n], followed by one slot per action of its
+     * production.
+     */
+    private final class Graph {
+        final Tree tree;
+        final int[] base;
+        final int count;
+        final int[] owner;          // instance -> node
+        final int[] ruleNode;       // instance -> node whose production's rule computes it, -1 if intrinsic
+        final Rule[] rule;
+        int edges;
+        int[] from = new int[64];
+        int[] to = new int[64];
+        int[] order;                // instances by level
+        int levels;
+        int widestLevel;
+        int[] levelStart;
+        Object[] values;
+
+        Graph(Tree tree) {
+            this.tree = tree;
+            base = new int[tree.nodes + 1];
+            for (int n = 0; n < tree.nodes; n++) {
+                int p = tree.production[n];
+                base[n + 1] = base[n] + attributes[tree.symbol[n]].length + (p < 0 ? 0 : actionCounts[p]);
+            }
+            count = base[tree.nodes];
+            owner = new int[count];
+            ruleNode = new int[count];
+            rule = new Rule[count];
+            Arrays.fill(ruleNode, -1);
+            for (int n = 0; n < tree.nodes; n++) Arrays.fill(owner, base[n], base[n + 1], n);
+
+            for (int n = 0; n < tree.nodes; n++) {
+                int p = tree.production[n];
+                if (p < 0) continue;
+                int action = base[n] + attributes[tree.symbol[n]].length;
+                for (Rule r : rules[p]) {
+                    int instance = r.targetAttribute < 0 ? action++ : base[nodeOf(n, r.target)] + r.targetAttribute;
+                    ruleNode[instance] = n;
+                    rule[instance] = r;
+                    for (int i = 0; i < r.refOccurrence.length; i++) {
+                        edge(base[nodeOf(n, r.refOccurrence[i])] + r.refAttribute[i], instance);
+                    }
+                }
+            }
+        }
+
+        private int nodeOf(int node, int occurrence) {
+            return occurrence < 0 ? node : tree.child(node, occurrence);
+        }
+
+        private void edge(int source, int target) {
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, edges * 2);
+                to = Arrays.copyOf(to, edges * 2);
+            }
+            from[edges] = source;
+            to[edges] = target;
+            edges++;
+        }
+
+        /** Levels the instances with Kahn's algorithm; returns a cycle if one stops it. */
+        String schedule() {
+            int[] outStart = new int[count + 1];
+            for (int e = 0; e < edges; e++) outStart[from[e] + 1]++;
+            for (int i = 0; i < count; i++) outStart[i + 1] += outStart[i];
+            int[] out = new int[edges];
+            int[] fill = Arrays.copyOf(outStart, count);
+            int[] pending = new int[count];
+            for (int e = 0; e < edges; e++) {
+                out[fill[from[e]]++] = to[e];
+                pending[to[e]]++;
+            }
+
+            int[] level = new int[count];
+            int[] queue = new int[count];
+            int head = 0;
+            int tail = 0;
+            for (int i = 0; i < count; i++) {
+                if (pending[i] == 0) queue[tail++] = i;
+            }
+            while (head < tail) {
+                int v = queue[head++];
+                levels = Math.max(levels, level[v] + 1);
+                for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+                    int w = out[k];
+                    level[w] = Math.max(level[w], level[v] + 1);
+                    if (--pending[w] == 0) queue[tail++] = w;
+                }
+            }
+            if (tail < count) return cycle(pending);
+
+            // Counting sort by level keeps each level contiguous for the evaluator
+            levelStart = new int[levels + 1];
+            for (int i = 0; i < count; i++) levelStart[level[i] + 1]++;
+            for (int l = 0; l < levels; l++) {
+                widestLevel = Math.max(widestLevel, levelStart[l + 1]);
+                levelStart[l + 1] += levelStart[l];
+            }
+            order = new int[count];
+            int[] next = Arrays.copyOf(levelStart, levels);
+            for (int i = 0; i < count; i++) order[next[level[i]]++] = i;
+            return null;
+        }
+
+        /**
+         * Follows unscheduled predecessors back from an unscheduled instance until one
+         * repeats; every unscheduled instance has one, so the walk must close a cycle.
+         */
+        private String cycle(int[] pending) {
+            int[] inStart = new int[count + 1];
+            for (int e = 0; e < edges; e++) inStart[to[e] + 1]++;
+            for (int i = 0; i < count; i++) inStart[i + 1] += inStart[i];
+            int[] in = new int[edges];
+            int[] fill = Arrays.copyOf(inStart, count);
+            for (int e = 0; e < edges; e++) in[fill[to[e]]++] = from[e];
+
+            int v = 0;
+            while (pending[v] == 0) v++;
+            int[] seenAt = new int[count];
+            Arrays.fill(seenAt, -1);
+            List<Integer> path = new ArrayList<>();
+            while (seenAt[v] < 0) {
+                seenAt[v] = path.size();
+                path.add(v);
+                int k = inStart[v];
+                while (pending[in[k]] == 0) k++;
+                v = in[k];
+            }
+            StringBuilder text = new StringBuilder();
+            for (int i = path.size() - 1; i >= seenAt[v]; i--) text.append(label(path.get(i))).append(" → ");
+            return text.append(label(path.get(path.size() - 1))).toString();
+        }
+
+        /** Evaluates level by level; returns whether any level was split across the pool. */
+        boolean evaluate(boolean parallel) {
+            values = new Object[count];
+            ForkJoinPool pool = parallel ? ForkJoinPool.commonPool() : null;
+            boolean split = false;
+            for (int l = 0; l < levels; l++) {
+                int from = levelStart[l];
+                int to = levelStart[l + 1];
+                if (pool != null && to - from > LEVEL_CHUNK) {
+                    pool.invoke(new LevelTask(this, from, to));
+                    split = true;
+                } else {
+                    for (int i = from; i < to; i++) compute(order[i]);
+                }
+            }
+            return split;
+        }
+
+        void compute(int instance) {
+            Rule r = rule[instance];
+            if (r == null) {
+                values[instance] = lexeme(tree.token[owner[instance]]);
+                return;
+            }
+            int node = ruleNode[instance];
+            Object[] stack = new Object[r.maxStack];
+            int sp = 0;
+            int[] code = r.code;
+            for (int pc = 0; pc < code.length; pc++) {
+                switch (code[pc]) {
+                    case REF -> {
+                        int ref = code[++pc];
+                        stack[sp++] = values[base[nodeOf(node, r.refOccurrence[ref])] + r.refAttribute[ref]];
+                    }
+                    case CONST -> stack[sp++] = r.constants[code[++pc]];
+                    case NEG -> stack[sp - 1] = stack[sp - 1] instanceof Double d ? -d : "-" + display(stack[sp - 1]);
+                    case CALL -> {
+                        String function = (String) r.constants[code[++pc]];
+                        int arguments = code[++pc];
+                        StringBuilder call = new StringBuilder(function).append('(');
+                        for (int i = sp - arguments; i < sp; i++) {
+                            if (i > sp - arguments) call.append(", ");
+                            call.append(display(stack[i]));
+                        }
+                        sp -= arguments;
+                        stack[sp++] = call.append(')').toString();
+                    }
+                    default -> {
+                        Object right = stack[--sp];
+                        Object left = stack[sp - 1];
+                        stack[sp - 1] = arithmetic(code[pc], left, right, r);
+                    }
+                }
+            }
+            values[instance] = stack[0];
+        }
+
+        private Object arithmetic(int op, Object left, Object right, Rule r) {
+            if (!(left instanceof Double a) || !(right instanceof Double b)) {
+                return display(left) + " " + OPERATORS[op] + " " + display(right);
+            }
+            return switch (op) {
+                case ADD -> a + b;
+                case SUB -> a - b;
+                case MUL -> a * b;
+                default -> {
+                    if (b == 0) throw new IllegalArgumentException("Division by zero in '" + r.text + "'");
+                    yield a / b;
+                }
+            };
+        }
+
+        private Object lexeme(int token) {
+            int kind = tree.tokens.kind(token);
+            String text = tree.tokens.text(token);
+            return kind == SourceScanner.INT_LIT || kind == SourceScanner.FLOAT_LIT ? (Object) Double.valueOf(text) : text;
+        }
+
+        /** X#n.a for attributes, X#n.action(k) for actions; n numbers parse tree nodes. */
+        String label(int instance) {
+            int node = owner[instance];
+            int slot = instance - base[node];
+            String[] names = attributes[tree.symbol[node]];
+            String prefix = grammar.name(tree.symbol[node]) + "#" + node;
+            return slot < names.length ? prefix + "." + names[slot] : prefix + ".action" + (slot - names.length + 1);
+        }
+
+        String kind(int instance) {
+            int node = owner[instance];
+            int slot = instance - base[node];
+            String[] symbolKinds = kinds[tree.symbol[node]];
+            return slot < symbolKinds.length ? symbolKinds[slot] : ACTION;
+        }
+
+        Step step(int instance) {
+            Rule r = rule[instance];
+            String value = display(values[instance]);
+            String computation;
+            if (r == null) {
+                computation = label(instance) + " = " + value + " (lexeme)";
+            } else if (r.targetAttribute < 0) {
+                computation = r.text + " → " + value;
+            } else {
+                // Skip the value when the rule already spells it, as in T.type = integer
+                String expression = r.text.substring(r.text.indexOf('=') + 1).trim();
+                computation = expression.equals(value) ? r.text : r.text + " = " + value;
+            }
+            return new Step(label(instance), computation, kind(instance), value);
+        }
+
+        String render() {
+            StringBuilder out = new StringBuilder();
+            out.append(count).append(" attribute instances, ").append(edges).append(" dependencies, ")
+                .append(levels).append(" levels (widest ").append(widestLevel).append(")\n");
+            for (int e = 0; e < Math.min(edges, MAX_GRAPH_LINES); e++) {
+                out.append(label(from[e])).append(" ──→ ").append(label(to[e])).append('\n');
+            }
+            if (edges > MAX_GRAPH_LINES) out.append("... ").append(edges - MAX_GRAPH_LINES).append(" more\n");
+            return out.toString();
+        }
+    }
+
+    private static String display(Object value) {
+        return value instanceof Double d ? SdtEvaluator.formatNumber(d) : String.valueOf(value);
+    }
+
+    /** Evaluates a slice of one level, splitting it while it is larger than a chunk. */
+    private static final class LevelTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Graph graph;
+        private final int from;
+        private final int to;
+
+        LevelTask(Graph graph, int from, int to) {
+            this.graph = graph;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEVEL_CHUNK) {
+                for (int i = from; i < to; i++) graph.compute(graph.order[i]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new LevelTask(graph, from, middle), new LevelTask(graph, middle, to));
+        }
+    }
+
+    /** Result of evaluating one input. */
+    public static final class Evaluation {
+        private final boolean success;
+        private final String error;
+        private final String dependencyGraph;
+        private final List<Step> steps;
+        private final int instances;
+        private final int dependencies;
+        private final int levels;
+        private final int widestLevel;
+        private final boolean parallel;
+        private final double parseMillis;
+        private final double scheduleMillis;
+        private final double evaluateMillis;
+
+        Evaluation(boolean success, String error, String dependencyGraph, List<Step> steps, int instances,
+                   int dependencies, int levels, int widestLevel, boolean parallel, double parseMillis,
+                   double scheduleMillis, double evaluateMillis) {
+            this.success = success;
+            this.error = error;
+            this.dependencyGraph = dependencyGraph;
+            this.steps = steps;
+            this.instances = instances;
+            this.dependencies = dependencies;
+            this.levels = levels;
+            this.widestLevel = widestLevel;
+            this.parallel = parallel;
+            this.parseMillis = parseMillis;
+            this.scheduleMillis = scheduleMillis;
+            this.evaluateMillis = evaluateMillis;
+        }
+
+        static Evaluation failed(String error) {
+            return new Evaluation(false, error, null, List.of(), 0, 0, 0, 0, false, 0, 0, 0);
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public String getDependencyGraph() {
+            return dependencyGraph;
+        }
+
+        /** The first instances in evaluation order. */
+        public List<Step> getSteps() {
+            return steps;
+        }
+
+        public int getInstances() {
+            return instances;
+        }
+
+        public int getDependencies() {
+            return dependencies;
+        }
+
+        /** Length of the longest dependency chain. */
+        public int getLevels() {
+            return levels;
+        }
+
+        /** Most instances in one level, i.e. the most that can be evaluated at once. */
+        public int getWidestLevel() {
+            return widestLevel;
+        }
+
+        /** Whether a level was wide enough to be split across the ForkJoinPool. */
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        public double getParseMillis() {
+            return parseMillis;
+        }
+
+        /** Time to build the dependency graph and order it. */
+        public double getScheduleMillis() {
+            return scheduleMillis;
+        }
+
+        public double getEvaluateMillis() {
+            return evaluateMillis;
+        }
+    }
+
+    /** One evaluated attribute instance. */
+    public static final class Step {
+        private final String attribute;
+        private final String computation;
+        private final String kind;
+        private final String value;
+
+        Step(String attribute, String computation, String kind, String value) {
+            this.attribute = attribute;
+            this.computation = computation;
+            this.kind = kind;
+            this.value = value;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        public String getComputation() {
+            return computation;
+        }
+
+        /** synthesized, inherited, intrinsic or action */
+        public String getKind() {
+            return kind;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.compiler.learning.semantic;
+
+/** A syntax or semantic error at a 1-based line and column. */
+public final class Diagnostic {
+
+    private final int line;
+    private final int column;
+    private final String message;
+
+    public Diagnostic(int line, int column, String message) {
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return line + ":" + column + ": " + message;
+    }
+}
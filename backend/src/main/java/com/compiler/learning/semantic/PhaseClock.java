@@ -0,0 +1,70 @@
+package com.compiler.learning.semantic;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Wall time and heap allocation of compiler phases that run interleaved on one thread.
+ *
+ * The pipeline calls {@link #switchTo} whenever control passes from one phase to another,
+ * e.g. when the parser pulls the next chunk of tokens, and each switch charges the time and
+ * bytes used since the previous switch to the phase being left. Nested phases are therefore
+ * counted exclusively. Allocation comes from the JVM's per-thread counter and is reported as
+ * -1 where that is unavailable.
+ */
+public final class PhaseClock {
+
+    public static final int LEX = 0;
+    public static final int CHECK = 1;
+    public static final int IR = 2;
+    public static final int OPTIMIZE = 3;
+    public static final int PHASES = 4;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final long[] nanos = new long[PHASES];
+    private final long[] bytes = new long[PHASES];
+    private int current = -1;
+    private long mark;
+    private long markBytes;
+
+    /** Switches to a phase (-1 for none) and returns the phase that was running. */
+    public int switchTo(int phase) {
+        long now = System.nanoTime();
+        long allocated = allocated();
+        int previous = current;
+        if (previous >= 0) {
+            nanos[previous] += now - mark;
+            bytes[previous] += allocated - markBytes;
+        }
+        current = phase;
+        mark = now;
+        markBytes = allocated;
+        return previous;
+    }
+
+    public long nanos(int phase) {
+        return nanos[phase];
+    }
+
+    /** Bytes allocated during a phase, or -1 if the JVM does not count them. */
+    public long allocatedBytes(int phase) {
+        return THREADS == null ? -1 : bytes[phase];
+    }
+
+    private static long allocated() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported()) {
+                if (!threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // fall through: allocation is reported as unavailable
+        }
+        return null;
+    }
+}
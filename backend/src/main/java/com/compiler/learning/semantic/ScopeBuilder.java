@@ -0,0 +1,170 @@
+package com.compiler.learning.semantic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.compiler.learning.semantic.SourceScanner.*;
+
+/**
+ * Fills a {@link SymbolTable} from C-like source: global and local variable declarations,
+ * function definitions and prototypes with their parameters, and nested blocks.
+ *
+ * A function body is one frame scope holding the parameters and the body's own locals; each
+ * inner { } is a block scope. Statements that declare nothing are skipped token by token,
+ * and only braces change the scope, so the walk is a single linear pass.
+ */
+public final class ScopeBuilder {
+
+    private final SymbolTable table = new SymbolTable();
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private TokenStream tokens;
+    private int pos;
+
+    public SymbolTable getTable() {
+        return table;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    public ScopeBuilder build(String source) {
+        tokens = SourceScanner.scan(source);
+        pos = 0;
+        while (pos < tokens.size()) {
+            int kind = tokens.kind(pos);
+            Type type = typeOf(kind);
+            if (type != null && tokens.kind(pos + 1) == ID) {
+                if (tokens.kind(pos + 2) == LPAREN && table.depth() == 0) {
+                    function(type);
+                } else {
+                    variables(type);
+                }
+            } else if (kind == LBRACE) {
+                table.enterScope();
+                pos++;
+            } else if (kind == RBRACE) {
+                if (!table.exitScope()) error(pos, "Unmatched '}'");
+                pos++;
+            } else {
+                pos++;
+            }
+        }
+        if (table.depth() > 0) {
+            error(tokens.size(), "Missing '}' to close " + table.currentScope().getName());
+            while (table.exitScope()) {
+                // close what is still open so frame sizes are final
+            }
+        }
+        return this;
+    }
+
+    /** type name ( params ) { body }  or  type name ( params ) ; */
+    private void function(Type returnType) {
+        int nameToken = pos + 1;
+        String name = tokens.text(nameToken);
+        pos += 3;
+        List<Type> types = new ArrayList<>();
+        List<Integer> names = new ArrayList<>();
+        while (tokens.kind(pos) != RPAREN && pos < tokens.size()) {
+            Type type = typeOf(tokens.kind(pos));
+            if (type == Type.VOID && tokens.kind(pos + 1) == RPAREN) {
+                pos++;
+                break;
+            }
+            if (type == null || type == Type.VOID || tokens.kind(pos + 1) != ID) {
+                error(pos, "Expected a parameter declaration in " + name + ", found '" + tokens.text(pos) + "'");
+                while (pos < tokens.size() && tokens.kind(pos) != RPAREN && tokens.kind(pos) != LBRACE) pos++;
+                break;
+            }
+            types.add(type);
+            names.add(pos + 1);
+            pos += 2;
+            if (tokens.kind(pos) == COMMA) pos++;
+        }
+        if (tokens.kind(pos) == RPAREN) pos++;
+
+        StringBuilder signature = new StringBuilder("(");
+        for (int i = 0; i < types.size(); i++) {
+            if (i > 0) signature.append(", ");
+            signature.append(types.get(i));
+        }
+        signature.append(')');
+        SymbolTable.Symbol previous = table.lookup(name);
+        boolean redefinition = previous != null && previous.getScope() == table.currentScope();
+        if (redefinition && (previous.getKind() != SymbolTable.Kind.FUNCTION
+                || !previous.getSignature().equals(signature.toString()) || previous.getType() != returnType)) {
+            error(nameToken, "'" + name + "' is already declared at line " + previous.getLine() + " with a different type");
+        } else if (!redefinition) {
+            declare(nameToken, returnType, SymbolTable.Kind.FUNCTION, signature.toString());
+        }
+
+        if (tokens.kind(pos) == SEMI) {
+            pos++;
+            return;
+        }
+        if (tokens.kind(pos) != LBRACE) {
+            error(pos, "Expected '{' or ';' after the parameters of " + name);
+            return;
+        }
+        pos++;
+        table.enterScope(name, true);
+        for (int i = 0; i < names.size(); i++) {
+            declare(names.get(i), types.get(i), SymbolTable.Kind.PARAMETER, null);
+        }
+    }
+
+    /** type a [= init], b [= init] ; — initializers are skipped up to the next ',' or ';'. */
+    private void variables(Type type) {
+        pos++;
+        while (tokens.kind(pos) == ID) {
+            int nameToken = pos++;
+            if (type == Type.VOID) {
+                error(nameToken, "Variable '" + tokens.text(nameToken) + "' cannot be void");
+            } else {
+                declare(nameToken, type, SymbolTable.Kind.VARIABLE, null);
+            }
+            int parens = 0;
+            while (pos < tokens.size()) {
+                int kind = tokens.kind(pos);
+                if (kind == LPAREN) parens++;
+                if (kind == RPAREN) parens--;
+                if (parens <= 0 && (kind == COMMA || kind == SEMI || kind == LBRACE || kind == RBRACE)) break;
+                pos++;
+            }
+            if (tokens.kind(pos) != COMMA) break;
+            pos++;
+        }
+        if (tokens.kind(pos) == SEMI) {
+            pos++;
+        } else {
+            error(pos, "Expected ';' after the declaration");
+        }
+    }
+
+    private void declare(int nameToken, Type type, SymbolTable.Kind kind, String signature) {
+        String name = tokens.text(nameToken);
+        int offset = tokens.start(nameToken);
+        if (table.declare(name, type, kind, tokens.line(offset), tokens.column(offset), signature) == null) {
+            error(nameToken, "'" + name + "' is already declared in this scope (line "
+                + table.lookup(name).getLine() + ")");
+        }
+    }
+
+    private static Type typeOf(int kind) {
+        return switch (kind) {
+            case KW_BOOLEAN -> Type.BOOLEAN;
+            case KW_CHAR -> Type.CHAR;
+            case KW_INT -> Type.INT;
+            case KW_FLOAT -> Type.FLOAT;
+            case KW_DOUBLE -> Type.DOUBLE;
+            case KW_VOID -> Type.VOID;
+            default -> null;
+        };
+    }
+
+    private void error(int token, String message) {
+        int offset = tokens.start(token);
+        diagnostics.add(new Diagnostic(tokens.line(offset), tokens.column(offset), message));
+    }
+}
@@ -0,0 +1,820 @@
+package com.compiler.learning.semantic;
+
+import com.compiler.learning.grammar.CompiledGrammar;
+import com.compiler.learning.grammar.FirstFollowAnalysis;
+import com.compiler.learning.grammar.GrammarCompiler;
+import com.compiler.learning.grammar.SLRParser;
+import com.compiler.learning.grammar.SLRTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * S-attributed syntax-directed translation: a grammar whose productions carry one semantic
+ * rule each, evaluated bottom-up while an SLR(1) parser reduces.
+ *
+ * <pre>
+ * E -> E + T  { E.val = E1.val + T.val }
+ *    | T      { E.val = T.val }
+ * F -> ( E )  { F.val = E.val }
+ *    | num    { F.val = num.lexval }
+ * </pre>
+ *
+ * A rule assigns an arithmetic expression (+ - * /, unary -, numbers, parentheses) over the
+ * attributes of the RHS symbols to the LHS. Xk names the k-th occurrence of X on the RHS,
+ * so E1 is the E inside E → E + T. A production without a rule copies the value of its
+ * single non-terminal (or single symbol), as in F → ( E ). Every rule is compiled to a
+ * postfix program once.
+ *
+ * Attributes live on a value stack that mirrors the parser's state stack, so no parse tree
+ * is built. The same programs are run in up to three domains at once: numbers, three-address
+ * code (each operator writes a new temporary) and postfix or prefix text, kept as linked
+ * segments so every reduction concatenates in constant time.
+ */
+public final class SdtEvaluator {
+
+    /** What {@link Evaluation#getOutput()} holds. */
+    public enum OutputType {
+        VALUE, POSTFIX, PREFIX, THREE_ADDRESS;
+
+        public static OutputType of(String name) {
+            if (name == null || name.isBlank()) return VALUE;
+            return switch (name.trim().toLowerCase().replace('_', '-')) {
+                case "postfix" -> POSTFIX;
+                case "prefix" -> PREFIX;
+                case "three-address", "tac", "code" -> THREE_ADDRESS;
+                default -> VALUE;
+            };
+        }
+    }
+
+    /** Textbook desk calculator, used when no grammar is given. */
+    public static final String DEFAULT_SCHEME = """
+        E -> E + T  { E.val = E1.val + T.val }
+        E -> E - T  { E.val = E1.val - T.val }
+        E -> T      { E.val = T.val }
+        T -> T * F  { T.val = T1.val * F.val }
+        T -> T / F  { T.val = T1.val / F.val }
+        T -> F      { T.val = F.val }
+        F -> ( E )  { F.val = E.val }
+        F -> - F    { F.val = - F1.val }
+        F -> num    { F.val = num.lexval }
+        F -> id     { F.val = id.lexval }
+        """;
+
+    // Rule program opcodes; SLOT, SLOT_AGAIN and CONST take one argument
+    private static final int SLOT = 0;
+    private static final int CONST = 1;
+    private static final int ADD = 2;
+    private static final int SUB = 3;
+    private static final int MUL = 4;
+    private static final int DIV = 5;
+    private static final int NEG = 6;
+    private static final int SLOT_AGAIN = 7;   // a slot the rule already read; its output is copied
+    private static final String[] OPERATORS = {null, null, "+", "-", "*", "/", "-", null};
+    private static final int MAX_RULE_STACK = 64;
+
+    private final CompiledGrammar grammar;
+    private final SLRParser parser;
+    private final Rule[] rules;         // production -> rule
+    private final int numberTerminal;   // terminal for numeric literals, -1 if none
+    private final int identifierTerminal;
+
+    private SdtEvaluator(CompiledGrammar grammar, SLRTable table, Rule[] rules) {
+        this.grammar = grammar;
+        this.parser = new SLRParser(table);
+        this.rules = rules;
+        this.numberTerminal = firstTerminal("num", "number", "digit", "id");
+        this.identifierTerminal = firstTerminal("id");
+    }
+
+    private int firstTerminal(String... names) {
+        for (String name : names) {
+            int id = grammar.idOf(name);
+            if (grammar.isTerminal(id)) return id;
+        }
+        return -1;
+    }
+
+    /**
+     * Compiles a translation scheme.
+     *
+     * @throws IllegalArgumentException if the grammar is empty or not SLR(1), or a rule is
+     *         malformed or missing
+     */
+    public static SdtEvaluator compile(String scheme) {
+        Map<String, String> ruleText = new HashMap<>();
+        String grammarText = splitRules(scheme == null || scheme.isBlank() ? DEFAULT_SCHEME : scheme, ruleText);
+        CompiledGrammar grammar = GrammarCompiler.compile(grammarText, GrammarCompiler.SymbolMode.WHITESPACE);
+        if (grammar.isEmpty()) throw new IllegalArgumentException("The grammar has no productions");
+
+        SLRTable table = slrTable(grammar);
+
+        Rule[] rules = new Rule[grammar.productionCount()];
+        for (int p = 0; p < rules.length; p++) {
+            String text = ruleText.get(ruleKey(grammar.name(grammar.lhs(p)), rhsKey(grammar, p)));
+            try {
+                rules[p] = text != null ? new RuleCompiler(grammar, p, text).compile() : defaultRule(grammar, p);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(grammar.productionString(p) + ": " + e.getMessage());
+            }
+        }
+        return new SdtEvaluator(grammar, table, rules);
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    /** SLR(1) table of a grammar; throws if the grammar has conflicts. */
+    static SLRTable slrTable(CompiledGrammar grammar) {
+        SLRTable table = new SLRTable(new FirstFollowAnalysis(grammar));
+        if (!table.isSLR()) {
+            SLRTable.Conflict conflict = table.getConflicts().get(0);
+            throw new IllegalArgumentException("The grammar is not SLR(1): " + conflict.getType()
+                + " conflict in state " + conflict.getState() + " on '" + grammar.name(conflict.getTerminal()) + "'"
+                + (table.getConflicts().size() > 1 ? " and " + (table.getConflicts().size() - 1) + " more" : ""));
+        }
+        return table;
+    }
+
+    /** Strips the { rule } parts from the scheme, recording them by production. */
+    static String splitRules(String scheme, Map<String, String> ruleText) {
+        StringBuilder grammarText = new StringBuilder();
+        String lhs = null;
+        for (String line : scheme.split("\n")) {
+            String rest = line.trim();
+            if (rest.isEmpty()) continue;
+            int arrow = rest.indexOf("->");
+            int arrowLength = 2;
+            if (arrow < 0 || rest.indexOf('→') >= 0 && rest.indexOf('→') < arrow) {
+                arrow = rest.indexOf('→');
+                arrowLength = 1;
+            }
+            if (arrow >= 0 && rest.lastIndexOf('{', arrow) < 0) {
+                lhs = rest.substring(0, arrow).trim();
+                rest = rest.substring(arrow + arrowLength);
+            } else if (rest.startsWith("|") && lhs != null) {
+                rest = rest.substring(1);  // continuation line: | alt { rule }
+            } else {
+                throw new IllegalArgumentException("Expected 'A -> ...' but found: " + rest);
+            }
+            StringBuilder alternatives = new StringBuilder();
+            int depth = 0;
+            int altStart = 0;
+            for (int i = 0; i <= rest.length(); i++) {
+                char c = i < rest.length() ? rest.charAt(i) : '|';
+                if (c == '{') depth++;
+                if (c == '}') depth--;
+                if (c != '|' || depth > 0) continue;
+                String alt = rest.substring(altStart, i);
+                altStart = i + 1;
+                String rule = null;
+                int open = alt.indexOf('{');
+                if (open >= 0) {
+                    int close = alt.lastIndexOf('}');
+                    if (close < open) throw new IllegalArgumentException("Unclosed '{' in: " + alt.trim());
+                    rule = alt.substring(open + 1, close).trim();
+                    alt = alt.substring(0, open) + alt.substring(close + 1);
+                }
+                String symbols = String.join(" ", alt.trim().split("\\s+"));
+                if (GrammarCompiler.isEpsilon(symbols)) symbols = "";
+                if (rule != null && !rule.isEmpty()) ruleText.put(ruleKey(lhs, symbols), rule);
+                if (alternatives.length() > 0) alternatives.append(" | ");
+                alternatives.append(symbols.isEmpty() ? CompiledGrammar.EPSILON : symbols);
+            }
+            grammarText.append(lhs).append(" -> ").append(alternatives).append('\n');
+        }
+        return grammarText.toString();
+    }
+
+    static String ruleKey(String lhs, String rhs) {
+        return lhs + " -> " + rhs;
+    }
+
+    static String rhsKey(CompiledGrammar grammar, int production) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < grammar.rhsLength(production); i++) {
+            if (i > 0) key.append(' ');
+            key.append(grammar.name(grammar.rhsSymbol(production, i)));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Rule for a production written without one: A op B with op one of + - * / applies the
+     * operator, - A negates, and anything else copies the only non-terminal or the only symbol.
+     */
+    private static Rule defaultRule(CompiledGrammar grammar, int production) {
+        int length = grammar.rhsLength(production);
+        String target = grammar.name(grammar.lhs(production)) + ".val";
+        if (length == 3 && isOperand(grammar, production, 0) && isOperand(grammar, production, 2)) {
+            int op = operatorOf(grammar, production, 1);
+            if (op >= ADD && op <= DIV) {
+                return new Rule(target, new int[] {SLOT, 0, SLOT, 2, op}, new double[0], new String[0],
+                    new String[] {"", " " + OPERATORS[op] + " ", ""}, new int[] {0, 2, -1});
+            }
+        }
+        if (length == 2 && operatorOf(grammar, production, 0) == SUB && isOperand(grammar, production, 1)) {
+            return new Rule(target, new int[] {SLOT, 1, NEG}, new double[0], new String[0],
+                new String[] {"-", ""}, new int[] {1, -1});
+        }
+        return copyRule(grammar, production);
+    }
+
+    private static boolean isOperand(CompiledGrammar grammar, int production, int i) {
+        return grammar.isNonTerminal(grammar.rhsSymbol(production, i));
+    }
+
+    /** Opcode of a + - * / terminal at RHS index i, or -1. */
+    private static int operatorOf(CompiledGrammar grammar, int production, int i) {
+        int symbol = grammar.rhsSymbol(production, i);
+        if (grammar.isNonTerminal(symbol)) return -1;
+        for (int op = ADD; op <= DIV; op++) {
+            if (OPERATORS[op].equals(grammar.name(symbol))) return op;
+        }
+        return -1;
+    }
+
+    /** Default rule: copy the value of the only non-terminal, or of the only symbol. */
+    private static Rule copyRule(CompiledGrammar grammar, int production) {
+        int slot = -1;
+        int length = grammar.rhsLength(production);
+        for (int i = 0; i < length; i++) {
+            if (!grammar.isNonTerminal(grammar.rhsSymbol(production, i))) continue;
+            if (slot >= 0) throw new IllegalArgumentException("No semantic rule, and more than one value to copy");
+            slot = i;
+        }
+        if (slot < 0 && length == 1) slot = 0;
+        if (slot < 0) throw new IllegalArgumentException("No semantic rule");
+        String lhs = grammar.name(grammar.lhs(production));
+        return new Rule(lhs + ".val", new int[] {SLOT, slot}, new double[0], new String[0],
+            new String[] {"", ""}, new int[] {slot, -1});
+    }
+
+    /**
+     * Parses and translates an input. Numeric literals become the grammar's num (or
+     * number, digit, id) terminal, identifiers its id terminal, and anything else must be
+     * spelled like a terminal. At most maxSteps reductions are recorded as steps.
+     */
+    public Evaluation evaluate(String input, OutputType outputType, int maxSteps) {
+        SourceScanner.TokenStream tokens = SourceScanner.scan(input);
+        int[] terminals = new int[tokens.size()];
+        for (int i = 0; i < terminals.length; i++) terminals[i] = terminalOf(tokens, i);
+        Translation translation = new Translation(tokens, outputType, maxSteps);
+        SLRParser.Result result = parser.parse(terminals, terminals.length, translation);
+        if (!result.isAccepted()) translation.error = syntaxError(parser.getTable(), tokens, result);
+        return translation.finish(result.isAccepted());
+    }
+
+    /** Message for a rejected parse, listing the terminals the parser could have shifted. */
+    static String syntaxError(SLRTable table, SourceScanner.TokenStream tokens, SLRParser.Result result) {
+        CompiledGrammar grammar = table.getGrammar();
+        int position = result.getPosition();
+        int offset = tokens.start(position);
+        StringBuilder expected = new StringBuilder();
+        BitSet expectedSet = table.expectedTerminals(result.getState());
+        for (int t = expectedSet.nextSetBit(0); t >= 0 && expected.length() < 200; t = expectedSet.nextSetBit(t + 1)) {
+            if (expected.length() > 0) expected.append(", ");
+            expected.append(grammar.name(grammar.terminalAt(t)));
+        }
+        String found = position < tokens.size() ? "'" + tokens.text(position) + "'" : "end of input";
+        return "Syntax error at line " + tokens.line(offset) + ", column " + tokens.column(offset)
+            + ": unexpected " + found + (expected.length() > 0 ? " (expected " + expected + ")" : "");
+    }
+
+    private int terminalOf(SourceScanner.TokenStream tokens, int i) {
+        int kind = tokens.kind(i);
+        int exact = grammar.idOf(tokens.text(i));
+        if (grammar.isTerminal(exact)) return exact;
+        if (kind == SourceScanner.INT_LIT || kind == SourceScanner.FLOAT_LIT) return numberTerminal;
+        if (kind == SourceScanner.ID) return identifierTerminal;
+        return -1;
+    }
+
+    /** A compiled semantic rule: a postfix program over RHS slots and constants. */
+    private static final class Rule {
+        final String target;        // "E.val"
+        final int[] code;
+        final double[] numbers;     // CONST operand -> value
+        final String[] texts;       // CONST operand -> spelling
+        final String[] pieces;      // rule text split around slot references, for display
+        final int[] pieceSlots;     // slot shown after each piece, -1 for none
+
+        Rule(String target, int[] code, double[] numbers, String[] texts, String[] pieces, int[] pieceSlots) {
+            this.target = target;
+            this.code = code;
+            this.numbers = numbers;
+            this.texts = texts;
+            this.pieces = pieces;
+            this.pieceSlots = pieceSlots;
+        }
+
+        boolean isCopy() {
+            return code.length == 2 && code[0] == SLOT;
+        }
+    }
+
+    /** Recursive descent over one rule; rules are a line long, so recursion depth is no concern. */
+    private static final class RuleCompiler {
+        private final CompiledGrammar grammar;
+        private final int production;
+        private final String text;
+        private int pos;
+        private int[] code = new int[16];
+        private int size;
+        private int depth;
+        private int maxDepth;
+        private final List<Double> numbers = new ArrayList<>();
+        private final List<String> texts = new ArrayList<>();
+        private final List<String> pieces = new ArrayList<>();
+        private final List<Integer> pieceSlots = new ArrayList<>();
+        private int pieceStart;
+
+        RuleCompiler(CompiledGrammar grammar, int production, String text) {
+            this.grammar = grammar;
+            this.production = production;
+            this.text = text;
+        }
+
+        Rule compile() {
+            String lhs = grammar.name(grammar.lhs(production));
+            skipSpaces();
+            int targetStart = pos;
+            String name = name();
+            if (!name.equals(lhs) || !peek('.')) {
+                throw new IllegalArgumentException("A rule must assign " + lhs + ".attr, found '" + text + "'");
+            }
+            pos++;
+            name();
+            String target = text.substring(targetStart, pos);
+            skipSpaces();
+            if (!peek('=')) throw new IllegalArgumentException("Expected '=' in '" + text + "'");
+            pos++;
+            pieceStart = pos;
+            sum();
+            skipSpaces();
+            if (pos < text.length()) {
+                throw new IllegalArgumentException("Unexpected '" + text.substring(pos) + "' in '" + text + "'");
+            }
+            if (maxDepth > MAX_RULE_STACK) throw new IllegalArgumentException("Rule is nested too deeply: '" + text + "'");
+            pieces.add(text.substring(pieceStart));
+            pieceSlots.add(-1);
+            double[] values = new double[numbers.size()];
+            for (int i = 0; i < values.length; i++) values[i] = numbers.get(i);
+            return new Rule(target, Arrays.copyOf(code, size), values, texts.toArray(new String[0]),
+                pieces.toArray(new String[0]), pieceSlots.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        private void sum() {
+            product();
+            while (true) {
+                skipSpaces();
+                if (!peek('+') && !peek('-')) return;
+                int op = text.charAt(pos++) == '+' ? ADD : SUB;
+                product();
+                emit(op);
+            }
+        }
+
+        private void product() {
+            unary();
+            while (true) {
+                skipSpaces();
+                if (!peek('*') && !peek('/')) return;
+                int op = text.charAt(pos++) == '*' ? MUL : DIV;
+                unary();
+                emit(op);
+            }
+        }
+
+        private void unary() {
+            skipSpaces();
+            if (peek('-')) {
+                pos++;
+                unary();
+                emit(NEG);
+            } else if (peek('(')) {
+                pos++;
+                sum();
+                skipSpaces();
+                if (!peek(')')) throw new IllegalArgumentException("Expected ')' in '" + text + "'");
+                pos++;
+            } else if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                int start = pos;
+                while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) pos++;
+                String number = text.substring(start, pos);
+                texts.add(number);
+                numbers.add(Double.parseDouble(number));
+                emit(CONST, numbers.size() - 1);
+            } else {
+                int start = pos;
+                String name = name();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Expected an attribute or number at '" + text.substring(start) + "'");
+                }
+                if (!peek('.')) throw new IllegalArgumentException("Expected " + name + ".attr in '" + text + "'");
+                pos++;
+                name();
+                int slot = slotOf(name);
+                int op = pieceSlots.contains(slot) ? SLOT_AGAIN : SLOT;
+                pieces.add(text.substring(pieceStart, start));
+                pieceSlots.add(slot);
+                pieceStart = pos;
+                emit(op, slot);
+            }
+        }
+
+        /** RHS index of a symbol reference: an exact name, or name + k for the k-th occurrence. */
+        private int slotOf(String name) {
+            int length = grammar.rhsLength(production);
+            for (int i = 0; i < length; i++) {
+                if (grammar.name(grammar.rhsSymbol(production, i)).equals(name)) return i;
+            }
+            int digits = name.length();
+            while (digits > 0 && Character.isDigit(name.charAt(digits - 1))) digits--;
+            if (digits < name.length() && digits > 0) {
+                String base = name.substring(0, digits);
+                int k = Integer.parseInt(name.substring(digits));
+                for (int i = 0; i < length; i++) {
+                    if (grammar.name(grammar.rhsSymbol(production, i)).equals(base) && --k == 0) return i;
+                }
+            }
+            throw new IllegalArgumentException("'" + name + "' is not a symbol of the right-hand side");
+        }
+
+        private String name() {
+            int start = pos;
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (!Character.isLetterOrDigit(c) && c != '_' && c != '\'') break;
+                pos++;
+            }
+            return text.substring(start, pos);
+        }
+
+        private boolean peek(char c) {
+            return pos < text.length() && text.charAt(pos) == c;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private void emit(int op) {
+            emitCode(op);
+            depth += op == NEG ? 0 : -1;
+        }
+
+        private void emit(int op, int argument) {
+            emitCode(op);
+            emitCode(argument);
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        private void emitCode(int value) {
+            if (size == code.length) code = Arrays.copyOf(code, size * 2);
+            code[size++] = value;
+        }
+    }
+
+    /** Result of translating one input. */
+    public static final class Evaluation {
+        private final boolean success;
+        private final String error;
+        private final String output;
+        private final List<Step> steps;
+        private final int reductions;
+        private final String code;
+
+        Evaluation(boolean success, String error, String output, List<Step> steps, int reductions, String code) {
+            this.success = success;
+            this.error = error;
+            this.output = output;
+            this.steps = steps;
+            this.reductions = reductions;
+            this.code = code;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /** Syntax or evaluation error, null on success. */
+        public String getError() {
+            return error;
+        }
+
+        public String getOutput() {
+            return output;
+        }
+
+        /** The first recorded reductions. */
+        public List<Step> getSteps() {
+            return steps;
+        }
+
+        /** Total number of reductions performed. */
+        public int getReductions() {
+            return reductions;
+        }
+
+        /** Three-address code for the input. */
+        public String getCode() {
+            return code;
+        }
+    }
+
+    /** One reduction: the production, its rule with operand values filled in, and the result. */
+    public static final class Step {
+        private final String production;
+        private final String action;
+        private final String value;
+
+        Step(String production, String action, String value) {
+            this.production = production;
+            this.action = action;
+            this.value = value;
+        }
+
+        public String getProduction() {
+            return production;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Parser listener holding the attribute stacks. Numbers and three-address operands are
+     * always kept; postfix/prefix segments only when that output is requested. A segment is
+     * a (head, tail) pair of nodes in a linked list of output pieces.
+     */
+    private final class Translation implements SLRParser.Listener {
+        private static final int MAX_DISPLAY = 80;
+
+        private final SourceScanner.TokenStream tokens;
+        private final OutputType outputType;
+        private final boolean segments;
+        private final int maxSteps;
+        private final List<Step> steps = new ArrayList<>();
+        private final StringBuilder code = new StringBuilder();
+        private String error;
+        private int reductions;
+        private int temporaries;
+
+        private int depth;
+        private double[] numbers = new double[64];
+        private String[] addresses = new String[64];
+        private int[] heads = new int[64];
+        private int[] tails = new int[64];
+
+        private int nodes;
+        private String[] pieces = new String[64];
+        private int[] next = new int[64];
+
+        // Scratch stacks for running one rule program
+        private final double[] numberScratch = new double[MAX_RULE_STACK];
+        private final String[] addressScratch = new String[MAX_RULE_STACK];
+        private final int[] headScratch = new int[MAX_RULE_STACK];
+        private final int[] tailScratch = new int[MAX_RULE_STACK];
+
+        Translation(SourceScanner.TokenStream tokens, OutputType outputType, int maxSteps) {
+            this.tokens = tokens;
+            this.outputType = outputType;
+            this.segments = outputType == OutputType.POSTFIX || outputType == OutputType.PREFIX;
+            this.maxSteps = maxSteps;
+        }
+
+        @Override
+        public void onShift(int position) {
+            String lexeme = tokens.text(position);
+            ensureDepth(depth + 1);
+            int kind = tokens.kind(position);
+            numbers[depth] = kind == SourceScanner.INT_LIT || kind == SourceScanner.FLOAT_LIT
+                ? Double.parseDouble(lexeme) : Double.NaN;
+            addresses[depth] = lexeme;
+            if (segments) {
+                int node = node(lexeme);
+                heads[depth] = node;
+                tails[depth] = node;
+            }
+            depth++;
+        }
+
+        @Override
+        public void onReduce(int production, int position) {
+            Rule rule = rules[production];
+            int base = depth - grammar.rhsLength(production);
+            ensureDepth(base + 1);
+            double number;
+            String address;
+            int head = -1;
+            int tail = -1;
+            if (rule.isCopy()) {
+                int slot = base + rule.code[1];
+                number = numbers[slot];
+                address = addresses[slot];
+                head = heads[slot];
+                tail = tails[slot];
+            } else {
+                int top = run(rule, base);
+                number = numberScratch[top];
+                address = addressScratch[top];
+                if (segments) {
+                    head = headScratch[top];
+                    tail = tailScratch[top];
+                }
+            }
+            if (steps.size() < maxSteps) steps.add(step(production, rule, base, number, address, head, tail));
+            numbers[base] = number;
+            addresses[base] = address;
+            heads[base] = head;
+            tails[base] = tail;
+            depth = base + 1;
+            reductions++;
+        }
+
+        /** Runs a rule program over the slots starting at base; returns the result's scratch index. */
+        private int run(Rule rule, int base) {
+            int sp = 0;
+            int[] program = rule.code;
+            for (int pc = 0; pc < program.length; pc++) {
+                int op = program[pc];
+                switch (op) {
+                    case SLOT, SLOT_AGAIN -> {
+                        int slot = base + program[++pc];
+                        numberScratch[sp] = numbers[slot];
+                        addressScratch[sp] = addresses[slot];
+                        if (segments && op == SLOT_AGAIN) {
+                            copySegment(heads[slot], tails[slot], sp);
+                        } else if (segments) {
+                            headScratch[sp] = heads[slot];
+                            tailScratch[sp] = tails[slot];
+                        }
+                        sp++;
+                    }
+                    case CONST -> {
+                        int index = program[++pc];
+                        numberScratch[sp] = rule.numbers[index];
+                        addressScratch[sp] = rule.texts[index];
+                        if (segments) {
+                            int node = node(rule.texts[index]);
+                            headScratch[sp] = node;
+                            tailScratch[sp] = node;
+                        }
+                        sp++;
+                    }
+                    case NEG -> {
+                        int a = sp - 1;
+                        numberScratch[a] = -numberScratch[a];
+                        addressScratch[a] = emit("minus " + addressScratch[a]);
+                        if (segments) {
+                            int node = node("neg");
+                            if (outputType == OutputType.POSTFIX) {
+                                next[tailScratch[a]] = node;
+                                tailScratch[a] = node;
+                            } else {
+                                next[node] = headScratch[a];
+                                headScratch[a] = node;
+                            }
+                        }
+                    }
+                    default -> {
+                        int a = sp - 2;
+                        int b = sp - 1;
+                        double x = numberScratch[a];
+                        double y = numberScratch[b];
+                        numberScratch[a] = switch (op) {
+                            case ADD -> x + y;
+                            case SUB -> x - y;
+                            case MUL -> x * y;
+                            default -> y == 0 && error == null ? divisionByZero(x) : x / y;
+                        };
+                        addressScratch[a] = emit(addressScratch[a] + " " + OPERATORS[op] + " " + addressScratch[b]);
+                        if (segments) {
+                            int node = node(OPERATORS[op]);
+                            if (outputType == OutputType.POSTFIX) {
+                                next[tailScratch[a]] = headScratch[b];
+                                next[tailScratch[b]] = node;
+                                tailScratch[a] = node;
+                            } else {
+                                next[node] = headScratch[a];
+                                next[tailScratch[a]] = headScratch[b];
+                                headScratch[a] = node;
+                                tailScratch[a] = tailScratch[b];
+                            }
+                        }
+                        sp--;
+                    }
+                }
+            }
+            return sp - 1;
+        }
+
+        /** Puts a copy of the segment at scratch index sp, so linking one does not relink the other. */
+        private void copySegment(int head, int tail, int sp) {
+            int copy = node(pieces[head]);
+            headScratch[sp] = copy;
+            for (int node = head; node != tail; ) {
+                node = next[node];
+                int piece = node(pieces[node]);
+                next[copy] = piece;
+                copy = piece;
+            }
+            tailScratch[sp] = copy;
+        }
+
+        private double divisionByZero(double x) {
+            error = "Division by zero at reduction " + (reductions + 1);
+            return x / 0;
+        }
+
+        /** Appends "t = expression" to the code and returns the new temporary. */
+        private String emit(String expression) {
+            String temporary = "t" + (++temporaries);
+            code.append(temporary).append(" = ").append(expression).append('\n');
+            return temporary;
+        }
+
+        private int node(String piece) {
+            if (nodes == pieces.length) {
+                pieces = Arrays.copyOf(pieces, nodes * 2);
+                next = Arrays.copyOf(next, nodes * 2);
+            }
+            pieces[nodes] = piece;
+            next[nodes] = -1;
+            return nodes++;
+        }
+
+        private void ensureDepth(int needed) {
+            if (needed <= numbers.length) return;
+            int capacity = Math.max(needed, numbers.length * 2);
+            numbers = Arrays.copyOf(numbers, capacity);
+            addresses = Arrays.copyOf(addresses, capacity);
+            heads = Arrays.copyOf(heads, capacity);
+            tails = Arrays.copyOf(tails, capacity);
+        }
+
+        private Step step(int production, Rule rule, int base, double number, String address, int head, int tail) {
+            StringBuilder action = new StringBuilder(rule.target).append(" = ");
+            for (int i = 0; i < rule.pieces.length; i++) {
+                action.append(i == 0 ? rule.pieces[i].trim() : rule.pieces[i]);
+                int slot = rule.pieceSlots[i];
+                if (slot >= 0) {
+                    action.append(display(numbers[base + slot], addresses[base + slot], heads[base + slot], tails[base + slot]));
+                }
+            }
+            String value = display(number, address, head, tail);
+            return new Step(grammar.productionString(production), action.toString().trim(), value);
+        }
+
+        private String display(double number, String address, int head, int tail) {
+            return switch (outputType) {
+                case VALUE -> Double.isNaN(number) ? address : formatNumber(number);
+                case THREE_ADDRESS -> address;
+                default -> render(head, tail, MAX_DISPLAY);
+            };
+        }
+
+        /** Pieces from head to tail; the rule that consumed a segment has linked its tail onward. */
+        private String render(int head, int tail, int limit) {
+            StringBuilder out = new StringBuilder();
+            for (int node = head; node >= 0; node = node == tail ? -1 : next[node]) {
+                if (out.length() > 0) out.append(' ');
+                if (out.length() > limit) return out.append('…').toString();
+                out.append(pieces[node]);
+            }
+            return out.toString();
+        }
+
+        Evaluation finish(boolean accepted) {
+            if (!accepted) return new Evaluation(false, error, null, steps, reductions, null);
+            String output = switch (outputType) {
+                case VALUE -> Double.isNaN(numbers[0]) ? null : formatNumber(numbers[0]);
+                case THREE_ADDRESS -> addresses[0];
+                default -> render(heads[0], tails[0], Integer.MAX_VALUE);
+            };
+            if (output == null && error == null) {
+                error = "The input contains identifiers, so it has no numeric value; "
+                    + "use the postfix, prefix or three-address output";
+            }
+            code.append("result = ").append(addresses[0]);
+            return new Evaluation(error == null, error, output, steps, reductions, code.toString());
+        }
+    }
+
+    static String formatNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return String.valueOf((long) value);
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,216 @@
+package com.compiler.learning.semantic;
+
+import com.compiler.learning.automata.Lexer;
+import com.compiler.learning.automata.LexerGenerator;
+
+import java.util.Arrays;
+
+/**
+ * Tokenizer for the C-like source of the semantic section, generated once with
+ * {@link LexerGenerator} from the rules below. Token kinds are the rule indices, so the
+ * constants must follow the rule order; keywords come before {@link #ID} to win ties.
+ */
+public final class SourceScanner {
+
+    public static final int ERROR = Lexer.ERROR;
+
+    public static final int KW_BOOLEAN = 0;
+    public static final int KW_CHAR = 1;
+    public static final int KW_INT = 2;
+    public static final int KW_FLOAT = 3;
+    public static final int KW_DOUBLE = 4;
+    public static final int KW_VOID = 5;
+    public static final int KW_TRUE = 6;
+    public static final int KW_FALSE = 7;
+    public static final int KW_IF = 8;
+    public static final int KW_ELSE = 9;
+    public static final int KW_WHILE = 10;
+    public static final int KW_RETURN = 11;
+    public static final int ID = 12;
+    public static final int FLOAT_LIT = 13;
+    public static final int INT_LIT = 14;
+    public static final int CHAR_LIT = 15;
+    public static final int OR = 16;
+    public static final int AND = 17;
+    public static final int EQ = 18;
+    public static final int NE = 19;
+    public static final int LE = 20;
+    public static final int GE = 21;
+    public static final int LT = 22;
+    public static final int GT = 23;
+    public static final int PLUS = 24;
+    public static final int MINUS = 25;
+    public static final int STAR = 26;
+    public static final int SLASH = 27;
+    public static final int PERCENT = 28;
+    public static final int NOT = 29;
+    public static final int ASSIGN = 30;
+    public static final int LPAREN = 31;
+    public static final int RPAREN = 32;
+    public static final int LBRACE = 33;
+    public static final int RBRACE = 34;
+    public static final int SEMI = 35;
+    public static final int COMMA = 36;
+
+    private static final Lexer LEXER = new LexerGenerator()
+        .rule("boolean", "boolean").rule("char", "char").rule("int", "int").rule("float", "float")
+        .rule("double", "double").rule("void", "void").rule("true", "true").rule("false", "false")
+        .rule("if", "if").rule("else", "else").rule("while", "while").rule("return", "return")
+        .rule("identifier", "[a-zA-Z_][a-zA-Z0-9_]*")
+        .rule("float literal", "[0-9]+\\.[0-9]+([eE][+\\-]?[0-9]+)?")
+        .rule("int literal", "[0-9]+")
+        .rule("char literal", "'([^'\\\\\\n]|\\\\.)'")
+        .rule("||", "\\|\\|").rule("&&", "&&").rule("==", "==").rule("!=", "!=")
+        .rule("<=", "<=").rule(">=", ">=").rule("<", "<").rule(">", ">")
+        .rule("+", "\\+").rule("-", "\\-").rule("*", "\\*").rule("/", "/").rule("%", "%")
+        .rule("!", "!").rule("=", "=").rule("(", "\\(").rule(")", "\\)").rule("{", "\\{").rule("}", "\\}")
+        .rule(";", ";").rule(",", ",")
+        .skip("whitespace", "\\s+")
+        .skip("comment", "//[^\\n]*|/\\*([^*]|\\*+[^*/])*\\*+/")
+        .build();
+
+    private static final int STREAM_CHUNK = 1024;
+
+    private SourceScanner() {
+    }
+
+    public static TokenStream scan(String source) {
+        return new TokenStream(source == null ? "" : source, 0, null);
+    }
+
+    /**
+     * Tokens pulled from the lexer in chunks as the caller reads them. Tokens before the
+     * last {@link TokenStream#release} point are dropped when the window fills up, so a
+     * statement-at-a-time parser holds only the tokens of the statement it is on. Time spent
+     * lexing is charged to {@link PhaseClock#LEX} when a clock is given.
+     */
+    public static TokenStream stream(String source, PhaseClock clock) {
+        return new TokenStream(source == null ? "" : source, STREAM_CHUNK, clock);
+    }
+
+    /** Display name of a token kind, e.g. "identifier" or "+". */
+    public static String kindName(int kind) {
+        return kind == ERROR ? "invalid character" : LEXER.ruleName(kind);
+    }
+
+    /**
+     * Tokens as parallel arrays of kind and [start, end) offset, with line/column lookup.
+     * Indices are absolute; a streaming instance stores only a window of them.
+     */
+    public static final class TokenStream {
+        private final String source;
+        private final int chunk;           // tokens per pull, 0 when scanned up front
+        private final PhaseClock clock;
+        private final Lexer.TokenSink sink = this::add;
+        private int base;                  // index of the first stored token
+        private int count;                 // tokens stored
+        private int released;              // tokens below this index may be dropped
+        private int resume;                // source offset of the next pull
+        private int peak;
+        private int[] kinds = new int[64];
+        private int[] starts = new int[64];
+        private int[] ends = new int[64];
+        private int[] lineStarts = new int[16];
+        private int lines;
+
+        private TokenStream(String source, int chunk, PhaseClock clock) {
+            this.source = source;
+            this.chunk = chunk;
+            this.clock = clock;
+            if (chunk == 0) resume = LEXER.scan(source, 0, Integer.MAX_VALUE, sink);
+            lineStarts[lines++] = 0;
+            for (int i = source.indexOf('\n'); i >= 0; i = source.indexOf('\n', i + 1)) {
+                if (lines == lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+                lineStarts[lines++] = i + 1;
+            }
+        }
+
+        private void add(int kind, int start, int end) {
+            if (count == kinds.length) {
+                int drop = released - base;
+                if (drop >= count / 2) {
+                    // Reuse the space of released tokens rather than growing
+                    System.arraycopy(kinds, drop, kinds, 0, count - drop);
+                    System.arraycopy(starts, drop, starts, 0, count - drop);
+                    System.arraycopy(ends, drop, ends, 0, count - drop);
+                    base += drop;
+                    count -= drop;
+                } else {
+                    kinds = Arrays.copyOf(kinds, count * 2);
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+            }
+            kinds[count] = kind;
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+            if (count > peak) peak = count;
+        }
+
+        /** Whether token i exists, scanning further into the source if needed. */
+        public boolean has(int i) {
+            while (i - base >= count) {
+                if (resume >= source.length()) return false;
+                int phase = clock == null ? -1 : clock.switchTo(PhaseClock.LEX);
+                resume = LEXER.scan(source, resume, chunk, sink);
+                if (clock != null) clock.switchTo(phase);
+            }
+            return true;
+        }
+
+        /** Allows tokens before index i to be dropped; they must not be read again. */
+        public void release(int i) {
+            if (i > released) released = i;
+        }
+
+        public String source() {
+            return source;
+        }
+
+        /** Number of tokens; on a streaming instance this scans to the end of the source. */
+        public int size() {
+            has(Integer.MAX_VALUE - 1);
+            return base + count;
+        }
+
+        /** Tokens scanned so far. */
+        public int scanned() {
+            return base + count;
+        }
+
+        /** Most tokens held at once. */
+        public int peakWindow() {
+            return peak;
+        }
+
+        /** Kind of token i; past the end this is -2 so lookahead needs no bounds checks. */
+        public int kind(int i) {
+            return has(i) ? kinds[i - base] : -2;
+        }
+
+        /** Start offset of token i, or the end of the source past the last token. */
+        public int start(int i) {
+            return has(i) ? starts[i - base] : source.length();
+        }
+
+        public int end(int i) {
+            return has(i) ? ends[i - base] : source.length();
+        }
+
+        public String text(int i) {
+            return has(i) ? source.substring(starts[i - base], ends[i - base]) : "end of input";
+        }
+
+        /** 1-based line of a source offset. */
+        public int line(int offset) {
+            int i = Arrays.binarySearch(lineStarts, 0, lines, offset);
+            return (i >= 0 ? i : -i - 2) + 1;
+        }
+
+        /** 1-based column of a source offset. */
+        public int column(int offset) {
+            return offset - lineStarts[line(offset) - 1] + 1;
+        }
+    }
+}
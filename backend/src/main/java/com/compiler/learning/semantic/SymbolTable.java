@@ -0,0 +1,249 @@
+package com.compiler.learning.semantic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Block-structured symbol table with one hash map for all scopes.
+ *
+ * The map holds the innermost visible declaration of each name, and every symbol links to
+ * the declaration it shadows. Declarations are also pushed on a stack that serves as an undo
+ * log, so leaving a scope pops its symbols and puts the shadowed ones back. Lookup and
+ * insert are a single hash probe however deep the nesting, and entering or leaving a scope
+ * costs only its own declarations.
+ *
+ * Variables get storage offsets aligned to their width. A function scope starts a new frame
+ * at offset 0; a block continues at its parent's current offset, so sibling blocks reuse the
+ * same space and a frame's size is the largest extent any of its blocks reached.
+ */
+public final class SymbolTable {
+
+    public enum Kind {
+        VARIABLE, PARAMETER, FUNCTION
+    }
+
+    /** A declared name. */
+    public static final class Symbol {
+        private final String name;
+        private final Type type;
+        private final Kind kind;
+        private final Scope scope;
+        private final int offset;
+        private final int line;
+        private final int column;
+        private final String signature;
+        private final Symbol shadowed;
+
+        private Symbol(String name, Type type, Kind kind, Scope scope, int offset, int line, int column,
+                       String signature, Symbol shadowed) {
+            this.name = name;
+            this.type = type;
+            this.kind = kind;
+            this.scope = scope;
+            this.offset = offset;
+            this.line = line;
+            this.column = column;
+            this.signature = signature;
+            this.shadowed = shadowed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Variable type, or a function's return type. */
+        public Type getType() {
+            return type;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        /** Scope nesting depth, 0 for globals. */
+        public int getDepth() {
+            return scope.depth;
+        }
+
+        /** Offset in the global area or the function frame, -1 for functions. */
+        public int getOffset() {
+            return offset;
+        }
+
+        /** Storage size in bytes, 0 for functions. */
+        public int getWidth() {
+            return kind == Kind.FUNCTION ? 0 : type.width();
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        /** Parameter types of a function, e.g. "(int, float)"; null for variables. */
+        public String getSignature() {
+            return signature;
+        }
+    }
+
+    /** A scope: the global scope, a function frame or a block inside one. */
+    public static final class Scope {
+        private final int id;
+        private final String name;
+        private final Scope parent;
+        private final int depth;
+        private final boolean frame;
+        private int offset;     // next free byte
+        private int extent;     // highest offset used here or in a nested block
+        private int symbols;
+        private int blocks;
+
+        private Scope(int id, String name, Scope parent, boolean frame) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.frame = frame;
+            this.offset = frame || parent == null ? 0 : parent.offset;
+            this.extent = offset;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Scope getParent() {
+            return parent;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /** Whether the scope starts a new frame (the global scope and functions). */
+        public boolean isFrame() {
+            return frame || parent == null;
+        }
+
+        /** Storage used: the frame size for frames, the end offset reached for blocks. */
+        public int getSize() {
+            return extent;
+        }
+
+        public int getSymbolCount() {
+            return symbols;
+        }
+    }
+
+    private final Map<String, Symbol> visible = new HashMap<>();
+    private final List<Symbol> undo = new ArrayList<>();
+    private final List<Symbol> all = new ArrayList<>();
+    private final List<Scope> scopes = new ArrayList<>();
+    private int[] scopeStarts = new int[8]; // depth -> first index in undo
+    private Scope current;
+
+    public SymbolTable() {
+        current = new Scope(0, "global", null, true);
+        scopes.add(current);
+    }
+
+    public int depth() {
+        return current.depth;
+    }
+
+    public Scope currentScope() {
+        return current;
+    }
+
+    /** Enters an anonymous block scope. */
+    public void enterScope() {
+        enterScope(current.name + "/block" + (++current.blocks), false);
+    }
+
+    /** Enters a named scope; a frame scope (function body) allocates from offset 0. */
+    public void enterScope(String name, boolean frame) {
+        current = new Scope(scopes.size(), name, current, frame);
+        scopes.add(current);
+        if (current.depth == scopeStarts.length) scopeStarts = Arrays.copyOf(scopeStarts, current.depth * 2);
+        scopeStarts[current.depth] = undo.size();
+    }
+
+    /** Leaves the innermost scope; the global scope is never left. Returns false at global scope. */
+    public boolean exitScope() {
+        if (current.parent == null) return false;
+        for (int i = undo.size() - 1; i >= scopeStarts[current.depth]; i--) {
+            Symbol symbol = undo.remove(i);
+            if (symbol.shadowed != null) {
+                visible.put(symbol.name, symbol.shadowed);
+            } else {
+                visible.remove(symbol.name);
+            }
+        }
+        Scope parent = current.parent;
+        if (!current.frame) parent.extent = Math.max(parent.extent, current.extent);
+        current = parent;
+        return true;
+    }
+
+    /**
+     * Declares a variable in the current scope and returns the new symbol, or returns null
+     * if the name is already declared in this scope (an outer declaration is shadowed).
+     */
+    public Symbol declare(String name, Type type, int line, int column) {
+        return declare(name, type, Kind.VARIABLE, line, column, null);
+    }
+
+    /** Declares a variable, parameter or function (with its parameter signature). */
+    public Symbol declare(String name, Type type, Kind kind, int line, int column, String signature) {
+        Symbol previous = visible.get(name);
+        if (previous != null && previous.scope == current) return null;
+        int offset = -1;
+        if (kind != Kind.FUNCTION) {
+            int align = Math.max(1, type.width());
+            offset = (current.offset + align - 1) / align * align;
+            current.offset = offset + type.width();
+            current.extent = Math.max(current.extent, current.offset);
+        }
+        Symbol symbol = new Symbol(name, type, kind, current, offset, line, column, signature, previous);
+        visible.put(name, symbol);
+        undo.add(symbol);
+        all.add(symbol);
+        current.symbols++;
+        return symbol;
+    }
+
+    /** The innermost visible declaration of a name, or null. */
+    public Symbol lookup(String name) {
+        return visible.get(name);
+    }
+
+    /** Number of symbols currently visible or shadowed. */
+    public int size() {
+        return undo.size();
+    }
+
+    /** Every symbol ever declared, in declaration order. */
+    public List<Symbol> allSymbols() {
+        return Collections.unmodifiableList(all);
+    }
+
+    /** Every scope ever entered, in order; the global scope is first. */
+    public List<Scope> scopes() {
+        return Collections.unmodifiableList(scopes);
+    }
+}
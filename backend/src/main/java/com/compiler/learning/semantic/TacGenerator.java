@@ -0,0 +1,316 @@
+package com.compiler.learning.semantic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.compiler.learning.semantic.SourceScanner.*;
+
+/**
+ * Translates type-checked statements into {@link ThreeAddressCode} in one pass.
+ *
+ * The {@link TypeChecker} reports each statement as it is checked. An expression's nodes
+ * follow those of the previous callback and children come before parents, so a forward loop
+ * over the new nodes lowers the whole expression without recursion: each node gets an
+ * operand, and operators and coercions write fresh temporaries. An assignment retargets the
+ * instruction that computed its value when that wrote a temporary, giving x = y + 5 rather
+ * than t1 = y + 5; x = t1.
+ *
+ * Control flow uses labels and ifFalse jumps. && and || evaluate both operands (the
+ * language has no side effects inside conditions other than assignments).
+ *
+ * Only the current statement's nodes are kept, so operands are indexed from
+ * {@link TypedAst#first}.
+ */
+public final class TacGenerator implements TypeChecker.StatementListener {
+
+    /** Coercions listed by {@link #getCoercions}; the rest are only counted. */
+    public static final int MAX_COERCIONS = 200;
+
+    /** An implicit conversion the checker inserted. */
+    public static final class Coercion {
+        private final String expression;
+        private final Type from;
+        private final Type to;
+        private final int line;
+
+        Coercion(String expression, Type from, Type to, int line) {
+            this.expression = expression;
+            this.from = from;
+            this.to = to;
+            this.line = line;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        public Type getFrom() {
+            return from;
+        }
+
+        public Type getTo() {
+            return to;
+        }
+
+        public int getLine() {
+            return line;
+        }
+    }
+
+    private final TypeChecker checker = new TypeChecker();
+    private final ThreeAddressCode code = new ThreeAddressCode();
+    private final Map<SymbolTable.Symbol, Integer> variables = new IdentityHashMap<>();
+    private final Map<String, Integer> declarations = new HashMap<>();  // name -> declarations seen
+    private final Map<String, Integer> undeclared = new HashMap<>();
+    private final List<Coercion> coercions = new ArrayList<>();
+    private int[] operands = new int[64];   // AST node - first stored node -> operand
+    private int lowered;                    // first AST node not lowered yet
+    private int statements;
+    private int conversions;
+    private PhaseClock clock;
+    private int[] labels = new int[16];     // two labels per open if or while
+    private int open;
+
+    /** Declares variables from declarations such as "int x; float y;" before generating code. */
+    public TacGenerator declare(String declarations) {
+        checker.declarations(declarations);
+        return this;
+    }
+
+    public TacGenerator generate(String source) {
+        return generate(source, null);
+    }
+
+    /** Generates code, charging lowering to {@link PhaseClock#IR} and the rest to the checker's phases. */
+    public TacGenerator generate(String source, PhaseClock clock) {
+        // Names go to declarations in order, so an outer x stays x and a shadowing one is x.2
+        for (SymbolTable.Symbol symbol : checker.getSymbols().allSymbols()) variable(symbol);
+        this.clock = clock;
+        checker.statements(source, this, clock);
+        this.clock = null;
+        return this;
+    }
+
+    public ThreeAddressCode getCode() {
+        return code;
+    }
+
+    public TypeChecker getChecker() {
+        return checker;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return checker.getDiagnostics();
+    }
+
+    /** The first {@link #MAX_COERCIONS} implicit conversions, in source order. */
+    public List<Coercion> getCoercions() {
+        return coercions;
+    }
+
+    public int getConversions() {
+        return conversions;
+    }
+
+    /** Statements translated, counting if and while once each. */
+    public int getStatements() {
+        return statements;
+    }
+
+    @Override
+    public void expression(TypedAst ast, int root) {
+        statements++;
+        lower(ast, root);
+    }
+
+    @Override
+    public void initialize(TypedAst ast, SymbolTable.Symbol symbol, int value) {
+        statements++;
+        assign(variable(symbol), lower(ast, value), ast.type(value));
+    }
+
+    @Override
+    public void beginIf(TypedAst ast, int condition) {
+        statements++;
+        int elseLabel = code.newLabel();
+        code.emit(ThreeAddressCode.IF_FALSE, Type.BOOLEAN, lower(ast, condition), -1, elseLabel);
+        push(elseLabel, -1);
+    }
+
+    @Override
+    public void beginElse() {
+        int endLabel = code.newLabel();
+        code.emit(ThreeAddressCode.GOTO, Type.VOID, -1, -1, endLabel);
+        code.emit(ThreeAddressCode.LABEL, Type.VOID, -1, -1, labels[2 * open - 2]);
+        labels[2 * open - 1] = endLabel;
+    }
+
+    @Override
+    public void endIf() {
+        open--;
+        int label = labels[2 * open + 1] >= 0 ? labels[2 * open + 1] : labels[2 * open];
+        code.emit(ThreeAddressCode.LABEL, Type.VOID, -1, -1, label);
+    }
+
+    @Override
+    public void beginWhile() {
+        statements++;
+        int top = code.newLabel();
+        code.emit(ThreeAddressCode.LABEL, Type.VOID, -1, -1, top);
+        push(top, -1);
+    }
+
+    @Override
+    public void whileCondition(TypedAst ast, int condition) {
+        int exit = code.newLabel();
+        code.emit(ThreeAddressCode.IF_FALSE, Type.BOOLEAN, lower(ast, condition), -1, exit);
+        labels[2 * open - 1] = exit;
+    }
+
+    @Override
+    public void endWhile() {
+        open--;
+        code.emit(ThreeAddressCode.GOTO, Type.VOID, -1, -1, labels[2 * open]);
+        code.emit(ThreeAddressCode.LABEL, Type.VOID, -1, -1, labels[2 * open + 1]);
+    }
+
+    @Override
+    public void returnStatement(TypedAst ast, int value) {
+        statements++;
+        Type type = value < 0 ? Type.VOID : ast.type(value);
+        code.emit(ThreeAddressCode.RETURN, type, value < 0 ? -1 : lower(ast, value), -1, -1);
+    }
+
+    private void push(int first, int second) {
+        if (2 * open + 2 > labels.length) labels = Arrays.copyOf(labels, labels.length * 2);
+        labels[2 * open] = first;
+        labels[2 * open + 1] = second;
+        open++;
+    }
+
+    /** Lowers the nodes added since the last call, up to root, and returns root's operand. */
+    private int lower(TypedAst ast, int root) {
+        if (root < 0) return -1;   // syntax error; diagnostics already say so
+        int phase = clock == null ? -1 : clock.switchTo(PhaseClock.IR);
+        int first = ast.first();
+        int stored = ast.size() - first;
+        if (stored > operands.length) operands = Arrays.copyOf(operands, Math.max(stored, operands.length * 2));
+        for (int node = Math.max(lowered, first); node <= root; node++) {
+            int left = ast.left(node) - first;
+            int right = ast.right(node) - first;
+            operands[node - first] = switch (ast.kind(node)) {
+                case TypedAst.LITERAL -> literal(ast, node);
+                case TypedAst.VARIABLE -> variable(bare(ast.text(node)));
+                case TypedAst.COERCE -> coerce(ast, node, operands[left]);
+                case TypedAst.UNARY -> switch (ast.operator(node)) {
+                    case PLUS -> operands[left];
+                    case MINUS -> temporary(ThreeAddressCode.NEG, ast.type(node), operands[left], -1);
+                    default -> temporary(ThreeAddressCode.NOT, ast.type(node), operands[left], -1);
+                };
+                case TypedAst.ASSIGN -> assign(operands[left], operands[right], ast.type(node));
+                default -> temporary(binary(ast.operator(node)), ast.type(node), operands[left], operands[right]);
+            };
+        }
+        lowered = Math.max(lowered, root + 1);
+        if (clock != null) clock.switchTo(phase);
+        return operands[root - first];
+    }
+
+    private int coerce(TypedAst ast, int node, int value) {
+        Type from = ast.type(ast.left(node));
+        if (conversions++ < MAX_COERCIONS) {
+            TokenStream tokens = checker.getTokens();
+            coercions.add(new Coercion(bare(ast.text(node)), from, ast.type(node), tokens.line(ast.start(node))));
+        }
+        return temporary(ThreeAddressCode.CONVERT, ast.type(node), value, from.ordinal());
+    }
+
+    private int temporary(int op, Type type, int arg1, int arg2) {
+        int result = code.newTemporary();
+        code.emit(op, type, arg1, arg2, result);
+        return result;
+    }
+
+    private int assign(int target, int value, Type type) {
+        int last = code.size() - 1;
+        if (ThreeAddressCode.tag(value) == ThreeAddressCode.TEMPORARY && last >= 0 && code.result(last) == value
+                && ThreeAddressCode.assigns(code.op(last))) {
+            // The temporary is used only here, so the instruction can write the variable
+            code.set(last, code.op(last), code.type(last), code.arg1(last), code.arg2(last), target);
+        } else {
+            code.emit(ThreeAddressCode.COPY, type, value, -1, target);
+        }
+        return target;
+    }
+
+    private int literal(TypedAst ast, int node) {
+        String text = bare(ast.text(node));
+        Type type = ast.type(node);
+        double value = switch (ast.operator(node)) {
+            case KW_TRUE -> 1;
+            case KW_FALSE -> 0;
+            case CHAR_LIT -> charValue(text);
+            case INT_LIT, FLOAT_LIT -> Double.parseDouble(text);
+            default -> 0;
+        };
+        return code.constant(text, type, value);
+    }
+
+    /** A leaf's text without the parentheses its span grows to cover. */
+    private static String bare(String text) {
+        while (text.startsWith("(") && text.endsWith(")")) text = text.substring(1, text.length() - 1).trim();
+        return text;
+    }
+
+    private static double charValue(String literal) {
+        if (literal.charAt(1) != '\\') return literal.charAt(1);
+        return switch (literal.charAt(2)) {
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'r' -> '\r';
+            case '0' -> 0;
+            default -> literal.charAt(2);
+        };
+    }
+
+    /** Operand of the declaration a name currently refers to. */
+    private int variable(String name) {
+        SymbolTable.Symbol symbol = checker.getSymbols().lookup(name);
+        if (symbol != null) return variable(symbol);
+        // Already reported by the checker; keep generating so the rest can be shown
+        return undeclared.computeIfAbsent(name, code::newVariable);
+    }
+
+    /** Shadowing declarations of a name become name.2, name.3, ... so they stay distinct. */
+    private int variable(SymbolTable.Symbol symbol) {
+        Integer operand = variables.get(symbol);
+        if (operand == null) {
+            int seen = declarations.merge(symbol.getName(), 1, Integer::sum);
+            operand = code.newVariable(seen == 1 ? symbol.getName() : symbol.getName() + "." + seen);
+            variables.put(symbol, operand);
+        }
+        return operand;
+    }
+
+    private static int binary(int operator) {
+        return switch (operator) {
+            case PLUS -> ThreeAddressCode.ADD;
+            case MINUS -> ThreeAddressCode.SUB;
+            case STAR -> ThreeAddressCode.MUL;
+            case SLASH -> ThreeAddressCode.DIV;
+            case PERCENT -> ThreeAddressCode.MOD;
+            case LT -> ThreeAddressCode.LT;
+            case LE -> ThreeAddressCode.LE;
+            case GT -> ThreeAddressCode.GT;
+            case GE -> ThreeAddressCode.GE;
+            case EQ -> ThreeAddressCode.EQ;
+            case NE -> ThreeAddressCode.NE;
+            case AND -> ThreeAddressCode.AND;
+            default -> ThreeAddressCode.OR;
+        };
+    }
+}
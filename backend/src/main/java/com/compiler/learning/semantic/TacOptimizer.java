@@ -0,0 +1,471 @@
+package com.compiler.learning.semantic;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.compiler.learning.semantic.ThreeAddressCode.*;
+
+/**
+ * Basic-block optimizer for {@link ThreeAddressCode}.
+ *
+ * <ol>
+ * <li>Local value numbering over each basic block. Every operand gets a value number and
+ * every computed expression is keyed by (op, type, operand numbers). An expression whose
+ * operands are all constants is folded. One already computed and still held by a name is
+ * reused as a copy of that name (common-subexpression elimination, the DAG of the block
+ * without building it). Operands are replaced by a constant or by the first name still
+ * holding their value, which is copy propagation. Jumps on a known condition become a goto
+ * or disappear.</li>
+ * <li>Code no path from the first instruction reaches is dropped, as are gotos to the
+ * very next label and labels no reachable jump targets.</li>
+ * <li>Dead code: a temporary that is never read is not computed, found with use counts and
+ * a work list so whole dead chains go; a variable assignment overwritten later in the same
+ * block before being read is dropped.</li>
+ * </ol>
+ *
+ * Every pass is linear in the number of instructions (hash lookups aside), and the result is
+ * a new program that shares the input's names.
+ */
+public final class TacOptimizer {
+
+    private int folded;
+    private int reused;
+    private int branches;
+    private int unreachable;
+    private int dead;
+
+    /** Instructions replaced by a constant. */
+    public int getFolded() {
+        return folded;
+    }
+
+    /** Computations replaced by a copy of an earlier result. */
+    public int getReused() {
+        return reused;
+    }
+
+    /** Conditional jumps decided at compile time. */
+    public int getBranches() {
+        return branches;
+    }
+
+    /** Instructions and labels removed because no path reaches them or nothing jumps to them. */
+    public int getUnreachable() {
+        return unreachable;
+    }
+
+    /** Assignments removed because their value is never read. */
+    public int getDead() {
+        return dead;
+    }
+
+    public ThreeAddressCode optimize(ThreeAddressCode input) {
+        ThreeAddressCode code = input.copy();
+        numberValues(code);
+        int before = unreachable;
+        removeUnreachable(code);
+        // Removed labels merge blocks, which gives value numbering more to work with
+        if (unreachable > before) numberValues(code);
+        removeDeadCode(code);
+        return code;
+    }
+
+    // ---- value numbering ----
+
+    private int[] variableValue;    // variable index -> value number, valid while stamp matches
+    private int[] variableStamp;
+    private int[] temporaryValue;
+    private int[] temporaryStamp;
+    private int block;
+    private int values;
+    private int[] valueConstant = new int[64];  // value number -> constant operand or -1
+    private int[] valueHolder = new int[64];    // value number -> a name that held it
+    private final Map<Long, Integer> expressions = new HashMap<>();
+    private final Map<Integer, Integer> constantValues = new HashMap<>();
+
+    private void numberValues(ThreeAddressCode code) {
+        variableValue = new int[code.variableCount()];
+        variableStamp = new int[code.variableCount()];
+        temporaryValue = new int[code.temporaryCount()];
+        temporaryStamp = new int[code.temporaryCount()];
+        startBlock();
+        int out = 0;
+        for (int i = 0; i < code.size(); i++) {
+            int op = code.op(i);
+            Type type = code.type(i);
+            int arg1 = code.arg1(i);
+            int arg2 = code.arg2(i);
+            int result = code.result(i);
+            if (op == LABEL) {
+                startBlock();
+                code.set(out++, op, type, arg1, arg2, result);
+                continue;
+            }
+            if (op == GOTO || op == RETURN || op == IF_FALSE) {
+                if (arg1 >= 0) arg1 = canonical(arg1, valueOf(arg1, code));
+                if (op == IF_FALSE && tag(arg1) == CONSTANT) {
+                    branches++;
+                    if (code.constantValue(arg1) != 0) {
+                        startBlock();
+                        continue;               // never jumps
+                    }
+                    op = GOTO;
+                    arg1 = -1;
+                }
+                code.set(out++, op, type, arg1, arg2, result);
+                startBlock();
+                continue;
+            }
+
+            int v1 = valueOf(arg1, code);
+            int v2 = isBinary(op) ? valueOf(arg2, code) : -1;
+            arg1 = canonical(arg1, v1);
+            if (isBinary(op)) arg2 = canonical(arg2, v2);
+
+            int value;
+            if (op == COPY) {
+                value = v1;
+            } else {
+                int constant = fold(op, type, arg1, arg2, code);
+                if (constant < 0) constant = identity(op, type, arg1, arg2, code);
+                if (constant >= 0) {
+                    // Folded to a constant, or an identity such as x * 1 that is a copy of x
+                    if (tag(constant) == CONSTANT) folded++;
+                    op = COPY;
+                    arg1 = constant;
+                    arg2 = -1;
+                    value = tag(constant) == CONSTANT ? constantValue(constant) : valueOf(constant, code);
+                } else {
+                    int a = v1;
+                    int b = v2;
+                    if (b >= 0 && commutative(op) && b < a) {
+                        a = v2;
+                        b = v1;
+                    }
+                    long key = ((long) op << 58) | ((long) type.ordinal() << 54)
+                        | ((long) (op == CONVERT ? arg2 : b + 1) << 27) | a;
+                    Integer known = expressions.get(key);
+                    int holder = known == null ? -1 : holderOf(known);
+                    if (holder >= 0) {
+                        reused++;
+                        op = COPY;
+                        arg1 = holder;
+                        arg2 = -1;
+                        value = known;
+                    } else {
+                        value = newValue(-1);
+                        expressions.put(key, value);
+                    }
+                }
+            }
+            if (op == COPY && arg1 == result) continue;     // x = x
+            setValue(result, value);
+            if (valueHolder[value] < 0 || holderOf(value) < 0) valueHolder[value] = result;
+            code.set(out++, op, type, arg1, arg2, result);
+        }
+        code.truncate(out);
+    }
+
+    private void startBlock() {
+        block++;
+        values = 0;
+        expressions.clear();
+        constantValues.clear();
+    }
+
+    private int newValue(int constant) {
+        if (values == valueConstant.length) {
+            valueConstant = Arrays.copyOf(valueConstant, values * 2);
+            valueHolder = Arrays.copyOf(valueHolder, values * 2);
+        }
+        valueConstant[values] = constant;
+        valueHolder[values] = -1;
+        return values++;
+    }
+
+    private int constantValue(int constant) {
+        Integer value = constantValues.get(constant);
+        if (value == null) {
+            value = newValue(constant);
+            constantValues.put(constant, value);
+        }
+        return value;
+    }
+
+    /** Value number of an operand, giving names first seen in the block a fresh number. */
+    private int valueOf(int operand, ThreeAddressCode code) {
+        if (operand < 0) return -1;
+        int index = index(operand);
+        switch (tag(operand)) {
+            case CONSTANT:
+                return constantValue(operand);
+            case VARIABLE:
+                if (variableStamp[index] != block) {
+                    variableStamp[index] = block;
+                    variableValue[index] = newValue(-1);
+                    valueHolder[variableValue[index]] = operand;
+                }
+                return variableValue[index];
+            case TEMPORARY:
+                if (temporaryStamp[index] != block) {
+                    temporaryStamp[index] = block;
+                    temporaryValue[index] = newValue(-1);
+                    valueHolder[temporaryValue[index]] = operand;
+                }
+                return temporaryValue[index];
+            default:
+                return -1;
+        }
+    }
+
+    private void setValue(int operand, int value) {
+        int index = index(operand);
+        if (tag(operand) == VARIABLE) {
+            variableStamp[index] = block;
+            variableValue[index] = value;
+        } else {
+            temporaryStamp[index] = block;
+            temporaryValue[index] = value;
+        }
+    }
+
+    /** A name that still holds the value, or -1 if every holder was reassigned. */
+    private int holderOf(int value) {
+        int holder = valueHolder[value];
+        if (holder < 0) return -1;
+        int index = index(holder);
+        boolean holds = tag(holder) == VARIABLE
+            ? variableStamp[index] == block && variableValue[index] == value
+            : temporaryStamp[index] == block && temporaryValue[index] == value;
+        return holds ? holder : -1;
+    }
+
+    /** The constant a value is known to be, else its holder, else the operand itself. */
+    private int canonical(int operand, int value) {
+        if (value < 0) return operand;
+        if (valueConstant[value] >= 0) return valueConstant[value];
+        int holder = holderOf(value);
+        return holder >= 0 ? holder : operand;
+    }
+
+    private static boolean commutative(int op) {
+        return op == ADD || op == MUL || op == EQ || op == NE || op == AND || op == OR;
+    }
+
+    // ---- folding ----
+
+    /**
+     * Constant operand for an instruction whose operands are all constants, or -1. INT and
+     * CHAR operands are folded in long arithmetic and narrowed to the result type, so
+     * overflow wraps around the way it does at run time; only FLOAT and DOUBLE use double.
+     */
+    private static int fold(int op, Type type, int arg1, int arg2, ThreeAddressCode code) {
+        if (tag(arg1) != CONSTANT || isBinary(op) && tag(arg2) != CONSTANT) return -1;
+        Type operandType = code.constantType(arg1);
+        boolean integral = operandType == Type.INT || operandType == Type.CHAR || operandType == Type.BOOLEAN;
+        double value;
+        if (integral) {
+            long a = (long) code.constantValue(arg1);
+            long b = isBinary(op) ? (long) code.constantValue(arg2) : 0;
+            long result;
+            switch (op) {
+                case ADD -> result = a + b;
+                case SUB -> result = a - b;
+                case MUL -> result = a * b;
+                case DIV, MOD -> {
+                    if (b == 0) return -1;      // left for run time
+                    result = op == DIV ? a / b : a % b;
+                }
+                case LT -> result = a < b ? 1 : 0;
+                case LE -> result = a <= b ? 1 : 0;
+                case GT -> result = a > b ? 1 : 0;
+                case GE -> result = a >= b ? 1 : 0;
+                case EQ -> result = a == b ? 1 : 0;
+                case NE -> result = a != b ? 1 : 0;
+                case AND -> result = a != 0 && b != 0 ? 1 : 0;
+                case OR -> result = a != 0 || b != 0 ? 1 : 0;
+                case NEG -> result = -a;
+                case NOT -> result = a == 0 ? 1 : 0;
+                default -> result = a;          // CONVERT
+            }
+            value = switch (type) {
+                case INT -> (int) result;
+                case CHAR -> (char) result;
+                case FLOAT -> (float) result;
+                default -> result;
+            };
+        } else {
+            double a = code.constantValue(arg1);
+            double b = isBinary(op) ? code.constantValue(arg2) : 0;
+            switch (op) {
+                case ADD -> value = a + b;
+                case SUB -> value = a - b;
+                case MUL -> value = a * b;
+                case DIV, MOD -> {
+                    if (b == 0) return -1;      // left for run time
+                    value = op == DIV ? a / b : a % b;
+                }
+                case LT -> value = a < b ? 1 : 0;
+                case LE -> value = a <= b ? 1 : 0;
+                case GT -> value = a > b ? 1 : 0;
+                case GE -> value = a >= b ? 1 : 0;
+                case EQ -> value = a == b ? 1 : 0;
+                case NE -> value = a != b ? 1 : 0;
+                case AND -> value = a != 0 && b != 0 ? 1 : 0;
+                case OR -> value = a != 0 || b != 0 ? 1 : 0;
+                case NEG -> value = -a;
+                case NOT -> value = a == 0 ? 1 : 0;
+                default -> value = a;           // CONVERT
+            }
+            if (type == Type.FLOAT) value = (float) value;
+        }
+        return code.constant(type, value);
+    }
+
+    /** x + 0, x - 0, x * 1, x / 1, x && true, x || false: the operand to copy, or -1. */
+    private static int identity(int op, Type type, int arg1, int arg2, ThreeAddressCode code) {
+        if (!isBinary(op)) return -1;
+        boolean leftConstant = tag(arg1) == CONSTANT;
+        boolean rightConstant = tag(arg2) == CONSTANT;
+        double a = leftConstant ? code.constantValue(arg1) : Double.NaN;
+        double b = rightConstant ? code.constantValue(arg2) : Double.NaN;
+        return switch (op) {
+            case ADD -> b == 0 ? arg1 : a == 0 ? arg2 : -1;
+            case SUB -> b == 0 ? arg1 : -1;
+            case MUL -> b == 1 ? arg1 : a == 1 ? arg2
+                : (b == 0 || a == 0) && (type == Type.INT || type == Type.CHAR) ? code.constant(type, 0) : -1;
+            case DIV -> b == 1 ? arg1 : -1;
+            case AND -> b == 1 ? arg1 : a == 1 ? arg2 : -1;
+            case OR -> b == 0 && rightConstant ? arg1 : a == 0 && leftConstant ? arg2 : -1;
+            default -> -1;
+        };
+    }
+
+    // ---- unreachable code ----
+
+    /**
+     * Keeps what a walk from the first instruction reaches, following fall-through and jump
+     * targets, so a loop nothing enters goes even though it jumps to its own label. Labels
+     * only unreachable jumps target go too. Repeats until nothing changes, since dropping a
+     * goto to the next label can orphan that label and merge blocks.
+     */
+    private void removeUnreachable(ThreeAddressCode code) {
+        int[] position = new int[code.labelCount()];
+        boolean[] targeted = new boolean[code.labelCount()];
+        boolean changed = true;
+        while (changed) {
+            int size = code.size();
+            for (int i = 0; i < size; i++) {
+                if (code.op(i) == LABEL) position[index(code.result(i))] = i;
+            }
+            boolean[] reached = new boolean[size];
+            int[] work = new int[size + 1];
+            int pending = 0;
+            if (size > 0) work[pending++] = 0;
+            Arrays.fill(targeted, false);
+            while (pending > 0) {
+                for (int i = work[--pending]; i < size && !reached[i]; i++) {
+                    reached[i] = true;
+                    int op = code.op(i);
+                    if (op == GOTO || op == IF_FALSE) {
+                        int label = index(code.result(i));
+                        targeted[label] = true;
+                        work[pending++] = position[label];
+                    }
+                    if (op == GOTO || op == RETURN) break;
+                }
+            }
+            int out = 0;
+            for (int i = 0; i < size; i++) {
+                int op = code.op(i);
+                boolean jumpToNext = op == GOTO && i + 1 < size && code.op(i + 1) == LABEL
+                    && code.result(i + 1) == code.result(i);
+                if (!reached[i] || op == LABEL && !targeted[index(code.result(i))] || jumpToNext) {
+                    unreachable++;
+                    continue;
+                }
+                copy(code, i, out++);
+            }
+            changed = out < size;
+            code.truncate(out);
+        }
+    }
+
+    // ---- dead code ----
+
+    private void removeDeadCode(ThreeAddressCode code) {
+        int size = code.size();
+        boolean[] removed = new boolean[size];
+
+        // Variable stores overwritten in the same block before any read
+        int[] writtenAfter = new int[code.variableCount()];   // stamp: block + 1 when a later store exists
+        int stamp = 1;
+        for (int i = size - 1; i >= 0; i--) {
+            int op = code.op(i);
+            if (op == LABEL || op == GOTO || op == IF_FALSE || op == RETURN) stamp++;
+            if (assigns(op) && tag(code.result(i)) == VARIABLE) {
+                int variable = index(code.result(i));
+                if (writtenAfter[variable] == stamp) {
+                    removed[i] = true;
+                    dead++;
+                    continue;
+                }
+                writtenAfter[variable] = stamp;
+            }
+            for (int operand : operandsOf(code, i)) {
+                if (operand >= 0 && tag(operand) == VARIABLE) writtenAfter[index(operand)] = 0;
+            }
+        }
+
+        // Temporaries nobody reads, and then whatever only they read
+        int[] uses = new int[code.temporaryCount()];
+        int[] definition = new int[code.temporaryCount()];
+        Arrays.fill(definition, -1);
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) continue;
+            for (int operand : operandsOf(code, i)) {
+                if (operand >= 0 && tag(operand) == TEMPORARY) uses[index(operand)]++;
+            }
+            if (assigns(code.op(i)) && tag(code.result(i)) == TEMPORARY) definition[index(code.result(i))] = i;
+        }
+        int[] work = new int[uses.length];
+        int pending = 0;
+        for (int t = 0; t < uses.length; t++) {
+            if (uses[t] == 0 && definition[t] >= 0) work[pending++] = t;
+        }
+        while (pending > 0) {
+            int i = definition[work[--pending]];
+            if (removed[i]) continue;
+            removed[i] = true;
+            dead++;
+            for (int operand : operandsOf(code, i)) {
+                if (operand >= 0 && tag(operand) == TEMPORARY && --uses[index(operand)] == 0 && definition[index(operand)] >= 0) {
+                    work[pending++] = index(operand);
+                }
+            }
+        }
+
+        int out = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removed[i]) copy(code, i, out++);
+        }
+        code.truncate(out);
+    }
+
+    private final int[] operandScratch = new int[2];
+
+    /** Operands an instruction reads (-1 where none); reuses one array. */
+    private int[] operandsOf(ThreeAddressCode code, int i) {
+        int op = code.op(i);
+        operandScratch[0] = op == LABEL || op == GOTO ? -1 : code.arg1(i);
+        operandScratch[1] = isBinary(op) ? code.arg2(i) : -1;
+        return operandScratch;
+    }
+
+    private static void copy(ThreeAddressCode code, int from, int to) {
+        if (from != to) {
+            code.set(to, code.op(from), code.type(from), code.arg1(from), code.arg2(from), code.result(from));
+        }
+    }
+}
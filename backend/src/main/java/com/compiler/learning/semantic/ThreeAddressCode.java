@@ -0,0 +1,272 @@
+package com.compiler.learning.semantic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Three-address code as quadruples (op, arg1, arg2, result) in parallel arrays.
+ *
+ * Operands are ints: the low two bits tag a variable, temporary, constant or label and the
+ * rest is its index, -1 means none. Variable names and constants are interned in pools that
+ * copies of the code share, so an optimized copy prints with the same names.
+ *
+ * <pre>
+ * x = y            COPY       t1 = a + b       ADD ... MOD, LT ... NE, AND, OR
+ * t1 = minus a     NEG        t1 = !a          NOT
+ * t1 = int_to_float(a)  CONVERT (arg2 holds the source type)
+ * L1:  goto L1  ifFalse a goto L1  return a
+ * </pre>
+ */
+public final class ThreeAddressCode {
+
+    public static final int COPY = 0;
+    public static final int ADD = 1;
+    public static final int SUB = 2;
+    public static final int MUL = 3;
+    public static final int DIV = 4;
+    public static final int MOD = 5;
+    public static final int LT = 6;
+    public static final int LE = 7;
+    public static final int GT = 8;
+    public static final int GE = 9;
+    public static final int EQ = 10;
+    public static final int NE = 11;
+    public static final int AND = 12;
+    public static final int OR = 13;
+    public static final int NEG = 14;
+    public static final int NOT = 15;
+    public static final int CONVERT = 16;
+    public static final int LABEL = 17;
+    public static final int GOTO = 18;
+    public static final int IF_FALSE = 19;
+    public static final int RETURN = 20;
+
+    private static final String[] SYMBOLS = {
+        "=", "+", "-", "*", "/", "%", "<", "<=", ">", ">=", "==", "!=", "&&", "||", "minus", "!"
+    };
+
+    public static final int VARIABLE = 0;
+    public static final int TEMPORARY = 1;
+    public static final int CONSTANT = 2;
+    public static final int LABEL_OPERAND = 3;
+
+    private static final Type[] TYPES = Type.values();
+
+    /** Names and constants, shared by a program and its copies. */
+    private static final class Pools {
+        final List<String> variables = new ArrayList<>();
+        final List<String> constants = new ArrayList<>();
+        final List<Type> constantTypes = new ArrayList<>();
+        double[] constantValues = new double[16];
+        final Map<String, Integer> constantIds = new HashMap<>();
+        int temporaries;
+        int labels;
+    }
+
+    private final Pools pools;
+    private int size;
+    private byte[] ops = new byte[64];
+    private byte[] types = new byte[64];
+    private int[] args1 = new int[64];
+    private int[] args2 = new int[64];
+    private int[] results = new int[64];
+
+    public ThreeAddressCode() {
+        this.pools = new Pools();
+    }
+
+    private ThreeAddressCode(Pools pools) {
+        this.pools = pools;
+    }
+
+    /** Copy of the instructions sharing this program's names and constants. */
+    public ThreeAddressCode copy() {
+        ThreeAddressCode copy = new ThreeAddressCode(pools);
+        copy.size = size;
+        copy.ops = Arrays.copyOf(ops, Math.max(size, 1));
+        copy.types = Arrays.copyOf(types, Math.max(size, 1));
+        copy.args1 = Arrays.copyOf(args1, Math.max(size, 1));
+        copy.args2 = Arrays.copyOf(args2, Math.max(size, 1));
+        copy.results = Arrays.copyOf(results, Math.max(size, 1));
+        return copy;
+    }
+
+    // ---- operands ----
+
+    public static int operand(int tag, int index) {
+        return index << 2 | tag;
+    }
+
+    public static int tag(int operand) {
+        return operand & 3;
+    }
+
+    public static int index(int operand) {
+        return operand >>> 2;
+    }
+
+    /** Adds a variable; the caller keeps track of which declaration it belongs to. */
+    public int newVariable(String name) {
+        pools.variables.add(name);
+        return operand(VARIABLE, pools.variables.size() - 1);
+    }
+
+    public int newTemporary() {
+        return operand(TEMPORARY, pools.temporaries++);
+    }
+
+    public int newLabel() {
+        return operand(LABEL_OPERAND, pools.labels++);
+    }
+
+    /** Interned constant with its spelling, type and numeric value (1/0 for booleans). */
+    public int constant(String text, Type type, double value) {
+        String key = type.ordinal() + text;
+        Integer id = pools.constantIds.get(key);
+        if (id == null) {
+            id = pools.constants.size();
+            pools.constantIds.put(key, id);
+            pools.constants.add(text);
+            pools.constantTypes.add(type);
+            if (id == pools.constantValues.length) pools.constantValues = Arrays.copyOf(pools.constantValues, id * 2);
+            pools.constantValues[id] = value;
+        }
+        return operand(CONSTANT, id);
+    }
+
+    /** Constant for a computed value, spelled the way the type is written in source. */
+    public int constant(Type type, double value) {
+        String text = switch (type) {
+            case BOOLEAN -> value != 0 ? "true" : "false";
+            case FLOAT, DOUBLE -> value == Math.rint(value) && Math.abs(value) < 1e15
+                ? (long) value + ".0" : String.valueOf(value);
+            default -> String.valueOf((long) value);
+        };
+        return constant(text, type, value);
+    }
+
+    public double constantValue(int operand) {
+        return pools.constantValues[index(operand)];
+    }
+
+    public Type constantType(int operand) {
+        return pools.constantTypes.get(index(operand));
+    }
+
+    public int variableCount() {
+        return pools.variables.size();
+    }
+
+    public int temporaryCount() {
+        return pools.temporaries;
+    }
+
+    public int labelCount() {
+        return pools.labels;
+    }
+
+    // ---- instructions ----
+
+    public void emit(int op, Type type, int arg1, int arg2, int result) {
+        if (size == ops.length) {
+            int capacity = size * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            types = Arrays.copyOf(types, capacity);
+            args1 = Arrays.copyOf(args1, capacity);
+            args2 = Arrays.copyOf(args2, capacity);
+            results = Arrays.copyOf(results, capacity);
+        }
+        set(size++, op, type, arg1, arg2, result);
+    }
+
+    /** Overwrites instruction i. */
+    public void set(int i, int op, Type type, int arg1, int arg2, int result) {
+        ops[i] = (byte) op;
+        types[i] = (byte) type.ordinal();
+        args1[i] = arg1;
+        args2[i] = arg2;
+        results[i] = result;
+    }
+
+    /** Drops every instruction from index size on. */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int op(int i) {
+        return ops[i];
+    }
+
+    /** Type of the result; for conditions and jumps the type of the tested value. */
+    public Type type(int i) {
+        return TYPES[types[i]];
+    }
+
+    public int arg1(int i) {
+        return args1[i];
+    }
+
+    public int arg2(int i) {
+        return args2[i];
+    }
+
+    /** Assigned operand, or the target label of a jump. */
+    public int result(int i) {
+        return results[i];
+    }
+
+    public static boolean isBinary(int op) {
+        return op >= ADD && op <= OR;
+    }
+
+    /** Whether the instruction assigns its result operand. */
+    public static boolean assigns(int op) {
+        return op <= CONVERT;
+    }
+
+    // ---- printing ----
+
+    public String operandText(int operand) {
+        int index = index(operand);
+        return switch (tag(operand)) {
+            case VARIABLE -> pools.variables.get(index);
+            case TEMPORARY -> "t" + (index + 1);
+            case CONSTANT -> pools.constants.get(index);
+            default -> "L" + (index + 1);
+        };
+    }
+
+    public String instructionText(int i) {
+        int op = ops[i];
+        String result = operandText(results[i]);
+        return switch (op) {
+            case COPY -> result + " = " + operandText(args1[i]);
+            case NEG, NOT -> result + " = " + SYMBOLS[op] + (op == NEG ? " " : "") + operandText(args1[i]);
+            case CONVERT -> result + " = " + TYPES[args2[i]] + "_to_" + type(i) + "(" + operandText(args1[i]) + ")";
+            case LABEL -> result + ":";
+            case GOTO -> "goto " + result;
+            case IF_FALSE -> "ifFalse " + operandText(args1[i]) + " goto " + result;
+            case RETURN -> args1[i] < 0 ? "return" : "return " + operandText(args1[i]);
+            default -> result + " = " + operandText(args1[i]) + " " + SYMBOLS[op] + " " + operandText(args2[i]);
+        };
+    }
+
+    /** One instruction per line, labels flush left and the rest indented; at most maxLines lines. */
+    public String render(int maxLines) {
+        StringBuilder out = new StringBuilder();
+        int shown = Math.min(size, maxLines);
+        for (int i = 0; i < shown; i++) {
+            if (ops[i] != LABEL) out.append("    ");
+            out.append(instructionText(i)).append('\n');
+        }
+        if (shown < size) out.append("... ").append(size - shown).append(" more instructions\n");
+        return out.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.compiler.learning.semantic;
+
+/**
+ * Types of the small C-like language checked in the semantic section.
+ *
+ * The numeric types are declared from narrowest to widest, so widening is a comparison of
+ * ordinals: char → int → float → double. {@link #ERROR} is the type of an expression that
+ * already produced a diagnostic; operators accept it silently so one mistake is reported once.
+ */
+public enum Type {
+    BOOLEAN("boolean", 1),
+    CHAR("char", 1),
+    INT("int", 4),
+    FLOAT("float", 4),
+    DOUBLE("double", 8),
+    VOID("void", 0),
+    ERROR("error", 0);
+
+    private final String keyword;
+    private final int width;
+
+    Type(String keyword, int width) {
+        this.keyword = keyword;
+        this.width = width;
+    }
+
+    /** The type for a type keyword, or null. */
+    public static Type fromKeyword(String keyword) {
+        return switch (keyword) {
+            case "boolean" -> BOOLEAN;
+            case "char" -> CHAR;
+            case "int" -> INT;
+            case "float" -> FLOAT;
+            case "double" -> DOUBLE;
+            case "void" -> VOID;
+            default -> null;
+        };
+    }
+
+    public String keyword() {
+        return keyword;
+    }
+
+    /** Storage size in bytes. */
+    public int width() {
+        return width;
+    }
+
+    public boolean isNumeric() {
+        return this == CHAR || this == INT || this == FLOAT || this == DOUBLE;
+    }
+
+    /** Whether a value of this type converts implicitly (without loss) to the target type. */
+    public boolean widensTo(Type target) {
+        return isNumeric() && target.isNumeric() && ordinal() <= target.ordinal();
+    }
+
+    /** Result type of arithmetic on two numeric types: the wider one, at least int. */
+    public static Type promote(Type a, Type b) {
+        Type wider = a.ordinal() >= b.ordinal() ? a : b;
+        return wider.ordinal() < INT.ordinal() ? INT : wider;
+    }
+
+    @Override
+    public String toString() {
+        return keyword;
+    }
+}
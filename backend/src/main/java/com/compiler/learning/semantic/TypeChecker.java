@@ -0,0 +1,585 @@
+package com.compiler.learning.semantic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.compiler.learning.semantic.SourceScanner.*;
+
+/**
+ * Type checker for declarations and expressions of the C-like language.
+ *
+ * Expressions are parsed by precedence climbing with explicit operand and operator stacks,
+ * so nesting depth is bounded by memory rather than the call stack. Types are inferred as
+ * each operator is reduced: numeric operands are widened to a common type (char → int →
+ * float → double, arithmetic on chars yields int), and every widening becomes a
+ * {@link TypedAst#COERCE} node. Assignments may only widen. An ill-typed operator reports
+ * one diagnostic and yields {@link Type#ERROR}, which later operators accept without
+ * further messages.
+ *
+ * <pre>
+ * =  (right)   ||   &&   == !=   < <= > >=   + -   * / %   unary - + !
+ * </pre>
+ *
+ * Declarations ("int x, y = 2;", blocks in braces) go into a {@link SymbolTable}, so the
+ * checker handles thousands of names with constant-time lookups. Diagnostics stop being
+ * collected after {@link #MAX_DIAGNOSTICS}.
+ *
+ * {@link #statements} also checks statement lists (expressions, if/else, while, return) and
+ * reports each checked piece to a {@link StatementListener} in source order. Statement
+ * nesting is tracked on an explicit stack as well. Tokens are pulled from the lexer as the
+ * parser reaches them, and tokens and tree nodes are dropped after each statement, so
+ * memory depends on the longest statement rather than on the length of the program.
+ */
+public final class TypeChecker {
+
+    public static final int MAX_DIAGNOSTICS = 100;
+
+    /**
+     * Receives a checked statement list in source order. Expression roots index the shared
+     * {@link TypedAst}; the nodes of one callback follow those of the previous one, and nodes
+     * of finished statements are gone (see {@link TypedAst#first}).
+     */
+    public interface StatementListener {
+        /** An expression statement. */
+        default void expression(TypedAst ast, int root) {
+        }
+
+        /** A declared variable's initializer, already coerced to the variable's type. */
+        default void initialize(TypedAst ast, SymbolTable.Symbol symbol, int value) {
+        }
+
+        default void beginIf(TypedAst ast, int condition) {
+        }
+
+        default void beginElse() {
+        }
+
+        default void endIf() {
+        }
+
+        /** Before a loop's condition is checked. */
+        default void beginWhile() {
+        }
+
+        default void whileCondition(TypedAst ast, int condition) {
+        }
+
+        default void endWhile() {
+        }
+
+        /** A return statement; value is -1 for a bare return. */
+        default void returnStatement(TypedAst ast, int value) {
+        }
+    }
+
+    // Operator stack entries
+    private static final int OPEN = 0;
+    private static final int PREFIX = 1;
+    private static final int INFIX = 2;
+    private static final int UNARY_PRECEDENCE = 8;
+
+    // Statement stack entries
+    private static final byte BLOCK = 0;
+    private static final byte IF = 1;
+    private static final byte ELSE = 2;
+    private static final byte WHILE = 3;
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private int suppressed;
+
+    private TokenStream tokens;
+    private TypedAst ast;
+    private int pos;
+    private StatementListener listener;
+
+    /** Tokens of the last source checked. */
+    public TokenStream getTokens() {
+        return tokens;
+    }
+
+    /** Tree of the last source checked; after {@link #statements} only its counters remain. */
+    public TypedAst getAst() {
+        return ast;
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /** Diagnostics dropped after the first {@link #MAX_DIAGNOSTICS}. */
+    public int suppressedDiagnostics() {
+        return suppressed;
+    }
+
+    /** Declares the variables in the source; initializers are type-checked against them. */
+    public void declarations(String source) {
+        begin(source);
+        int depth = 0;
+        while (tokens.has(pos)) {
+            int kind = tokens.kind(pos);
+            if (kind == LBRACE) {
+                symbols.enterScope();
+                depth++;
+                pos++;
+            } else if (kind == RBRACE) {
+                if (depth > 0) {
+                    symbols.exitScope();
+                    depth--;
+                } else {
+                    error(pos, "Unmatched '}'");
+                }
+                pos++;
+            } else if (!declaration()) {
+                skipPast(SEMI);
+            }
+        }
+        if (depth > 0) error(pos, "Missing '}' at the end of the input");
+    }
+
+    /** Parses and type-checks one expression; the tree's root is -1 after a syntax error. */
+    public TypedAst check(String expression) {
+        begin(expression);
+        int root = expression();
+        if (root >= 0) {
+            if (tokens.kind(pos) == SEMI) pos++;
+            if (tokens.has(pos)) {
+                error(pos, "Unexpected " + describe(pos) + " after the expression");
+                root = -1;
+            }
+        }
+        ast.setRoot(root);
+        return ast;
+    }
+
+    /**
+     * Checks a statement list: declarations, expression statements, if/else, while, return
+     * and blocks. Statements after a syntax error resume at the next ';'.
+     */
+    public void statements(String source, StatementListener listener) {
+        statements(source, listener, null);
+    }
+
+    /** As {@link #statements(String, StatementListener)}, charging lexing time to a clock. */
+    public void statements(String source, StatementListener listener, PhaseClock clock) {
+        tokens = SourceScanner.stream(source, clock);
+        ast = new TypedAst(tokens.source());
+        pos = 0;
+        this.listener = listener;
+        byte[] open = new byte[16];
+        int depth = 0;
+        while (tokens.has(pos)) {
+            // Nothing refers back to earlier statements
+            tokens.release(pos);
+            ast.discard();
+            int kind = tokens.kind(pos);
+            boolean complete = true;
+            if (kind == LBRACE) {
+                symbols.enterScope();
+                if (depth == open.length) open = Arrays.copyOf(open, depth * 2);
+                open[depth++] = BLOCK;
+                pos++;
+                complete = false;
+            } else if (kind == RBRACE) {
+                if (depth > 0 && open[depth - 1] == BLOCK) {
+                    symbols.exitScope();
+                    depth--;
+                } else {
+                    error(pos, "Unmatched '}'");
+                }
+                pos++;
+            } else if (kind == KW_IF || kind == KW_WHILE) {
+                if (kind == KW_WHILE) listener.beginWhile();
+                pos++;
+                int condition = condition(kind == KW_IF ? "if" : "while");
+                if (kind == KW_IF) {
+                    listener.beginIf(ast, condition);
+                } else {
+                    listener.whileCondition(ast, condition);
+                }
+                if (depth == open.length) open = Arrays.copyOf(open, depth * 2);
+                open[depth++] = kind == KW_IF ? IF : WHILE;
+                complete = false;
+            } else if (kind == KW_RETURN) {
+                pos++;
+                int value = -1;
+                if (tokens.kind(pos) != SEMI) value = expression();
+                if (value >= 0 || tokens.kind(pos) == SEMI) {
+                    listener.returnStatement(ast, value);
+                    endStatement();
+                } else {
+                    skipPast(SEMI);
+                }
+            } else if (kind == SEMI) {
+                pos++;
+            } else if (typeOf(kind) != null) {
+                if (!declaration()) skipPast(SEMI);
+            } else {
+                int root = expression();
+                if (root >= 0 && endStatement()) {
+                    listener.expression(ast, root);
+                } else if (root < 0) {
+                    skipPast(SEMI);
+                }
+            }
+            // A finished statement completes every if, else or while body waiting for it
+            while (complete && depth > 0 && open[depth - 1] != BLOCK) {
+                if (open[depth - 1] == IF && tokens.kind(pos) == KW_ELSE) {
+                    pos++;
+                    listener.beginElse();
+                    open[depth - 1] = ELSE;
+                    complete = false;
+                } else if (open[depth - 1] == WHILE) {
+                    listener.endWhile();
+                    depth--;
+                } else {
+                    listener.endIf();
+                    depth--;
+                }
+            }
+        }
+        if (depth > 0) {
+            error(pos, open[depth - 1] == BLOCK ? "Missing '}' at the end of the input" : "Expected a statement");
+        }
+        this.listener = null;
+        ast.discard();
+    }
+
+    /** ( expression ) after if or while; the expression must be boolean. Returns -1 on errors. */
+    private int condition(String keyword) {
+        if (tokens.kind(pos) != LPAREN) {
+            error(pos, "Expected '(' after " + keyword + ", found " + describe(pos));
+            return -1;
+        }
+        int paren = pos;
+        int root = expression();
+        if (root < 0) return -1;
+        if (ast.type(root) != Type.BOOLEAN && ast.type(root) != Type.ERROR) {
+            error(paren, "The " + keyword + " condition must be boolean, not " + ast.type(root));
+        }
+        return root;
+    }
+
+    /** Consumes the ';' ending a statement, reporting it if missing. */
+    private boolean endStatement() {
+        if (tokens.kind(pos) == SEMI) {
+            pos++;
+            return true;
+        }
+        error(pos, "Expected ';', found " + describe(pos));
+        skipPast(SEMI);
+        return false;
+    }
+
+    private void begin(String source) {
+        tokens = SourceScanner.scan(source);
+        ast = new TypedAst(tokens.source());
+        pos = 0;
+    }
+
+    /** type name [= expr] {, name [= expr]} ; — returns false after a syntax error. */
+    private boolean declaration() {
+        Type type = typeOf(tokens.kind(pos));
+        if (type == null) {
+            error(pos, "Expected a type, found " + describe(pos));
+            return false;
+        }
+        pos++;
+        while (true) {
+            if (tokens.kind(pos) != ID) {
+                error(pos, "Expected a variable name after '" + type + "', found " + describe(pos));
+                return false;
+            }
+            int nameToken = pos++;
+            String name = tokens.text(nameToken);
+            if (type == Type.VOID) error(nameToken, "Variable '" + name + "' cannot be void");
+            int initializer = -1;
+            if (tokens.kind(pos) == ASSIGN) {
+                int assign = pos++;
+                int value = expression();
+                if (value < 0) return false;
+                initializer = coerceForAssignment(value, type, name, assign);
+            }
+            int line = tokens.line(tokens.start(nameToken));
+            SymbolTable.Symbol symbol = symbols.declare(name, type, line, tokens.column(tokens.start(nameToken)));
+            if (symbol == null) {
+                error(nameToken, "'" + name + "' is already declared in this scope (line "
+                    + symbols.lookup(name).getLine() + ")");
+            } else if (initializer >= 0 && listener != null) {
+                listener.initialize(ast, symbol, initializer);
+            }
+            int kind = tokens.kind(pos);
+            if (kind == COMMA) {
+                pos++;
+            } else if (kind == SEMI) {
+                pos++;
+                return true;
+            } else {
+                error(pos, "Expected ',' or ';' after '" + name + "', found " + describe(pos));
+                return false;
+            }
+        }
+    }
+
+    /** Parses an expression at pos; returns its root node, or -1 after a syntax error. */
+    private int expression() {
+        int[] operands = new int[16];
+        int operandCount = 0;
+        int[] operators = new int[16];   // token index
+        byte[] roles = new byte[16];     // OPEN, PREFIX or INFIX
+        int operatorCount = 0;
+        int open = 0;
+        boolean expectOperand = true;
+        while (true) {
+            int kind = tokens.kind(pos);
+            if (expectOperand) {
+                int node;
+                switch (kind) {
+                    case LPAREN, MINUS, PLUS, NOT -> {
+                        if (operatorCount == operators.length) {
+                            operators = Arrays.copyOf(operators, operatorCount * 2);
+                            roles = Arrays.copyOf(roles, operatorCount * 2);
+                        }
+                        if (kind == LPAREN) open++;
+                        operators[operatorCount] = pos++;
+                        roles[operatorCount++] = (byte) (kind == LPAREN ? OPEN : PREFIX);
+                        continue;
+                    }
+                    case ID -> node = variable(pos);
+                    case INT_LIT, FLOAT_LIT, CHAR_LIT, KW_TRUE, KW_FALSE -> node = literal(pos);
+                    default -> {
+                        error(pos, "Expected an operand, found " + describe(pos));
+                        return -1;
+                    }
+                }
+                if (operandCount == operands.length) operands = Arrays.copyOf(operands, operandCount * 2);
+                operands[operandCount++] = node;
+                expectOperand = false;
+                pos++;
+                continue;
+            }
+            int precedence = precedence(kind);
+            if (precedence > 0) {
+                while (operatorCount > 0 && roles[operatorCount - 1] != OPEN) {
+                    int top = operatorCount - 1;
+                    int topPrecedence = roles[top] == PREFIX ? UNARY_PRECEDENCE : precedence(tokens.kind(operators[top]));
+                    if (topPrecedence < precedence || topPrecedence == precedence && kind == ASSIGN) break;
+                    operandCount = reduce(operators[top], roles[top], operands, operandCount);
+                    operatorCount--;
+                }
+                if (operatorCount == operators.length) {
+                    operators = Arrays.copyOf(operators, operatorCount * 2);
+                    roles = Arrays.copyOf(roles, operatorCount * 2);
+                }
+                operators[operatorCount] = pos++;
+                roles[operatorCount++] = INFIX;
+                expectOperand = true;
+            } else if (kind == RPAREN && open > 0) {
+                while (roles[operatorCount - 1] != OPEN) {
+                    operandCount = reduce(operators[operatorCount - 1], roles[operatorCount - 1], operands, operandCount);
+                    operatorCount--;
+                }
+                int paren = operators[--operatorCount];
+                open--;
+                ast.setSpan(operands[operandCount - 1], tokens.start(paren), tokens.end(pos));
+                pos++;
+            } else {
+                break;
+            }
+        }
+        while (operatorCount > 0) {
+            operatorCount--;
+            if (roles[operatorCount] == OPEN) {
+                error(operators[operatorCount], "'(' is never closed");
+                return -1;
+            }
+            operandCount = reduce(operators[operatorCount], roles[operatorCount], operands, operandCount);
+        }
+        return operands[0];
+    }
+
+    private static int precedence(int kind) {
+        return switch (kind) {
+            case ASSIGN -> 1;
+            case OR -> 2;
+            case AND -> 3;
+            case EQ, NE -> 4;
+            case LT, LE, GT, GE -> 5;
+            case PLUS, MINUS -> 6;
+            case STAR, SLASH, PERCENT -> 7;
+            default -> 0;
+        };
+    }
+
+    private int variable(int token) {
+        String name = tokens.text(token);
+        SymbolTable.Symbol symbol = symbols.lookup(name);
+        Type type = Type.ERROR;
+        if (symbol == null) {
+            error(token, "'" + name + "' is not declared");
+        } else {
+            type = symbol.getType();
+        }
+        return ast.add(TypedAst.VARIABLE, ID, type, -1, -1, tokens.start(token), tokens.end(token));
+    }
+
+    private int literal(int token) {
+        int kind = tokens.kind(token);
+        Type type = switch (kind) {
+            case INT_LIT -> Type.INT;
+            case FLOAT_LIT -> Type.FLOAT;
+            case CHAR_LIT -> Type.CHAR;
+            default -> Type.BOOLEAN;
+        };
+        if (kind == INT_LIT) {
+            String digits = tokens.text(token);
+            if (digits.length() > 10 || Long.parseLong(digits) > Integer.MAX_VALUE) {
+                error(token, "Integer literal " + digits + " is too large for int");
+                type = Type.ERROR;
+            }
+        }
+        return ast.add(TypedAst.LITERAL, kind, type, -1, -1, tokens.start(token), tokens.end(token));
+    }
+
+    /** Pops the operands of one operator, pushes its typed node and returns the new operand count. */
+    private int reduce(int token, int role, int[] operands, int count) {
+        int kind = tokens.kind(token);
+        if (role == PREFIX) {
+            int operand = operands[count - 1];
+            Type type = ast.type(operand);
+            Type result;
+            if (type == Type.ERROR) {
+                result = Type.ERROR;
+            } else if (kind == NOT) {
+                result = type == Type.BOOLEAN ? Type.BOOLEAN : mismatch(token, "'!' needs a boolean operand, not " + type);
+            } else if (type.isNumeric()) {
+                result = Type.promote(type, type);
+                operand = coerce(operand, result);
+            } else {
+                result = mismatch(token, "Unary '" + tokens.text(token) + "' needs a numeric operand, not " + type);
+            }
+            operands[count - 1] = ast.add(TypedAst.UNARY, kind, result, operand, -1,
+                tokens.start(token), ast.end(operand));
+            return count;
+        }
+
+        int left = operands[count - 2];
+        int right = operands[count - 1];
+        Type l = ast.type(left);
+        Type r = ast.type(right);
+        int nodeKind = TypedAst.BINARY;
+        Type result;
+        if (kind == ASSIGN) {
+            nodeKind = TypedAst.ASSIGN;
+            if (ast.kind(left) != TypedAst.VARIABLE) {
+                result = mismatch(token, "The left side of '=' must be a variable");
+            } else if (l == Type.ERROR || r == Type.ERROR) {
+                result = Type.ERROR;
+            } else {
+                int value = coerceForAssignment(right, l, ast.text(left), token);
+                result = value < 0 ? Type.ERROR : l;
+                if (value >= 0) right = value;
+            }
+        } else if (l == Type.ERROR || r == Type.ERROR) {
+            result = Type.ERROR;
+        } else {
+            String op = tokens.text(token);
+            switch (kind) {
+                case PLUS, MINUS, STAR, SLASH, LT, LE, GT, GE -> {
+                    if (l.isNumeric() && r.isNumeric()) {
+                        Type common = Type.promote(l, r);
+                        left = coerce(left, common);
+                        right = coerce(right, common);
+                        result = precedence(kind) == 5 ? Type.BOOLEAN : common;
+                    } else {
+                        result = mismatch(token, "'" + op + "' cannot be applied to " + l + " and " + r);
+                    }
+                }
+                case PERCENT -> {
+                    if ((l == Type.INT || l == Type.CHAR) && (r == Type.INT || r == Type.CHAR)) {
+                        left = coerce(left, Type.INT);
+                        right = coerce(right, Type.INT);
+                        result = Type.INT;
+                    } else {
+                        result = mismatch(token, "'%' needs integer operands, not " + l + " and " + r);
+                    }
+                }
+                case EQ, NE -> {
+                    if (l.isNumeric() && r.isNumeric()) {
+                        Type common = Type.promote(l, r);
+                        left = coerce(left, common);
+                        right = coerce(right, common);
+                        result = Type.BOOLEAN;
+                    } else if (l == Type.BOOLEAN && r == Type.BOOLEAN) {
+                        result = Type.BOOLEAN;
+                    } else {
+                        result = mismatch(token, "Cannot compare " + l + " with " + r);
+                    }
+                }
+                default -> { // AND, OR
+                    result = l == Type.BOOLEAN && r == Type.BOOLEAN
+                        ? Type.BOOLEAN
+                        : mismatch(token, "'" + op + "' needs boolean operands, not " + l + " and " + r);
+                }
+            }
+        }
+        operands[count - 2] = ast.add(nodeKind, kind, result, left, right, ast.start(left), ast.end(right));
+        return count - 1;
+    }
+
+    /** Widens a value assigned to a variable of the target type; narrowing is an error (-1). */
+    private int coerceForAssignment(int value, Type target, String name, int token) {
+        Type type = ast.type(value);
+        if (type == Type.ERROR || target == Type.ERROR) return -1;
+        if (type == target || type.widensTo(target)) return coerce(value, target);
+        String reason = type.isNumeric() && target.isNumeric() ? " (possible loss of precision)" : "";
+        error(token, "Cannot assign " + type + " to " + target + " variable '" + name + "'" + reason);
+        return -1;
+    }
+
+    private int coerce(int node, Type target) {
+        if (ast.type(node) == target) return node;
+        return ast.add(TypedAst.COERCE, -1, target, node, -1, ast.start(node), ast.end(node));
+    }
+
+    private Type mismatch(int token, String message) {
+        error(token, message);
+        return Type.ERROR;
+    }
+
+    private static Type typeOf(int kind) {
+        return switch (kind) {
+            case KW_BOOLEAN -> Type.BOOLEAN;
+            case KW_CHAR -> Type.CHAR;
+            case KW_INT -> Type.INT;
+            case KW_FLOAT -> Type.FLOAT;
+            case KW_DOUBLE -> Type.DOUBLE;
+            case KW_VOID -> Type.VOID;
+            default -> null;
+        };
+    }
+
+    private void skipPast(int kind) {
+        while (tokens.has(pos) && tokens.kind(pos) != kind) pos++;
+        pos++;
+    }
+
+    private String describe(int token) {
+        if (!tokens.has(token)) return "end of input";
+        return "'" + tokens.text(token) + "'";
+    }
+
+    private void error(int token, String message) {
+        if (diagnostics.size() == MAX_DIAGNOSTICS) {
+            suppressed++;
+            return;
+        }
+        int offset = tokens.start(token);
+        diagnostics.add(new Diagnostic(tokens.line(offset), tokens.column(offset), message));
+    }
+}
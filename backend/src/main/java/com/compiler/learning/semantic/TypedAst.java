@@ -0,0 +1,190 @@
+package com.compiler.learning.semantic;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Typed expression trees as parallel arrays, built by {@link TypeChecker}.
+ *
+ * Nodes are appended when their operands are complete, so every child has a smaller index
+ * than its parent and a forward loop over the nodes visits them bottom-up, whatever the
+ * nesting depth. Implicit conversions are explicit {@link #COERCE} nodes whose type is the
+ * target type. Each node records the [start, end) source range it was parsed from.
+ *
+ * Node IDs are absolute: {@link #discard} drops the stored nodes once a statement has been
+ * handled, and later nodes keep counting from where the dropped ones ended.
+ */
+public final class TypedAst {
+
+    public static final int LITERAL = 0;
+    public static final int VARIABLE = 1;
+    public static final int UNARY = 2;
+    public static final int BINARY = 3;
+    public static final int ASSIGN = 4;
+    public static final int COERCE = 5;
+
+    private static final Type[] TYPES = Type.values();
+
+    private final String source;
+    private int base;     // ID of the first stored node
+    private int size;     // nodes stored
+    private int peak;
+    private byte[] kinds = new byte[16];
+    private byte[] types = new byte[16];
+    private int[] operators = new int[16];  // token kind of the operator or literal
+    private int[] lefts = new int[16];      // operand of UNARY and COERCE, -1 if none
+    private int[] rights = new int[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int root = -1;
+
+    TypedAst(String source) {
+        this.source = source;
+    }
+
+    int add(int kind, int operator, Type type, int left, int right, int start, int end) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            types = Arrays.copyOf(types, capacity);
+            operators = Arrays.copyOf(operators, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        kinds[size] = (byte) kind;
+        types[size] = (byte) type.ordinal();
+        operators[size] = operator;
+        lefts[size] = left;
+        rights[size] = right;
+        starts[size] = start;
+        ends[size] = end;
+        if (++size > peak) peak = size;
+        return base + size - 1;
+    }
+
+    void setSpan(int node, int start, int end) {
+        starts[node - base] = start;
+        ends[node - base] = end;
+    }
+
+    /** Drops every stored node; the IDs handed out so far must not be used again. */
+    void discard() {
+        base += size;
+        size = 0;
+    }
+
+    void setRoot(int root) {
+        this.root = root;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /** Root of the last checked expression, -1 if it had a syntax error. */
+    public int root() {
+        return root;
+    }
+
+    /** Nodes created so far, i.e. the ID the next node gets. */
+    public int size() {
+        return base + size;
+    }
+
+    /** ID of the first node still stored. */
+    public int first() {
+        return base;
+    }
+
+    /** Most nodes stored at once. */
+    public int peak() {
+        return peak;
+    }
+
+    public int kind(int node) {
+        return kinds[node - base];
+    }
+
+    public Type type(int node) {
+        return TYPES[types[node - base]];
+    }
+
+    /** Operator or literal token kind ({@link SourceScanner} constants). */
+    public int operator(int node) {
+        return operators[node - base];
+    }
+
+    public int left(int node) {
+        return lefts[node - base];
+    }
+
+    public int right(int node) {
+        return rights[node - base];
+    }
+
+    public int start(int node) {
+        return starts[node - base];
+    }
+
+    public int end(int node) {
+        return ends[node - base];
+    }
+
+    /** Source text of the node. */
+    public String text(int node) {
+        return source.substring(starts[node - base], ends[node - base]);
+    }
+
+    /** Short label: the operator, the literal or name, or "(type)" for a coercion. */
+    public String label(int node) {
+        return switch (kind(node)) {
+            case LITERAL, VARIABLE -> text(node);
+            case COERCE -> "(" + type(node) + ")";
+            default -> SourceScanner.kindName(operator(node));
+        };
+    }
+
+    /**
+     * Indented drawing of the tree under a node, one "label : type" line per node; stops
+     * after maxNodes lines. Iterative, so deep trees cannot overflow the stack.
+     */
+    public String render(int node, int maxNodes) {
+        StringBuilder out = new StringBuilder();
+        Deque<Line> stack = new ArrayDeque<>();
+        stack.push(new Line(node, "", ""));
+        int shown = 0;
+        while (!stack.isEmpty()) {
+            Line line = stack.pop();
+            if (shown == maxNodes) {
+                out.append(line.indent).append("…\n");
+                break;
+            }
+            int n = line.node;
+            out.append(line.indent).append(line.branch).append(label(n)).append(" : ").append(type(n)).append('\n');
+            shown++;
+            String indent = line.indent + switch (line.branch) {
+                case "├── " -> "│   ";
+                case "└── " -> "    ";
+                default -> "";
+            };
+            if (right(n) >= 0) stack.push(new Line(right(n), indent, "└── "));
+            if (left(n) >= 0) stack.push(new Line(left(n), indent, right(n) >= 0 ? "├── " : "└── "));
+        }
+        return out.toString();
+    }
+
+    private static final class Line {
+        final int node;
+        final String indent;
+        final String branch;
+
+        Line(int node, String indent, String branch) {
+            this.node = node;
+            this.indent = indent;
+            this.branch = branch;
+        }
+    }
+}
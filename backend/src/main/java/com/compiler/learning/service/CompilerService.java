@@ -212,7 +212,8 @@ When ε is a beta production, write A' instead of εA'.
         return firstFollowService.computeFirstFollow(request.getGrammar());
     }
 
-    private String normalizeAnswer(String answer) {
+    // Package-private and static only so AnswerNormalizationBenchmark can time it without repositories
+    static String normalizeAnswer(String answer) {
         // Step 1: Normalize epsilon representations: #, epsilon, ε all become ε
         // Also normalize whitespace around arrows and pipes
         String normalized = answer.trim()
@@ -0,0 +1,57 @@
+package com.compiler.learning.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expected answers of practice problems, parsed from their JSON columns once and kept per
+ * problem ID, so grading a submission compares against ready, normalized values.
+ *
+ * Problems are edited in the database rather than through the application, so each entry
+ * remembers the JSON it was built from; when the stored JSON differs the entry is rebuilt
+ * on that request. Values must be immutable since they are shared by concurrent requests.
+ */
+final class ExpectedAnswerCache<V> {
+
+    /** Builds the expected answer from a problem's JSON column. */
+    interface Parser<V> {
+        V parse(String json) throws JsonProcessingException;
+    }
+
+    private final Parser<V> parser;
+    private final Map<Long, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    ExpectedAnswerCache(Parser<V> parser) {
+        this.parser = parser;
+    }
+
+    V get(Long problemId, String json) throws JsonProcessingException {
+        Entry<V> entry = entries.get(problemId);
+        if (entry != null && Objects.equals(entry.json, json)) return entry.value;
+        V value = parser.parse(json);
+        entries.put(problemId, new Entry<>(json, value));
+        return value;
+    }
+
+    /** Fills the entry ahead of the first submission; a problem that fails to parse is left to report at grading. */
+    void preload(Long problemId, String json) {
+        try {
+            get(problemId, json);
+        } catch (JsonProcessingException | RuntimeException e) {
+            entries.remove(problemId);
+        }
+    }
+
+    private static final class Entry<V> {
+        final String json;
+        final V value;
+
+        Entry(String json, V value) {
+            this.json = json;
+            this.value = value;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 // src/main/java/com/compiler/learning/service/GrammarConversionService.java
 package com.compiler.learning.service;
 
+import com.compiler.learning.grammar.GrammarCompiler;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -136,34 +137,7 @@ public class GrammarConversionService {
     }
 
     private Map<String, List<String>> parseGrammar(String grammar) {
-        Map<String, List<String>> productions = new LinkedHashMap<>();
-        String[] lines = grammar.trim().split("\n");
-
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-
-            String[] parts = line.split("->");
-            if (parts.length != 2) continue;
-
-            String nonTerminal = parts[0].trim();
-            String[] productionList = parts[1].split("\\|");
-
-            List<String> prods = new ArrayList<>();
-            for (String prod : productionList) {
-                String p = prod.trim();
-                // Normalize epsilon representations
-                if (p.equals("ε") || p.equals("epsilon") || p.equals("#")) {
-                    prods.add("ε");
-                } else {
-                    prods.add(p);
-                }
-            }
-
-            productions.put(nonTerminal, prods);
-        }
-
-        return productions;
+        return GrammarCompiler.compile(grammar, GrammarCompiler.SymbolMode.CHARACTER).toAlternativeMap();
     }
 
     private boolean hasDirectLeftRecursion(String nonTerminal, List<String> productionList) {
@@ -2,6 +2,7 @@ package com.compiler.learning.service;
 
 import com.compiler.learning.dto.HelpRequest;
 import com.compiler.learning.dto.HelpResponse;
+import com.compiler.learning.grammar.GrammarCompiler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -235,28 +236,7 @@ public class HelperService {
     }
 
     private Map<String, List<String>> parseGrammarToMap(String grammar) {
-        Map<String, List<String>> productions = new LinkedHashMap<>();
-        String[] lines = grammar.trim().split("\n");
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            
-            String[] parts = line.split("->");
-            if (parts.length != 2) continue;
-            
-            String nonTerminal = parts[0].trim();
-            String[] prods = parts[1].split("\\|");
-            
-            List<String> productionList = new ArrayList<>();
-            for (String prod : prods) {
-                productionList.add(prod.trim());
-            }
-            
-            productions.put(nonTerminal, productionList);
-        }
-        
-        return productions;
+        return GrammarCompiler.compile(grammar, GrammarCompiler.SymbolMode.CHARACTER).toAlternativeMap();
     }
 
     private String normalizeGrammar(String grammar) {
@@ -21,13 +21,15 @@ public class LL1HelperService {
     
     public HelperAnalysisResponse analyzeParsingState(HelperAnalysisRequest request) {
         try {
-            // Parse grammar and generate parse table
-            Map<String, List<List<String>>> grammar = solverService.parseGrammar(request.getGrammar());
-            Map<String, Set<String>> firstSets = solverService.computeFirstSets(grammar);
-            Map<String, Set<String>> followSets = solverService.computeFollowSets(grammar, firstSets);
+            // Compiled grammar, FIRST/FOLLOW and parse table come from the shared grammar cache
+            LL1SolverService.GrammarArtifacts artifacts = solverService.getArtifacts(request.getGrammar());
+            if (artifacts.isEmpty()) {
+                return createErrorResponse("Grammar is empty or invalid format");
+            }
+            Map<String, Set<String>> firstSets = artifacts.getFirstSets();
+            Map<String, Set<String>> followSets = artifacts.getFollowSets();
             
-            // Generate parse table
-            var tableResponse = solverService.generateParseTable(request.getGrammar());
+            var tableResponse = artifacts.getParseTable();
             
             if (!tableResponse.isLL1()) {
                 return createConflictResponse(tableResponse);
@@ -35,9 +37,9 @@ public class LL1HelperService {
             
             Map<String, Map<String, String>> parseTable = tableResponse.getParseTable();
             
-            // Extract terminals from grammar
-            Set<String> terminals = solverService.extractTerminals(grammar);
-            Set<String> nonTerminals = grammar.keySet();
+            // Terminals and non-terminals of the grammar
+            Set<String> terminals = artifacts.getTerminals();
+            Set<String> nonTerminals = artifacts.getNonTerminals();
             
             // Parse current state - smart tokenization handles both spaced and concatenated input
             String stack = request.getCurrentStack().trim();
@@ -47,9 +49,9 @@ public class LL1HelperService {
                 return createInvalidInputResponse();
             }
             
-            // Tokenize stack and input using smart tokenization
-            List<String> stackTokens = tokenizeInput(stack, terminals, nonTerminals);
-            List<String> inputTokens = tokenizeInput(input, terminals, nonTerminals);
+            // Tokenize stack and input by longest match over the grammar's symbols
+            List<String> stackTokens = artifacts.getTokenizer().tokenize(stack);
+            List<String> inputTokens = artifacts.getTokenizer().tokenize(input);
             
             if (stackTokens.isEmpty() || inputTokens.isEmpty()) {
                 return createInvalidInputResponse();
@@ -561,45 +563,4 @@ public class LL1HelperService {
             null
         );
     }
-    
-    /**
-     * Tokenization that treats non-terminals as complete units and terminals as single characters
-     */
-    private List<String> tokenizeInput(String input, Set<String> terminals, Set<String> nonTerminals) {
-        input = input.trim();
-        
-        // If input contains spaces, split by spaces (return mutable list)
-        if (input.contains(" ")) {
-            return new ArrayList<>(Arrays.asList(input.split("\\s+")));
-        }
-        
-        // For concatenated input, use longest match for non-terminals, single chars for terminals
-        List<String> tokens = new ArrayList<>();
-        int i = 0;
-        
-        while (i < input.length()) {
-            boolean matched = false;
-            
-            // Try to match non-terminals first (sorted by length descending to match longest first)
-            List<String> sortedNonTerminals = new ArrayList<>(nonTerminals);
-            sortedNonTerminals.sort((a, b) -> b.length() - a.length());
-            
-            for (String nonTerminal : sortedNonTerminals) {
-                if (input.startsWith(nonTerminal, i)) {
-                    tokens.add(nonTerminal);
-                    i += nonTerminal.length();
-                    matched = true;
-                    break;
-                }
-            }
-            
-            // If no non-terminal matched, treat as single-character terminal
-            if (!matched) {
-                tokens.add(String.valueOf(input.charAt(i)));
-                i++;
-            }
-        }
-        
-        return tokens;
-    }
 }
@@ -3,9 +3,12 @@ package com.compiler.learning.service;
 import com.compiler.learning.dto.*;
 import com.compiler.learning.entity.LL1ParserProblem;
 import com.compiler.learning.repository.LL1ParserProblemRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -16,6 +19,17 @@ public class LL1ParserService {
     
     private final LL1ParserProblemRepository problemRepository;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    // Expected answers by problem ID, parsed and normalized once instead of per submission
+    private final ExpectedAnswerCache<List<ExpectedRow>> expectedTables = new ExpectedAnswerCache<>(this::parseExpectedTable);
+    private final ExpectedAnswerCache<List<ExpectedStep>> expectedSteps = new ExpectedAnswerCache<>(this::parseExpectedSteps);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadExpectedAnswers() {
+        for (LL1ParserProblem problem : problemRepository.findAll()) {
+            if (problem.getExpectedTable() != null) expectedTables.preload(problem.getId(), problem.getExpectedTable());
+            if (problem.getExpectedSteps() != null) expectedSteps.preload(problem.getId(), problem.getExpectedSteps());
+        }
+    }
 
     public String getTheory() {
         return "<h2>LL(1) Parser - Theory</h2>" +
@@ -164,28 +178,22 @@ public class LL1ParserService {
         LL1ParserProblem problem = getProblem(submission.getLevel(), submission.getProblemNumber());
         
         try {
-            // Parse expected table from JSON
-            Map<String, Map<String, String>> expectedTable = objectMapper.readValue(
-                problem.getExpectedTable(), 
-                new TypeReference<Map<String, Map<String, String>>>() {}
-            );
+            List<ExpectedRow> expectedTable = expectedTables.get(problem.getId(), problem.getExpectedTable());
             
             Map<String, Map<String, ParseTableValidationResponse.CellValidation>> cellResults = new HashMap<>();
             int correctCells = 0;
             int totalCells = 0;
             
             // Validate each cell
-            for (String nonTerminal : expectedTable.keySet()) {
+            for (ExpectedRow expectedRow : expectedTable) {
                 Map<String, ParseTableValidationResponse.CellValidation> rowResults = new HashMap<>();
-                Map<String, String> expectedRow = expectedTable.get(nonTerminal);
-                Map<String, String> userRow = submission.getUserTable().getOrDefault(nonTerminal, new HashMap<>());
+                Map<String, String> userRow = submission.getUserTable().getOrDefault(expectedRow.nonTerminal, Map.of());
                 
-                for (String terminal : expectedRow.keySet()) {
+                for (ExpectedCell cell : expectedRow.cells) {
                     totalCells++;
-                    String expected = expectedRow.get(terminal);
-                    String userAnswer = userRow.getOrDefault(terminal, "").trim();
+                    String userAnswer = userRow.getOrDefault(cell.terminal, "").trim();
                     
-                    boolean isCorrect = normalizeProduction(userAnswer).equals(normalizeProduction(expected));
+                    boolean isCorrect = normalizeProduction(userAnswer).equals(cell.normalized);
                     if (isCorrect) {
                         correctCells++;
                     }
@@ -194,13 +202,13 @@ public class LL1ParserService {
                         new ParseTableValidationResponse.CellValidation(
                             isCorrect,
                             userAnswer,
-                            expected,
+                            cell.production,
                             isCorrect ? "Correct!" : "Check FIRST/FOLLOW sets for this cell"
                         );
                     
-                    rowResults.put(terminal, validation);
+                    rowResults.put(cell.terminal, validation);
                 }
-                cellResults.put(nonTerminal, rowResults);
+                cellResults.put(expectedRow.nonTerminal, rowResults);
             }
             
             boolean allCorrect = (correctCells == totalCells);
@@ -228,11 +236,7 @@ public class LL1ParserService {
         LL1ParserProblem problem = getProblem(submission.getLevel(), submission.getProblemNumber());
         
         try {
-            // Parse expected steps from JSON
-            List<Map<String, Object>> expectedStepsList = objectMapper.readValue(
-                problem.getExpectedSteps(),
-                new TypeReference<List<Map<String, Object>>>() {}
-            );
+            List<ExpectedStep> expectedStepsList = expectedSteps.get(problem.getId(), problem.getExpectedSteps());
             
             List<ParsingStepsValidationResponse.StepValidation> stepResults = new ArrayList<>();
             int correctSteps = 0;
@@ -250,26 +254,23 @@ public class LL1ParserService {
                     ));
                 } else if (i >= submission.getSteps().size()) {
                     // User is missing steps
-                    Map<String, Object> expectedStep = expectedStepsList.get(i);
+                    ExpectedStep expectedStep = expectedStepsList.get(i);
                     stepResults.add(new ParsingStepsValidationResponse.StepValidation(
                         i + 1, false, false, false,
-                        expectedStep.get("stack").toString(),
-                        expectedStep.get("input").toString(),
-                        expectedStep.get("action").toString(),
+                        expectedStep.stack,
+                        expectedStep.input,
+                        expectedStep.action,
                         "", "", "",
                         "This step is missing. Continue the parsing process."
                     ));
                 } else {
                     // Compare user step with expected
-                    Map<String, Object> expectedStep = expectedStepsList.get(i);
+                    ExpectedStep expectedStep = expectedStepsList.get(i);
                     ParsingStepsSubmission.ParsingStep userStep = submission.getSteps().get(i);
                     
-                    boolean stackCorrect = normalizeString(userStep.getStack())
-                        .equals(normalizeString(expectedStep.get("stack").toString()));
-                    boolean inputCorrect = normalizeString(userStep.getInput())
-                        .equals(normalizeString(expectedStep.get("input").toString()));
-                    boolean actionCorrect = normalizeString(userStep.getAction())
-                        .equals(normalizeString(expectedStep.get("action").toString()));
+                    boolean stackCorrect = normalizeString(userStep.getStack()).equals(expectedStep.normalizedStack);
+                    boolean inputCorrect = normalizeString(userStep.getInput()).equals(expectedStep.normalizedInput);
+                    boolean actionCorrect = normalizeString(userStep.getAction()).equals(expectedStep.normalizedAction);
                     
                     if (stackCorrect && inputCorrect && actionCorrect) {
                         correctSteps++;
@@ -291,9 +292,9 @@ public class LL1ParserService {
                     
                     stepResults.add(new ParsingStepsValidationResponse.StepValidation(
                         i + 1, stackCorrect, inputCorrect, actionCorrect,
-                        expectedStep.get("stack").toString(),
-                        expectedStep.get("input").toString(),
-                        expectedStep.get("action").toString(),
+                        expectedStep.stack,
+                        expectedStep.input,
+                        expectedStep.action,
                         userStep.getStack(),
                         userStep.getInput(),
                         userStep.getAction(),
@@ -349,11 +350,84 @@ public class LL1ParserService {
         );
     }
     
+    // =====================================================
+    // EXPECTED ANSWERS
+    // =====================================================
+    
+    private List<ExpectedRow> parseExpectedTable(String json) throws JsonProcessingException {
+        Map<String, Map<String, String>> table = objectMapper.readValue(
+            json,
+            new TypeReference<Map<String, Map<String, String>>>() {}
+        );
+        List<ExpectedRow> rows = new ArrayList<>(table.size());
+        for (Map.Entry<String, Map<String, String>> row : table.entrySet()) {
+            List<ExpectedCell> cells = new ArrayList<>(row.getValue().size());
+            for (Map.Entry<String, String> cell : row.getValue().entrySet()) {
+                cells.add(new ExpectedCell(cell.getKey(), cell.getValue(), normalizeProduction(cell.getValue())));
+            }
+            rows.add(new ExpectedRow(row.getKey(), List.copyOf(cells)));
+        }
+        return List.copyOf(rows);
+    }
+    
+    private List<ExpectedStep> parseExpectedSteps(String json) throws JsonProcessingException {
+        List<Map<String, Object>> steps = objectMapper.readValue(
+            json,
+            new TypeReference<List<Map<String, Object>>>() {}
+        );
+        List<ExpectedStep> result = new ArrayList<>(steps.size());
+        for (Map<String, Object> step : steps) {
+            result.add(new ExpectedStep(
+                step.get("stack").toString(), step.get("input").toString(), step.get("action").toString()));
+        }
+        return List.copyOf(result);
+    }
+    
+    private static final class ExpectedRow {
+        final String nonTerminal;
+        final List<ExpectedCell> cells;
+        
+        ExpectedRow(String nonTerminal, List<ExpectedCell> cells) {
+            this.nonTerminal = nonTerminal;
+            this.cells = cells;
+        }
+    }
+    
+    private static final class ExpectedCell {
+        final String terminal;
+        final String production;
+        final String normalized;
+        
+        ExpectedCell(String terminal, String production, String normalized) {
+            this.terminal = terminal;
+            this.production = production;
+            this.normalized = normalized;
+        }
+    }
+    
+    private static final class ExpectedStep {
+        final String stack;
+        final String input;
+        final String action;
+        final String normalizedStack;
+        final String normalizedInput;
+        final String normalizedAction;
+        
+        ExpectedStep(String stack, String input, String action) {
+            this.stack = stack;
+            this.input = input;
+            this.action = action;
+            this.normalizedStack = normalizeString(stack);
+            this.normalizedInput = normalizeString(input);
+            this.normalizedAction = normalizeString(action);
+        }
+    }
+    
     // =====================================================
     // HELPER METHODS
     // =====================================================
     
-    private String normalizeProduction(String production) {
+    private static String normalizeProduction(String production) {
         if (production == null) return "";
         // Normalize arrow symbols to a common format
         // Accept: ->, =>, →, or even the escaped u2192
@@ -379,7 +453,7 @@ public class LL1ParserService {
         return normalized.toLowerCase();
     }
     
-    private String normalizeString(String str) {
+    private static String normalizeString(String str) {
         if (str == null) return "";
         // Apply same normalization as productions: arrows, epsilon, and remove all spaces
         String normalized = str.trim()
@@ -1,519 +1,600 @@
 package com.compiler.learning.service;
 
+import com.compiler.learning.dto.BatchParseResponse;
 import com.compiler.learning.dto.ParseTableResponse;
+import com.compiler.learning.dto.GrammarCacheStatsResponse;
 import com.compiler.learning.dto.ParseSimulationResponse;
+import com.compiler.learning.dto.ParseStreamEvent;
+import com.compiler.learning.grammar.CompiledGrammar;
+import com.compiler.learning.grammar.FirstFollowAnalysis;
+import com.compiler.learning.grammar.GrammarCache;
+import com.compiler.learning.grammar.GrammarCompiler;
+import com.compiler.learning.grammar.GrammarTokenizer;
+import com.compiler.learning.grammar.LL1Parser;
+import com.compiler.learning.grammar.LeftmostDerivation;
+import com.compiler.learning.grammar.LL1Table;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 @Service
 public class LL1SolverService {
     
     private static final String EPSILON = "ε";
     private static final String END_MARKER = "$";
+    /** Characters of rendered derivation text returned by runParser. */
+    static final int MAX_DERIVATION_CHARS = 200_000;
+    /** Symbols of the stack and remaining input shown in each parse step. */
+    static final int MAX_TRACE_SYMBOLS = 64;
     
-    // Parse grammar from string format
-    public Map<String, List<List<String>>> parseGrammar(String grammarText) {
-        Map<String, List<List<String>>> grammar = new LinkedHashMap<>();
-        
-        String[] lines = grammarText.trim().split("\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            
-            // Support both → and ->
-            String[] parts = line.split("→|->", 2);
-            if (parts.length != 2) continue;
-            
-            String nonTerminal = parts[0].trim();
-            String[] productions = parts[1].trim().split("\\|");
-            
-            // Get existing productions or create new list
-            List<List<String>> productionList = grammar.getOrDefault(nonTerminal, new ArrayList<>());
-            
-            for (String prod : productions) {
-                String[] symbols = prod.trim().split("\\s+");
-                productionList.add(Arrays.asList(symbols));
-            }
-            
-            grammar.put(nonTerminal, productionList);
-        }
-        
-        return grammar;
+    private final GrammarCache<GrammarArtifacts> grammarCache;
+    
+    public LL1SolverService(@Value("${grammar.cache.max-entries:256}") int maxEntries,
+                            @Value("${grammar.cache.max-bytes:67108864}") long maxBytes) {
+        this.grammarCache = new GrammarCache<>(maxEntries, maxBytes, this::buildArtifacts, GrammarArtifacts::estimatedBytes);
     }
     
-    // Extract terminals from grammar
-    public Set<String> extractTerminals(Map<String, List<List<String>>> grammar) {
-        Set<String> terminals = new HashSet<>();
-        Set<String> nonTerminals = grammar.keySet();
+    /**
+     * Everything derived from one grammar: symbols, FIRST/FOLLOW, the dense parse table with
+     * its parser and JSON form, and the tokenizer data. Cached instances are shared between requests and must be treated as read-only.
+     */
+    @Getter
+    public static class GrammarArtifacts {
+        private final CompiledGrammar grammar;
+        private final FirstFollowAnalysis analysis;
+        private final LL1Table table;
+        private final LL1Parser parser;
+        private final ParseTableResponse parseTable;
+        private final Map<String, Set<String>> firstSets;
+        private final Map<String, Set<String>> followSets;
+        private final Set<String> terminals;
+        private final Set<String> nonTerminals;
+        private final GrammarTokenizer tokenizer;
+        private final List<String> productionStrings;    // production ID -> "A → α"
         
-        for (List<List<String>> productions : grammar.values()) {
-            for (List<String> production : productions) {
-                for (String symbol : production) {
-                    if (!nonTerminals.contains(symbol) && 
-                        !symbol.equals(EPSILON) && 
-                        !symbol.equals(END_MARKER)) {
-                        terminals.add(symbol);
-                    }
-                }
+        GrammarArtifacts(CompiledGrammar grammar, FirstFollowAnalysis analysis, LL1Table table,
+                         ParseTableResponse parseTable) {
+            this.grammar = grammar;
+            this.analysis = analysis;
+            this.table = table;
+            this.parser = new LL1Parser(table);
+            this.parseTable = parseTable;
+            this.firstSets = unmodifiableSets(analysis.firstSetMap());
+            this.followSets = unmodifiableSets(analysis.followSetMap());
+            this.terminals = Collections.unmodifiableSet(new LinkedHashSet<>(grammar.terminalNames()));
+            this.nonTerminals = Collections.unmodifiableSet(new LinkedHashSet<>(grammar.nonTerminalNames()));
+            this.tokenizer = new GrammarTokenizer(grammar);
+            List<String> productions = new ArrayList<>(grammar.productionCount());
+            for (int p = 0; p < grammar.productionCount(); p++) {
+                productions.add(grammar.productionString(p));
             }
+            this.productionStrings = Collections.unmodifiableList(productions);
         }
         
-        terminals.add(END_MARKER);
-        return terminals;
-    }
-    
-    // Compute FIRST sets
-    public Map<String, Set<String>> computeFirstSets(Map<String, List<List<String>>> grammar) {
-        Map<String, Set<String>> firstSets = new HashMap<>();
-        Set<String> nonTerminals = grammar.keySet();
+        public boolean isEmpty() {
+            return grammar.isEmpty();
+        }
         
-        // Initialize
-        for (String nonTerminal : nonTerminals) {
-            firstSets.put(nonTerminal, new HashSet<>());
+        private static Map<String, Set<String>> unmodifiableSets(Map<String, Set<String>> sets) {
+            sets.replaceAll((nt, set) -> Collections.unmodifiableSet(set));
+            return Collections.unmodifiableMap(sets);
         }
         
-        boolean changed = true;
-        while (changed) {
-            changed = false;
-            
-            for (Map.Entry<String, List<List<String>>> entry : grammar.entrySet()) {
-                String nonTerminal = entry.getKey();
-                int sizeBefore = firstSets.get(nonTerminal).size();
-                
-                for (List<String> production : entry.getValue()) {
-                    Set<String> firstOfProduction = computeFirstOfSequence(production, grammar, firstSets, nonTerminals);
-                    firstSets.get(nonTerminal).addAll(firstOfProduction);
-                }
-                
-                if (firstSets.get(nonTerminal).size() > sizeBefore) {
-                    changed = true;
-                }
+        // Rough retained size: source text, symbol names, RHS arrays, tokenizer trie, sets and table entries
+        long estimatedBytes() {
+            long symbols = grammar.symbolCount();
+            long terminalsCount = grammar.terminalCount();
+            long nonTerminalsCount = grammar.nonTerminalCount();
+            long tableEntries = 0;
+            for (Map<String, String> row : parseTable.getParseTable().values()) {
+                tableEntries += row.size();
             }
+            return 2L * grammar.getSource().length()
+                + 96 * symbols
+                + 112 * grammar.productionCount()
+                + 8 * grammar.rhsSize()
+                + 48 * symbols
+                + 4L * table.cellCount()
+                + nonTerminalsCount * (terminalsCount / 2 + 160)
+                + 96 * tableEntries;
         }
-        
-        return firstSets;
     }
     
-    // Compute FIRST of a sequence of symbols
-    private Set<String> computeFirstOfSequence(List<String> sequence, 
-                                                Map<String, List<List<String>>> grammar,
-                                                Map<String, Set<String>> firstSets,
-                                                Set<String> nonTerminals) {
-        Set<String> result = new HashSet<>();
-        
-        for (String symbol : sequence) {
-            if (symbol.equals(EPSILON)) {
-                result.add(EPSILON);
-                break;
-            } else if (!nonTerminals.contains(symbol)) {
-                // Terminal - add the complete terminal symbol
-                result.add(symbol);
-                break;
-            } else {
-                // Non-terminal
-                Set<String> firstOfSymbol = new HashSet<>(firstSets.get(symbol));
-                boolean hasEpsilon = firstOfSymbol.remove(EPSILON);
-                result.addAll(firstOfSymbol);
-                
-                if (!hasEpsilon) {
-                    break;
-                }
-            }
+    // Compile grammar text into the shared interned form (symbols separated by whitespace)
+    public CompiledGrammar compile(String grammarText) {
+        return GrammarCompiler.compile(grammarText, GrammarCompiler.SymbolMode.WHITESPACE);
+    }
+    
+    // Compute nullable, FIRST and FOLLOW sets of a compiled grammar
+    public FirstFollowAnalysis analyze(CompiledGrammar grammar) {
+        return new FirstFollowAnalysis(grammar);
+    }
+    
+    // Compiled grammar, FIRST/FOLLOW and parse table, served from the grammar cache
+    public GrammarArtifacts getArtifacts(String grammarText) {
+        return grammarCache.get(grammarText);
+    }
+    
+    public GrammarCacheStatsResponse getCacheStats() {
+        long hits = grammarCache.getHitCount();
+        long misses = grammarCache.getMissCount();
+        long lookups = hits + misses;
+        return new GrammarCacheStatsResponse(
+            hits,
+            misses,
+            grammarCache.getEvictionCount(),
+            lookups == 0 ? 0.0 : (double) hits / lookups,
+            grammarCache.size(),
+            grammarCache.getMaxEntries(),
+            grammarCache.getTotalWeight(),
+            grammarCache.getMaxWeight()
+        );
+    }
+    
+    public void clearCache() {
+        grammarCache.clear();
+    }
+    
+    private GrammarArtifacts buildArtifacts(String normalizedGrammar) {
+        CompiledGrammar grammar = compile(normalizedGrammar);
+        FirstFollowAnalysis analysis = analyze(grammar);
+        LL1Table table = new LL1Table(analysis);
+        ParseTableResponse response = grammar.isEmpty()
+            ? createErrorResponse("Grammar is empty or invalid format")
+            : toParseTableResponse(table, analysis);
+        return new GrammarArtifacts(grammar, analysis, table, response);
+    }
+    
+    // Generate parse table and detect conflicts. The cached response is shared across requests,
+    // so callers get their own top-level object over its read-only collections.
+    public ParseTableResponse generateParseTable(String grammarText) {
+        try {
+            return copyOf(getArtifacts(grammarText).getParseTable());
+        } catch (Exception e) {
+            return createErrorResponse("Error parsing grammar: " + e.getMessage());
+        }
+    }
+    
+    private static ParseTableResponse copyOf(ParseTableResponse cached) {
+        List<ParseTableResponse.ConflictInfo> conflicts = new ArrayList<>(cached.getConflicts().size());
+        for (ParseTableResponse.ConflictInfo conflict : cached.getConflicts()) {
+            conflicts.add(new ParseTableResponse.ConflictInfo(conflict.getNonTerminal(), conflict.getTerminal(),
+                conflict.getConflictingProductions(), conflict.getConflictType()));
         }
+        return new ParseTableResponse(cached.getParseTable(), cached.getFirstSets(), cached.getFollowSets(),
+            cached.getTerminals(), cached.getNonTerminals(), cached.isLL1(), conflicts, cached.getMessage());
+    }
+    
+    // JSON form of the dense table: nonTerminal -> terminal -> production string.
+    // Every collection is read-only, since the response is cached with the grammar.
+    private ParseTableResponse toParseTableResponse(LL1Table table, FirstFollowAnalysis analysis) {
+        CompiledGrammar grammar = table.getGrammar();
         
-        // If all symbols can derive epsilon, add epsilon
-        boolean allHaveEpsilon = true;
-        for (String symbol : sequence) {
-            if (symbol.equals(EPSILON)) {
-                continue;
-            }
-            if (!nonTerminals.contains(symbol)) {
-                allHaveEpsilon = false;
-                break;
-            }
-            if (!firstSets.get(symbol).contains(EPSILON)) {
-                allHaveEpsilon = false;
-                break;
+        Map<String, Map<String, String>> parseTable = new LinkedHashMap<>();
+        for (int nt = 0; nt < grammar.nonTerminalCount(); nt++) {
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int t = 0; t < grammar.terminalCount(); t++) {
+                int terminal = grammar.terminalAt(t);
+                int production = table.production(nt, terminal);
+                if (production != LL1Table.NO_PRODUCTION) {
+                    row.put(grammar.name(terminal), grammar.productionString(production));
+                }
             }
+            parseTable.put(grammar.name(nt), Collections.unmodifiableMap(row));
         }
         
-        if (allHaveEpsilon && !sequence.isEmpty()) {
-            result.add(EPSILON);
+        List<ParseTableResponse.ConflictInfo> conflicts = new ArrayList<>();
+        for (LL1Table.Conflict conflict : table.getConflicts()) {
+            conflicts.add(new ParseTableResponse.ConflictInfo(
+                grammar.name(conflict.getNonTerminal()),
+                grammar.name(conflict.getTerminal()),
+                List.of(grammar.productionString(conflict.getExistingProduction()),
+                        grammar.productionString(conflict.getProduction())),
+                conflict.getType()
+            ));
         }
         
-        return result;
-    }
-    
-    // Compute FOLLOW sets
-    public Map<String, Set<String>> computeFollowSets(Map<String, List<List<String>>> grammar,
-                                                       Map<String, Set<String>> firstSets) {
-        Map<String, Set<String>> followSets = new HashMap<>();
-        Set<String> nonTerminals = grammar.keySet();
+        boolean isLL1 = table.isLL1();
+        String message = isLL1 ? "✅ Grammar is LL(1)" : "⚠️ Grammar is NOT LL(1) - Conflicts detected";
         
-        // Initialize
-        for (String nonTerminal : nonTerminals) {
-            followSets.put(nonTerminal, new HashSet<>());
-        }
+        // Convert sets to lists for response
+        Map<String, List<String>> firstSetsResponse = new LinkedHashMap<>();
+        analysis.firstSetMap().forEach((nt, set) -> firstSetsResponse.put(nt, List.copyOf(set)));
         
-        // Add $ to FOLLOW of start symbol
-        String startSymbol = grammar.keySet().iterator().next();
-        followSets.get(startSymbol).add(END_MARKER);
+        Map<String, List<String>> followSetsResponse = new LinkedHashMap<>();
+        analysis.followSetMap().forEach((nt, set) -> followSetsResponse.put(nt, List.copyOf(set)));
         
-        boolean changed = true;
-        while (changed) {
-            changed = false;
-            
-            for (Map.Entry<String, List<List<String>>> entry : grammar.entrySet()) {
-                String nonTerminal = entry.getKey();
-                
-                for (List<String> production : entry.getValue()) {
-                    for (int i = 0; i < production.size(); i++) {
-                        String symbol = production.get(i);
-                        
-                        if (!nonTerminals.contains(symbol)) continue;
-                        
-                        int sizeBefore = followSets.get(symbol).size();
-                        
-                        // Get FIRST of remaining symbols
-                        List<String> remaining = production.subList(i + 1, production.size());
-                        if (remaining.isEmpty()) {
-                            // Add FOLLOW(nonTerminal) to FOLLOW(symbol)
-                            followSets.get(symbol).addAll(followSets.get(nonTerminal));
-                        } else {
-                            Set<String> firstOfRemaining = computeFirstOfSequence(remaining, grammar, firstSets, nonTerminals);
-                            boolean hasEpsilon = firstOfRemaining.remove(EPSILON);
-                            followSets.get(symbol).addAll(firstOfRemaining);
-                            
-                            if (hasEpsilon) {
-                                followSets.get(symbol).addAll(followSets.get(nonTerminal));
-                            }
-                        }
-                        
-                        if (followSets.get(symbol).size() > sizeBefore) {
-                            changed = true;
-                        }
-                    }
-                }
-            }
-        }
+        List<String> terminalsList = new ArrayList<>(grammar.terminalNames());
+        // Ensure $ is at the end
+        terminalsList.remove(END_MARKER);
+        Collections.sort(terminalsList);
+        terminalsList.add(END_MARKER);
         
-        return followSets;
+        return new ParseTableResponse(
+            Collections.unmodifiableMap(parseTable),
+            Collections.unmodifiableMap(firstSetsResponse),
+            Collections.unmodifiableMap(followSetsResponse),
+            List.copyOf(terminalsList),
+            List.copyOf(grammar.nonTerminalNames()),
+            isLL1,
+            List.copyOf(conflicts),
+            message
+        );
     }
     
-    // Generate parse table and detect conflicts
-    public ParseTableResponse generateParseTable(String grammarText) {
+    // Run parser simulation
+    public ParseSimulationResponse runParser(String grammarText, String inputString) {
+        return runParser(grammarText, inputString, false);
+    }
+    
+    // Run parser simulation; a compact derivation is returned as (position, production) pairs instead of text
+    public ParseSimulationResponse runParser(String grammarText, String inputString, boolean compactDerivation) {
         try {
-            Map<String, List<List<String>>> grammar = parseGrammar(grammarText);
-            
-            if (grammar.isEmpty()) {
-                return createErrorResponse("Grammar is empty or invalid format");
-            }
-            
-            Set<String> terminals = extractTerminals(grammar);
-            Map<String, Set<String>> firstSets = computeFirstSets(grammar);
-            Map<String, Set<String>> followSets = computeFollowSets(grammar, firstSets);
-            
-            Map<String, Map<String, String>> parseTable = new HashMap<>();
-            List<ParseTableResponse.ConflictInfo> conflicts = new ArrayList<>();
-            
-            // Initialize parse table
-            for (String nonTerminal : grammar.keySet()) {
-                parseTable.put(nonTerminal, new HashMap<>());
+            GrammarArtifacts artifacts = getArtifacts(grammarText);
+            if (artifacts.isEmpty()) {
+                return createParseErrorResponse("Grammar is empty or invalid format");
             }
             
-            // Build parse table
-            for (Map.Entry<String, List<List<String>>> entry : grammar.entrySet()) {
-                String nonTerminal = entry.getKey();
-                
-                for (List<String> production : entry.getValue()) {
-                    String productionStr = nonTerminal + " → " + String.join(" ", production);
-                    
-                    Set<String> firstOfProduction = computeFirstOfSequence(production, grammar, firstSets, grammar.keySet());
-                    
-                    // Add entries for terminals in FIRST(production)
-                    for (String terminal : firstOfProduction) {
-                        if (!terminal.equals(EPSILON)) {
-                            if (parseTable.get(nonTerminal).containsKey(terminal)) {
-                                // Conflict detected
-                                String existing = parseTable.get(nonTerminal).get(terminal);
-                                conflicts.add(new ParseTableResponse.ConflictInfo(
-                                    nonTerminal,
-                                    terminal,
-                                    Arrays.asList(existing, productionStr),
-                                    "FIRST/FIRST"
-                                ));
-                            } else {
-                                parseTable.get(nonTerminal).put(terminal, productionStr);
-                            }
-                        }
-                    }
-                    
-                    // If production can derive epsilon, add entries for FOLLOW(nonTerminal)
-                    if (firstOfProduction.contains(EPSILON)) {
-                        for (String terminal : followSets.get(nonTerminal)) {
-                            if (parseTable.get(nonTerminal).containsKey(terminal)) {
-                                // Conflict detected
-                                String existing = parseTable.get(nonTerminal).get(terminal);
-                                conflicts.add(new ParseTableResponse.ConflictInfo(
-                                    nonTerminal,
-                                    terminal,
-                                    Arrays.asList(existing, productionStr),
-                                    "FIRST/FOLLOW"
-                                ));
-                            } else {
-                                parseTable.get(nonTerminal).put(terminal, productionStr);
-                            }
-                        }
-                    }
-                }
+            if (!artifacts.getTable().isLL1()) {
+                return createParseErrorResponse("Cannot parse: Grammar is not LL(1)");
             }
             
-            boolean isLL1 = conflicts.isEmpty();
-            String message = isLL1 ? "✅ Grammar is LL(1)" : "⚠️ Grammar is NOT LL(1) - Conflicts detected";
-            
-            // Convert sets to sorted lists for response
-            Map<String, List<String>> firstSetsResponse = firstSets.entrySet().stream()
-                .collect(Collectors.toMap(
-                    Map.Entry::getKey,
-                    e -> new ArrayList<>(e.getValue())
-                ));
-            
-            Map<String, List<String>> followSetsResponse = followSets.entrySet().stream()
-                .collect(Collectors.toMap(
-                    Map.Entry::getKey,
-                    e -> new ArrayList<>(e.getValue())
-                ));
+            LL1Parser parser = artifacts.getParser();
             
-            List<String> terminalsList = new ArrayList<>(terminals);
-            Collections.sort(terminalsList);
-            // Ensure $ is at the end
-            terminalsList.remove(END_MARKER);
-            terminalsList.add(END_MARKER);
+            // Tokenize input by longest match over the grammar's symbols, then map tokens to terminal IDs
+            List<String> inputTokens = artifacts.getTokenizer().tokenize(inputString);
+            int[] tokenIds = toTerminalIds(parser, inputTokens);
+            inputTokens.add(END_MARKER);
             
-            List<String> nonTerminalsList = new ArrayList<>(grammar.keySet());
+            TraceBuilder trace = new TraceBuilder(parser.getGrammar(), inputTokens);
+            LL1Parser.Result result = parser.parse(tokenIds, tokenIds.length, trace);
             
-            return new ParseTableResponse(
-                parseTable,
-                firstSetsResponse,
-                followSetsResponse,
-                terminalsList,
-                nonTerminalsList,
-                isLL1,
-                conflicts,
-                message
+            if (!result.isAccepted() && result.getTopSymbol() < 0) {
+                return createParseErrorResponse("Unexpected end of parsing");
+            }
+            // The text grows quadratically with the input; past the budget it is cut short and
+            // the full derivation is sent as compact pairs as well
+            LeftmostDerivation derivation = trace.derivation;
+            boolean pairs = compactDerivation || !derivation.fitsIn(MAX_DERIVATION_CHARS);
+            return new ParseSimulationResponse(
+                trace.steps,
+                result.isAccepted(),
+                resultMessage(parser.getGrammar(), result, inputTokens),
+                compactDerivation ? null : derivation.render(MAX_DERIVATION_CHARS),
+                trace.root,
+                pairs ? derivation.toPairs() : null,
+                pairs ? artifacts.getProductionStrings() : null
             );
             
         } catch (Exception e) {
-            return createErrorResponse("Error parsing grammar: " + e.getMessage());
+            e.printStackTrace(); // Log the full stack trace
+            String errorMsg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return createParseErrorResponse("Error during parsing: " + errorMsg + ". Check grammar and input format.");
         }
     }
     
-    // Run parser simulation
-    public ParseSimulationResponse runParser(String grammarText, String inputString) {
+    /**
+     * Recognizes many inputs against one grammar. The grammar is compiled once (or taken from
+     * the cache) and the inputs are parsed in parallel without a listener, so no trace, tree
+     * or derivation is built; each input only reports accept/reject, where it failed and the
+     * terminals that were expected there.
+     */
+    public BatchParseResponse recognizeAll(String grammarText, List<String> inputs) {
+        List<String> batch = inputs != null ? inputs : List.of();
+        GrammarArtifacts artifacts;
         try {
-            ParseTableResponse tableResponse = generateParseTable(grammarText);
-            
-            if (!tableResponse.isLL1()) {
-                return createParseErrorResponse("Cannot parse: Grammar is not LL(1)");
+            artifacts = getArtifacts(grammarText);
+        } catch (Exception e) {
+            return createBatchErrorResponse("Error parsing grammar: " + e.getMessage(), batch.size());
+        }
+        if (artifacts.isEmpty()) {
+            return createBatchErrorResponse("Grammar is empty or invalid format", batch.size());
+        }
+        if (!artifacts.getTable().isLL1()) {
+            return createBatchErrorResponse("Cannot parse: Grammar is not LL(1)", batch.size());
+        }
+        
+        LL1Parser parser = artifacts.getParser();
+        // Expected-token lists depend only on the failing stack top, so share them across inputs
+        AtomicReferenceArray<List<String>> expectedBySymbol =
+            new AtomicReferenceArray<>(parser.getGrammar().symbolCount());
+        
+        long start = System.nanoTime();
+        BatchParseResponse.InputResult[] results = new BatchParseResponse.InputResult[batch.size()];
+        IntStream.range(0, results.length).parallel().forEach(i ->
+            results[i] = recognize(parser, artifacts.getTokenizer(), batch.get(i), expectedBySymbol));
+        long elapsedNanos = System.nanoTime() - start;
+        
+        int accepted = 0;
+        for (BatchParseResponse.InputResult result : results) {
+            if (result.isAccepted()) accepted++;
+        }
+        double seconds = elapsedNanos / 1e9;
+        return new BatchParseResponse(
+            true,
+            accepted + " of " + results.length + " inputs accepted",
+            Arrays.asList(results),
+            results.length,
+            accepted,
+            elapsedNanos / 1_000_000,
+            seconds > 0 ? results.length / seconds : 0
+        );
+    }
+    
+    private BatchParseResponse.InputResult recognize(LL1Parser parser, GrammarTokenizer tokenizer, String input,
+                                                     AtomicReferenceArray<List<String>> expectedBySymbol) {
+        int[] tokenIds = tokenizer.terminalIds(input);
+        LL1Parser.Result result = parser.parse(tokenIds, tokenIds.length);
+        if (result.isAccepted()) {
+            return new BatchParseResponse.InputResult(true, null, null, null);
+        }
+        
+        // Token text is only needed to report the error
+        List<String> tokens = tokenizer.tokenize(input);
+        int position = result.getPosition();
+        String found = position < tokens.size() ? tokens.get(position) : END_MARKER;
+        List<String> expected = List.of();
+        int top = result.getTopSymbol();
+        if (top >= 0) {
+            expected = expectedBySymbol.get(top);
+            if (expected == null) {
+                expected = expectedTerminals(parser, top);
+                expectedBySymbol.set(top, expected);
             }
-            
-            Map<String, Map<String, String>> parseTable = tableResponse.getParseTable();
-            String startSymbol = tableResponse.getNonTerminals().get(0);
-            
-            // Parse grammar to get terminals for smart tokenization
-            Map<String, List<List<String>>> grammar = parseGrammar(grammarText);
-            Set<String> terminals = extractTerminals(grammar);
-            Set<String> grammarNonTerminals = grammar.keySet();
-            
-            // Tokenize input using smart tokenization
-            List<String> inputTokens = tokenizeInput(inputString.trim(), terminals, grammarNonTerminals);
-            inputTokens.add(END_MARKER);
-            
-            // Initialize stack with start symbol and $
-            Stack<String> stack = new Stack<>();
-            stack.push(END_MARKER);
-            stack.push(startSymbol);
-            
-            List<ParseSimulationResponse.ParseStep> steps = new ArrayList<>();
-            List<String> derivation = new ArrayList<>();
-            derivation.add(startSymbol);
-            
-            int stepNumber = 1;
-            int inputPointer = 0;
-            
-            ParseSimulationResponse.ParseTreeNode root = new ParseSimulationResponse.ParseTreeNode(startSymbol, new ArrayList<>());
-            Stack<ParseSimulationResponse.ParseTreeNode> treeStack = new Stack<>();
-            treeStack.push(root);
-            
-            while (!stack.isEmpty()) {
-                String top = stack.peek();
-                String currentInput = inputPointer < inputTokens.size() ? inputTokens.get(inputPointer) : END_MARKER;
-                
-                String stackStr = stackToString(stack);
-                String inputStr = tokensToString(inputTokens, inputPointer);
-                
-                if (top.equals(END_MARKER) && currentInput.equals(END_MARKER)) {
-                    // Accept
-                    steps.add(new ParseSimulationResponse.ParseStep(
-                        stepNumber++,
-                        stackStr,
-                        inputStr,
-                        "Accept",
-                        ""
-                    ));
-                    
-                    String derivationStr = String.join(" ⇒ ", derivation);
-                    return new ParseSimulationResponse(
-                        steps,
-                        true,
-                        "✅ Input String Accepted by LL(1) Parser",
-                        derivationStr,
-                        root
-                    );
-                }
-                
-                Set<String> nonTerminals = parseTable.keySet();
-                if (!nonTerminals.contains(top)) {
-                    // Terminal on stack
-                    if (top.equals(currentInput)) {
-                        // Match
-                        steps.add(new ParseSimulationResponse.ParseStep(
-                            stepNumber++,
-                            stackStr,
-                            inputStr,
-                            "Match '" + top + "'",
-                            ""
-                        ));
-                        stack.pop();
-                        if (!treeStack.isEmpty()) {
-                            treeStack.pop();
-                        }
-                        inputPointer++;
-                    } else {
-                        // Error
-                        steps.add(new ParseSimulationResponse.ParseStep(
-                            stepNumber++,
-                            stackStr,
-                            inputStr,
-                            "Error",
-                            "Expected '" + top + "' but found '" + currentInput + "'"
-                        ));
-                        return new ParseSimulationResponse(
-                            steps,
-                            false,
-                            "❌ Error at token '" + currentInput + "' — Expected '" + top + "'",
-                            String.join(" ⇒ ", derivation),
-                            root
-                        );
-                    }
-                } else {
-                    // Non-terminal on stack
-                    Map<String, String> row = parseTable.get(top);
-                    
-                    if (!row.containsKey(currentInput)) {
-                        // Error - no rule
-                        steps.add(new ParseSimulationResponse.ParseStep(
-                            stepNumber++,
-                            stackStr,
-                            inputStr,
-                            "Error",
-                            "No rule for " + top + " under '" + currentInput + "'"
-                        ));
-                        return new ParseSimulationResponse(
-                            steps,
-                            false,
-                            "❌ Error at token '" + currentInput + "' — No rule for " + top + " under '" + currentInput + "'",
-                            String.join(" ⇒ ", derivation),
-                            root
-                        );
-                    }
-                    
-                    String production = row.get(currentInput);
-                    
-                    // Check if production is null
-                    if (production == null || production.trim().isEmpty()) {
-                        steps.add(new ParseSimulationResponse.ParseStep(
-                            stepNumber++,
-                            stackStr,
-                            inputStr,
-                            "Error",
-                            "No rule for " + top + " under '" + currentInput + "'"
-                        ));
-                        return new ParseSimulationResponse(
-                            steps,
-                            false,
-                            "❌ Error: Parse table has null entry for [" + top + ", " + currentInput + "]",
-                            String.join(" ⇒ ", derivation),
-                            root
-                        );
-                    }
-                    
-                    String[] prodParts = production.split("→");
-                    if (prodParts.length < 2) {
-                        // Try with -> instead
-                        prodParts = production.split("->");
-                        if (prodParts.length < 2) {
-                            return createParseErrorResponse("Invalid production format: " + production);
-                        }
-                    }
-                    String[] rightSide = prodParts[1].trim().split("\\s+");
-                    
-                    steps.add(new ParseSimulationResponse.ParseStep(
-                        stepNumber++,
-                        stackStr,
-                        inputStr,
-                        "Apply production",
-                        production
-                    ));
-                    
-                    // Update derivation
-                    String currentDerivation = derivation.get(derivation.size() - 1);
-                    String newDerivation = currentDerivation.replaceFirst(top, prodParts[1].trim());
-                    derivation.add(newDerivation);
-                    
-                    // Pop non-terminal and push production
-                    stack.pop();
-                    ParseSimulationResponse.ParseTreeNode parentNode = !treeStack.isEmpty() ? treeStack.pop() : null;
-                    
-                    // Push in reverse order
-                    if (!rightSide[0].equals(EPSILON)) {
-                        for (int i = rightSide.length - 1; i >= 0; i--) {
-                            stack.push(rightSide[i]);
-                            if (parentNode != null) {
-                                ParseSimulationResponse.ParseTreeNode childNode = 
-                                    new ParseSimulationResponse.ParseTreeNode(rightSide[i], new ArrayList<>());
-                                parentNode.getChildren().add(0, childNode);
-                                if (nonTerminals.contains(rightSide[i])) {
-                                    treeStack.push(childNode);
-                                }
-                            }
-                        }
-                    } else {
-                        // Epsilon production
-                        if (parentNode != null) {
-                            parentNode.getChildren().add(new ParseSimulationResponse.ParseTreeNode(EPSILON, new ArrayList<>()));
-                        }
-                    }
-                }
+        }
+        return new BatchParseResponse.InputResult(false, position, found, expected);
+    }
+    
+    private static List<String> expectedTerminals(LL1Parser parser, int symbol) {
+        CompiledGrammar grammar = parser.getGrammar();
+        BitSet columns = parser.getTable().expectedTerminals(symbol);
+        List<String> names = new ArrayList<>(columns.cardinality());
+        for (int t = columns.nextSetBit(0); t >= 0; t = columns.nextSetBit(t + 1)) {
+            names.add(grammar.name(grammar.terminalAt(t)));
+        }
+        return Collections.unmodifiableList(names);
+    }
+    
+    /** How much of the parse trace {@link #streamParser} emits. */
+    public enum TraceMode {
+        FULL,          // every step with stack and remaining input
+        SAMPLED,       // every k-th step (and the last one) with stack and remaining input
+        ACTIONS_ONLY,  // every step, action and production only
+        NONE;          // only the final result
+        
+        public static TraceMode parse(String mode) {
+            if (mode == null || mode.isBlank()) return FULL;
+            switch (mode.trim().toLowerCase().replace('_', '-')) {
+                case "full": return FULL;
+                case "sampled": return SAMPLED;
+                case "actions-only": case "actions": return ACTIONS_ONLY;
+                case "none": return NONE;
+                default: throw new IllegalArgumentException("Unknown trace mode: " + mode);
             }
-            
-            return createParseErrorResponse("Unexpected end of parsing");
-            
+        }
+    }
+    
+    /**
+     * Runs the parser and hands each trace event to {@code sink} as soon as it happens, ending
+     * with one result event. Nothing but the tokens is retained, so memory does not grow with
+     * the number of steps, and stack/input strings are only rendered for steps that are emitted.
+     */
+    public void streamParser(String grammarText, String inputString, TraceMode mode, int sampleEvery,
+                             Consumer<ParseStreamEvent> sink) {
+        GrammarArtifacts artifacts;
+        try {
+            artifacts = getArtifacts(grammarText);
         } catch (Exception e) {
-            e.printStackTrace(); // Log the full stack trace
-            String errorMsg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-            return createParseErrorResponse("Error during parsing: " + errorMsg + ". Check grammar and input format.");
+            sink.accept(ParseStreamEvent.result(false, "❌ Error parsing grammar: " + e.getMessage(), 0));
+            return;
+        }
+        if (artifacts.isEmpty()) {
+            sink.accept(ParseStreamEvent.result(false, "❌ Grammar is empty or invalid format", 0));
+            return;
+        }
+        if (!artifacts.getTable().isLL1()) {
+            sink.accept(ParseStreamEvent.result(false, "❌ Cannot parse: Grammar is not LL(1)", 0));
+            return;
+        }
+        
+        LL1Parser parser = artifacts.getParser();
+        List<String> inputTokens = artifacts.getTokenizer().tokenize(inputString);
+        int[] tokenIds = toTerminalIds(parser, inputTokens);
+        inputTokens.add(END_MARKER);
+        
+        StreamingTrace trace = new StreamingTrace(parser.getGrammar(), inputTokens, mode, Math.max(1, sampleEvery), sink);
+        LL1Parser.Result result = parser.parse(tokenIds, tokenIds.length, trace);
+        String message = !result.isAccepted() && result.getTopSymbol() < 0
+            ? "❌ Unexpected end of parsing"
+            : resultMessage(parser.getGrammar(), result, inputTokens);
+        sink.accept(ParseStreamEvent.result(result.isAccepted(), message, result.getSteps()));
+    }
+    
+    private int[] toTerminalIds(LL1Parser parser, List<String> tokens) {
+        int[] ids = new int[tokens.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = parser.terminalId(tokens.get(i));
         }
+        return ids;
     }
     
-    private String stackToString(Stack<String> stack) {
-        return String.join("", stack);
+    private String resultMessage(CompiledGrammar grammar, LL1Parser.Result result, List<String> inputTokens) {
+        if (result.isAccepted()) {
+            return "✅ Input String Accepted by LL(1) Parser";
+        }
+        String top = grammar.name(result.getTopSymbol());
+        String currentInput = inputTokens.get(Math.min(result.getPosition(), inputTokens.size() - 1));
+        return grammar.isTerminal(result.getTopSymbol())
+            ? "❌ Error at token '" + currentInput + "' — Expected '" + top + "'"
+            : "❌ Error at token '" + currentInput + "' — No rule for " + top + " under '" + currentInput + "'";
     }
     
-    private String tokensToString(List<String> tokens, int startIndex) {
-        return String.join("", tokens.subList(startIndex, tokens.size()));
+    private static String actionDetail(CompiledGrammar grammar, int[] stack, int depth, int position, List<String> inputTokens) {
+        int top = stack[depth - 1];
+        String currentInput = inputTokens.get(Math.min(position, inputTokens.size() - 1));
+        return grammar.isTerminal(top)
+            ? "Expected '" + grammar.name(top) + "' but found '" + currentInput + "'"
+            : "No rule for " + grammar.name(top) + " under '" + currentInput + "'";
+    }
+    
+    /** Emits trace steps to a sink according to the trace mode instead of collecting them. */
+    private static class StreamingTrace implements LL1Parser.Listener {
+        private final CompiledGrammar grammar;
+        private final List<String> inputTokens;
+        private final TraceMode mode;
+        private final int sampleEvery;
+        private final Consumer<ParseStreamEvent> sink;
+        private int stepNumber = 1;
+        
+        StreamingTrace(CompiledGrammar grammar, List<String> inputTokens, TraceMode mode, int sampleEvery,
+                       Consumer<ParseStreamEvent> sink) {
+            this.grammar = grammar;
+            this.inputTokens = inputTokens;
+            this.mode = mode;
+            this.sampleEvery = sampleEvery;
+            this.sink = sink;
+        }
+        
+        @Override
+        public void onExpand(int[] stack, int depth, int position, int production) {
+            if (shouldEmit(false)) {
+                emit(stack, depth, position, "Apply production", grammar.productionString(production));
+            }
+        }
+        
+        @Override
+        public void onMatch(int[] stack, int depth, int position) {
+            if (shouldEmit(false)) {
+                emit(stack, depth, position, "Match '" + grammar.name(stack[depth - 1]) + "'", "");
+            }
+        }
+        
+        @Override
+        public void onAccept(int[] stack, int depth, int position) {
+            if (shouldEmit(true)) {
+                emit(stack, depth, position, "Accept", "");
+            }
+        }
+        
+        @Override
+        public void onError(int[] stack, int depth, int position) {
+            if (shouldEmit(true)) {
+                emit(stack, depth, position, "Error", actionDetail(grammar, stack, depth, position, inputTokens));
+            }
+        }
+        
+        // Advances the step counter and decides whether this step is sent; nothing is rendered otherwise
+        private boolean shouldEmit(boolean last) {
+            int number = stepNumber++;
+            if (mode == TraceMode.NONE) return false;
+            return mode != TraceMode.SAMPLED || last || (number - 1) % sampleEvery == 0;
+        }
+        
+        private void emit(int[] stack, int depth, int position, String action, String production) {
+            boolean withState = mode != TraceMode.ACTIONS_ONLY;
+            sink.accept(ParseStreamEvent.step(new ParseSimulationResponse.ParseStep(
+                stepNumber - 1,
+                withState ? stackToString(grammar, stack, depth) : null,
+                withState ? tokensToString(inputTokens, Math.min(position, inputTokens.size() - 1)) : null,
+                action,
+                production
+            )));
+        }
+    }
+    
+    /**
+     * Records the step table, leftmost derivation (as position/production pairs) and parse
+     * tree while the parser runs.
+     * Tree nodes are kept on a stack parallel to the parse stack, one node per stack entry.
+     */
+    private static class TraceBuilder implements LL1Parser.Listener {
+        private final CompiledGrammar grammar;
+        private final List<String> inputTokens;
+        private final List<ParseSimulationResponse.ParseStep> steps = new ArrayList<>();
+        private final LeftmostDerivation derivation;
+        private final ParseSimulationResponse.ParseTreeNode root;
+        private final List<ParseSimulationResponse.ParseTreeNode> nodeStack = new ArrayList<>();
+        private int stepNumber = 1;
+        
+        TraceBuilder(CompiledGrammar grammar, List<String> inputTokens) {
+            this.grammar = grammar;
+            this.inputTokens = inputTokens;
+            String startSymbol = grammar.name(grammar.startSymbol());
+            this.root = new ParseSimulationResponse.ParseTreeNode(startSymbol, new ArrayList<>());
+            this.derivation = new LeftmostDerivation(grammar);
+            nodeStack.add(null); // $
+            nodeStack.add(root);
+        }
+        
+        @Override
+        public void onExpand(int[] stack, int depth, int position, int production) {
+            addStep(stack, depth, position, "Apply production", grammar.productionString(production));
+            derivation.onExpand(stack, depth, position, production);
+            
+            // Replace the non-terminal's node by its children, leftmost child on top
+            ParseSimulationResponse.ParseTreeNode parentNode = nodeStack.remove(nodeStack.size() - 1);
+            int length = grammar.rhsLength(production);
+            if (length == 0) {
+                parentNode.getChildren().add(new ParseSimulationResponse.ParseTreeNode(EPSILON, new ArrayList<>()));
+                return;
+            }
+            for (int i = 0; i < length; i++) {
+                parentNode.getChildren().add(new ParseSimulationResponse.ParseTreeNode(
+                    grammar.name(grammar.rhsSymbol(production, i)), new ArrayList<>()));
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                nodeStack.add(parentNode.getChildren().get(i));
+            }
+        }
+        
+        @Override
+        public void onMatch(int[] stack, int depth, int position) {
+            addStep(stack, depth, position, "Match '" + grammar.name(stack[depth - 1]) + "'", "");
+            nodeStack.remove(nodeStack.size() - 1);
+        }
+        
+        @Override
+        public void onAccept(int[] stack, int depth, int position) {
+            addStep(stack, depth, position, "Accept", "");
+        }
+        
+        @Override
+        public void onError(int[] stack, int depth, int position) {
+            addStep(stack, depth, position, "Error", actionDetail(grammar, stack, depth, position, inputTokens));
+        }
+        
+        private void addStep(int[] stack, int depth, int position, String action, String production) {
+            steps.add(new ParseSimulationResponse.ParseStep(
+                stepNumber++,
+                stackToString(grammar, stack, depth),
+                tokensToString(inputTokens, Math.min(position, inputTokens.size() - 1)),
+                action,
+                production
+            ));
+        }
+    }
+    
+    // Only the top of the stack is shown, so a step costs the same however deep the stack is
+    private static String stackToString(CompiledGrammar grammar, int[] stack, int depth) {
+        StringBuilder sb = new StringBuilder();
+        int from = Math.max(0, depth - MAX_TRACE_SYMBOLS);
+        if (from > 0) sb.append('…');
+        for (int i = from; i < depth; i++) {
+            sb.append(grammar.name(stack[i]));
+        }
+        return sb.toString();
+    }
+    
+    // Only the next tokens are shown, for the same reason
+    private static String tokensToString(List<String> tokens, int startIndex) {
+        int end = Math.min(tokens.size(), startIndex + MAX_TRACE_SYMBOLS);
+        String shown = String.join("", tokens.subList(startIndex, end));
+        return end < tokens.size() ? shown + "…" : shown;
     }
     
     private ParseTableResponse createErrorResponse(String message) {
@@ -529,6 +610,10 @@ public class LL1SolverService {
         );
     }
     
+    private BatchParseResponse createBatchErrorResponse(String message, int total) {
+        return new BatchParseResponse(false, "❌ " + message, new ArrayList<>(), total, 0, 0, 0);
+    }
+    
     private ParseSimulationResponse createParseErrorResponse(String message) {
         return new ParseSimulationResponse(
             new ArrayList<>(),
@@ -538,45 +623,4 @@ public class LL1SolverService {
             null
         );
     }
-    
-    /**
-     * Tokenization that treats non-terminals as complete units and terminals as single characters
-     */
-    private List<String> tokenizeInput(String input, Set<String> terminals, Set<String> nonTerminals) {
-        input = input.trim();
-        
-        // If input contains spaces, split by spaces (return mutable list)
-        if (input.contains(" ")) {
-            return new ArrayList<>(Arrays.asList(input.split("\\s+")));
-        }
-        
-        // For concatenated input, use longest match for non-terminals, single chars for terminals
-        List<String> tokens = new ArrayList<>();
-        int i = 0;
-        
-        while (i < input.length()) {
-            boolean matched = false;
-            
-            // Try to match non-terminals first (sorted by length descending to match longest first)
-            List<String> sortedNonTerminals = new ArrayList<>(nonTerminals);
-            sortedNonTerminals.sort((a, b) -> b.length() - a.length());
-            
-            for (String nonTerminal : sortedNonTerminals) {
-                if (input.startsWith(nonTerminal, i)) {
-                    tokens.add(nonTerminal);
-                    i += nonTerminal.length();
-                    matched = true;
-                    break;
-                }
-            }
-            
-            // If no non-terminal matched, treat as single-character terminal
-            if (!matched) {
-                tokens.add(String.valueOf(input.charAt(i)));
-                i++;
-            }
-        }
-        
-        return tokens;
-    }
 }
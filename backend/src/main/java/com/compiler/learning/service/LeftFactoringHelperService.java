@@ -3,6 +3,7 @@ package com.compiler.learning.service;
 
 import com.compiler.learning.dto.HelpRequest;
 import com.compiler.learning.dto.HelpResponse;
+import com.compiler.learning.grammar.GrammarCompiler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -308,28 +309,7 @@ public class LeftFactoringHelperService {
     }
 
     private Map<String, List<String>> parseGrammar(String grammar) {
-        Map<String, List<String>> productions = new LinkedHashMap<>();
-        String[] lines = grammar.trim().split("\\n");
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            
-            String[] parts = line.split("->|→");
-            if (parts.length == 2) {
-                String nonTerminal = parts[0].trim();
-                String[] prods = parts[1].trim().split("\\|");
-                
-                List<String> prodList = new ArrayList<>();
-                for (String prod : prods) {
-                    prodList.add(prod.trim());
-                }
-                
-                productions.put(nonTerminal, prodList);
-            }
-        }
-        
-        return productions;
+        return GrammarCompiler.compile(grammar, GrammarCompiler.SymbolMode.CHARACTER).toAlternativeMap();
     }
 
     private Set<String> normalizeProductions(List<String> productions) {
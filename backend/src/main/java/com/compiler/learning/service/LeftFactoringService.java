@@ -1,13 +1,13 @@
 // src/main/java/com/compiler/learning/service/LeftFactoringService.java
 package com.compiler.learning.service;
 
+import com.compiler.learning.grammar.GrammarCompiler;
 import lombok.Data;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 public class LeftFactoringService {
@@ -354,27 +354,7 @@ A' → β₁ | β₂ | ... | βₙ</pre>
     }
 
     private Map<String, List<String>> parseGrammar(String grammar) {
-        Map<String, List<String>> productions = new LinkedHashMap<>();
-        String[] lines = grammar.trim().split("\\n");
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            
-            String[] parts = line.split("->|→");
-            if (parts.length == 2) {
-                String nonTerminal = parts[0].trim();
-                String[] prods = parts[1].trim().split("\\|");
-                
-                List<String> prodList = Arrays.stream(prods)
-                        .map(String::trim)
-                        .collect(Collectors.toList());
-                
-                productions.put(nonTerminal, prodList);
-            }
-        }
-        
-        return productions;
+        return GrammarCompiler.compile(grammar, GrammarCompiler.SymbolMode.CHARACTER).toAlternativeMap();
     }
 
     private boolean hasCommonPrefix(List<String> productions) {
@@ -456,7 +436,8 @@ A' → β₁ | β₂ | ... | βₙ</pre>
             if (group.size() > 1 && longestPrefix.length() > 0) {
                 groups.put(longestPrefix, group);
             } else {
-                groups.put("", group);
+                // Alternatives without a shared prefix all go in one group
+                groups.computeIfAbsent("", k -> new ArrayList<>()).addAll(group);
             }
         }
         
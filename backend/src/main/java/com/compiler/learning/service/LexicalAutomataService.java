@@ -0,0 +1,309 @@
+package com.compiler.learning.service;
+
+import com.compiler.learning.automata.CompactDfa;
+import com.compiler.learning.automata.Dfa;
+import com.compiler.learning.automata.DfaMinimizer;
+import com.compiler.learning.automata.EpsilonNfa;
+import com.compiler.learning.automata.FollowposConstruction;
+import com.compiler.learning.automata.InputAlphabet;
+import com.compiler.learning.automata.LazyDfa;
+import com.compiler.learning.automata.Lexer;
+import com.compiler.learning.automata.LexerGenerator;
+import com.compiler.learning.automata.RegexParser;
+import com.compiler.learning.automata.StateLimitExceededException;
+import com.compiler.learning.automata.SubsetConstruction;
+import com.compiler.learning.automata.ThompsonConstruction;
+import com.compiler.learning.dto.AutomatonResponse;
+import com.compiler.learning.dto.LexerRequest;
+import com.compiler.learning.dto.LexerResponse;
+import com.compiler.learning.dto.TransitionTableSize;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Executable automata behind the lexical analysis section: the subsection pages describe
+ * the constructions, this service runs them on user input.
+ */
+@Service
+public class LexicalAutomataService {
+    
+    private static final String EPSILON = "ε";
+    
+    // Refinement steps are only listed for automata small enough to read
+    private static final int MAX_STATES_WITH_STEPS = 64;
+    
+    // Regular expression to ε-NFA (Thompson's construction)
+    public AutomatonResponse regexToNfa(String regex) {
+        EpsilonNfa nfa;
+        try {
+            nfa = ThompsonConstruction.build(regex);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid regular expression: " + e.getMessage());
+        }
+        
+        List<AutomatonResponse.Transition> transitions = new ArrayList<>(nfa.transitionCount());
+        Set<String> alphabet = new LinkedHashSet<>();
+        for (int s = 0; s < nfa.stateCount(); s++) {
+            if (nfa.out1(s) == EpsilonNfa.NONE) continue;
+            if (nfa.isEpsilonState(s)) {
+                transitions.add(new AutomatonResponse.Transition(s, EPSILON, nfa.out1(s)));
+                if (nfa.out2(s) != EpsilonNfa.NONE) {
+                    transitions.add(new AutomatonResponse.Transition(s, EPSILON, nfa.out2(s)));
+                }
+            } else {
+                String label = rangeLabel(nfa.lo(s), nfa.hi(s));
+                alphabet.add(label);
+                transitions.add(new AutomatonResponse.Transition(s, label, nfa.out1(s)));
+            }
+        }
+        
+        return new AutomatonResponse(
+            true,
+            "✅ ε-NFA with " + nfa.stateCount() + " states and " + transitions.size() + " transitions",
+            "ε-NFA",
+            nfa.stateCount(),
+            nfa.start(),
+            List.of(nfa.accept()),
+            new ArrayList<>(alphabet),
+            transitions
+        );
+    }
+    
+    // Regular expression to DFA (Thompson's construction, then subset construction)
+    public AutomatonResponse regexToDfa(String regex, Integer maxStates, boolean lazy, String input) {
+        EpsilonNfa nfa;
+        try {
+            nfa = ThompsonConstruction.build(regex);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid regular expression: " + e.getMessage());
+        }
+        
+        int cap = maxStates != null && maxStates > 0 ? maxStates : SubsetConstruction.DEFAULT_MAX_STATES;
+        SubsetConstruction dfa = new SubsetConstruction(nfa, cap);
+        Boolean accepted = null;
+        Dfa built = null;
+        try {
+            if (!lazy) built = dfa.build();
+            if (input != null) accepted = dfa.accepts(input);
+        } catch (StateLimitExceededException e) {
+            // Too many states to tabulate, but the input can still be answered by a lazy DFA with
+            // a bounded cache, which falls back to NFA simulation if the cache thrashes
+            AutomatonResponse response = createErrorResponse("The DFA needs more than " + e.getLimit()
+                + " states; run it on an input string or raise maxStates");
+            if (input != null) {
+                LazyDfa matcher = new LazyDfa(nfa, Math.min(cap, LazyDfa.DEFAULT_CACHE_LIMIT));
+                response.setInputAccepted(matcher.accepts(input));
+                response.setMessage(response.getMessage() + " (input matched by a lazy DFA"
+                    + (matcher.usedNfaFallback() ? " and NFA simulation)" : ")"));
+            }
+            return response;
+        }
+        
+        InputAlphabet alphabet = dfa.getAlphabet();
+        List<String> labels = symbolLabels(alphabet);
+        List<AutomatonResponse.Transition> transitions = new ArrayList<>();
+        List<Integer> acceptStates = new ArrayList<>();
+        Map<Integer, List<Integer>> stateSets = new LinkedHashMap<>();
+        int expanded = 0;
+        for (int s = 0; s < dfa.stateCount(); s++) {
+            if (dfa.isAccepting(s)) acceptStates.add(s);
+            stateSets.put(s, dfa.nfaStates(s).stream().boxed().toList());
+            if (!dfa.isExpanded(s)) continue;
+            expanded++;
+            for (int a = 0; a < alphabet.size(); a++) {
+                int target = dfa.next(s, a);
+                if (target >= 0) transitions.add(new AutomatonResponse.Transition(s, labels.get(a), target));
+            }
+        }
+        
+        String message = lazy
+            ? "✅ Lazy DFA: " + dfa.stateCount() + " states discovered, " + expanded + " expanded"
+            : "✅ DFA with " + dfa.stateCount() + " states and " + transitions.size() + " transitions";
+        // A lazy DFA reports the table it has filled in so far
+        CompactDfa table = CompactDfa.of(built != null ? built : dfa.discovered());
+        return new AutomatonResponse(true, message, "DFA", dfa.stateCount(), 0, acceptStates, labels,
+            transitions, stateSets, accepted, null, null, tableSize(table));
+    }
+    
+    // Regular expression to DFA directly from the syntax tree (followpos), no ε-NFA
+    public AutomatonResponse regexToDfaDirect(String regex, Integer maxStates, String input) {
+        int cap = maxStates != null && maxStates > 0 ? maxStates : SubsetConstruction.DEFAULT_MAX_STATES;
+        FollowposConstruction construction;
+        Dfa dfa;
+        try {
+            construction = new FollowposConstruction(RegexParser.parse(regex), cap);
+            dfa = construction.build();
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid regular expression: " + e.getMessage());
+        } catch (StateLimitExceededException e) {
+            return createErrorResponse("The DFA needs more than " + e.getLimit()
+                + " states; use the subset method to run it lazily or raise maxStates");
+        }
+        
+        List<String> labels = symbolLabels(dfa.getAlphabet());
+        List<AutomatonResponse.Transition> transitions = new ArrayList<>();
+        List<Integer> acceptStates = new ArrayList<>();
+        addTransitions(dfa, labels, transitions, acceptStates);
+        Map<Integer, List<Integer>> stateSets = new LinkedHashMap<>();
+        for (int s = 0; s < dfa.stateCount(); s++) {
+            stateSets.put(s, construction.positions(s).stream().boxed().toList());
+        }
+        
+        return new AutomatonResponse(true,
+            "✅ DFA with " + dfa.stateCount() + " states from " + construction.markerPosition(0)
+                + " positions (end marker #: position " + construction.markerPosition(0) + ")",
+            "DFA", dfa.stateCount(), 0, acceptStates, labels, transitions, stateSets,
+            input == null ? null : dfa.accepts(input), null, null, tableSize(CompactDfa.of(dfa)));
+    }
+    
+    // Regular expression to minimal DFA (subset construction, then partition refinement)
+    public AutomatonResponse minimizeDfa(String regex, String method, Integer maxStates) {
+        boolean tableFilling = "table-filling".equalsIgnoreCase(method) || "table".equalsIgnoreCase(method);
+        if (method != null && !tableFilling && !"hopcroft".equalsIgnoreCase(method)) {
+            return createErrorResponse("Unknown minimization method: " + method + " (use hopcroft or table-filling)");
+        }
+        
+        Dfa dfa;
+        DfaMinimizer.Result result;
+        try {
+            int cap = maxStates != null && maxStates > 0 ? maxStates : SubsetConstruction.DEFAULT_MAX_STATES;
+            dfa = SubsetConstruction.build(ThompsonConstruction.build(regex), cap);
+            boolean recordSteps = dfa.stateCount() <= MAX_STATES_WITH_STEPS;
+            result = tableFilling ? DfaMinimizer.tableFilling(dfa, recordSteps) : DfaMinimizer.hopcroft(dfa, recordSteps);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Invalid regular expression: " + e.getMessage());
+        } catch (StateLimitExceededException e) {
+            return createErrorResponse("The automaton has more than " + e.getLimit() + " states"
+                + (tableFilling ? "; use hopcroft for large DFAs" : "; raise maxStates"));
+        }
+        
+        Dfa minimized = result.getDfa();
+        List<String> labels = symbolLabels(minimized.getAlphabet());
+        List<AutomatonResponse.Transition> transitions = new ArrayList<>();
+        List<Integer> acceptStates = new ArrayList<>();
+        addTransitions(minimized, labels, transitions, acceptStates);
+        Map<Integer, List<Integer>> merged = new TreeMap<>();
+        int[] stateMap = result.getStateMap();
+        for (int s = 0; s < stateMap.length; s++) {
+            if (stateMap[s] >= 0) merged.computeIfAbsent(stateMap[s], k -> new ArrayList<>()).add(s);
+        }
+        
+        List<String> steps = new ArrayList<>();
+        for (DfaMinimizer.Step step : result.getSteps()) {
+            String partition = Arrays.stream(step.getBlocks())
+                .map(block -> Arrays.stream(block).mapToObj(String::valueOf).collect(Collectors.joining(", ", "{", "}")))
+                .collect(Collectors.joining(" "));
+            if (steps.isEmpty()) {
+                steps.add("Initial (final / non-final): " + partition);
+            } else if (tableFilling) {
+                steps.add("Pass " + steps.size() + ": " + partition);
+            } else {
+                steps.add("Split on " + labels.get(step.getSymbol()) + ": " + partition);
+            }
+        }
+        
+        AutomatonResponse response = new AutomatonResponse(
+            true,
+            "✅ Minimized " + dfa.stateCount() + "-state DFA to " + minimized.stateCount() + " states ("
+                + (tableFilling ? "table filling" : "Hopcroft") + ")",
+            "Minimized DFA",
+            minimized.stateCount(),
+            0,
+            acceptStates,
+            labels,
+            transitions
+        );
+        response.setMergedStates(merged);
+        response.setSteps(dfa.stateCount() <= MAX_STATES_WITH_STEPS ? steps : null);
+        response.setTableSize(tableSize(CompactDfa.of(minimized)));
+        return response;
+    }
+    
+    // Token rules to a minimized lexer DFA, then maximal-munch scanning of the input
+    public LexerResponse generateLexer(List<LexerRequest.TokenRule> rules, String input) {
+        if (rules == null || rules.isEmpty()) {
+            return new LexerResponse(false, "❌ No token rules given", 0, new ArrayList<>());
+        }
+        Lexer lexer;
+        try {
+            LexerGenerator generator = new LexerGenerator();
+            for (LexerRequest.TokenRule rule : rules) {
+                generator.rule(rule.getName(), rule.getRegex(), rule.isSkip());
+            }
+            lexer = generator.build();
+        } catch (IllegalArgumentException e) {
+            return new LexerResponse(false, "❌ " + e.getMessage(), 0, new ArrayList<>());
+        } catch (StateLimitExceededException e) {
+            return new LexerResponse(false, "❌ The lexer DFA needs more than " + e.getLimit() + " states",
+                0, new ArrayList<>());
+        }
+        
+        String text = input == null ? "" : input;
+        List<LexerResponse.Token> tokens = new ArrayList<>();
+        int[] errors = {0};
+        lexer.scan(text, (type, start, end) -> {
+            if (type == Lexer.ERROR) errors[0]++;
+            tokens.add(new LexerResponse.Token(lexer.ruleName(type), start, end, text.substring(start, end)));
+        });
+        String message = errors[0] == 0
+            ? "✅ " + tokens.size() + " tokens"
+            : "⚠️ " + tokens.size() + " tokens, " + errors[0] + " unmatched input span(s)";
+        return new LexerResponse(errors[0] == 0, message, lexer.getDfa().stateCount(), tokens,
+            tableSize(lexer.getTable()));
+    }
+    
+    private static TransitionTableSize tableSize(CompactDfa table) {
+        return new TransitionTableSize(table.stateCount(), table.symbolCount(), table.classCount(),
+            table.rawTableBytes(), table.intervalTableBytes(), table.tableBytes());
+    }
+    
+    private static List<String> symbolLabels(InputAlphabet alphabet) {
+        List<String> labels = new ArrayList<>(alphabet.size());
+        for (int a = 0; a < alphabet.size(); a++) {
+            labels.add(rangeLabel(alphabet.lo(a), alphabet.hi(a)));
+        }
+        return labels;
+    }
+    
+    private static void addTransitions(Dfa dfa, List<String> labels,
+                                       List<AutomatonResponse.Transition> transitions, List<Integer> acceptStates) {
+        for (int s = 0; s < dfa.stateCount(); s++) {
+            if (dfa.isAccepting(s)) acceptStates.add(s);
+            for (int a = 0; a < dfa.symbolCount(); a++) {
+                int target = dfa.next(s, a);
+                if (target >= 0) transitions.add(new AutomatonResponse.Transition(s, labels.get(a), target));
+            }
+        }
+    }
+    
+    /** Display form of a character range: "a", "a-z", with control characters escaped. */
+    static String rangeLabel(int lo, int hi) {
+        return lo == hi ? charLabel(lo) : charLabel(lo) + "-" + charLabel(hi);
+    }
+    
+    private static String charLabel(int c) {
+        return switch (c) {
+            case '\n' -> "\\n";
+            case '\t' -> "\\t";
+            case '\r' -> "\\r";
+            case '\f' -> "\\f";
+            case ' ' -> "' '";
+            default -> c < 0x20 || c == 0xFFFF ? String.format("\\u%04x", c) : String.valueOf((char) c);
+        };
+    }
+    
+    private AutomatonResponse createErrorResponse(String message) {
+        return new AutomatonResponse(
+            false,
+            "❌ " + message,
+            null,
+            0,
+            -1,
+            new ArrayList<>(),
+            new ArrayList<>(),
+            new ArrayList<>()
+        );
+    }
+}
@@ -1,6 +1,11 @@
 // src/main/java/com/compiler/learning/service/LexicalSubsectionService.java
 package com.compiler.learning.service;
 
+import com.compiler.learning.automata.Dfa;
+import com.compiler.learning.automata.DfaMinimizer;
+import com.compiler.learning.automata.EpsilonNfa;
+import com.compiler.learning.automata.SubsetConstruction;
+import com.compiler.learning.automata.ThompsonConstruction;
 import com.compiler.learning.dto.Subsection;
 import com.compiler.learning.dto.SubsectionContent;
 import org.springframework.stereotype.Service;
@@ -564,7 +569,7 @@ State 7 →ε→ State 8 (connect (a|b)* to c)</pre>
     
     private Subsection createSubsection14() {
         return new Subsection("1.4", "DFA Minimization (Partition Refinement)",
-            new SubsectionContent(getSubsection14Concept(), "", ""));
+            new SubsectionContent(getSubsection14Concept(), getSubsection14Example(), ""));
     }
     
     private Subsection createSubsection15() {
@@ -588,19 +593,29 @@ State 7 →ε→ State 8 (connect (a|b)* to c)</pre>
             """;
     }
     
+    // Table generated by running the subset construction on the Thompson ε-NFA of (a|b)*abb
     private String getSubsection13Example() {
+        EpsilonNfa nfa = ThompsonConstruction.build("(a|b)*abb");
+        SubsetConstruction dfa = new SubsetConstruction(nfa);
+        dfa.build();
+        StringBuilder rows = new StringBuilder();
+        for (int s = 0; s < dfa.stateCount(); s++) {
+            rows.append("  <tr><td>").append(s == 0 ? "→" : "").append(dfa.isAccepting(s) ? "*" : "")
+                .append((char) ('A' + s)).append("</td><td>").append(dfa.nfaStates(s).toString()).append("</td>");
+            for (int a = 0; a < dfa.getAlphabet().size(); a++) {
+                int target = dfa.next(s, a);
+                rows.append("<td>").append(target < 0 ? "-" : String.valueOf((char) ('A' + target))).append("</td>");
+            }
+            rows.append("</tr>\n");
+        }
         return """
             <h3>📝 Problem: Convert NFA to DFA</h3>
-            <p><strong>Given NFA from 1.2:</strong> A→B,C,D | B→B,C,D | C→B,C,D | D (final)</p>
-            <p><strong>Result:</strong> Same 4-state DFA (already deterministic!)</p>
-            <table border="1" style="width:100%;margin:15px 0;">
-              <tr style="background:#f5f5f5;"><th>State</th><th>a</th><th>b</th><th>c</th></tr>
-              <tr><td>→A</td><td>B</td><td>C</td><td>D</td></tr>
-              <tr><td>B</td><td>B</td><td>C</td><td>D</td></tr>
-              <tr><td>C</td><td>B</td><td>C</td><td>D</td></tr>
-              <tr><td>*D</td><td>-</td><td>-</td><td>-</td></tr>
-            </table>
-            """;
+            <p><strong>Given:</strong> the %d-state ε-NFA of <code>(a|b)*abb</code> from Thompson's construction (start %d, final %d)</p>
+            <p><strong>Result:</strong> %d-state DFA; each DFA state is the ε-closure of a set of NFA states</p>
+            <table border="1" style="width:100%%;margin:15px 0;">
+              <tr style="background:#f5f5f5;"><th>State</th><th>NFA states</th><th>a</th><th>b</th></tr>
+            %s</table>
+            """.formatted(nfa.stateCount(), nfa.start(), nfa.accept(), dfa.stateCount(), rows);
     }
     
     private String getSubsection13DoubtClearer() {
@@ -632,6 +647,47 @@ State 7 →ε→ State 8 (connect (a|b)* to c)</pre>
             """;
     }
     
+    // Minimizes the DFA generated for subsection 1.3, showing each table-filling pass
+    private String getSubsection14Example() {
+        Dfa dfa = SubsetConstruction.build(ThompsonConstruction.build("(a|b)*abb"), SubsetConstruction.DEFAULT_MAX_STATES);
+        DfaMinimizer.Result result = DfaMinimizer.tableFilling(dfa, true);
+        StringBuilder passes = new StringBuilder();
+        for (int i = 0; i < result.getSteps().size(); i++) {
+            StringBuilder partition = new StringBuilder();
+            for (int[] block : result.getSteps().get(i).getBlocks()) {
+                partition.append('{');
+                for (int k = 0; k < block.length; k++) {
+                    partition.append(k > 0 ? ", " : "").append((char) ('A' + block[k]));
+                }
+                partition.append("} ");
+            }
+            passes.append("  <li><strong>").append(i == 0 ? "Initial" : "Pass " + i).append(":</strong> ")
+                .append(partition.toString().trim()).append("</li>\n");
+        }
+        Dfa minimized = result.getDfa();
+        StringBuilder rows = new StringBuilder();
+        for (int s = 0; s < minimized.stateCount(); s++) {
+            rows.append("  <tr><td>").append(s == 0 ? "→" : "").append(minimized.isAccepting(s) ? "*" : "")
+                .append(s).append("</td>");
+            for (int a = 0; a < minimized.symbolCount(); a++) {
+                int target = minimized.next(s, a);
+                rows.append("<td>").append(target < 0 ? "-" : String.valueOf(target)).append("</td>");
+            }
+            rows.append("</tr>\n");
+        }
+        return """
+            <h3>📝 Problem: Minimize the DFA from 1.3</h3>
+            <p><strong>Given:</strong> the %d-state DFA A-%c for <code>(a|b)*abb</code></p>
+            <ol style="line-height: 2;">
+            %s</ol>
+            <p><strong>Result:</strong> %d states</p>
+            <table border="1" style="width:100%%;margin:15px 0;">
+              <tr style="background:#f5f5f5;"><th>State</th><th>a</th><th>b</th></tr>
+            %s</table>
+            """.formatted(dfa.stateCount(), (char) ('A' + dfa.stateCount() - 1), passes,
+                minimized.stateCount(), rows);
+    }
+    
     private String getSubsection15Concept() {
         return """
             <h3>🔄 Miscellaneous: Composite Conversions</h3>
@@ -3,14 +3,28 @@ package com.compiler.learning.service;
 import com.compiler.learning.dto.*;
 import com.compiler.learning.entity.SemanticProblem;
 import com.compiler.learning.repository.SemanticProblemRepository;
+import com.compiler.learning.semantic.AttributeEvaluator;
+import com.compiler.learning.semantic.Diagnostic;
+import com.compiler.learning.semantic.PhaseClock;
+import com.compiler.learning.semantic.ScopeBuilder;
+import com.compiler.learning.semantic.SdtEvaluator;
+import com.compiler.learning.semantic.SourceScanner;
+import com.compiler.learning.semantic.SymbolTable;
+import com.compiler.learning.semantic.TacGenerator;
+import com.compiler.learning.semantic.TacOptimizer;
+import com.compiler.learning.semantic.ThreeAddressCode;
+import com.compiler.learning.semantic.Type;
+import com.compiler.learning.semantic.TypeChecker;
+import com.compiler.learning.semantic.TypedAst;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +32,35 @@ public class SemanticAnalysisService {
 
     private final SemanticProblemRepository problemRepository;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    // Expected answers by problem ID, parsed and normalized once instead of per submission.
+    // Practice and SDT grading share the solution steps; the expected output is read per topic.
+    private final ExpectedAnswerCache<List<PracticeStep>> practiceSteps = new ExpectedAnswerCache<>(this::parsePracticeSteps);
+    private final ExpectedAnswerCache<List<ExpectedType>> expectedTypes = new ExpectedAnswerCache<>(this::parseExpectedTypes);
+    private final ExpectedAnswerCache<List<ExpectedEntry>> expectedTables = new ExpectedAnswerCache<>(this::parseExpectedEntries);
+
+    // Expression trees are drawn and listed up to this many nodes
+    private static final int MAX_TREE_NODES = 200;
+    // SDT reductions listed as steps; evaluation itself is not capped
+    private static final int MAX_SDT_STEPS = 200;
+    // Attribute instances listed in evaluation order; the whole tree is still evaluated
+    private static final int MAX_ATTRIBUTE_STEPS = 200;
+    // Three-address code lines shown; larger programs are still translated in full
+    private static final int MAX_TAC_LINES = 500;
+    // Symbols and coercions listed by analyzeCode; the counts cover the whole program
+    private static final int MAX_ANALYSIS_ROWS = 500;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadExpectedAnswers() {
+        for (SemanticProblem problem : problemRepository.findAll()) {
+            if (problem.getSolutionSteps() != null) practiceSteps.preload(problem.getId(), problem.getSolutionSteps());
+            if (problem.getExpectedOutput() == null) continue;
+            if ("type-checking".equals(problem.getTopic())) {
+                expectedTypes.preload(problem.getId(), problem.getExpectedOutput());
+            } else if ("symbol-table".equals(problem.getTopic())) {
+                expectedTables.preload(problem.getId(), problem.getExpectedOutput());
+            }
+        }
+    }
 
     // =====================================================
     // THEORY
@@ -165,21 +208,18 @@ public class SemanticAnalysisService {
         SemanticProblem problem = getProblem(submission.getTopic(), submission.getProblemNumber());
 
         try {
-            Map<String, String> expectedTypes = objectMapper.readValue(
-                    problem.getExpectedOutput(),
-                    new TypeReference<Map<String, String>>() {}
-            );
+            List<ExpectedType> expected = expectedTypes.get(problem.getId(), problem.getExpectedOutput());
 
             Map<String, TypeCheckingValidationResponse.TypeValidation> typeResults = new HashMap<>();
             int correctTypes = 0;
-            int totalTypes = expectedTypes.size();
+            int totalTypes = expected.size();
 
-            for (Map.Entry<String, String> entry : expectedTypes.entrySet()) {
-                String expression = entry.getKey();
-                String expectedType = entry.getValue();
+            for (ExpectedType entry : expected) {
+                String expression = entry.expression;
+                String expectedType = entry.type;
                 String userType = submission.getUserTypes().getOrDefault(expression, "").trim();
 
-                boolean isCorrect = normalizeType(userType).equals(normalizeType(expectedType));
+                boolean isCorrect = normalizeType(userType).equals(entry.normalized);
                 if (isCorrect) {
                     correctTypes++;
                 }
@@ -217,34 +257,30 @@ public class SemanticAnalysisService {
         SemanticProblem problem = getProblem(submission.getTopic(), submission.getProblemNumber());
 
         try {
-            List<Map<String, String>> expectedTable = objectMapper.readValue(
-                    problem.getExpectedOutput(),
-                    new TypeReference<List<Map<String, String>>>() {}
-            );
+            List<ExpectedEntry> expectedTable = expectedTables.get(problem.getId(), problem.getExpectedOutput());
 
             List<SymbolTableValidationResponse.EntryValidation> entryResults = new ArrayList<>();
             int correctEntries = 0;
             int totalEntries = expectedTable.size();
 
             for (int i = 0; i < totalEntries; i++) {
-                Map<String, String> expected = expectedTable.get(i);
+                ExpectedEntry expected = expectedTable.get(i);
                 SymbolTableSubmission.SymbolTableEntry userEntry =
                         i < submission.getUserTable().size() ? submission.getUserTable().get(i) : null;
 
                 if (userEntry == null) {
                     entryResults.add(new SymbolTableValidationResponse.EntryValidation(
-                            expected.get("name"), false, false, false, false,
-                            expected.get("name"), expected.get("type"),
-                            expected.get("scope"), expected.get("offset"),
+                            expected.name, false, false, false, false,
+                            expected.name, expected.type, expected.scope, expected.offset,
                             "This entry is missing from your symbol table"
                     ));
                     continue;
                 }
 
-                boolean nameCorrect = normalize(userEntry.getName()).equals(normalize(expected.get("name")));
-                boolean typeCorrect = normalize(userEntry.getType()).equals(normalize(expected.get("type")));
-                boolean scopeCorrect = normalize(userEntry.getScope()).equals(normalize(expected.get("scope")));
-                boolean offsetCorrect = normalize(userEntry.getOffset()).equals(normalize(expected.get("offset")));
+                boolean nameCorrect = normalize(userEntry.getName()).equals(expected.normalizedName);
+                boolean typeCorrect = normalize(userEntry.getType()).equals(expected.normalizedType);
+                boolean scopeCorrect = normalize(userEntry.getScope()).equals(expected.normalizedScope);
+                boolean offsetCorrect = normalize(userEntry.getOffset()).equals(expected.normalizedOffset);
 
                 boolean allCorrect = nameCorrect && typeCorrect && scopeCorrect && offsetCorrect;
                 if (allCorrect) {
@@ -255,7 +291,7 @@ public class SemanticAnalysisService {
 
                 entryResults.add(new SymbolTableValidationResponse.EntryValidation(
                         userEntry.getName(), nameCorrect, typeCorrect, scopeCorrect, offsetCorrect,
-                        expected.get("name"), expected.get("type"), expected.get("scope"), expected.get("offset"),
+                        expected.name, expected.type, expected.scope, expected.offset,
                         hint
                 ));
             }
@@ -284,24 +320,21 @@ public class SemanticAnalysisService {
         SemanticProblem problem = getProblem(submission.getTopic(), submission.getProblemNumber());
 
         try {
-            List<Map<String, String>> expectedSteps = objectMapper.readValue(
-                    problem.getSolutionSteps(),
-                    new TypeReference<List<Map<String, String>>>() {}
-            );
+            List<PracticeStep> expectedSteps = practiceSteps.get(problem.getId(), problem.getSolutionSteps());
 
             List<SDTValidationResponse.SDTStepValidation> stepResults = new ArrayList<>();
             int correctSteps = 0;
             int totalSteps = expectedSteps.size();
 
             for (int i = 0; i < totalSteps; i++) {
-                Map<String, String> expected = expectedSteps.get(i);
+                PracticeStep expected = expectedSteps.get(i);
                 SDTSubmission.SDTStep userStep =
                         i < submission.getSteps().size() ? submission.getSteps().get(i) : null;
 
                 if (userStep == null) {
                     stepResults.add(new SDTValidationResponse.SDTStepValidation(
                             i + 1, false, false,
-                            expected.get("production"), expected.get("value"),
+                            expected.production, expected.value,
                             "", "",
                             "This step is missing"
                     ));
@@ -309,9 +342,9 @@ public class SemanticAnalysisService {
                 }
 
                 boolean productionCorrect = normalizeProduction(userStep.getProduction())
-                        .equals(normalizeProduction(expected.get("production")));
+                        .equals(expected.normalizedProduction);
                 boolean valueCorrect = normalize(userStep.getAttributeValue())
-                        .equals(normalize(expected.get("value")));
+                        .equals(normalize(expected.value));
 
                 if (productionCorrect && valueCorrect) {
                     correctSteps++;
@@ -323,7 +356,7 @@ public class SemanticAnalysisService {
 
                 stepResults.add(new SDTValidationResponse.SDTStepValidation(
                         i + 1, productionCorrect, valueCorrect,
-                        expected.get("production"), expected.get("value"),
+                        expected.production, expected.value,
                         userStep.getProduction(), userStep.getAttributeValue(),
                         hint
                 ));
@@ -346,54 +379,144 @@ public class SemanticAnalysisService {
     }
 
     // =====================================================
-    // SEMANTIC ANALYZER (Mock Implementation)
+    // SEMANTIC ANALYZER (compiler front end)
     // =====================================================
 
+    /**
+     * Runs the whole front end on a program: lexing, parsing with type checking and symbol
+     * table construction, three-address code generation and optimization. The first three
+     * run interleaved a statement at a time, so only the current statement's tokens and tree
+     * are in memory; the response reports each phase's time, allocation and counts.
+     */
     public SemanticAnalysisResponse analyzeCode(SemanticAnalysisRequest request) {
-        // This is a mock implementation
-        // In production, you would implement actual semantic analysis here
-
-        List<SemanticAnalysisResponse.SymbolTableEntry> symbolTable = new ArrayList<>();
-        List<SemanticAnalysisResponse.TypeInfo> types = new ArrayList<>();
+        String source = request.getCode() == null ? "" : request.getCode();
         List<SemanticAnalysisResponse.SemanticError> errors = new ArrayList<>();
         List<SemanticAnalysisResponse.SemanticWarning> warnings = new ArrayList<>();
 
-        // Mock symbol table entries
-        symbolTable.add(new SemanticAnalysisResponse.SymbolTableEntry("x", "int", "global", "0"));
-        symbolTable.add(new SemanticAnalysisResponse.SymbolTableEntry("y", "float", "global", "4"));
+        long started = System.nanoTime();
+        PhaseClock clock = new PhaseClock();
+        clock.switchTo(PhaseClock.CHECK);
+        TacGenerator generator = new TacGenerator().generate(source, clock);
+        clock.switchTo(PhaseClock.OPTIMIZE);
+        TacOptimizer optimizer = new TacOptimizer();
+        ThreeAddressCode code = generator.getCode();
+        ThreeAddressCode optimized = optimizer.optimize(code);
+        clock.switchTo(-1);
+        long elapsed = System.nanoTime() - started;
+
+        TypeChecker checker = generator.getChecker();
+        SourceScanner.TokenStream tokens = checker.getTokens();
+        TypedAst ast = checker.getAst();
+        SymbolTable table = checker.getSymbols();
+
+        List<SymbolTable.Symbol> symbols = table.allSymbols();
+        List<SemanticAnalysisResponse.SymbolTableEntry> symbolTable = new ArrayList<>();
+        for (int i = 0; i < Math.min(symbols.size(), MAX_ANALYSIS_ROWS); i++) {
+            SymbolTable.Symbol symbol = symbols.get(i);
+            symbolTable.add(new SemanticAnalysisResponse.SymbolTableEntry(symbol.getName(),
+                    symbol.getType().toString(), symbol.getScope().getName(), String.valueOf(symbol.getOffset())));
+        }
+        if (symbols.size() > MAX_ANALYSIS_ROWS) {
+            warnings.add(new SemanticAnalysisResponse.SemanticWarning(0,
+                    "Symbol table lists the first " + MAX_ANALYSIS_ROWS + " of " + symbols.size() + " symbols"));
+        }
 
-        // Mock type information
-        types.add(new SemanticAnalysisResponse.TypeInfo("x", "int", null));
-        types.add(new SemanticAnalysisResponse.TypeInfo("x + 5.5", "float", "int → float"));
+        List<SemanticAnalysisResponse.TypeInfo> types = new ArrayList<>();
+        for (TacGenerator.Coercion coercion : generator.getCoercions()) {
+            types.add(new SemanticAnalysisResponse.TypeInfo(coercion.getExpression(),
+                    coercion.getTo().toString(), coercion.getFrom() + " → " + coercion.getTo()));
+        }
+        if (generator.getConversions() > generator.getCoercions().size()) {
+            warnings.add(new SemanticAnalysisResponse.SemanticWarning(0, "Types list the first "
+                    + generator.getCoercions().size() + " of " + generator.getConversions() + " implicit conversions"));
+        }
 
-        // Mock generated code
-        String generatedCode = "t1 = int_to_float(x)\nt2 = t1 + 5.5\ny = t2";
+        for (Diagnostic diagnostic : generator.getDiagnostics()) {
+            errors.add(new SemanticAnalysisResponse.SemanticError(diagnostic.getLine(), diagnostic.getMessage()));
+        }
+        if (checker.suppressedDiagnostics() > 0) {
+            warnings.add(new SemanticAnalysisResponse.SemanticWarning(0,
+                    checker.suppressedDiagnostics() + " more errors were found but not listed"));
+        }
 
-        String details = String.format(
-                "Analysis Type: %s\nLines Analyzed: %d\nVariables Declared: %d\n" +
-                        "Type Conversions: 1\n\nNote: This is a mock result for demonstration.",
-                request.getAnalysisType(),
-                request.getCode().split("\n").length,
-                symbolTable.size()
+        Map<String, Long> lexCounts = new LinkedHashMap<>();
+        lexCounts.put("tokens", (long) tokens.scanned());
+        lexCounts.put("peakTokensHeld", (long) tokens.peakWindow());
+        Map<String, Long> checkCounts = new LinkedHashMap<>();
+        checkCounts.put("statements", (long) generator.getStatements());
+        checkCounts.put("astNodes", (long) ast.size());
+        checkCounts.put("peakAstNodesHeld", (long) ast.peak());
+        checkCounts.put("symbols", (long) symbols.size());
+        checkCounts.put("scopes", (long) table.scopes().size());
+        checkCounts.put("errors", (long) (errors.size() + checker.suppressedDiagnostics()));
+        Map<String, Long> irCounts = new LinkedHashMap<>();
+        irCounts.put("instructions", (long) code.size());
+        irCounts.put("temporaries", (long) code.temporaryCount());
+        irCounts.put("conversions", (long) generator.getConversions());
+        Map<String, Long> optimizeCounts = new LinkedHashMap<>();
+        optimizeCounts.put("instructions", (long) optimized.size());
+        optimizeCounts.put("folded", (long) optimizer.getFolded());
+        optimizeCounts.put("reused", (long) optimizer.getReused());
+        optimizeCounts.put("branches", (long) optimizer.getBranches());
+        optimizeCounts.put("unreachable", (long) optimizer.getUnreachable());
+        optimizeCounts.put("dead", (long) optimizer.getDead());
+        List<SemanticAnalysisResponse.PhaseStats> phases = List.of(
+                phaseStats("lexer", clock, PhaseClock.LEX, lexCounts),
+                phaseStats("parser + type checker", clock, PhaseClock.CHECK, checkCounts),
+                phaseStats("IR generation", clock, PhaseClock.IR, irCounts),
+                phaseStats("optimizer", clock, PhaseClock.OPTIMIZE, optimizeCounts)
         );
 
+        int lines = tokens.line(source.length());
+        StringBuilder details = new StringBuilder(String.format(
+                "Analysis Type: %s\nLines Analyzed: %d\nTokens: %d\nStatements: %d\nVariables Declared: %d\n" +
+                        "Instructions: %d (%d after optimization)\nTotal: %.2f ms",
+                request.getAnalysisType(),
+                lines,
+                tokens.scanned(),
+                generator.getStatements(),
+                symbols.size(),
+                code.size(),
+                optimized.size(),
+                millis(elapsed)
+        ));
+        for (SemanticAnalysisResponse.PhaseStats phase : phases) {
+            details.append(String.format("\n  %s: %.2f ms", phase.getPhase(), phase.getMillis()));
+            if (phase.getAllocatedBytes() >= 0) {
+                details.append(String.format(", %.1f MB allocated", phase.getAllocatedBytes() / 1048576.0));
+            }
+        }
+
         return new SemanticAnalysisResponse(
-                true,
-                "Semantic analysis completed successfully",
+                errors.isEmpty(),
+                errors.isEmpty() ? "Semantic analysis completed successfully"
+                        : "Semantic analysis found " + errors.size() + " error(s)",
                 symbolTable,
                 types,
-                generatedCode,
+                optimized.render(MAX_TAC_LINES),
                 errors,
                 warnings,
-                details
+                details.toString(),
+                phases,
+                millis(elapsed)
         );
     }
 
+    private static SemanticAnalysisResponse.PhaseStats phaseStats(String name, PhaseClock clock, int phase,
+                                                                  Map<String, Long> counts) {
+        return new SemanticAnalysisResponse.PhaseStats(
+                name, millis(clock.nanos(phase)), clock.allocatedBytes(phase), counts);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+
     // =====================================================
     // HELPER METHODS
     // =====================================================
 
-    private String normalizeType(String type) {
+    private static String normalizeType(String type) {
         if (type == null) return "";
         return type.trim().toLowerCase()
                 .replace("integer", "int")
@@ -401,7 +524,7 @@ public class SemanticAnalysisService {
                 .replace("boolean", "bool");
     }
 
-    private String normalizeProduction(String production) {
+    private static String normalizeProduction(String production) {
         if (production == null) return "";
         return production.trim()
                 .replace("->", "→")
@@ -410,7 +533,7 @@ public class SemanticAnalysisService {
                 .toLowerCase();
     }
 
-    private String normalize(String str) {
+    private static String normalize(String str) {
         if (str == null) return "";
         return str.trim().toLowerCase();
     }
@@ -485,10 +608,7 @@ public class SemanticAnalysisService {
                 .orElseThrow(() -> new RuntimeException("Problem not found"));
 
         try {
-            List<Map<String, String>> steps = objectMapper.readValue(
-                    problem.getSolutionSteps(),
-                    new TypeReference<List<Map<String, String>>>() {}
-            );
+            List<PracticeStep> steps = practiceSteps.get(problem.getId(), problem.getSolutionSteps());
 
             if (request.getStepNumber() >= steps.size()) {
                 return new PracticeStepValidationResponse(
@@ -499,12 +619,11 @@ public class SemanticAnalysisService {
                 );
             }
 
-            Map<String, String> step = steps.get(request.getStepNumber());
-            String expectedAnswer = step.getOrDefault("value", step.getOrDefault("answer", ""));
+            PracticeStep step = steps.get(request.getStepNumber());
             String userAnswer = request.getUserAnswer().trim();
 
             // Intelligent comparison
-            double similarity = calculateSimilarity(userAnswer, expectedAnswer);
+            double similarity = calculateSimilarity(userAnswer, step);
             boolean correct = similarity >= 0.85;
 
             String feedback = correct ?
@@ -515,13 +634,13 @@ public class SemanticAnalysisService {
 
             String hint = correct ?
                     "Great job! Move to the next step." :
-                    step.getOrDefault("hint", "Review the theory section for this concept.");
+                    step.hint != null ? step.hint : "Review the theory section for this concept.";
 
             return new PracticeStepValidationResponse(
                     correct,
                     feedback,
                     hint,
-                    expectedAnswer
+                    step.answer
             );
 
         } catch (Exception e) {
@@ -534,23 +653,121 @@ public class SemanticAnalysisService {
         }
     }
 
-    private double calculateSimilarity(String s1, String s2) {
-        String norm1 = normalize(s1);
-        String norm2 = normalize(s2);
+    private double calculateSimilarity(String answer, PracticeStep expected) {
+        String normalized = normalize(answer);
 
-        if (norm1.equals(norm2)) return 1.0;
+        if (normalized.equals(expected.normalized)) return 1.0;
 
         // Simple similarity based on common tokens
-        Set<String> tokens1 = new HashSet<>(Arrays.asList(norm1.split("\\s+")));
-        Set<String> tokens2 = new HashSet<>(Arrays.asList(norm2.split("\\s+")));
+        Set<String> tokens = new HashSet<>(Arrays.asList(normalized.split("\\s+")));
+        int common = 0;
+        for (String token : tokens) {
+            if (expected.tokens.contains(token)) common++;
+        }
+        int union = tokens.size() + expected.tokens.size() - common;
+
+        return union == 0 ? 0.0 : (double) common / union;
+    }
+
+    private List<PracticeStep> parsePracticeSteps(String json) throws JsonProcessingException {
+        List<Map<String, String>> steps = objectMapper.readValue(
+                json,
+                new TypeReference<List<Map<String, String>>>() {}
+        );
+        List<PracticeStep> result = new ArrayList<>(steps.size());
+        for (Map<String, String> step : steps) {
+            String answer = step.getOrDefault("value", step.getOrDefault("answer", ""));
+            String normalized = normalize(answer);
+            result.add(new PracticeStep(answer, step.get("hint"), normalized,
+                    Set.copyOf(Arrays.asList(normalized.split("\\s+"))),
+                    step.get("production"), step.get("value"), normalizeProduction(step.get("production"))));
+        }
+        return List.copyOf(result);
+    }
 
-        Set<String> intersection = new HashSet<>(tokens1);
-        intersection.retainAll(tokens2);
+    private List<ExpectedType> parseExpectedTypes(String json) throws JsonProcessingException {
+        Map<String, String> types = objectMapper.readValue(
+                json,
+                new TypeReference<Map<String, String>>() {}
+        );
+        List<ExpectedType> result = new ArrayList<>(types.size());
+        for (Map.Entry<String, String> entry : types.entrySet()) {
+            result.add(new ExpectedType(entry.getKey(), entry.getValue(), normalizeType(entry.getValue())));
+        }
+        return List.copyOf(result);
+    }
 
-        Set<String> union = new HashSet<>(tokens1);
-        union.addAll(tokens2);
+    private List<ExpectedEntry> parseExpectedEntries(String json) throws JsonProcessingException {
+        List<Map<String, String>> entries = objectMapper.readValue(
+                json,
+                new TypeReference<List<Map<String, String>>>() {}
+        );
+        List<ExpectedEntry> result = new ArrayList<>(entries.size());
+        for (Map<String, String> entry : entries) {
+            result.add(new ExpectedEntry(entry.get("name"), entry.get("type"), entry.get("scope"), entry.get("offset")));
+        }
+        return List.copyOf(result);
+    }
 
-        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+    /**
+     * A solution step's expected answer, normalized and split into tokens ahead of grading.
+     * SDT grading reads the production and value columns of the same steps.
+     */
+    private static final class PracticeStep {
+        final String answer;
+        final String hint;          // null when the step has none
+        final String normalized;
+        final Set<String> tokens;
+        final String production;    // SDT columns, null when absent
+        final String value;
+        final String normalizedProduction;
+
+        PracticeStep(String answer, String hint, String normalized, Set<String> tokens,
+                     String production, String value, String normalizedProduction) {
+            this.answer = answer;
+            this.hint = hint;
+            this.normalized = normalized;
+            this.tokens = tokens;
+            this.production = production;
+            this.value = value;
+            this.normalizedProduction = normalizedProduction;
+        }
+    }
+
+    /** An expression's expected type for type-checking problems, in the order the JSON lists them. */
+    private static final class ExpectedType {
+        final String expression;
+        final String type;
+        final String normalized;
+
+        ExpectedType(String expression, String type, String normalized) {
+            this.expression = expression;
+            this.type = type;
+            this.normalized = normalized;
+        }
+    }
+
+    /** An expected symbol table row with each field normalized for comparison. */
+    private static final class ExpectedEntry {
+        final String name;
+        final String type;
+        final String scope;
+        final String offset;
+        final String normalizedName;
+        final String normalizedType;
+        final String normalizedScope;
+        final String normalizedOffset;
+
+        ExpectedEntry(String name, String type, String scope, String offset) {
+            this.name = name;
+            this.type = type;
+            this.scope = scope;
+            this.offset = offset;
+            this.normalizedName = normalize(name);
+            this.normalizedType = normalize(type);
+            this.normalizedScope = normalize(scope);
+            this.normalizedOffset = normalize(offset);
+        }
     }
 
 // =====================================================
@@ -628,26 +845,39 @@ public class SemanticAnalysisService {
 
     public TypeCheckingSolverResponse solveTypeChecking(TypeCheckingSolverRequest request) {
         try {
-            // Parse declarations and build symbol table
-            Map<String, String> symbolTable = parseDeclarations(request.getDeclarations());
-
-            // Parse and analyze expression
-            List<TypeCheckingSolverResponse.TypeInfo> types = analyzeExpression(
-                    request.getExpression(),
-                    symbolTable
-            );
-
-            // Generate tree visualization
-            String tree = generateExpressionTree(request.getExpression(), types);
+            // Build the symbol table from the declarations, then type the expression against it
+            TypeChecker checker = new TypeChecker();
+            checker.declarations(request.getDeclarations());
+            int declarationErrors = checker.getDiagnostics().size();
+            TypedAst ast = checker.check(request.getExpression() == null ? "" : request.getExpression());
+
+            List<TypeCheckingSolverResponse.SemanticError> errors = new ArrayList<>();
+            List<Diagnostic> diagnostics = checker.getDiagnostics();
+            for (int i = 0; i < diagnostics.size(); i++) {
+                Diagnostic d = diagnostics.get(i);
+                String where = i < declarationErrors ? "Declarations" : "Expression";
+                errors.add(new TypeCheckingSolverResponse.SemanticError(d.getLine(),
+                        where + ", column " + d.getColumn() + ": " + d.getMessage()));
+            }
+            if (checker.suppressedDiagnostics() > 0) {
+                errors.add(new TypeCheckingSolverResponse.SemanticError(0,
+                        checker.suppressedDiagnostics() + " more errors not shown"));
+            }
 
-            TypeCheckingSolverResponse.TypeAnalysis analysis =
-                    new TypeCheckingSolverResponse.TypeAnalysis(tree, types);
+            TypeCheckingSolverResponse.TypeAnalysis analysis = null;
+            if (ast.root() >= 0) {
+                analysis = new TypeCheckingSolverResponse.TypeAnalysis(
+                        ast.render(ast.root(), MAX_TREE_NODES), typeInfos(ast));
+            }
 
+            String message = errors.isEmpty()
+                    ? "Type checking completed successfully: expression has type " + ast.type(ast.root())
+                    : "Type checking found " + (diagnostics.size() + checker.suppressedDiagnostics()) + " error(s)";
             return new TypeCheckingSolverResponse(
-                    true,
-                    "Type checking completed successfully",
+                    errors.isEmpty(),
+                    message,
                     analysis,
-                    List.of(),
+                    errors,
                     List.of()
             );
 
@@ -662,97 +892,55 @@ public class SemanticAnalysisService {
         }
     }
 
-    private Map<String, String> parseDeclarations(String declarations) {
-        Map<String, String> symbolTable = new HashMap<>();
-        String[] lines = declarations.split("\\n");
-
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty() || line.startsWith("//")) continue;
-
-            // Simple parsing: "int x = 10;" -> x: int
-            Pattern pattern = Pattern.compile("(int|float|char|boolean)\\s+(\\w+)");
-            Matcher matcher = pattern.matcher(line);
-
-            if (matcher.find()) {
-                String type = matcher.group(1);
-                String name = matcher.group(2);
-                symbolTable.put(name, type);
-            }
+    // One entry per node, bottom-up; coercion nodes carry the conversion they apply.
+    // Large trees are cut to the nodes nearest the root, long source spans are abbreviated.
+    private List<TypeCheckingSolverResponse.TypeInfo> typeInfos(TypedAst ast) {
+        int[] nodes = new int[Math.min(ast.size(), MAX_TREE_NODES)];
+        int count = 0;
+        nodes[count++] = ast.root();
+        for (int i = 0; i < count && count < nodes.length; i++) {
+            if (ast.left(nodes[i]) >= 0) nodes[count++] = ast.left(nodes[i]);
+            if (ast.right(nodes[i]) >= 0 && count < nodes.length) nodes[count++] = ast.right(nodes[i]);
         }
+        Arrays.sort(nodes, 0, count);
 
-        return symbolTable;
-    }
-
-    private List<TypeCheckingSolverResponse.TypeInfo> analyzeExpression(
-            String expression, Map<String, String> symbolTable) {
-
-        List<TypeCheckingSolverResponse.TypeInfo> types = new ArrayList<>();
-
-        // Simple analysis for demonstration
-        // In production, you'd implement a proper expression parser
-        String[] tokens = expression.split("[+\\-*/\\s]+");
-
-        for (String token : tokens) {
-            token = token.trim();
-            if (token.isEmpty()) continue;
-
-            String type;
+        List<TypeCheckingSolverResponse.TypeInfo> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int node = nodes[i];
             String coercion = null;
-
-            if (symbolTable.containsKey(token)) {
-                type = symbolTable.get(token);
-            } else if (token.matches("\\d+\\.\\d+")) {
-                type = "float";
-            } else if (token.matches("\\d+")) {
-                type = "int";
-            } else {
-                type = "unknown";
+            if (ast.kind(node) == TypedAst.COERCE) {
+                coercion = ast.type(ast.left(node)) + " → " + ast.type(node) + " (coercion applied)";
             }
-
-            types.add(new TypeCheckingSolverResponse.TypeInfo(token, type, coercion));
+            String text = ast.end(node) - ast.start(node) <= 60
+                    ? ast.text(node)
+                    : ast.getSource().substring(ast.start(node), ast.start(node) + 28) + " … "
+                        + ast.getSource().substring(ast.end(node) - 28, ast.end(node));
+            types.add(new TypeCheckingSolverResponse.TypeInfo(text, ast.type(node).keyword(), coercion));
         }
-
-        // Add result type
-        types.add(new TypeCheckingSolverResponse.TypeInfo(
-                expression,
-                "float",
-                "int → float (coercion applied)"
-        ));
-
         return types;
     }
 
-    private String generateExpressionTree(String expression, List<TypeCheckingSolverResponse.TypeInfo> types) {
-        return """
-               + (float)
-              / \\
-            x    * (float)
-          (int)  / \\
-                y   2.5
-             (float) (float)
-            """;
-    }
-
     public SDTSolverResponse solveSDT(SDTSolverRequest request) {
         try {
-            // Mock implementation - in production, implement actual parser
-            List<SDTSolverResponse.ParseStep> steps = List.of(
-                    new SDTSolverResponse.ParseStep("F → 3", "F.val = 3", "3"),
-                    new SDTSolverResponse.ParseStep("T → F", "T.val = F.val", "3"),
-                    new SDTSolverResponse.ParseStep("T → T * F", "T.val = 3 * 4", "12"),
-                    new SDTSolverResponse.ParseStep("E → T", "E.val = T.val", "12"),
-                    new SDTSolverResponse.ParseStep("E → E + T", "E.val = 12 + 5", "17")
-            );
-
-            String output = "17";
-            String code = "t1 = 3 * 4\nt2 = t1 + 5\nresult = t2";
+            // Parse with an SLR(1) table and evaluate the rules during reductions
+            SdtEvaluator evaluator = SdtEvaluator.compile(request.getGrammar());
+            SdtEvaluator.Evaluation evaluation = evaluator.evaluate(
+                    request.getExpression(), SdtEvaluator.OutputType.of(request.getOutputType()), MAX_SDT_STEPS);
+
+            List<SDTSolverResponse.ParseStep> steps = new ArrayList<>();
+            for (SdtEvaluator.Step step : evaluation.getSteps()) {
+                steps.add(new SDTSolverResponse.ParseStep(step.getProduction(), step.getAction(), step.getValue()));
+            }
 
             SDTSolverResponse.SDTResult result = new SDTSolverResponse.SDTResult(
-                    output, steps, code, null
+                    evaluation.getOutput(), steps, evaluation.getCode(), null
             );
-
-            return new SDTSolverResponse(true, "SDT evaluation completed", result);
+            if (!evaluation.isSuccess()) {
+                return new SDTSolverResponse(false, "SDT evaluation failed: " + evaluation.getError(), result);
+            }
+            String message = "SDT evaluation completed in " + evaluation.getReductions() + " reductions"
+                    + (evaluation.getReductions() > steps.size() ? " (first " + steps.size() + " shown)" : "");
+            return new SDTSolverResponse(true, message, result);
 
         } catch (Exception e) {
             return new SDTSolverResponse(false, "SDT evaluation failed: " + e.getMessage(), null);
@@ -761,53 +949,43 @@ public class SemanticAnalysisService {
 
     public SymbolTableSolverResponse solveSymbolTable(SymbolTableSolverRequest request) {
         try {
-            List<SymbolTableSolverResponse.Entry> entries = new ArrayList<>();
-            int offset = 0;
-
-            // Simple parsing
-            String[] lines = request.getCode().split("\\n");
-            String currentScope = "global";
-
-            for (String line : lines) {
-                line = line.trim();
-
-                if (line.contains("{")) {
-                    // Entering new scope
-                    continue;
-                }
-
-                if (line.contains("}")) {
-                    // Exiting scope
-                    currentScope = "global";
-                    continue;
-                }
-
-                // Parse declaration
-                Pattern pattern = Pattern.compile("(int|float|char|boolean|void)\\s+(\\w+)");
-                Matcher matcher = pattern.matcher(line);
-
-                if (matcher.find()) {
-                    String type = matcher.group(1);
-                    String name = matcher.group(2);
-                    int size = type.equals("int") || type.equals("float") ? 4 :
-                            type.equals("char") ? 1 : 0;
-
-                    entries.add(new SymbolTableSolverResponse.Entry(
-                            name, type, currentScope,
-                            String.valueOf(offset), String.valueOf(size)
-                    ));
-
-                    offset += size;
-                }
+            ScopeBuilder builder = new ScopeBuilder().build(request.getCode());
+            SymbolTable table = builder.getTable();
+
+            List<SymbolTable.Symbol> symbols = table.allSymbols();
+            List<SymbolTableSolverResponse.Entry> entries = new ArrayList<>(symbols.size());
+            for (SymbolTable.Symbol symbol : symbols) {
+                boolean function = symbol.getKind() == SymbolTable.Kind.FUNCTION;
+                entries.add(new SymbolTableSolverResponse.Entry(
+                        symbol.getName(),
+                        function ? symbol.getType() + symbol.getSignature() : symbol.getType().toString(),
+                        symbol.getScope().getName(),
+                        function ? "-" : String.valueOf(symbol.getOffset()),
+                        String.valueOf(symbol.getWidth())
+                ));
             }
 
-            String hierarchy = "global\n  ├── variables: " + entries.size();
+            // Globals live in their own area and every function gets its own frame
+            int totalSize = 0;
+            for (SymbolTable.Scope scope : table.scopes()) {
+                if (scope.isFrame()) totalSize += scope.getSize();
+            }
 
             SymbolTableSolverResponse.SymbolTableData data =
-                    new SymbolTableSolverResponse.SymbolTableData(entries, hierarchy, offset);
-
+                    new SymbolTableSolverResponse.SymbolTableData(entries, scopeHierarchy(table), totalSize);
+
+            List<Diagnostic> errors = builder.getDiagnostics();
+            if (!errors.isEmpty()) {
+                StringBuilder message = new StringBuilder("Symbol table has ")
+                        .append(errors.size()).append(errors.size() == 1 ? " error" : " errors");
+                for (int i = 0; i < Math.min(errors.size(), 10); i++) {
+                    message.append("\n").append(errors.get(i));
+                }
+                return new SymbolTableSolverResponse(false, message.toString(), data);
+            }
             return new SymbolTableSolverResponse(
-                    true, "Symbol table constructed successfully", data
+                    true, "Symbol table constructed successfully: " + entries.size() + " symbols in "
+                    + table.scopes().size() + " scopes", data
             );
 
         } catch (Exception e) {
@@ -817,30 +995,56 @@ public class SemanticAnalysisService {
         }
     }
 
+    // Scopes are recorded in the order they were entered, so the list is already a pre-order walk
+    private String scopeHierarchy(SymbolTable table) {
+        StringBuilder out = new StringBuilder();
+        List<SymbolTable.Scope> scopes = table.scopes();
+        int shown = Math.min(scopes.size(), MAX_TREE_NODES);
+        for (int i = 0; i < shown; i++) {
+            SymbolTable.Scope scope = scopes.get(i);
+            out.append("  ".repeat(scope.getDepth()))
+                    .append(scope.getDepth() == 0 ? "" : "└── ")
+                    .append(scope.getName())
+                    .append(" (").append(scope.getSymbolCount())
+                    .append(scope.getSymbolCount() == 1 ? " symbol, " : " symbols, ")
+                    .append(scope.getSize()).append(scope.isFrame() ? " bytes frame)" : " bytes)")
+                    .append('\n');
+        }
+        if (shown < scopes.size()) out.append("... ").append(scopes.size() - shown).append(" more scopes\n");
+        return out.toString();
+    }
+
     public AttributesSolverResponse solveAttributes(AttributesSolverRequest request) {
         try {
-            String dependencyGraph = """
-            T.type ──→ L.type
-               ↑
-            (synthesized)
-               ↓
-            (inherited)
-            """;
-
-            List<AttributesSolverResponse.EvaluationStep> steps = List.of(
-                    new AttributesSolverResponse.EvaluationStep(
-                            "T.type", "T.type = integer (from T → int)", "synthesized"
-                    ),
-                    new AttributesSolverResponse.EvaluationStep(
-                            "L.type", "L.type = T.type = integer", "inherited"
-                    )
-            );
+            AttributeEvaluator evaluator = AttributeEvaluator.compile(request.getGrammar());
+            AttributeEvaluator.Evaluation evaluation = evaluator.evaluate(request.getInput(), MAX_ATTRIBUTE_STEPS);
+            if (!evaluation.isSuccess()) {
+                return new AttributesSolverResponse(
+                        false, "Attribute evaluation failed: " + evaluation.getError(), null
+                );
+            }
 
+            List<AttributesSolverResponse.EvaluationStep> steps = new ArrayList<>();
+            for (AttributeEvaluator.Step step : evaluation.getSteps()) {
+                steps.add(new AttributesSolverResponse.EvaluationStep(
+                        step.getAttribute(), step.getComputation(), step.getKind()
+                ));
+            }
+
+            AttributesSolverResponse.EvaluationStats stats = new AttributesSolverResponse.EvaluationStats(
+                    evaluation.getInstances(), evaluation.getDependencies(), evaluation.getLevels(),
+                    evaluation.getWidestLevel(), evaluation.isParallel(), evaluation.getParseMillis(),
+                    evaluation.getScheduleMillis(), evaluation.getEvaluateMillis()
+            );
             AttributesSolverResponse.AttributesData data =
-                    new AttributesSolverResponse.AttributesData(dependencyGraph, steps);
+                    new AttributesSolverResponse.AttributesData(evaluation.getDependencyGraph(), steps, stats);
 
+            double totalMillis = evaluation.getParseMillis() + evaluation.getScheduleMillis() + evaluation.getEvaluateMillis();
             return new AttributesSolverResponse(
-                    true, "Attributes evaluated successfully", data
+                    true, String.format("Attributes evaluated successfully: %d instances in %d levels, %s, %.2f ms%s",
+                            evaluation.getInstances(), evaluation.getLevels(),
+                            evaluation.isParallel() ? "parallel" : "sequential", totalMillis,
+                            evaluation.getInstances() > MAX_ATTRIBUTE_STEPS ? " (first " + MAX_ATTRIBUTE_STEPS + " shown)" : ""), data
             );
 
         } catch (Exception e) {
@@ -852,25 +1056,80 @@ public class SemanticAnalysisService {
 
     public SemanticActionsSolverResponse solveSemanticActions(SemanticActionsSolverRequest request) {
         try {
-            List<SemanticActionsSolverResponse.ActionStep> steps = List.of(
-                    new SemanticActionsSolverResponse.ActionStep(
-                            "lookup(id) in symbol table", "Found: x (int)", true
-                    ),
-                    new SemanticActionsSolverResponse.ActionStep(
-                            "Type check expression", "int = int ✓", true
-                    ),
-                    new SemanticActionsSolverResponse.ActionStep(
-                            "Generate code", "MOV x, t1", true
-                    )
-            );
-
-            String code = "t1 = y + 5\nMOV x, t1";
+            List<SemanticActionsSolverResponse.ActionStep> steps = new ArrayList<>();
+            TacGenerator generator = new TacGenerator();
+
+            // Symbol table lines look like "x: int" (or "int x")
+            StringBuilder declarations = new StringBuilder();
+            List<String> declared = new ArrayList<>();
+            String symbolTable = request.getSymbolTable() == null ? "" : request.getSymbolTable();
+            for (String entry : symbolTable.split("[\\n,;]")) {
+                entry = entry.trim();
+                if (entry.isEmpty()) continue;
+                String[] parts = entry.contains(":") ? entry.split("\\s*:\\s*", 2) : entry.split("\\s+", 2);
+                String name = entry.contains(":") ? parts[0] : parts.length > 1 ? parts[1] : "";
+                String type = entry.contains(":") ? parts[1] : parts[0];
+                type = switch (type.trim().toLowerCase()) {
+                    case "integer" -> "int";
+                    case "real" -> "float";
+                    case "bool" -> "boolean";
+                    default -> type.trim().toLowerCase();
+                };
+                if (Type.fromKeyword(type) == null || name.isBlank()) {
+                    steps.add(new SemanticActionsSolverResponse.ActionStep(
+                            "Read symbol table entry '" + entry + "'", "Expected 'name: type'", false));
+                    continue;
+                }
+                declarations.append(type).append(' ').append(name.trim()).append(";\n");
+                declared.add(name.trim() + ": " + type);
+            }
+            generator.declare(declarations.toString());
+            steps.add(new SemanticActionsSolverResponse.ActionStep(
+                    "Enter symbols into the symbol table",
+                    declared.isEmpty() ? "No symbols given" : String.join(", ", declared), true));
+
+            generator.generate(request.getCode());
+            List<Diagnostic> diagnostics = generator.getDiagnostics();
+            String production = request.getProduction() == null || request.getProduction().isBlank()
+                    ? "" : " (" + request.getProduction().trim() + ")";
+            if (diagnostics.isEmpty()) {
+                steps.add(new SemanticActionsSolverResponse.ActionStep(
+                        "Parse and type-check statements" + production,
+                        generator.getStatements() + " statements checked", true));
+            } else {
+                for (Diagnostic diagnostic : diagnostics) {
+                    steps.add(new SemanticActionsSolverResponse.ActionStep(
+                            "Parse and type-check statements" + production, diagnostic.toString(), false));
+                }
+                return new SemanticActionsSolverResponse(
+                        false, "Semantic actions failed: " + diagnostics.size() + " error(s)",
+                        new SemanticActionsSolverResponse.ActionsData(steps, null, null, 0, 0)
+                );
+            }
 
-            SemanticActionsSolverResponse.ActionsData data =
-                    new SemanticActionsSolverResponse.ActionsData(steps, code);
+            ThreeAddressCode code = generator.getCode();
+            steps.add(new SemanticActionsSolverResponse.ActionStep(
+                    "Generate three-address code",
+                    code.size() + " instructions, " + code.labelCount() + " labels", true));
+
+            TacOptimizer optimizer = new TacOptimizer();
+            ThreeAddressCode optimized = optimizer.optimize(code);
+            steps.add(new SemanticActionsSolverResponse.ActionStep(
+                    "Constant folding",
+                    optimizer.getFolded() + " instructions folded, " + optimizer.getBranches() + " branches decided", true));
+            steps.add(new SemanticActionsSolverResponse.ActionStep(
+                    "Common subexpression elimination (value numbering)",
+                    optimizer.getReused() + " computations reused", true));
+            steps.add(new SemanticActionsSolverResponse.ActionStep(
+                    "Dead and unreachable code elimination",
+                    optimizer.getDead() + " dead assignments, " + optimizer.getUnreachable() + " unreachable instructions removed", true));
+
+            SemanticActionsSolverResponse.ActionsData data = new SemanticActionsSolverResponse.ActionsData(
+                    steps, code.render(MAX_TAC_LINES), optimized.render(MAX_TAC_LINES), code.size(), optimized.size());
 
             return new SemanticActionsSolverResponse(
-                    true, "Semantic actions executed successfully", data
+                    true, "Semantic actions executed successfully: " + code.size() + " instructions, "
+                    + optimized.size() + " after optimization", data
             );
 
         } catch (Exception e) {
@@ -894,22 +1153,18 @@ public class SemanticAnalysisService {
                 .orElseThrow(() -> new RuntimeException("Problem not found"));
 
         try {
-            List<Map<String, String>> steps = objectMapper.readValue(
-                    problem.getSolutionSteps(),
-                    new TypeReference<List<Map<String, String>>>() {}
-            );
+            List<PracticeStep> steps = practiceSteps.get(problem.getId(), problem.getSolutionSteps());
 
             if (request.getStepNumber() >= steps.size()) {
                 return createErrorComparison("Invalid step number");
             }
 
-            Map<String, String> step = steps.get(request.getStepNumber());
-            String expectedAnswer = step.getOrDefault("value", step.getOrDefault("answer", ""));
+            PracticeStep step = steps.get(request.getStepNumber());
             String userAnswer = request.getUserAnswer().trim();
 
             // Intelligent comparison
             ComparisonResult result = performIntelligentComparison(
-                    userAnswer, expectedAnswer, request.getTopic()
+                    userAnswer, step, request.getTopic()
             );
 
             String status = result.similarity >= 0.9 ? "correct" :
@@ -925,7 +1180,7 @@ public class SemanticAnalysisService {
                     status,
                     feedback,
                     userAnswer,
-                    expectedAnswer,
+                    step.answer,
                     result.differences,
                     commonMistakes,
                     hints,
@@ -937,18 +1192,18 @@ public class SemanticAnalysisService {
         }
     }
 
-    private ComparisonResult performIntelligentComparison(String userAnswer, String expectedAnswer, String topic) {
-        double similarity = calculateSimilarity(userAnswer, expectedAnswer);
+    private ComparisonResult performIntelligentComparison(String userAnswer, PracticeStep expected, String topic) {
+        double similarity = calculateSimilarity(userAnswer, expected);
         List<AnswerComparisonResponse.Difference> differences = new ArrayList<>();
 
         // Check for specific differences based on topic
         if (topic.equals("type-checking")) {
-            if (!userAnswer.toLowerCase().contains("int") && expectedAnswer.toLowerCase().contains("int")) {
+            if (!userAnswer.toLowerCase().contains("int") && expected.normalized.contains("int")) {
                 differences.add(new AnswerComparisonResponse.Difference(
                         "Missing Type", "You didn't mention the 'int' type"
                 ));
             }
-            if (!userAnswer.contains("→") && expectedAnswer.contains("→")) {
+            if (!userAnswer.contains("→") && expected.answer.contains("→")) {
                 differences.add(new AnswerComparisonResponse.Difference(
                         "Missing Coercion", "You didn't mention type coercion"
                 ));
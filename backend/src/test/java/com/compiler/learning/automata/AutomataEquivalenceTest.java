@@ -0,0 +1,161 @@
+package com.compiler.learning.automata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AutomataEquivalenceTest {
+
+    /** Written so java.util.regex reads them the same way, which serves as the reference. */
+    private static final String[] REGEXES = {
+        "(a|b)*abb",
+        "a*b*c?",
+        "(ab|c)+",
+        "a(b|c)*a",
+        "[a-c]{2,3}",
+        "((a|b)(a|b))*",
+        "(a*|b)c",
+        "(a|b)*a(a|b)(a|b)",
+        ".*c.*",
+        "[^b]+",
+    };
+
+    /** The n-th symbol from the end being an a needs 2^n DFA states. */
+    private static final String EXPONENTIAL = "(a|b)*a(a|b){10}";
+
+    /** Every string over {a, b, c} of length 0 to 6. */
+    private static List<String> inputs() {
+        List<String> inputs = new ArrayList<>();
+        inputs.add("");
+        for (int from = 0; from < inputs.size() && inputs.get(from).length() < 6; from++) {
+            for (char c = 'a'; c <= 'c'; c++) inputs.add(inputs.get(from) + c);
+        }
+        return inputs;
+    }
+
+    /** Checks the matcher built for each regex against java.util.regex on every input. */
+    private static void assertMatchesReference(String construction, Function<String, Predicate<String>> build) {
+        List<String> inputs = inputs();
+        for (String regex : REGEXES) {
+            Pattern reference = Pattern.compile(regex);
+            Predicate<String> matcher = build.apply(regex);
+            for (String input : inputs) {
+                assertEquals(reference.matcher(input).matches(), matcher.test(input),
+                        construction + ": " + regex + " on \"" + input + "\"");
+            }
+        }
+    }
+
+    private static Dfa subsetDfa(String regex) {
+        return SubsetConstruction.build(ThompsonConstruction.build(regex), SubsetConstruction.DEFAULT_MAX_STATES);
+    }
+
+    @Test
+    public void testSubsetConstruction() {
+        assertMatchesReference("on-demand subsets", regex -> new SubsetConstruction(ThompsonConstruction.build(regex))::accepts);
+        assertMatchesReference("subset construction", regex -> subsetDfa(regex)::accepts);
+    }
+
+    @Test
+    public void testSubsetStateLimit() {
+        EpsilonNfa nfa = ThompsonConstruction.build(EXPONENTIAL);
+        StateLimitExceededException e = assertThrows(StateLimitExceededException.class,
+                () -> SubsetConstruction.build(nfa, 100));
+        assertEquals(100, e.getLimit());
+    }
+
+    @Test
+    public void testOnDemandSubsetsAfterTheStateLimit() {
+        SubsetConstruction subsets = new SubsetConstruction(ThompsonConstruction.build(EXPONENTIAL), 100);
+        StringBuilder input = new StringBuilder();
+        Random random = new Random(1);
+        for (int i = 0; i < 400; i++) input.append(random.nextBoolean() ? 'a' : 'b');
+        assertThrows(StateLimitExceededException.class, () -> subsets.accepts(input));
+        // The failed row is left unexpanded rather than half filled
+        for (int state = 0; state < subsets.stateCount(); state++) {
+            if (!subsets.isExpanded(state)) continue;
+            for (int symbol = 0; symbol < subsets.getAlphabet().size(); symbol++) subsets.next(state, symbol);
+        }
+        // States built before the failure still give the right answers
+        Pattern reference = Pattern.compile(EXPONENTIAL);
+        for (int bits = 0; bits < 1 << 12; bits++) {
+            String other = Integer.toBinaryString(bits | 1 << 12).substring(1).replace('0', 'a').replace('1', 'b');
+            try {
+                assertEquals(reference.matcher(other).matches(), subsets.accepts(other), other);
+            } catch (StateLimitExceededException e) {
+                assertEquals(100, subsets.stateCount());
+            }
+        }
+    }
+
+    @Test
+    public void testMinimization() {
+        assertMatchesReference("Hopcroft", regex -> DfaMinimizer.hopcroft(subsetDfa(regex), false).getDfa()::accepts);
+        assertMatchesReference("table filling", regex -> DfaMinimizer.tableFilling(subsetDfa(regex), false).getDfa()::accepts);
+        for (String regex : REGEXES) {
+            Dfa subset = subsetDfa(regex);
+            assertEquals(DfaMinimizer.hopcroft(subset, false).getDfa().stateCount(),
+                    DfaMinimizer.tableFilling(subset, false).getDfa().stateCount(), regex);
+        }
+    }
+
+    @Test
+    public void testMinimizedTextbookDfa() {
+        assertEquals(4, DfaMinimizer.hopcroft(subsetDfa("(a|b)*abb"), false).getDfa().stateCount());
+    }
+
+    @Test
+    public void testFollowposConstruction() {
+        assertMatchesReference("followpos", regex -> FollowposConstruction.build(regex, SubsetConstruction.DEFAULT_MAX_STATES)::accepts);
+        for (String regex : REGEXES) {
+            Dfa direct = FollowposConstruction.build(regex, SubsetConstruction.DEFAULT_MAX_STATES);
+            assertEquals(DfaMinimizer.hopcroft(subsetDfa(regex), false).getDfa().stateCount(),
+                    DfaMinimizer.hopcroft(direct, false).getDfa().stateCount(), regex);
+        }
+    }
+
+    @Test
+    public void testFollowposStateLimit() {
+        assertThrows(StateLimitExceededException.class, () -> FollowposConstruction.build(EXPONENTIAL, 100));
+    }
+
+    @Test
+    public void testLazyDfa() {
+        assertMatchesReference("lazy DFA", regex -> new LazyDfa(ThompsonConstruction.build(regex))::accepts);
+        assertMatchesReference("lazy DFA, tiny cache", regex -> new LazyDfa(ThompsonConstruction.build(regex), 3)::accepts);
+    }
+
+    @Test
+    public void testLazyDfaNeedsNoStateLimit() {
+        EpsilonNfa nfa = ThompsonConstruction.build(EXPONENTIAL);
+        LazyDfa lazy = new LazyDfa(nfa, 16);
+        assertTrue(lazy.accepts("b" + "a" + "b".repeat(10)));
+        assertFalse(lazy.accepts("a" + "b".repeat(11)));
+        String input = "ab".repeat(500) + "a" + "ba".repeat(5);
+        assertEquals(Pattern.matches(EXPONENTIAL, input), lazy.accepts(input));
+        assertTrue(lazy.cachedStates() <= 16);
+
+        LazyDfa thrashing = new LazyDfa(nfa, 3);
+        assertEquals(Pattern.matches(EXPONENTIAL, input), thrashing.accepts(input));
+        assertTrue(thrashing.usedNfaFallback());
+    }
+
+    @Test
+    public void testCompactTable() {
+        assertMatchesReference("compact table", regex -> CompactDfa.of(subsetDfa(regex))::accepts);
+        for (String regex : REGEXES) {
+            CompactDfa compact = CompactDfa.of(DfaMinimizer.hopcroft(subsetDfa(regex), false).getDfa());
+            assertTrue(compact.tableBytes() <= compact.rawTableBytes(), regex);
+        }
+    }
+}
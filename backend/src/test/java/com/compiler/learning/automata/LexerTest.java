@@ -0,0 +1,97 @@
+package com.compiler.learning.automata;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LexerTest {
+
+    private final Lexer lexer = new LexerGenerator()
+        .rule("if", "if")
+        .rule("id", "[a-z]+")
+        .rule("num", "[0-9]+(\\.[0-9]+)?")
+        .rule("op", "<=|<|=")
+        .skip("space", "\\s+")
+        .build();
+
+    private static String describe(Lexer.Tokens tokens) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            out.append(tokens.type(i)).append(':').append(tokens.start(i)).append('-').append(tokens.end(i)).append(' ');
+        }
+        return out.toString();
+    }
+
+    private static String describe(Lexer.FileTokens tokens) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            out.append(tokens.type(i)).append(':').append(tokens.offset(i)).append('-')
+                .append(tokens.offset(i) + tokens.length(i)).append(' ');
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void testMaximalMunchAndPriority() {
+        Lexer.Tokens tokens = lexer.tokenize("if iff <= 3.25 x#y");
+        assertEquals("0:0-2 1:3-6 3:7-9 2:10-14 1:15-16 -1:16-17 1:17-18 ", describe(tokens));
+        assertEquals("iff", tokens.text(1));
+    }
+
+    @Test
+    public void testChunkedScanResumes() {
+        String input = "a b c d e";
+        StringBuilder out = new StringBuilder();
+        int pos = 0;
+        while (pos < input.length()) {
+            pos = lexer.scan(input, pos, 2, (type, start, end) -> out.append(start).append(' '));
+        }
+        assertEquals("0 2 4 6 8 ", out.toString());
+    }
+
+    @Test
+    public void testInvalidRulesRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new LexerGenerator().rule("id", "[a-z]+").rule("bees", "b*").build());
+        assertEquals("Rule bees matches the empty string", e.getMessage());
+        assertThrows(StateLimitExceededException.class,
+                () -> new LexerGenerator().rule("tail", "(a|b)*a(a|b){10}").maxStates(100).build());
+    }
+
+    @Test
+    public void testMappedFileMatchesInMemoryScan() throws IOException {
+        String input = "if x <= 12.5 then\n".repeat(40) + "count = 7 # end";
+        Path file = Files.createTempFile("lexer", ".txt");
+        try {
+            Files.writeString(file, input, StandardCharsets.ISO_8859_1);
+            String expected = describe(lexer.tokenize(input));
+            assertEquals(expected, describe(lexer.tokenize(file)));
+            // Small windows put token boundaries across window edges
+            for (int window : new int[] {7, 16, 61}) {
+                StringBuilder out = new StringBuilder();
+                lexer.scan(file, window, (type, offset, length) ->
+                        out.append(type).append(':').append(offset).append('-').append(offset + length).append(' '));
+                assertEquals(expected, out.toString(), "window " + window);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTokenLongerThanWindow() throws IOException {
+        Path file = Files.createTempFile("lexer", ".txt");
+        try {
+            Files.writeString(file, "abcdefghij k", StandardCharsets.ISO_8859_1);
+            assertThrows(IOException.class, () -> lexer.scan(file, 4, (type, offset, length) -> { }));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
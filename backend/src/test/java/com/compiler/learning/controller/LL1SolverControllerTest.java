@@ -0,0 +1,75 @@
+package com.compiler.learning.controller;
+
+import com.compiler.learning.dto.StreamingParseRequest;
+import com.compiler.learning.service.LL1SolverService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LL1SolverControllerTest {
+
+    private static final String GRAMMAR =
+        "E -> T E'\nE' -> + T E' | ε\nT -> F T'\nT' -> * F T' | ε\nF -> ( E ) | id";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LL1SolverController controller =
+        new LL1SolverController(new LL1SolverService(16, 1L << 24), objectMapper);
+
+    private List<JsonNode> stream(String input, String traceMode, Integer sampleEvery) throws Exception {
+        ResponseEntity<StreamingResponseBody> response =
+            controller.streamParser(new StreamingParseRequest(GRAMMAR, input, traceMode, sampleEvery));
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) events.add(objectMapper.readTree(line));
+        return events;
+    }
+
+    @Test
+    public void testFullTraceIsOneEventPerLine() throws Exception {
+        List<JsonNode> events = stream("id+id*id", null, null);
+        assertEquals(18, events.size());
+        assertEquals("step", events.get(0).get("type").asText());
+        assertEquals("$E", events.get(0).get("step").get("stack").asText());
+        assertEquals("id+id*id$", events.get(0).get("step").get("input").asText());
+
+        JsonNode result = events.get(events.size() - 1);
+        assertEquals("result", result.get("type").asText());
+        assertTrue(result.get("accepted").asBoolean());
+        assertEquals(17, result.get("totalSteps").asInt());
+    }
+
+    @Test
+    public void testTraceModes() throws Exception {
+        List<JsonNode> sampled = stream("id+id*id", "sampled", 5);
+        // steps 1, 6, 11 and 16, the accepting step 17, then the result
+        assertEquals(6, sampled.size());
+        assertEquals(17, sampled.get(4).get("step").get("stepNumber").asInt());
+
+        List<JsonNode> actions = stream("id+id*id", "actions-only", null);
+        assertEquals(18, actions.size());
+        assertTrue(actions.get(0).get("step").get("stack").isNull());
+
+        List<JsonNode> none = stream("id+*id", "none", null);
+        assertEquals(1, none.size());
+        assertFalse(none.get(0).get("accepted").asBoolean());
+    }
+
+    @Test
+    public void testUnknownTraceModeIsRejected() {
+        assertEquals(400, controller.streamParser(
+            new StreamingParseRequest(GRAMMAR, "id", "verbose", null)).getStatusCode().value());
+    }
+}
@@ -0,0 +1,82 @@
+package com.compiler.learning.grammar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FirstFollowAnalysisTest {
+
+    static final String EXPRESSION_GRAMMAR =
+        "E -> T E'\nE' -> + T E' | ε\nT -> F T'\nT' -> * F T' | ε\nF -> ( E ) | id";
+
+    static CompiledGrammar expressionGrammar() {
+        return GrammarCompiler.compile(EXPRESSION_GRAMMAR, GrammarCompiler.SymbolMode.WHITESPACE);
+    }
+
+    @Test
+    public void testCompilesProductionsInDefinitionOrder() {
+        CompiledGrammar grammar = expressionGrammar();
+        assertEquals(List.of("E", "E'", "T", "T'", "F"), grammar.nonTerminalNames());
+        assertEquals(8, grammar.productionCount());
+        assertEquals("E' → + T E'", grammar.productionString(1));
+        assertEquals("T' → ε", grammar.productionString(5));
+        assertTrue(grammar.isEpsilon(5));
+        assertEquals(0, grammar.rhsLength(5));
+    }
+
+    @Test
+    public void testFirstSets() {
+        Map<String, Set<String>> first = new FirstFollowAnalysis(expressionGrammar()).firstSetMap();
+        assertEquals(Set.of("(", "id"), first.get("E"));
+        assertEquals(Set.of("+", "ε"), first.get("E'"));
+        assertEquals(Set.of("(", "id"), first.get("T"));
+        assertEquals(Set.of("*", "ε"), first.get("T'"));
+        assertEquals(Set.of("(", "id"), first.get("F"));
+    }
+
+    @Test
+    public void testFollowSets() {
+        Map<String, Set<String>> follow = new FirstFollowAnalysis(expressionGrammar()).followSetMap();
+        assertEquals(Set.of(")", "$"), follow.get("E"));
+        assertEquals(Set.of(")", "$"), follow.get("E'"));
+        assertEquals(Set.of("+", ")", "$"), follow.get("T"));
+        assertEquals(Set.of("+", ")", "$"), follow.get("T'"));
+        assertEquals(Set.of("+", "*", ")", "$"), follow.get("F"));
+    }
+
+    @Test
+    public void testNullability() {
+        CompiledGrammar grammar = expressionGrammar();
+        FirstFollowAnalysis analysis = new FirstFollowAnalysis(grammar);
+        assertFalse(analysis.isNullable(grammar.idOf("E")));
+        assertTrue(analysis.isNullable(grammar.idOf("E'")));
+        assertTrue(analysis.isProductionNullable(2));
+        assertFalse(analysis.isProductionNullable(1));
+    }
+
+    @Test
+    public void testCharacterModeGrammar() {
+        CompiledGrammar grammar = GrammarCompiler.compile("S → aSb | ε\nS -> c", GrammarCompiler.SymbolMode.CHARACTER);
+        assertEquals("S → a S b", grammar.productionString(0));
+        assertEquals(3, grammar.rhsLength(0));
+        FirstFollowAnalysis analysis = new FirstFollowAnalysis(grammar);
+        assertEquals(Set.of("a", "c", "ε"), analysis.firstSetMap().get("S"));
+        assertEquals(Set.of("b", "$"), analysis.followSetMap().get("S"));
+    }
+
+    @Test
+    public void testCharacterModeMatchesLongestNonTerminal() {
+        CompiledGrammar grammar = GrammarCompiler.compile("E -> TE'\nE' -> +TE' | ε\nT -> T1x | y\nT1 -> z",
+                GrammarCompiler.SymbolMode.CHARACTER);
+        assertEquals("E → T E'", grammar.productionString(0));
+        assertEquals("E' → + T E'", grammar.productionString(1));
+        assertEquals("T → T1 x", grammar.productionString(3));
+        assertEquals(List.of("+", "x", "y", "z", "$"), grammar.terminalNames());
+    }
+}
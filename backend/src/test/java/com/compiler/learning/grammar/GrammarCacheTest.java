@@ -0,0 +1,109 @@
+package com.compiler.learning.grammar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GrammarCacheTest {
+
+    @Test
+    public void testNormalizedTextSharesAnEntry() {
+        assertEquals("E -> E + T\nE -> T", GrammarCache.normalize("  E  →  E + T \r\n\n E -> T\n"));
+
+        GrammarCache<String> cache = new GrammarCache<>(4, 1_000, text -> text, String::length);
+        assertSame(cache.get("S -> a b"), cache.get("S  →  a   b\n"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        AtomicInteger loads = new AtomicInteger();
+        GrammarCache<String> cache = new GrammarCache<>(2, 1_000, text -> {
+            loads.incrementAndGet();
+            return text;
+        }, String::length);
+        cache.get("A -> a");
+        cache.get("B -> b");
+        cache.get("A -> a");
+        cache.get("C -> c");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.get("A -> a");
+        assertEquals(3, loads.get());
+        cache.get("B -> b");
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testWeigherBoundsTheTotal() {
+        GrammarCache<String> cache = new GrammarCache<>(100, 20, text -> text, text -> 10L * text.length());
+        cache.get("A -> a");
+        assertEquals(60, cache.getTotalWeight()); // an oversized newest entry is kept
+        cache.get("B");
+        assertEquals(1, cache.size());
+        assertEquals(10, cache.getTotalWeight());
+        cache.get("C");
+        assertEquals(2, cache.size());
+        assertEquals(20, cache.getTotalWeight());
+    }
+
+    @Test
+    public void testConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        GrammarCache<String> cache = new GrammarCache<>(4, 1_000, text -> {
+            loads.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return text;
+        }, String::length);
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cache.get("S -> a S | b");
+                }));
+            }
+            start.countDown();
+            String first = results.get(0).get();
+            for (Future<String> result : results) assertSame(first, result.get());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(threads - 1, cache.getHitCount());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        GrammarCache<String> cache = new GrammarCache<>(4, 1_000, text -> {
+            if (loads.incrementAndGet() == 1) throw new IllegalArgumentException("bad grammar");
+            return text;
+        }, String::length);
+        assertThrows(IllegalArgumentException.class, () -> cache.get("S -> a"));
+        assertEquals(0, cache.size());
+        assertEquals("S -> a", cache.get("S -> a"));
+        assertEquals(2, loads.get());
+    }
+}
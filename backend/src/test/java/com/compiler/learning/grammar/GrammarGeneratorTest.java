@@ -0,0 +1,57 @@
+package com.compiler.learning.grammar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GrammarGeneratorTest {
+
+    @Test
+    public void testLl1ModeIsLl1AndSentencesParse() {
+        for (long seed = 1; seed <= 20; seed++) {
+            GrammarGenerator.Options options = new GrammarGenerator.Options()
+                    .seed(seed).nonTerminals(20).epsilonDensity(0.5);
+            CompiledGrammar grammar = GrammarGenerator.compiled(options);
+            LL1Table table = new LL1Table(new FirstFollowAnalysis(grammar));
+            assertTrue(table.isLL1(), "seed " + seed);
+
+            int[] sentence = GrammarGenerator.sentence(grammar, 1000, new Random(seed));
+            assertEquals(1000, sentence.length, "seed " + seed);
+            assertTrue(new LL1Parser(table).parse(sentence, sentence.length).isAccepted(), "seed " + seed);
+        }
+    }
+
+    @Test
+    public void testSameSeedSameGrammar() {
+        assertEquals(GrammarGenerator.grammar(new GrammarGenerator.Options().seed(7)),
+                GrammarGenerator.grammar(new GrammarGenerator.Options().seed(7)));
+        assertEquals("N0 -> t1 t3 t13 | t13 t0 N1 m1 | t7 N1 m0 t9\nN1 -> t15 | t14 t8 t1 t6 | t11 N1 m0 | ε",
+                GrammarGenerator.grammar(new GrammarGenerator.Options().nonTerminals(2).seed(3)).strip());
+    }
+
+    @Test
+    public void testLeftRecursion() {
+        CompiledGrammar grammar = GrammarGenerator.compiled(
+                new GrammarGenerator.Options().ll1(false).leftRecursionDepth(1));
+        boolean direct = false;
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            direct |= grammar.rhsLength(p) > 0 && grammar.rhsSymbol(p, 0) == grammar.lhs(p);
+        }
+        assertTrue(direct);
+        assertFalse(new LL1Table(new FirstFollowAnalysis(grammar)).isLL1());
+    }
+
+    @Test
+    public void testShortestSentenceWhenTheTargetIsTooSmall() {
+        CompiledGrammar grammar = GrammarCompiler.compile("S -> a b c", GrammarCompiler.SymbolMode.WHITESPACE);
+        assertEquals("a b c", GrammarGenerator.sentenceText(grammar, 1, new Random(1)));
+
+        CompiledGrammar unproductive = GrammarCompiler.compile("S -> S a", GrammarCompiler.SymbolMode.WHITESPACE);
+        assertThrows(IllegalArgumentException.class, () -> GrammarGenerator.sentence(unproductive, 10, new Random(1)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.compiler.learning.grammar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class GrammarTokenizerTest {
+
+    private final CompiledGrammar grammar = GrammarCompiler.compile(
+            "E -> T E'\nE' -> + T E' | ε\nT -> F T'\nT' -> * F T' | ε\nF -> ( E ) | id",
+            GrammarCompiler.SymbolMode.WHITESPACE);
+    private final GrammarTokenizer tokenizer = new GrammarTokenizer(grammar);
+
+    @Test
+    public void testLongestSymbolWins() {
+        assertEquals(List.of("id", "id", "+", "(", "id", ")"), tokenizer.tokenize("idid+(id)"));
+        assertEquals(List.of("E'", "E", "T'", "$"), tokenizer.tokenize("E'E T' $"));
+        assertSame(grammar.name(grammar.idOf("id")), tokenizer.tokenize("id").get(0));
+    }
+
+    @Test
+    public void testUnknownRunsAreOneToken() {
+        assertEquals(List.of("id", "?x", "+", "id", "num"), tokenizer.tokenize("id?x+id num"));
+        assertEquals(List.of(), tokenizer.tokenize(null));
+    }
+
+    @Test
+    public void testTerminalIds() {
+        int id = grammar.idOf("id");
+        int plus = grammar.idOf("+");
+        assertArrayEquals(new int[] {id, plus, -1, -1, id}, tokenizer.terminalIds("id + E ? id"));
+        assertArrayEquals(new int[0], tokenizer.terminalIds(null));
+    }
+}
@@ -0,0 +1,74 @@
+package com.compiler.learning.grammar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LL1ParserTest {
+
+    private final CompiledGrammar grammar = FirstFollowAnalysisTest.expressionGrammar();
+    private final LL1Table table = new LL1Table(new FirstFollowAnalysis(grammar));
+    private final LL1Parser parser = new LL1Parser(table);
+
+    private int[] tokens(String... input) {
+        return Arrays.stream(input).mapToInt(parser::terminalId).toArray();
+    }
+
+    @Test
+    public void testAcceptsExpression() {
+        int[] tokens = tokens("id", "+", "id", "*", "id");
+        LL1Parser.Result result = parser.parse(tokens, tokens.length);
+        assertTrue(result.isAccepted());
+        assertEquals(5, result.getPosition());
+        assertEquals(-1, result.getTopSymbol());
+        assertEquals(17, result.getSteps());
+    }
+
+    @Test
+    public void testRejectsAtErrorPosition() {
+        int[] tokens = tokens("id", "+", "*", "id");
+        LL1Parser.Result result = parser.parse(tokens, tokens.length);
+        assertFalse(result.isAccepted());
+        assertEquals(2, result.getPosition());
+        assertEquals(grammar.idOf("T"), result.getTopSymbol());
+        assertEquals(List.of("(", "id"), table.expectedTerminals(result.getTopSymbol()).stream()
+                .map(grammar::terminalAt).mapToObj(grammar::name).sorted().toList());
+    }
+
+    @Test
+    public void testRejectsPrematureEnd() {
+        int[] tokens = tokens("(", "id");
+        LL1Parser.Result result = parser.parse(tokens, tokens.length);
+        assertFalse(result.isAccepted());
+        assertEquals(2, result.getPosition());
+    }
+
+    @Test
+    public void testUnknownTokenHasNoTerminalId() {
+        assertEquals(-1, parser.terminalId("x"));
+    }
+
+    @Test
+    public void testLeftmostDerivation() {
+        int[] tokens = tokens("id", "+", "id", "*", "id");
+        LeftmostDerivation derivation = new LeftmostDerivation(grammar);
+        assertTrue(parser.parse(tokens, tokens.length, derivation).isAccepted());
+        assertEquals(11, derivation.size());
+        int[] productions = new int[derivation.size()];
+        for (int i = 0; i < productions.length; i++) productions[i] = derivation.production(i);
+        assertArrayEquals(new int[] {0, 3, 7, 5, 1, 3, 7, 4, 7, 5, 2}, productions);
+        assertEquals("E ⇒ T E' ⇒ F T' E' ⇒ id T' E' ⇒ id E' ⇒ id + T E' ⇒ id + F T' E' ⇒ id + id T' E'"
+                + " ⇒ id + id * F T' E' ⇒ id + id * id T' E' ⇒ id + id * id E' ⇒ id + id * id",
+                derivation.render());
+
+        assertEquals("E ⇒ T E' ⇒ F T' E' ⇒ id T' E' ⇒ id E' ⇒ id + T E' ⇒ … 6 more steps", derivation.render(60));
+        assertFalse(derivation.fitsIn(60));
+        assertTrue(derivation.fitsIn(derivation.render().length()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.compiler.learning.grammar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LL1TableTest {
+
+    private static LL1Table table(CompiledGrammar grammar) {
+        return new LL1Table(new FirstFollowAnalysis(grammar));
+    }
+
+    private static int cell(LL1Table table, CompiledGrammar grammar, String nonTerminal, String terminal) {
+        return table.production(grammar.idOf(nonTerminal), grammar.idOf(terminal));
+    }
+
+    @Test
+    public void testExpressionGrammarCells() {
+        CompiledGrammar grammar = FirstFollowAnalysisTest.expressionGrammar();
+        LL1Table table = table(grammar);
+        assertTrue(table.isLL1());
+        assertEquals(0, cell(table, grammar, "E", "id"));
+        assertEquals(0, cell(table, grammar, "E", "("));
+        assertEquals(1, cell(table, grammar, "E'", "+"));
+        assertEquals(2, cell(table, grammar, "E'", ")"));
+        assertEquals(2, cell(table, grammar, "E'", "$"));
+        assertEquals(4, cell(table, grammar, "T'", "*"));
+        assertEquals(5, cell(table, grammar, "T'", "+"));
+        assertEquals(6, cell(table, grammar, "F", "("));
+        assertEquals(7, cell(table, grammar, "F", "id"));
+        assertEquals(LL1Table.NO_PRODUCTION, cell(table, grammar, "E", "+"));
+        assertEquals(LL1Table.NO_PRODUCTION, cell(table, grammar, "F", "$"));
+    }
+
+    @Test
+    public void testFirstFirstConflict() {
+        CompiledGrammar grammar = GrammarCompiler.compile("S -> a A | a B\nA -> b\nB -> c",
+                GrammarCompiler.SymbolMode.WHITESPACE);
+        LL1Table table = table(grammar);
+        assertFalse(table.isLL1());
+        List<LL1Table.Conflict> conflicts = table.getConflicts();
+        assertEquals(1, conflicts.size());
+        LL1Table.Conflict conflict = conflicts.get(0);
+        assertEquals("FIRST/FIRST", conflict.getType());
+        assertEquals(grammar.idOf("S"), conflict.getNonTerminal());
+        assertEquals(grammar.idOf("a"), conflict.getTerminal());
+        assertEquals(0, conflict.getExistingProduction());
+        assertEquals(1, conflict.getProduction());
+    }
+
+    @Test
+    public void testFirstFollowConflict() {
+        CompiledGrammar grammar = GrammarCompiler.compile("S -> A a\nA -> a | ε",
+                GrammarCompiler.SymbolMode.WHITESPACE);
+        List<LL1Table.Conflict> conflicts = table(grammar).getConflicts();
+        assertEquals(1, conflicts.size());
+        assertEquals("FIRST/FOLLOW", conflicts.get(0).getType());
+        assertEquals(grammar.idOf("A"), conflicts.get(0).getNonTerminal());
+        assertEquals(grammar.idOf("a"), conflicts.get(0).getTerminal());
+    }
+}
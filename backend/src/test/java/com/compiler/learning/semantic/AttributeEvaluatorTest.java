@@ -0,0 +1,66 @@
+package com.compiler.learning.semantic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AttributeEvaluatorTest {
+
+    @Test
+    public void testInheritedTypeReachesEveryIdentifier() {
+        AttributeEvaluator.Evaluation evaluation = AttributeEvaluator.compile(null).evaluate("int a , b , c", 100);
+        assertTrue(evaluation.isSuccess(), evaluation.getError());
+        assertEquals(10, evaluation.getInstances());
+        assertEquals(5, evaluation.getLevels());
+        assertEquals(List.of("addtype(c, integer)", "addtype(b, integer)", "addtype(a, integer)"),
+                evaluation.getSteps().stream()
+                        .filter(step -> step.getKind().equals(AttributeEvaluator.ACTION))
+                        .map(AttributeEvaluator.Step::getValue)
+                        .toList());
+    }
+
+    @Test
+    public void testEveryInstanceFollowsItsInputs() {
+        List<AttributeEvaluator.Step> steps = AttributeEvaluator.compile(null).evaluate("float x , y", 100).getSteps();
+        List<String> order = steps.stream().map(AttributeEvaluator.Step::getAttribute).toList();
+        int type = order.indexOf("T#1.type");
+        for (AttributeEvaluator.Step step : steps) {
+            if (step.getKind().equals(AttributeEvaluator.INHERITED)) {
+                assertEquals("real", step.getValue());
+                assertTrue(order.indexOf(step.getAttribute()) > type, step.getAttribute());
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyWideLevelsRunInParallel() {
+        AttributeEvaluator.Evaluation deep = AttributeEvaluator.compile("S -> S x { S.v = S1.v + 1 }\nS -> x { S.v = 1 }")
+                .evaluate("x ".repeat(60_000), 0);
+        assertEquals(60_000, deep.getLevels());
+        assertFalse(deep.isParallel());
+
+        AttributeEvaluator.Evaluation wide = AttributeEvaluator.compile("S -> S x { S.v = 1 }\nS -> x { S.v = 1 }")
+                .evaluate("x ".repeat(60_000), 0);
+        assertEquals(60_000, wide.getWidestLevel());
+        assertTrue(wide.isParallel());
+    }
+
+    @Test
+    public void testCycleIsReported() {
+        AttributeEvaluator evaluator = AttributeEvaluator.compile("S -> A { A.i = A.s ; S.v = A.s }\nA -> x { A.s = A.i }");
+        AttributeEvaluator.Evaluation evaluation = evaluator.evaluate("x", 10);
+        assertFalse(evaluation.isSuccess());
+        assertEquals("Circular attribute dependency: A#1.s → A#1.i → A#1.s", evaluation.getError());
+    }
+
+    @Test
+    public void testMissingRuleIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> AttributeEvaluator.compile("S -> A { S.v = A.s }\nA -> x { }"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.compiler.learning.semantic;
+
+import com.compiler.learning.grammar.CompiledGrammar;
+import com.compiler.learning.grammar.FirstFollowAnalysis;
+import com.compiler.learning.grammar.GrammarCompiler;
+import com.compiler.learning.grammar.SLRTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SdtEvaluatorTest {
+
+    private static final String INPUT = "3 * (4 + 5) - 6 / 2";
+
+    private final SdtEvaluator calculator = SdtEvaluator.compile(null);
+
+    @Test
+    public void testOutputDomains() {
+        assertEquals("24", calculator.evaluate(INPUT, SdtEvaluator.OutputType.VALUE, 10).getOutput());
+        assertEquals("3 4 5 + * 6 2 / -", calculator.evaluate(INPUT, SdtEvaluator.OutputType.POSTFIX, 10).getOutput());
+        assertEquals("- * 3 + 4 5 / 6 2", calculator.evaluate(INPUT, SdtEvaluator.OutputType.PREFIX, 10).getOutput());
+
+        SdtEvaluator.Evaluation code = calculator.evaluate(INPUT, SdtEvaluator.OutputType.THREE_ADDRESS, 10);
+        assertEquals("t4", code.getOutput());
+        assertEquals(String.join("\n", "t1 = 4 + 5", "t2 = 3 * t1", "t3 = 6 / 2", "t4 = t2 - t3", "result = t4"),
+                code.getCode().strip());
+        assertEquals(16, code.getReductions());
+    }
+
+    @Test
+    public void testReductionSteps() {
+        List<SdtEvaluator.Step> steps = calculator.evaluate("2 + 3", SdtEvaluator.OutputType.VALUE, 10).getSteps();
+        assertEquals(List.of("F → num", "T → F", "E → T", "F → num", "T → F", "E → E + T"),
+                steps.stream().map(SdtEvaluator.Step::getProduction).toList());
+        assertEquals("E.val = 2 + 3", steps.get(5).getAction());
+        assertEquals("5", steps.get(5).getValue());
+    }
+
+    @Test
+    public void testPostfixAndPrefixSteps() {
+        List<SdtEvaluator.Step> postfix = calculator.evaluate("1 + 2 + -2", SdtEvaluator.OutputType.POSTFIX, 20).getSteps();
+        assertEquals("E.val = 1 + 2", postfix.get(5).getAction());
+        assertEquals("1 2 +", postfix.get(5).getValue());
+        assertEquals("F.val = -2", postfix.get(7).getAction());
+        assertEquals("2 neg", postfix.get(7).getValue());
+        assertEquals("E.val = 1 2 + + 2 neg", postfix.get(9).getAction());
+        assertEquals("1 2 + 2 neg +", postfix.get(9).getValue());
+
+        List<SdtEvaluator.Step> prefix = calculator.evaluate("1 + 2 + -2", SdtEvaluator.OutputType.PREFIX, 20).getSteps();
+        assertEquals("E.val = 1 + 2", prefix.get(5).getAction());
+        assertEquals("+ 1 2", prefix.get(5).getValue());
+        assertEquals("E.val = + 1 2 + neg 2", prefix.get(9).getAction());
+        assertEquals("+ + 1 2 neg 2", prefix.get(9).getValue());
+    }
+
+    @Test
+    public void testSlotReadTwice() {
+        SdtEvaluator square = SdtEvaluator.compile("S -> num { S.val = num.lexval * num.lexval }");
+        SdtEvaluator.Evaluation postfix = square.evaluate("3", SdtEvaluator.OutputType.POSTFIX, 10);
+        assertEquals("3 3 *", postfix.getOutput());
+        assertEquals("S.val = 3 * 3", postfix.getSteps().get(0).getAction());
+        assertEquals("* 3 3", square.evaluate("3", SdtEvaluator.OutputType.PREFIX, 10).getOutput());
+        assertEquals("9", square.evaluate("3", SdtEvaluator.OutputType.VALUE, 10).getOutput());
+    }
+
+    @Test
+    public void testRulesDerivedForOperators() {
+        SdtEvaluator plain = SdtEvaluator.compile("E → E + T\nE → T\nT → T * F\nT → F\nF → - F\nF → digit");
+        SdtEvaluator.Evaluation evaluation = plain.evaluate("3 * 4 + -5", SdtEvaluator.OutputType.VALUE, 20);
+        assertEquals("7", evaluation.getOutput());
+        assertEquals("E.val = 12 + -5", evaluation.getSteps().get(evaluation.getSteps().size() - 1).getAction());
+        assertEquals("3 4 * 5 neg +", plain.evaluate("3 * 4 + -5", SdtEvaluator.OutputType.POSTFIX, 0).getOutput());
+
+        SdtEvaluator.Evaluation repeated = SdtEvaluator.compile("S → E\nE → E - E1\nE → E1\nE1 → num")
+                .evaluate("9 - 4", SdtEvaluator.OutputType.VALUE, 10);
+        assertEquals("5", repeated.getOutput());
+    }
+
+    @Test
+    public void testSyntaxError() {
+        SdtEvaluator.Evaluation evaluation = calculator.evaluate("3 + * 4", SdtEvaluator.OutputType.VALUE, 10);
+        assertFalse(evaluation.isSuccess());
+        assertEquals("Syntax error at line 1, column 5: unexpected '*' (expected -, (, num, id)", evaluation.getError());
+    }
+
+    @Test
+    public void testSlrConflicts() {
+        CompiledGrammar grammar = GrammarCompiler.compile("E -> E + E | num", GrammarCompiler.SymbolMode.WHITESPACE);
+        SLRTable table = new SLRTable(new FirstFollowAnalysis(grammar));
+        assertFalse(table.isSLR());
+        assertEquals(1, table.getConflicts().size());
+        assertEquals(SLRTable.Conflict.SHIFT_REDUCE, table.getConflicts().get(0).getType());
+        assertEquals("+", grammar.name(table.getConflicts().get(0).getTerminal()));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> SdtEvaluator.compile(
+                "E -> E + E { E.val = E1.val + E2.val }\nE -> num { E.val = num.lexval }"));
+        assertTrue(e.getMessage().contains("shift/reduce conflict"), e.getMessage());
+    }
+}
@@ -0,0 +1,76 @@
+package com.compiler.learning.semantic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SymbolTableTest {
+
+    private static final String PROGRAM = String.join("\n",
+            "char c; int x; double d;",
+            "int f(int a, char b) {",
+            " int x; { double y; char z; } { int w; }",
+            "}",
+            "int g;");
+
+    @Test
+    public void testShadowingIsUndoneOnExit() {
+        SymbolTable table = new SymbolTable();
+        SymbolTable.Symbol outer = table.declare("x", Type.INT, 1, 1);
+        table.enterScope();
+        table.declare("x", Type.FLOAT, 2, 1);
+        assertEquals(Type.FLOAT, table.lookup("x").getType());
+        assertEquals(1, table.lookup("x").getDepth());
+        assertTrue(table.exitScope());
+        assertSame(outer, table.lookup("x"));
+        assertNull(table.lookup("y"));
+        assertFalse(table.exitScope());
+    }
+
+    @Test
+    public void testOffsetsAreAlignedToWidth() {
+        SymbolTable table = new ScopeBuilder().build(PROGRAM).getTable();
+        assertEquals(List.of(
+                "c char global 0", "x int global 4", "d double global 8", "f int global -1",
+                "a int f 0", "b char f 4", "x int f 8", "y double f/block1 16", "z char f/block1 24",
+                "w int f/block2 12", "g int global 16"),
+                table.allSymbols().stream()
+                        .map(s -> s.getName() + " " + s.getType() + " " + s.getScope().getName() + " " + s.getOffset())
+                        .toList());
+    }
+
+    @Test
+    public void testSiblingBlocksShareTheFrame() {
+        List<SymbolTable.Scope> scopes = new ScopeBuilder().build(PROGRAM).getTable().scopes();
+        assertEquals(List.of("global 20", "f 25", "f/block1 25", "f/block2 16"),
+                scopes.stream().map(s -> s.getName() + " " + s.getSize()).toList());
+        assertTrue(scopes.get(1).isFrame());
+        assertFalse(scopes.get(2).isFrame());
+    }
+
+    @Test
+    public void testFunctionsAndParameters() {
+        SymbolTable table = new ScopeBuilder().build(PROGRAM).getTable();
+        SymbolTable.Symbol f = table.allSymbols().get(3);
+        assertEquals(SymbolTable.Kind.FUNCTION, f.getKind());
+        assertEquals("(int, char)", f.getSignature());
+        assertEquals(0, f.getWidth());
+        SymbolTable.Symbol a = table.allSymbols().get(4);
+        assertEquals(SymbolTable.Kind.PARAMETER, a.getKind());
+        assertEquals(2, a.getLine());
+        assertEquals(11, a.getColumn());
+    }
+
+    @Test
+    public void testScopeDiagnostics() {
+        ScopeBuilder builder = new ScopeBuilder().build("int x; int x; }");
+        assertEquals("[1:12: 'x' is already declared in this scope (line 1), 1:15: Unmatched '}']",
+                builder.getDiagnostics().toString());
+    }
+}
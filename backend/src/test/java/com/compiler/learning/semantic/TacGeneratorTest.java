@@ -0,0 +1,91 @@
+package com.compiler.learning.semantic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TacGeneratorTest {
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private static TacGenerator generate(String declarations, String source) {
+        return new TacGenerator().declare(declarations).generate(source);
+    }
+
+    @Test
+    public void testAssignmentWritesTheVariableDirectly() {
+        TacGenerator generator = generate("int x; int y;", "x = y + 5;");
+        assertEquals(lines("    x = y + 5"), generator.getCode().render(100));
+        assertEquals(0, generator.getCode().temporaryCount() - 1, "only the retargeted temporary is allocated");
+    }
+
+    @Test
+    public void testCoercionsBecomeConversions() {
+        TacGenerator generator = generate("int x; float y;", "y = x + 5.5;");
+        assertEquals(lines("    t1 = int_to_float(x)", "    y = t1 + 5.5"), generator.getCode().render(100));
+        assertEquals(1, generator.getConversions());
+        TacGenerator.Coercion coercion = generator.getCoercions().get(0);
+        assertEquals("x", coercion.getExpression());
+        assertEquals(Type.INT, coercion.getFrom());
+        assertEquals(Type.FLOAT, coercion.getTo());
+        assertEquals(1, coercion.getLine());
+    }
+
+    @Test
+    public void testShadowingDeclarationsGetDistinctNames() {
+        TacGenerator generator = generate("int x;", "{ int x = 3; x = x + 1; } x = 2;");
+        assertEquals(lines("    x.2 = 3", "    x.2 = x.2 + 1", "    x = 2"), generator.getCode().render(100));
+    }
+
+    @Test
+    public void testIfElseAndWhile() {
+        String expected = lines(
+                "    t1 = i > 0",
+                "    ifFalse t1 goto L1",
+                "    s = 1",
+                "    goto L2",
+                "L1:",
+                "L3:",
+                "    t2 = s < 10",
+                "    ifFalse t2 goto L4",
+                "    s = s + 1",
+                "    goto L3",
+                "L4:",
+                "L2:",
+                "    return s");
+        TacGenerator generator = generate("int i; int s;", "if (i > 0) s = 1; else while (s < 10) s = s + 1; return s;");
+        assertEquals(expected, generator.getCode().render(100));
+        assertEquals(5, generator.getStatements());
+    }
+
+    @Test
+    public void testUndeclaredNamesAreReportedAndStillTranslated() {
+        TacGenerator generator = generate("", "z = 3;");
+        List<Diagnostic> diagnostics = generator.getDiagnostics();
+        assertEquals(1, diagnostics.size());
+        assertTrue(diagnostics.get(0).getMessage().contains("'z'"), diagnostics.toString());
+        assertEquals(lines("    z = 3"), generator.getCode().render(100));
+    }
+
+    @Test
+    public void testRenderStopsAtMaxLines() {
+        TacGenerator generator = generate("int x;", "x = 1; x = 2; x = 3;");
+        assertEquals(lines("    x = 1", "... 2 more instructions"), generator.getCode().render(1));
+    }
+
+    @Test
+    public void testLongProgramsKeepOnlyOneStatementOfTree() {
+        StringBuilder source = new StringBuilder("int s = 0;\n");
+        for (int i = 0; i < 20000; i++) source.append("s = s + ").append(i).append(";\n");
+        TacGenerator generator = generate("", source.toString());
+
+        assertEquals(20001, generator.getCode().size());
+        assertTrue(generator.getChecker().getAst().peak() < 10, "tree nodes are dropped after each statement");
+        assertTrue(generator.getChecker().getTokens().peakWindow() < 5000, "tokens are dropped after each statement");
+    }
+}
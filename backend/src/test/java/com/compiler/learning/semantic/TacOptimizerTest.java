@@ -0,0 +1,142 @@
+package com.compiler.learning.semantic;
+
+import org.junit.jupiter.api.Test;
+
+import static com.compiler.learning.semantic.ThreeAddressCode.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TacOptimizerTest {
+
+    private static String optimize(String declarations, String source) {
+        TacGenerator generator = new TacGenerator().declare(declarations).generate(source);
+        assertEquals(0, generator.getDiagnostics().size(), generator.getDiagnostics().toString());
+        return new TacOptimizer().optimize(generator.getCode()).render(1000);
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    @Test
+    public void testConstantFolding() {
+        assertEquals(lines("    x = 14"), optimize("int x;", "x = 2 * 3 + 8;"));
+        assertEquals(lines("    a = 65", "    f = 65.0", "    d = 130.0"),
+                optimize("", "int a = 'A'; float f = a; double d = f * 2;"));
+        assertEquals(lines("    b = true"), optimize("boolean b;", "b = 1 < 2 && !false;"));
+    }
+
+    @Test
+    public void testIntegerFoldingWrapsAround() {
+        assertEquals(lines("    x = 1"), optimize("int x;", "x = 2147483647 * 2147483647;"));
+        assertEquals(lines("    x = -2147483648"), optimize("int x;", "x = 2147483647 + 1;"));
+        assertEquals(lines("    x = -2"), optimize("int x;", "x = 7 / -3;"));
+        assertEquals(lines("    x = 1"), optimize("int x;", "x = 7 % 3;"));
+    }
+
+    @Test
+    public void testCharFoldingNarrowsToCharRange() {
+        ThreeAddressCode code = new ThreeAddressCode();
+        int c = code.newVariable("c");
+        int t1 = code.newTemporary();
+        code.emit(ADD, Type.CHAR, code.constant(Type.CHAR, 65535), code.constant(Type.CHAR, 1), t1);
+        code.emit(COPY, Type.CHAR, t1, -1, c);
+
+        assertEquals(lines("    c = 0"), new TacOptimizer().optimize(code).render(100));
+    }
+
+    @Test
+    public void testDivisionByZeroIsLeftForRunTime() {
+        assertEquals(lines("    x = 7 / 0"), optimize("int x;", "x = 7 / 0;"));
+    }
+
+    @Test
+    public void testCommonSubexpressions() {
+        assertEquals(lines("    c = a + b", "    d = c"), optimize("int a; int b; int c; int d;", "c = a + b; d = a + b;"));
+        assertEquals(lines("    c = a + b", "    d = c"), optimize("int a; int b; int c; int d;", "c = a + b; d = b + a;"));
+        assertEquals(lines("    t1 = y * 2", "    x = t1 + t1"), optimize("int x; int y;", "x = y * 2 + y * 2;"));
+    }
+
+    @Test
+    public void testReassignmentInvalidatesHolders() {
+        // a changed, so a + b must be computed again
+        assertEquals(lines("    c = a + b", "    a = 1", "    d = 1 + b"),
+                optimize("int a; int b; int c; int d;", "c = a + b; a = 1; d = a + b;"));
+        // c no longer holds a + b after c = 0, so d must not become a copy of c
+        assertEquals(lines("    c = a + b", "    e = c", "    c = 0", "    d = a + b"),
+                optimize("int a; int b; int c; int d; int e;", "c = a + b; e = a + b; c = 0; d = a + b;"));
+    }
+
+    @Test
+    public void testCopyPropagation() {
+        assertEquals(lines("    b = a", "    c = a + 1"), optimize("int a; int b; int c;", "b = a; c = b + 1;"));
+        assertEquals(lines("    x = 2", "    y = 2"), optimize("int x; int y;", "x = 1; x = 2; y = x;"));
+    }
+
+    @Test
+    public void testAlgebraicIdentities() {
+        assertEquals(lines("    f = int_to_float(x)"), optimize("int x; float f;", "f = x * 1 + 0;"));
+    }
+
+    @Test
+    public void testBranchFolding() {
+        assertEquals(lines("    x = 1"), optimize("int x;", "if (1 < 2) x = 1; else x = 2;"));
+        assertEquals(lines("    x = 4"), optimize("int x;", "while (false) { x = 3; } x = 4;"));
+    }
+
+    @Test
+    public void testUnreachableLoopIsRemoved() {
+        // The inner loop jumps to its own label, but nothing reaches it
+        assertEquals(lines("    x = 2"), optimize("int x;", "if (false) { while (true) x = 1; } x = 2;"));
+    }
+
+    @Test
+    public void testLoopsAreKept() {
+        String expected = lines(
+                "    s = 0",
+                "    i = 0",
+                "L1:",
+                "    t1 = i < n",
+                "    ifFalse t1 goto L2",
+                "    s = s + i",
+                "    i = i + 1",
+                "    goto L1",
+                "L2:",
+                "    return s");
+        assertEquals(expected, optimize("int i; int n; int s;",
+                "s = 0; i = 0; while (i < n) { s = s + i; i = i + 1; } return s;"));
+    }
+
+    @Test
+    public void testStoresAreOnlyDeadWithinTheirBlock() {
+        // x = 1 is read on the path through the loop condition, so it stays
+        String expected = lines(
+                "    x = 1",
+                "L1:",
+                "    t1 = x < n",
+                "    ifFalse t1 goto L2",
+                "    x = x + 1",
+                "    goto L1",
+                "L2:",
+                "    x = 0");
+        assertEquals(expected, optimize("int x; int n;", "x = 1; while (x < n) x = x + 1; x = 0;"));
+    }
+
+    @Test
+    public void testDeadTemporaryChains() {
+        ThreeAddressCode code = new ThreeAddressCode();
+        int a = code.newVariable("a");
+        int b = code.newVariable("b");
+        int t1 = code.newTemporary();
+        int t2 = code.newTemporary();
+        int t3 = code.newTemporary();
+        code.emit(ADD, Type.INT, a, b, t1);
+        code.emit(MUL, Type.INT, t1, code.constant(Type.INT, 2), t2);
+        code.emit(NEG, Type.INT, t2, -1, t3);
+        code.emit(COPY, Type.INT, code.constant(Type.INT, 1), -1, a);
+
+        TacOptimizer optimizer = new TacOptimizer();
+        assertEquals(lines("    a = 1"), optimizer.optimize(code).render(100));
+        assertEquals(3, optimizer.getDead());
+        assertEquals(4, code.size(), "the input program is not modified");
+    }
+}
@@ -0,0 +1,84 @@
+package com.compiler.learning.semantic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TypeCheckerTest {
+
+    private static String diagnostics(TypeChecker checker) {
+        return checker.getDiagnostics().toString();
+    }
+
+    @Test
+    public void testInfersTypesAndInsertsCoercions() {
+        TypeChecker checker = new TypeChecker();
+        checker.declarations("int i; float f; char c;");
+        TypedAst ast = checker.check("f = i + c * 2");
+        assertEquals(List.of(), checker.getDiagnostics());
+        assertEquals(String.join("\n",
+                "= : float",
+                "├── f : float",
+                "└── (float) : float",
+                "    └── + : int",
+                "        ├── i : int",
+                "        └── * : int",
+                "            ├── (int) : int",
+                "            │   └── c : char",
+                "            └── 2 : int",
+                ""), ast.render(ast.root(), 50));
+    }
+
+    @Test
+    public void testWideningOrder() {
+        TypeChecker checker = new TypeChecker();
+        checker.declarations("char c; int i; float f; double d;");
+        assertEquals(Type.INT, type(checker, "c + c"));
+        assertEquals(Type.FLOAT, type(checker, "i * f"));
+        assertEquals(Type.DOUBLE, type(checker, "f - d"));
+        assertEquals(Type.BOOLEAN, type(checker, "i < f && c == 'a'"));
+        assertTrue(checker.getDiagnostics().isEmpty());
+    }
+
+    private static Type type(TypeChecker checker, String expression) {
+        TypedAst ast = checker.check(expression);
+        return ast.type(ast.root());
+    }
+
+    @Test
+    public void testDiagnosticsHavePositions() {
+        TypeChecker checker = new TypeChecker();
+        checker.declarations("int i; boolean b;");
+        checker.check("i = 1.5");
+        checker.check("b + 1");
+        checker.check("i = y");
+        assertEquals("[1:3: Cannot assign float to int variable 'i' (possible loss of precision),"
+                + " 1:3: '+' cannot be applied to boolean and int, 1:5: 'y' is not declared]", diagnostics(checker));
+    }
+
+    @Test
+    public void testErrorTypeReportsOnce() {
+        TypeChecker checker = new TypeChecker();
+        checker.declarations("int i; boolean b;");
+        TypedAst ast = checker.check("(b + 1) * i - 2");
+        assertEquals(Type.ERROR, ast.type(ast.root()));
+        assertEquals(1, checker.getDiagnostics().size());
+    }
+
+    @Test
+    public void testInitializersAreCheckedOnTheirLine() {
+        TypeChecker checker = new TypeChecker();
+        checker.declarations("int i;\nfloat f = 'a';\nint j = 2.0;");
+        assertEquals("[3:7: Cannot assign float to int variable 'j' (possible loss of precision)]", diagnostics(checker));
+    }
+
+    @Test
+    public void testUnbalancedBracesInDeclarations() {
+        TypeChecker checker = new TypeChecker();
+        checker.declarations("int i;\n}\n{ float f;");
+        assertEquals("[2:1: Unmatched '}', 3:11: Missing '}' at the end of the input]", diagnostics(checker));
+    }
+}
@@ -0,0 +1,24 @@
+package com.compiler.learning.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GrammarConversionServiceTest {
+
+    private final GrammarConversionService service = new GrammarConversionService();
+
+    @Test
+    public void testRepeatedLhsLinesAreMerged() {
+        assertEquals("E -> TE'\nT -> id\nE' -> +TE' | -TE' | ε",
+                service.convertLRGtoRRG("E → E+T | T\nE -> E-T\nT → id").transformedGrammar);
+    }
+
+    @Test
+    public void testEpsilonSpellings() {
+        for (String epsilon : new String[] {"ε", "epsilon", "#", "∈"}) {
+            assertEquals("A -> A'\nA' -> bA' | ε", service.convertLRGtoRRG("A -> Ab | " + epsilon).transformedGrammar,
+                    epsilon);
+        }
+    }
+}
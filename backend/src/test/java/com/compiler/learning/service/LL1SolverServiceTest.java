@@ -0,0 +1,109 @@
+package com.compiler.learning.service;
+
+import com.compiler.learning.dto.BatchParseResponse;
+import com.compiler.learning.dto.ParseSimulationResponse;
+import com.compiler.learning.dto.ParseTableResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LL1SolverServiceTest {
+
+    private static final String GRAMMAR =
+        "E -> T E'\nE' -> + T E' | ε\nT -> F T'\nT' -> * F T' | ε\nF -> ( E ) | id";
+
+    private final LL1SolverService service = new LL1SolverService(16, 1L << 24);
+
+    @Test
+    public void testParseTable() {
+        ParseTableResponse response = service.generateParseTable(GRAMMAR);
+        assertTrue(response.isLL1());
+        assertEquals(List.of("(", ")", "*", "+", "id", "$"), response.getTerminals());
+        assertEquals(List.of("E", "E'", "T", "T'", "F"), response.getNonTerminals());
+        assertEquals("E' → ε", response.getParseTable().get("E'").get(")"));
+        assertEquals("F → id", response.getParseTable().get("F").get("id"));
+        assertNull(response.getParseTable().get("E").get("+"));
+        assertEquals(List.of("+", "*", ")", "$"), response.getFollowSets().get("F"));
+    }
+
+    @Test
+    public void testParseTableReportsConflicts() {
+        ParseTableResponse response = service.generateParseTable("S -> a A | a B\nA -> b\nB -> c");
+        assertFalse(response.isLL1());
+        assertEquals(1, response.getConflicts().size());
+        assertEquals("FIRST/FIRST", response.getConflicts().get(0).getConflictType());
+        assertEquals("S", response.getConflicts().get(0).getNonTerminal());
+        assertEquals("a", response.getConflicts().get(0).getTerminal());
+    }
+
+    @Test
+    public void testCachedParseTableIsNotShared() {
+        ParseTableResponse first = service.generateParseTable(GRAMMAR);
+        assertThrows(UnsupportedOperationException.class, () -> first.getParseTable().get("E").put("+", "E → ε"));
+        assertThrows(UnsupportedOperationException.class, () -> first.getFirstSets().get("E").add("+"));
+        assertThrows(UnsupportedOperationException.class, () -> first.getTerminals().clear());
+        first.setMessage("changed");
+
+        ParseTableResponse second = service.generateParseTable(GRAMMAR);
+        assertNotSame(first, second);
+        assertEquals("✅ Grammar is LL(1)", second.getMessage());
+        assertThrows(UnsupportedOperationException.class,
+                () -> service.getArtifacts(GRAMMAR).getFollowSets().get("F").clear());
+    }
+
+    @Test
+    public void testRunParser() {
+        ParseSimulationResponse accepted = service.runParser(GRAMMAR, "id+id*id");
+        assertTrue(accepted.isAccepted());
+        assertEquals(17, accepted.getSteps().size());
+
+        ParseSimulationResponse rejected = service.runParser(GRAMMAR, "id+*id");
+        assertFalse(rejected.isAccepted());
+    }
+
+    @Test
+    public void testLongDerivationFallsBackToPairs() {
+        ParseSimulationResponse small = service.runParser(GRAMMAR, "id+id*id");
+        assertNull(small.getDerivationSteps());
+
+        ParseSimulationResponse large = service.runParser(GRAMMAR, "id" + "+id".repeat(2000));
+        assertTrue(large.isAccepted());
+        assertTrue(large.getDerivation().endsWith(" more steps"));
+        assertTrue(large.getDerivation().length() < LL1SolverService.MAX_DERIVATION_CHARS + 100);
+        assertEquals(8005, large.getDerivationSteps().size());
+        assertEquals(8, large.getProductions().size());
+        assertEquals("id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+id+…",
+                large.getSteps().get(0).getInput());
+    }
+
+    @Test
+    public void testRecognizeAll() {
+        BatchParseResponse response = service.recognizeAll(GRAMMAR, List.of("id+id", "(id", "id id", ""));
+        assertTrue(response.isSuccess());
+        assertEquals(4, response.getTotal());
+        assertEquals(1, response.getAccepted());
+
+        List<BatchParseResponse.InputResult> results = response.getResults();
+        assertTrue(results.get(0).isAccepted());
+        assertNull(results.get(0).getErrorPosition());
+
+        assertFalse(results.get(1).isAccepted());
+        assertEquals(Integer.valueOf(2), results.get(1).getErrorPosition());
+        assertEquals("$", results.get(1).getErrorToken());
+        assertEquals(List.of(")"), results.get(1).getExpected());
+
+        assertEquals(Integer.valueOf(1), results.get(2).getErrorPosition());
+        assertEquals("id", results.get(2).getErrorToken());
+        assertEquals(List.of("+", "*", ")", "$"), results.get(2).getExpected());
+
+        assertEquals(Integer.valueOf(0), results.get(3).getErrorPosition());
+        assertEquals(List.of("(", "id"), results.get(3).getExpected());
+    }
+}
@@ -0,0 +1,31 @@
+package com.compiler.learning.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LeftFactoringServiceTest {
+
+    private final LeftFactoringService service = new LeftFactoringService();
+
+    @Test
+    public void testDanglingElse() {
+        LeftFactoringService.FactoringResult result = service.performLeftFactoring("S → iEtS | iEtSeS | a\nE → b");
+        assertTrue(result.isHadLeftFactoring());
+        assertEquals("S -> iEtSS' | a\nS' -> ε | eS\nE -> b", result.getTransformedGrammar());
+    }
+
+    @Test
+    public void testUnfactoredAlternativesAreKept() {
+        // Repeated LHS lines are merged and epsilon is normalized before grouping
+        assertEquals("S -> iEtSS' | a | ε\nS' -> ε | eS\nE -> b",
+                service.performLeftFactoring("S → iEtS | iEtSeS | a\nS -> epsilon\nE -> b").getTransformedGrammar());
+    }
+
+    @Test
+    public void testNothingToFactor() {
+        assertFalse(service.performLeftFactoring("S -> a | b").isHadLeftFactoring());
+    }
+}
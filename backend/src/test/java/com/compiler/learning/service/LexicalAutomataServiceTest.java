@@ -0,0 +1,33 @@
+package com.compiler.learning.service;
+
+import com.compiler.learning.dto.AutomatonResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LexicalAutomataServiceTest {
+
+    private final LexicalAutomataService service = new LexicalAutomataService();
+
+    @Test
+    public void testSubsetDfaReportsTableSize() {
+        AutomatonResponse response = service.regexToDfa("(a|b)*abb", null, false, "aabb");
+        assertTrue(response.isSuccess());
+        assertTrue(response.getInputAccepted());
+        assertNotNull(response.getTableSize());
+        assertEquals(5, response.getTableSize().getStates());
+    }
+
+    @Test
+    public void testLazyDfaReportsTheTableBuiltSoFar() {
+        AutomatonResponse response = service.regexToDfa("(a|b)*a(a|b){10}", null, true, "ab");
+        assertTrue(response.isSuccess());
+        assertEquals(response.getStateCount(), response.getTableSize().getStates());
+        assertTrue(response.getStateCount() < 10);
+
+        assertNull(service.regexToDfa("(a|b)*a(a|b){10}", 100, false, null).getTableSize());
+    }
+}
@@ -0,0 +1,140 @@
+package com.compiler.learning.service;
+
+import com.compiler.learning.dto.SDTSolverRequest;
+import com.compiler.learning.dto.SDTSolverResponse;
+import com.compiler.learning.dto.SDTSubmission;
+import com.compiler.learning.dto.SDTValidationResponse;
+import com.compiler.learning.dto.SemanticAnalysisRequest;
+import com.compiler.learning.dto.SemanticAnalysisResponse;
+import com.compiler.learning.dto.SymbolTableSubmission;
+import com.compiler.learning.dto.SymbolTableValidationResponse;
+import com.compiler.learning.dto.TypeCheckingSubmission;
+import com.compiler.learning.dto.TypeCheckingValidationResponse;
+import com.compiler.learning.entity.SemanticProblem;
+import com.compiler.learning.repository.SemanticProblemRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SemanticAnalysisServiceTest {
+
+    private final SemanticProblem problem = new SemanticProblem();
+    private final SemanticAnalysisService service = new SemanticAnalysisService(repository(problem));
+
+    /** Repository that finds only the given problem, whatever the topic and number. */
+    private static SemanticProblemRepository repository(SemanticProblem problem) {
+        return (SemanticProblemRepository) Proxy.newProxyInstance(SemanticProblemRepository.class.getClassLoader(),
+                new Class<?>[] {SemanticProblemRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByTopicAndProblemNumber", "findById" -> Optional.of(problem);
+                    case "findAll" -> List.of(problem);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private void problem(String topic, String expectedOutput, String solutionSteps) {
+        problem.setId(1L);
+        problem.setTopic(topic);
+        problem.setProblemNumber(1);
+        problem.setExpectedOutput(expectedOutput);
+        problem.setSolutionSteps(solutionSteps);
+        problem.setLearningOutcome("Done.");
+    }
+
+    @Test
+    public void testAnalyzeCodePipeline() {
+        SemanticAnalysisResponse response = service.analyzeCode(
+                new SemanticAnalysisRequest("int x = 2 * 3;\nfloat y;\ny = x + 1;\nz = 1;", "full"));
+
+        assertFalse(response.isSuccess());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(4, response.getErrors().get(0).getLine());
+        assertEquals("'z' is not declared", response.getErrors().get(0).getMessage());
+
+        assertEquals(List.of("x int global 0", "y float global 4"), response.getSymbolTable().stream()
+                .map(e -> e.getName() + " " + e.getType() + " " + e.getScope() + " " + e.getOffset())
+                .toList());
+        assertEquals(1, response.getTypes().size());
+        assertEquals("x + 1", response.getTypes().get(0).getExpression());
+        assertEquals("int → float", response.getTypes().get(0).getCoercion());
+        assertEquals("    x = 6\n    y = 7.0\n    z = 1\n", response.getGeneratedCode());
+    }
+
+    @Test
+    public void testPhaseCounts() {
+        SemanticAnalysisResponse response = service.analyzeCode(
+                new SemanticAnalysisRequest("int x = 2 * 3;\nfloat y;\ny = x + 1;", "full"));
+        assertTrue(response.isSuccess());
+        assertEquals(List.of("lexer", "parser + type checker", "IR generation", "optimizer"),
+                response.getPhases().stream().map(SemanticAnalysisResponse.PhaseStats::getPhase).toList());
+        Map<String, Long> check = response.getPhases().get(1).getCounts();
+        assertEquals(2L, check.get("statements"));  // a declaration without initializer emits nothing
+        assertEquals(2L, check.get("symbols"));
+        assertEquals(0L, check.get("errors"));
+        assertEquals(3L, response.getPhases().get(3).getCounts().get("folded"));
+    }
+
+    @Test
+    public void testEmptySource() {
+        SemanticAnalysisResponse response = service.analyzeCode(new SemanticAnalysisRequest(null, "full"));
+        assertTrue(response.isSuccess());
+        assertTrue(response.getSymbolTable().isEmpty());
+        assertEquals("", response.getGeneratedCode());
+    }
+
+    @Test
+    public void testSolveSdtWithThePageDefaultGrammar() {
+        SDTSolverResponse response = service.solveSDT(new SDTSolverRequest(
+                "E → E + T\nE → T\nT → T * F\nT → F\nF → digit", "3 * 4 + 5", "value"));
+        assertTrue(response.isSuccess(), response.getMessage());
+        assertEquals("17", response.getSdtResult().getOutput());
+    }
+
+    @Test
+    public void testValidateTypeChecking() {
+        problem("type-checking", "{\"x + y\": \"float\", \"i < j\": \"boolean\"}", null);
+        service.preloadExpectedAnswers();
+        TypeCheckingValidationResponse response = service.validateTypeChecking(
+                new TypeCheckingSubmission("type-checking", 1, Map.of("x + y", "real", "i < j", "int")));
+        assertEquals(1, response.getCorrectTypes());
+        assertTrue(response.getTypeResults().get("x + y").isCorrect());
+        assertEquals("boolean", response.getTypeResults().get("i < j").getExpectedType());
+
+        // An edited problem is graded against its new answer
+        problem.setExpectedOutput("{\"x + y\": \"double\"}");
+        response = service.validateTypeChecking(
+                new TypeCheckingSubmission("type-checking", 1, Map.of("x + y", "double")));
+        assertTrue(response.isAllCorrect());
+        assertEquals(1, response.getTotalTypes());
+    }
+
+    @Test
+    public void testValidateSymbolTable() {
+        problem("symbol-table", "[{\"name\": \"x\", \"type\": \"int\", \"scope\": \"global\", \"offset\": \"0\"},"
+                + " {\"name\": \"y\", \"type\": \"float\", \"scope\": \"global\", \"offset\": \"4\"}]", null);
+        SymbolTableValidationResponse response = service.validateSymbolTable(new SymbolTableSubmission("symbol-table", 1,
+                List.of(new SymbolTableSubmission.SymbolTableEntry("X", "INT", "Global", "0"))));
+        assertEquals(1, response.getCorrectEntries());
+        assertEquals(2, response.getTotalEntries());
+        assertEquals("This entry is missing from your symbol table", response.getEntryResults().get(1).getHint());
+        assertEquals("float", response.getEntryResults().get(1).getExpectedType());
+    }
+
+    @Test
+    public void testValidateSdt() {
+        problem("sdt", null, "[{\"production\": \"F -> num\", \"value\": \"3\"},"
+                + " {\"production\": \"T -> F\", \"value\": \"3\"}]");
+        SDTValidationResponse response = service.validateSDT(new SDTSubmission("sdt", 1, List.of(
+                new SDTSubmission.SDTStep(1, "F → num", "3", ""),
+                new SDTSubmission.SDTStep(2, "T -> F", "4", ""))));
+        assertEquals(1, response.getCorrectSteps());
+        assertEquals("Check the attribute value computation", response.getStepResults().get(1).getHint());
+        assertEquals("T -> F", response.getStepResults().get(1).getExpectedProduction());
+    }
+}
@@ -364,7 +364,7 @@ function SymbolTableSolver({ onAnalyze, onClear }) {
 
 // Attributes Solver
 function AttributesSolver({ onAnalyze, onClear }) {
-  const [grammar, setGrammar] = useState('D → T L { L.type = T.type }\nT → int { T.type = integer }\nL → L, id { addtype(id, L.type) }');
+  const [grammar, setGrammar] = useState('D → T L { L.type = T.type }\nT → int { T.type = integer }\nT → float { T.type = real }\nL → L , id { L1.type = L.type ; addtype(id.lexval, L.type) }\nL → id { addtype(id.lexval, L.type) }');
   const [input, setInput] = useState('int x, y, z');
 
   return (